@@ -0,0 +1,103 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Microbenchmark JMH del percorso lato client di DBOperation, eseguiti
+ * sul driver JDBC stub (StubConnection) senza accesso al DB:
+ *
+ * - generazione delle righe (concatenazione delle stringhe e
+ *   getCurrentDate per ogni riga, oppure BufferedRowGenerator);
+ *
+ * - bind dei parametri della INSERT (setInt/setString/setDate/addBatch);
+ *
+ * - ciclo completo di InsertRangeIntoTable e SelectRangeFromTableTimeReused
+ *   (bind, misura dei tempi e decodifica del ResultSet).
+ *
+ * I risultati sono in ns per riga; con il profiler gc (-prof gc, default
+ * del profilo Maven jmh) viene riportato anche il rate di allocazione.
+ * Il driver stub (StubConnection) e' composto da classi concrete che non
+ * allocano e il BenchResult dei benchmark sul ciclo completo e' unico e
+ * azzerato ad ogni invocazione, quindi le allocazioni misurate sono solo
+ * quelle del percorso lato client. jdbcCallBaseline misura il costo di
+ * una singola chiamata allo stub.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClientPathBenchmark
+{
+	// righe per invocazione dei benchmark sul ciclo completo di DBOperation
+	private static final int ROWS = 1000;
+
+	private final DBOperation mDBOps = new DBOperation();
+	private Connection mConn;
+	private PreparedStatement mStatement;
+	private final RowGenerator mRows = RowGenerator.Type.BUFFERED.create();
+	// risultato riutilizzato da insertRange e selectRangeReused (azzerato ad ogni invocazione)
+	private final BenchResult mResult = new BenchResult();
+	private int mi_id = 0;
+
+	@Setup
+	public void setup() throws SQLException {
+		mConn = new StubConnection(1);
+		mStatement = mConn.prepareStatement("insert into TEST_TABLE (id, name, surname, created_date) values (?, ?, ?, ?)");
+	}
+
+	@Benchmark
+	public void rowGeneration(Blackhole aBlackhole) {
+		int i = ++mi_id;
+		aBlackhole.consume("test_name" + i);
+		aBlackhole.consume("test_surname" + i);
+		aBlackhole.consume(DBOperation.getCurrentDate());
+	}
+
+	@Benchmark
+	public void rowGenerationBuffered(Blackhole aBlackhole) {
+		int i = ++mi_id;
+		aBlackhole.consume(mRows.name(i));
+		aBlackhole.consume(mRows.surname(i));
+		aBlackhole.consume(mRows.date());
+	}
+
+	@Benchmark
+	public void jdbcCallBaseline() throws SQLException {
+		mStatement.setInt(1, ++mi_id);
+	}
+
+	@Benchmark
+	public void parameterBinding() throws SQLException {
+		int i = ++mi_id;
+		mStatement.setInt(1, i);
+		mStatement.setString(2, "test_name" + i);
+		mStatement.setString(3, "test_surname" + i);
+		mStatement.setDate(4, DBOperation.getCurrentDate());
+		mStatement.addBatch();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public BenchResult insertRange() throws SQLException {
+		return mDBOps.InsertRangeIntoTable(mConn, "TEST_TABLE", ROWS, 100, 1, ROWS, false, mResult);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public BenchResult selectRangeReused() throws SQLException {
+		return mDBOps.SelectRangeFromTableTimeReused(mConn, "TEST_TABLE", 1, ROWS, -1, mResult);
+	}
+}
@@ -0,0 +1,246 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * Connection "stub" per i microbenchmark JMH: insieme a
+ * StubPreparedStatement e StubResultSet implementa le interfacce JDBC
+ * con classi concrete che non eseguono I/O e non allocano, in modo che
+ * tempi e allocazioni misurati (-prof gc) siano solo quelli lato client
+ * dei metodi di DBOperation.
+ *
+ * <p>
+ * Ogni prepareStatement restituisce lo stesso StubPreparedStatement
+ * (close non ha effetto); il ResultSet restituisce ai_rows_per_query
+ * righe per ogni executeQuery. I metodi non usati dai benchmark non
+ * fanno nulla e restituiscono false, 0 oppure null.
+ *
+ */
+class StubConnection implements Connection
+{
+	private final StubPreparedStatement mStatement;
+	private boolean mb_autocommit = true;
+
+  /**
+   * @param ai_rows_per_query righe restituite da ogni executeQuery
+   */
+	StubConnection(int ai_rows_per_query) {
+		mStatement = new StubPreparedStatement(ai_rows_per_query);
+	}
+
+	public boolean isWrapperFor(Class<?> aValue) throws SQLException {
+		return false;
+	}
+
+	public <T> T unwrap(Class<T> aValue) throws SQLException {
+		return null;
+	}
+
+	public void abort(Executor aValue) throws SQLException {
+	}
+
+	public void clearWarnings() throws SQLException {
+	}
+
+	public void close() throws SQLException {
+	}
+
+	public void commit() throws SQLException {
+	}
+
+	public Array createArrayOf(String asTypeName, Object[] aValue) throws SQLException {
+		return null;
+	}
+
+	public Blob createBlob() throws SQLException {
+		return null;
+	}
+
+	public Clob createClob() throws SQLException {
+		return null;
+	}
+
+	public NClob createNClob() throws SQLException {
+		return null;
+	}
+
+	public SQLXML createSQLXML() throws SQLException {
+		return null;
+	}
+
+	public Statement createStatement() throws SQLException {
+		return null;
+	}
+
+	public Statement createStatement(int ai_arg0, int ai_value, int ai_arg2) throws SQLException {
+		return null;
+	}
+
+	public Statement createStatement(int ai_arg0, int ai_value) throws SQLException {
+		return null;
+	}
+
+	public Struct createStruct(String asTypeName, Object[] aValue) throws SQLException {
+		return null;
+	}
+
+	public boolean getAutoCommit() throws SQLException {
+		return mb_autocommit;
+	}
+
+	public String getCatalog() throws SQLException {
+		return null;
+	}
+
+	public Properties getClientInfo() throws SQLException {
+		return null;
+	}
+
+	public String getClientInfo(String asValue) throws SQLException {
+		return null;
+	}
+
+	public int getHoldability() throws SQLException {
+		return 0;
+	}
+
+	public DatabaseMetaData getMetaData() throws SQLException {
+		return null;
+	}
+
+	public int getNetworkTimeout() throws SQLException {
+		return 0;
+	}
+
+	public String getSchema() throws SQLException {
+		return null;
+	}
+
+	public int getTransactionIsolation() throws SQLException {
+		return 0;
+	}
+
+	public Map<String, Class<?>> getTypeMap() throws SQLException {
+		return null;
+	}
+
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+
+	public boolean isClosed() throws SQLException {
+		return false;
+	}
+
+	public boolean isReadOnly() throws SQLException {
+		return false;
+	}
+
+	public boolean isValid(int ai_value) throws SQLException {
+		return false;
+	}
+
+	public String nativeSQL(String asValue) throws SQLException {
+		return null;
+	}
+
+	public CallableStatement prepareCall(String asSql, int ai_value, int ai_arg2, int ai_arg3) throws SQLException {
+		return null;
+	}
+
+	public CallableStatement prepareCall(String asSql, int ai_value, int ai_arg2) throws SQLException {
+		return null;
+	}
+
+	public CallableStatement prepareCall(String asValue) throws SQLException {
+		return null;
+	}
+
+	public PreparedStatement prepareStatement(String asSql, int[] aValue) throws SQLException {
+		return mStatement;
+	}
+
+	public PreparedStatement prepareStatement(String asSql, String[] aValue) throws SQLException {
+		return mStatement;
+	}
+
+	public PreparedStatement prepareStatement(String asSql, int ai_value, int ai_arg2, int ai_arg3) throws SQLException {
+		return mStatement;
+	}
+
+	public PreparedStatement prepareStatement(String asSql, int ai_value, int ai_arg2) throws SQLException {
+		return mStatement;
+	}
+
+	public PreparedStatement prepareStatement(String asSql, int ai_value) throws SQLException {
+		return mStatement;
+	}
+
+	public PreparedStatement prepareStatement(String asValue) throws SQLException {
+		return mStatement;
+	}
+
+	public void releaseSavepoint(Savepoint aValue) throws SQLException {
+	}
+
+	public void rollback() throws SQLException {
+	}
+
+	public void rollback(Savepoint aValue) throws SQLException {
+	}
+
+	public void setAutoCommit(boolean abValue) throws SQLException {
+		mb_autocommit = abValue;
+	}
+
+	public void setCatalog(String asValue) throws SQLException {
+	}
+
+	public void setClientInfo(String asName, String asValue) {
+	}
+
+	public void setClientInfo(Properties aValue) {
+	}
+
+	public void setHoldability(int ai_value) throws SQLException {
+	}
+
+	public void setNetworkTimeout(Executor aArg0, int ai_value) throws SQLException {
+	}
+
+	public void setReadOnly(boolean abValue) throws SQLException {
+	}
+
+	public Savepoint setSavepoint() throws SQLException {
+		return null;
+	}
+
+	public Savepoint setSavepoint(String asValue) throws SQLException {
+		return null;
+	}
+
+	public void setSchema(String asValue) throws SQLException {
+	}
+
+	public void setTransactionIsolation(int ai_value) throws SQLException {
+	}
+
+	public void setTypeMap(Map<String, Class<?>> aValue) throws SQLException {
+	}
+}
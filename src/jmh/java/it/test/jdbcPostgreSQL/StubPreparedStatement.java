@@ -0,0 +1,430 @@
+package it.test.jdbcPostgreSQL;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * PreparedStatement "stub" per i microbenchmark JMH (vedi
+ * StubConnection): i metodi set* memorizzano l'ultimo valore in un campo,
+ * in modo che il JIT non possa eliminare il calcolo dei parametri, le
+ * executeUpdate ed executeBatch non eseguono nulla e executeQuery
+ * restituisce sempre lo stesso StubResultSet.
+ *
+ */
+class StubPreparedStatement implements PreparedStatement
+{
+	private static final int[] BATCH_RESULT = new int[0];
+
+	private final StubResultSet mResultSet;
+	// ultimo valore impostato dai metodi set* (primitivo oppure oggetto)
+	private long ml_value;
+	private Object mValue;
+
+  /**
+   * @param ai_rows_per_query righe restituite da ogni executeQuery
+   */
+	StubPreparedStatement(int ai_rows_per_query) {
+		mResultSet = new StubResultSet(ai_rows_per_query);
+	}
+
+	public boolean isWrapperFor(Class<?> aValue) throws SQLException {
+		return false;
+	}
+
+	public <T> T unwrap(Class<T> aValue) throws SQLException {
+		return null;
+	}
+
+	public void addBatch(String asValue) throws SQLException {
+	}
+
+	public void cancel() throws SQLException {
+	}
+
+	public void clearBatch() throws SQLException {
+	}
+
+	public void clearWarnings() throws SQLException {
+	}
+
+	public void close() throws SQLException {
+	}
+
+	public void closeOnCompletion() throws SQLException {
+	}
+
+	public boolean execute(String asSql, int[] aValue) throws SQLException {
+		return false;
+	}
+
+	public boolean execute(String asSql, String[] aValue) throws SQLException {
+		return false;
+	}
+
+	public boolean execute(String asSql, int ai_value) throws SQLException {
+		return false;
+	}
+
+	public boolean execute(String asValue) throws SQLException {
+		return false;
+	}
+
+	public int[] executeBatch() throws SQLException {
+		return BATCH_RESULT;
+	}
+
+	public ResultSet executeQuery(String asValue) throws SQLException {
+		return mResultSet.reset();
+	}
+
+	public int executeUpdate(String asSql, int[] aValue) throws SQLException {
+		return 1;
+	}
+
+	public int executeUpdate(String asSql, String[] aValue) throws SQLException {
+		return 1;
+	}
+
+	public int executeUpdate(String asSql, int ai_value) throws SQLException {
+		return 1;
+	}
+
+	public int executeUpdate(String asValue) throws SQLException {
+		return 1;
+	}
+
+	public Connection getConnection() throws SQLException {
+		return null;
+	}
+
+	public int getFetchDirection() throws SQLException {
+		return 0;
+	}
+
+	public int getFetchSize() throws SQLException {
+		return 0;
+	}
+
+	public ResultSet getGeneratedKeys() throws SQLException {
+		return null;
+	}
+
+	public int getMaxFieldSize() throws SQLException {
+		return 0;
+	}
+
+	public int getMaxRows() throws SQLException {
+		return 0;
+	}
+
+	public boolean getMoreResults() throws SQLException {
+		return false;
+	}
+
+	public boolean getMoreResults(int ai_index) throws SQLException {
+		return false;
+	}
+
+	public int getQueryTimeout() throws SQLException {
+		return 0;
+	}
+
+	public ResultSet getResultSet() throws SQLException {
+		return null;
+	}
+
+	public int getResultSetConcurrency() throws SQLException {
+		return 0;
+	}
+
+	public int getResultSetHoldability() throws SQLException {
+		return 0;
+	}
+
+	public int getResultSetType() throws SQLException {
+		return 0;
+	}
+
+	public int getUpdateCount() throws SQLException {
+		return 0;
+	}
+
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+
+	public boolean isCloseOnCompletion() throws SQLException {
+		return false;
+	}
+
+	public boolean isClosed() throws SQLException {
+		return false;
+	}
+
+	public boolean isPoolable() throws SQLException {
+		return false;
+	}
+
+	public void setCursorName(String asName) throws SQLException {
+	}
+
+	public void setEscapeProcessing(boolean abValue) throws SQLException {
+	}
+
+	public void setFetchDirection(int ai_index) throws SQLException {
+	}
+
+	public void setFetchSize(int ai_index) throws SQLException {
+	}
+
+	public void setMaxFieldSize(int ai_index) throws SQLException {
+	}
+
+	public void setMaxRows(int ai_index) throws SQLException {
+	}
+
+	public void setPoolable(boolean abValue) throws SQLException {
+	}
+
+	public void setQueryTimeout(int ai_index) throws SQLException {
+	}
+
+	public void addBatch() throws SQLException {
+	}
+
+	public void clearParameters() throws SQLException {
+	}
+
+	public boolean execute() throws SQLException {
+		return false;
+	}
+
+	public ResultSet executeQuery() throws SQLException {
+		return mResultSet.reset();
+	}
+
+	public int executeUpdate() throws SQLException {
+		return 1;
+	}
+
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return null;
+	}
+
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		return null;
+	}
+
+	public void setArray(int ai_index, Array aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setAsciiStream(int ai_index, InputStream aValue, int ai_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setAsciiStream(int ai_index, InputStream aValue, long al_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setAsciiStream(int ai_index, InputStream aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setBigDecimal(int ai_index, BigDecimal aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setBinaryStream(int ai_index, InputStream aValue, int ai_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setBinaryStream(int ai_index, InputStream aValue, long al_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setBinaryStream(int ai_index, InputStream aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setBlob(int ai_index, InputStream aValue, long al_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setBlob(int ai_index, InputStream aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setBlob(int ai_index, Blob aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setBoolean(int ai_index, boolean abValue) throws SQLException {
+		ml_value = abValue ? 1 : 0;
+	}
+
+	public void setByte(int ai_index, byte ai_value) throws SQLException {
+		ml_value = ai_value;
+	}
+
+	public void setBytes(int ai_index, byte[] aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setCharacterStream(int ai_index, Reader aValue, int ai_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setCharacterStream(int ai_index, Reader aValue, long al_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setCharacterStream(int ai_index, Reader aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setClob(int ai_index, Reader aValue, long al_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setClob(int ai_index, Reader aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setClob(int ai_index, Clob aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setDate(int ai_index, Date aValue, Calendar aArg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setDate(int ai_index, Date aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setDouble(int ai_index, double ad_value) throws SQLException {
+		ml_value = (long) ad_value;
+	}
+
+	public void setFloat(int ai_index, float ad_value) throws SQLException {
+		ml_value = (long) ad_value;
+	}
+
+	public void setInt(int ai_index, int ai_value) throws SQLException {
+		ml_value = ai_value;
+	}
+
+	public void setLong(int ai_index, long al_value) throws SQLException {
+		ml_value = al_value;
+	}
+
+	public void setNCharacterStream(int ai_index, Reader aValue, long al_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setNCharacterStream(int ai_index, Reader aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setNClob(int ai_index, Reader aValue, long al_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setNClob(int ai_index, Reader aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setNClob(int ai_index, NClob aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setNString(int ai_index, String asValue) throws SQLException {
+		mValue = asValue;
+	}
+
+	public void setNull(int ai_index, int ai_value, String asArg2) throws SQLException {
+		ml_value = ai_value;
+	}
+
+	public void setNull(int ai_index, int ai_value) throws SQLException {
+		ml_value = ai_value;
+	}
+
+	public void setObject(int ai_index, Object aValue, int ai_arg2, int ai_arg3) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setObject(int ai_index, Object aValue, int ai_arg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setObject(int ai_index, Object aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setRef(int ai_index, Ref aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setRowId(int ai_index, RowId aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setSQLXML(int ai_index, SQLXML aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setShort(int ai_index, short ai_value) throws SQLException {
+		ml_value = ai_value;
+	}
+
+	public void setString(int ai_index, String asValue) throws SQLException {
+		mValue = asValue;
+	}
+
+	public void setTime(int ai_index, Time aValue, Calendar aArg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setTime(int ai_index, Time aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setTimestamp(int ai_index, Timestamp aValue, Calendar aArg2) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setTimestamp(int ai_index, Timestamp aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	public void setURL(int ai_index, URL aValue) throws SQLException {
+		mValue = aValue;
+	}
+
+	@Deprecated
+	public void setUnicodeStream(int ai_index, InputStream aValue, int ai_arg2) throws SQLException {
+		mValue = aValue;
+	}
+}
@@ -0,0 +1,729 @@
+package it.test.jdbcPostgreSQL;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * ResultSet "stub" per i microbenchmark JMH (vedi StubConnection):
+ * restituisce mi_rows righe con valori costanti, senza I/O e senza
+ * allocazioni. L'istanza viene riutilizzata da ogni executeQuery dello
+ * statement che l'ha creata (reset).
+ *
+ */
+class StubResultSet implements ResultSet
+{
+	private static final Date DATE = new Date(0);
+	private static final String NAME = "test_name";
+
+	private final int mi_rows;
+	private int mi_row = 0;
+
+  /**
+   * @param ai_rows righe restituite dopo ogni reset
+   */
+	StubResultSet(int ai_rows) {
+		mi_rows = ai_rows;
+	}
+
+  /**
+   * Riporta il cursore prima della prima riga.
+   *
+   * @return StubResultSet questa istanza
+   */
+	StubResultSet reset() {
+		mi_row = 0;
+		return this;
+	}
+
+	public boolean isWrapperFor(Class<?> aValue) throws SQLException {
+		return false;
+	}
+
+	public <T> T unwrap(Class<T> aValue) throws SQLException {
+		return null;
+	}
+
+	public boolean absolute(int ai_value) throws SQLException {
+		return false;
+	}
+
+	public void afterLast() throws SQLException {
+	}
+
+	public void beforeFirst() throws SQLException {
+	}
+
+	public void cancelRowUpdates() throws SQLException {
+	}
+
+	public void clearWarnings() throws SQLException {
+	}
+
+	public void close() throws SQLException {
+	}
+
+	public void deleteRow() throws SQLException {
+	}
+
+	public int findColumn(String asValue) throws SQLException {
+		return 0;
+	}
+
+	public boolean first() throws SQLException {
+		return false;
+	}
+
+	public Array getArray(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public Array getArray(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public InputStream getAsciiStream(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public InputStream getAsciiStream(int ai_column) throws SQLException {
+		return null;
+	}
+
+	@Deprecated
+	public BigDecimal getBigDecimal(String asLabel, int ai_value) throws SQLException {
+		return null;
+	}
+
+	public BigDecimal getBigDecimal(String asLabel) throws SQLException {
+		return null;
+	}
+
+	@Deprecated
+	public BigDecimal getBigDecimal(int ai_column, int ai_value) throws SQLException {
+		return null;
+	}
+
+	public BigDecimal getBigDecimal(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public InputStream getBinaryStream(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public InputStream getBinaryStream(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public Blob getBlob(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public Blob getBlob(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public boolean getBoolean(String asLabel) throws SQLException {
+		return false;
+	}
+
+	public boolean getBoolean(int ai_column) throws SQLException {
+		return false;
+	}
+
+	public byte getByte(String asLabel) throws SQLException {
+		return 0;
+	}
+
+	public byte getByte(int ai_column) throws SQLException {
+		return 0;
+	}
+
+	public byte[] getBytes(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public byte[] getBytes(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public Reader getCharacterStream(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public Reader getCharacterStream(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public Clob getClob(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public Clob getClob(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public int getConcurrency() throws SQLException {
+		return 0;
+	}
+
+	public String getCursorName() throws SQLException {
+		return null;
+	}
+
+	public Date getDate(String asLabel, Calendar aValue) throws SQLException {
+		return null;
+	}
+
+	public Date getDate(String asLabel) throws SQLException {
+		return DATE;
+	}
+
+	public Date getDate(int ai_column, Calendar aValue) throws SQLException {
+		return null;
+	}
+
+	public Date getDate(int ai_column) throws SQLException {
+		return DATE;
+	}
+
+	public double getDouble(String asLabel) throws SQLException {
+		return 0;
+	}
+
+	public double getDouble(int ai_column) throws SQLException {
+		return 0;
+	}
+
+	public int getFetchDirection() throws SQLException {
+		return 0;
+	}
+
+	public int getFetchSize() throws SQLException {
+		return 0;
+	}
+
+	public float getFloat(String asLabel) throws SQLException {
+		return 0;
+	}
+
+	public float getFloat(int ai_column) throws SQLException {
+		return 0;
+	}
+
+	public int getHoldability() throws SQLException {
+		return 0;
+	}
+
+	public int getInt(String asLabel) throws SQLException {
+		return mi_row;
+	}
+
+	public int getInt(int ai_column) throws SQLException {
+		return mi_row;
+	}
+
+	public long getLong(String asLabel) throws SQLException {
+		return 0;
+	}
+
+	public long getLong(int ai_column) throws SQLException {
+		return 0;
+	}
+
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return null;
+	}
+
+	public Reader getNCharacterStream(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public Reader getNCharacterStream(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public NClob getNClob(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public NClob getNClob(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public String getNString(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public String getNString(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public <T> T getObject(String asLabel, Class<T> aValue) throws SQLException {
+		return null;
+	}
+
+	public Object getObject(String asLabel, Map<String, Class<?>> aValue) throws SQLException {
+		return null;
+	}
+
+	public Object getObject(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public <T> T getObject(int ai_column, Class<T> aValue) throws SQLException {
+		return null;
+	}
+
+	public Object getObject(int ai_column, Map<String, Class<?>> aValue) throws SQLException {
+		return null;
+	}
+
+	public Object getObject(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public Ref getRef(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public Ref getRef(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public int getRow() throws SQLException {
+		return 0;
+	}
+
+	public RowId getRowId(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public RowId getRowId(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public SQLXML getSQLXML(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public SQLXML getSQLXML(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public short getShort(String asLabel) throws SQLException {
+		return 0;
+	}
+
+	public short getShort(int ai_column) throws SQLException {
+		return 0;
+	}
+
+	public Statement getStatement() throws SQLException {
+		return null;
+	}
+
+	public String getString(String asLabel) throws SQLException {
+		return NAME;
+	}
+
+	public String getString(int ai_column) throws SQLException {
+		return NAME;
+	}
+
+	public Time getTime(String asLabel, Calendar aValue) throws SQLException {
+		return null;
+	}
+
+	public Time getTime(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public Time getTime(int ai_column, Calendar aValue) throws SQLException {
+		return null;
+	}
+
+	public Time getTime(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public Timestamp getTimestamp(String asLabel, Calendar aValue) throws SQLException {
+		return null;
+	}
+
+	public Timestamp getTimestamp(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public Timestamp getTimestamp(int ai_column, Calendar aValue) throws SQLException {
+		return null;
+	}
+
+	public Timestamp getTimestamp(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public int getType() throws SQLException {
+		return 0;
+	}
+
+	public URL getURL(String asLabel) throws SQLException {
+		return null;
+	}
+
+	public URL getURL(int ai_column) throws SQLException {
+		return null;
+	}
+
+	@Deprecated
+	public InputStream getUnicodeStream(String asLabel) throws SQLException {
+		return null;
+	}
+
+	@Deprecated
+	public InputStream getUnicodeStream(int ai_column) throws SQLException {
+		return null;
+	}
+
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+
+	public void insertRow() throws SQLException {
+	}
+
+	public boolean isAfterLast() throws SQLException {
+		return false;
+	}
+
+	public boolean isBeforeFirst() throws SQLException {
+		return false;
+	}
+
+	public boolean isClosed() throws SQLException {
+		return false;
+	}
+
+	public boolean isFirst() throws SQLException {
+		return false;
+	}
+
+	public boolean isLast() throws SQLException {
+		return false;
+	}
+
+	public boolean last() throws SQLException {
+		return false;
+	}
+
+	public void moveToCurrentRow() throws SQLException {
+	}
+
+	public void moveToInsertRow() throws SQLException {
+	}
+
+	public boolean next() throws SQLException {
+		return ++mi_row <= mi_rows;
+	}
+
+	public boolean previous() throws SQLException {
+		return false;
+	}
+
+	public void refreshRow() throws SQLException {
+	}
+
+	public boolean relative(int ai_value) throws SQLException {
+		return false;
+	}
+
+	public boolean rowDeleted() throws SQLException {
+		return false;
+	}
+
+	public boolean rowInserted() throws SQLException {
+		return false;
+	}
+
+	public boolean rowUpdated() throws SQLException {
+		return false;
+	}
+
+	public void setFetchDirection(int ai_column) throws SQLException {
+	}
+
+	public void setFetchSize(int ai_column) throws SQLException {
+	}
+
+	public void updateArray(String asLabel, Array aValue) throws SQLException {
+	}
+
+	public void updateArray(int ai_column, Array aValue) throws SQLException {
+	}
+
+	public void updateAsciiStream(String asLabel, InputStream aValue, int ai_arg2) throws SQLException {
+	}
+
+	public void updateAsciiStream(String asLabel, InputStream aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateAsciiStream(String asLabel, InputStream aValue) throws SQLException {
+	}
+
+	public void updateAsciiStream(int ai_column, InputStream aValue, int ai_arg2) throws SQLException {
+	}
+
+	public void updateAsciiStream(int ai_column, InputStream aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateAsciiStream(int ai_column, InputStream aValue) throws SQLException {
+	}
+
+	public void updateBigDecimal(String asLabel, BigDecimal aValue) throws SQLException {
+	}
+
+	public void updateBigDecimal(int ai_column, BigDecimal aValue) throws SQLException {
+	}
+
+	public void updateBinaryStream(String asLabel, InputStream aValue, int ai_arg2) throws SQLException {
+	}
+
+	public void updateBinaryStream(String asLabel, InputStream aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateBinaryStream(String asLabel, InputStream aValue) throws SQLException {
+	}
+
+	public void updateBinaryStream(int ai_column, InputStream aValue, int ai_arg2) throws SQLException {
+	}
+
+	public void updateBinaryStream(int ai_column, InputStream aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateBinaryStream(int ai_column, InputStream aValue) throws SQLException {
+	}
+
+	public void updateBlob(String asLabel, InputStream aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateBlob(String asLabel, InputStream aValue) throws SQLException {
+	}
+
+	public void updateBlob(String asLabel, Blob aValue) throws SQLException {
+	}
+
+	public void updateBlob(int ai_column, InputStream aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateBlob(int ai_column, InputStream aValue) throws SQLException {
+	}
+
+	public void updateBlob(int ai_column, Blob aValue) throws SQLException {
+	}
+
+	public void updateBoolean(String asLabel, boolean abValue) throws SQLException {
+	}
+
+	public void updateBoolean(int ai_column, boolean abValue) throws SQLException {
+	}
+
+	public void updateByte(String asLabel, byte ai_value) throws SQLException {
+	}
+
+	public void updateByte(int ai_column, byte ai_value) throws SQLException {
+	}
+
+	public void updateBytes(String asLabel, byte[] aValue) throws SQLException {
+	}
+
+	public void updateBytes(int ai_column, byte[] aValue) throws SQLException {
+	}
+
+	public void updateCharacterStream(String asLabel, Reader aValue, int ai_arg2) throws SQLException {
+	}
+
+	public void updateCharacterStream(String asLabel, Reader aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateCharacterStream(String asLabel, Reader aValue) throws SQLException {
+	}
+
+	public void updateCharacterStream(int ai_column, Reader aValue, int ai_arg2) throws SQLException {
+	}
+
+	public void updateCharacterStream(int ai_column, Reader aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateCharacterStream(int ai_column, Reader aValue) throws SQLException {
+	}
+
+	public void updateClob(String asLabel, Reader aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateClob(String asLabel, Reader aValue) throws SQLException {
+	}
+
+	public void updateClob(String asLabel, Clob aValue) throws SQLException {
+	}
+
+	public void updateClob(int ai_column, Reader aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateClob(int ai_column, Reader aValue) throws SQLException {
+	}
+
+	public void updateClob(int ai_column, Clob aValue) throws SQLException {
+	}
+
+	public void updateDate(String asLabel, Date aValue) throws SQLException {
+	}
+
+	public void updateDate(int ai_column, Date aValue) throws SQLException {
+	}
+
+	public void updateDouble(String asLabel, double ad_value) throws SQLException {
+	}
+
+	public void updateDouble(int ai_column, double ad_value) throws SQLException {
+	}
+
+	public void updateFloat(String asLabel, float ad_value) throws SQLException {
+	}
+
+	public void updateFloat(int ai_column, float ad_value) throws SQLException {
+	}
+
+	public void updateInt(String asLabel, int ai_value) throws SQLException {
+	}
+
+	public void updateInt(int ai_column, int ai_value) throws SQLException {
+	}
+
+	public void updateLong(String asLabel, long al_value) throws SQLException {
+	}
+
+	public void updateLong(int ai_column, long al_value) throws SQLException {
+	}
+
+	public void updateNCharacterStream(String asLabel, Reader aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateNCharacterStream(String asLabel, Reader aValue) throws SQLException {
+	}
+
+	public void updateNCharacterStream(int ai_column, Reader aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateNCharacterStream(int ai_column, Reader aValue) throws SQLException {
+	}
+
+	public void updateNClob(String asLabel, Reader aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateNClob(String asLabel, Reader aValue) throws SQLException {
+	}
+
+	public void updateNClob(String asLabel, NClob aValue) throws SQLException {
+	}
+
+	public void updateNClob(int ai_column, Reader aValue, long al_arg2) throws SQLException {
+	}
+
+	public void updateNClob(int ai_column, Reader aValue) throws SQLException {
+	}
+
+	public void updateNClob(int ai_column, NClob aValue) throws SQLException {
+	}
+
+	public void updateNString(String asLabel, String asValue) throws SQLException {
+	}
+
+	public void updateNString(int ai_column, String asValue) throws SQLException {
+	}
+
+	public void updateNull(String asLabel) throws SQLException {
+	}
+
+	public void updateNull(int ai_column) throws SQLException {
+	}
+
+	public void updateObject(String asLabel, Object aValue, int ai_arg2) throws SQLException {
+	}
+
+	public void updateObject(String asLabel, Object aValue) throws SQLException {
+	}
+
+	public void updateObject(int ai_column, Object aValue, int ai_arg2) throws SQLException {
+	}
+
+	public void updateObject(int ai_column, Object aValue) throws SQLException {
+	}
+
+	public void updateRef(String asLabel, Ref aValue) throws SQLException {
+	}
+
+	public void updateRef(int ai_column, Ref aValue) throws SQLException {
+	}
+
+	public void updateRow() throws SQLException {
+	}
+
+	public void updateRowId(String asLabel, RowId aValue) throws SQLException {
+	}
+
+	public void updateRowId(int ai_column, RowId aValue) throws SQLException {
+	}
+
+	public void updateSQLXML(String asLabel, SQLXML aValue) throws SQLException {
+	}
+
+	public void updateSQLXML(int ai_column, SQLXML aValue) throws SQLException {
+	}
+
+	public void updateShort(String asLabel, short ai_value) throws SQLException {
+	}
+
+	public void updateShort(int ai_column, short ai_value) throws SQLException {
+	}
+
+	public void updateString(String asLabel, String asValue) throws SQLException {
+	}
+
+	public void updateString(int ai_column, String asValue) throws SQLException {
+	}
+
+	public void updateTime(String asLabel, Time aValue) throws SQLException {
+	}
+
+	public void updateTime(int ai_column, Time aValue) throws SQLException {
+	}
+
+	public void updateTimestamp(String asLabel, Timestamp aValue) throws SQLException {
+	}
+
+	public void updateTimestamp(int ai_column, Timestamp aValue) throws SQLException {
+	}
+
+	public boolean wasNull() throws SQLException {
+		return false;
+	}
+}
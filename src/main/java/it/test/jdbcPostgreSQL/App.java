@@ -6,389 +6,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
-/**
- * La classe DBOperation contiene i metodi utilizzati
- * per i benchmark di INSERT e SELECT su un DB JDBC compliant
- *  
- * <p>
- * I metodi esposti sono 
- *
- * - createTable --> per
- *   la creazione di una tabella di DB sulla quali eseguire 
- *	 i benchmarks.	
- *	 
- * - DropTable --> per droppare la tabella e ricrearla
- *	 ad ogni lancio dell'applicazione. 
- *
- * - InsertIntoTable --> per eseguire i benchmarks degli statement
- *   di INSERT con commit ogni X statement. Update sequenziali e
- *   a blocchi. 
- *
- * - SelectFromTableTime --> per eseguire i benchmarks degli statement
- *   di SELECT per PK della tabella creata in precedenza.
- *
- * - CloseConn --> per chiudere la connessione al DB 	 
- *
- */ 
-class DBOperation
-{
-  /**
-   * Questo metodo è usato per restituire la data e l'ora attuali
-   *
-   * @return java.sql.Date Restituisce la data/ora attuale.
-   */	
-   
-   private static java.sql.Date getCurrentDate() {
-		java.util.Date today = new java.util.Date();
-		return new java.sql.Date(today.getTime());
-   }    	
-   
-  /**
-   * Questo metodo è usato per verificare l'esistenza di una
-   * tabella sul DB.
-   * 
-   * 
-   * @param conn connessione al DB
-   * @param tableName  Nome della tabella
-   * @return boolean Restituisce true se la tabella esiste.
-   */	
-   public static boolean tableExist(Connection conn, String tableName) throws SQLException {
-			boolean tExists = false;
-			String tName="";
-			ResultSet rs=null;
-			
-			try {
-				
-				rs = conn.getMetaData().getTables(null, null, tableName, null); 
-				while (rs.next()) { 
-					 tName = rs.getString("TABLE_NAME");					 
-					 
-					 if (tName != null && tName.toUpperCase().equals(tableName.toUpperCase())) {
-						tExists = true;
-						break;
-					}
-				}
-			}			
-			catch (SQLException e) {
-
-				System.out.println(e.getMessage());
-				throw e;
-			}
-			finally {
-				if (rs != null) rs.close(); 
-			}	
-			
-			return tExists;
-	}
-	
-  /**
-   * Questo metodo è usato per creare su DB la tabella
-   * sulla quale eseguire i benchmark di INSERT/SELECT 
-   * 
-   * @param conn  connessione al DB
-   * @param asTableName  Nome della tabella
-   */	
-	public void createTable(Connection conn, String asTableName) throws SQLException {
-
-		PreparedStatement preparedStatement = null;
-		
-		String CreateTableSQL = "CREATE TABLE IF NOT EXISTS "+asTableName+"("
-				+ "ID INTEGER CONSTRAINT "+asTableName+"_pk PRIMARY KEY, "
-				+ "NAME VARCHAR(255) NOT NULL, "
-				+ "SURNAME VARCHAR(255) NOT NULL, "
-				+ "CREATED_DATE DATE NOT NULL " 
-				+ "); "
-				+ "COMMENT ON TABLE "+asTableName+" IS 'Tabella di test per benchmarks JBDC';"
-				+ "COMMENT ON COLUMN "+asTableName+".ID IS 'Primary Key.';"
-				+ "COMMENT ON COLUMN "+asTableName+".CREATED_DATE IS 'Timestamp';";		   	
-
-		try {
-			preparedStatement = conn.prepareStatement(CreateTableSQL);
-
-			preparedStatement.executeUpdate();
-
-		} catch (SQLException e) {
-
-			System.out.println(e.getMessage());
-			throw e;
-
-		} finally {
-
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-		}
-	}	
-	
-  /**
-   * Questo metodo è usato per eseguire il drop della tabella
-   * sui cui vengono eseguiti i benchmark. La tabella ad ogni
-   * avvio dell'applicazione viene droppata e ricreata.
-   * 
-   * @param conn  connessione al DB
-   * @param asTableName  Nome della tabella
-   */
-	public void DropTable(Connection conn, String asTableName) throws SQLException {
-
-		PreparedStatement preparedStatement = null;
-		String DropTableSQL = "DROP TABLE IF EXISTS "+asTableName+";";
-
-		try {
-			preparedStatement = conn.prepareStatement(DropTableSQL);
-
-			// System.out.println(DropTableSQL);
-
-			// execute create SQL stetement
-			preparedStatement.executeUpdate();
-
-		} catch (SQLException e) {
-
-			System.out.println(e.getMessage());
-			throw e;
-
-		} finally {
-
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}	
-		}
-	}
-	
-  /**
-   * Questo metodo è usato per eseguire i benchmark di inserimento
-   * in tabella. I benchmark vengono calcolati per inserimenti 
-   * batch a blocchi di X statement, oppure per inserimenti 
-   * sequenziali. I commit vengono eseguiti ogni X statement.
-   * 
-   * 
-   * @param conn  connessione al DB
-   * @param asTableName  Nome della tabella
-   * @param ai_max_rows_per_commit  Numero massimo di INSERT per ogni commit
-   * @param ai_max_rows_inserted  Numero massimo di righe da inserire
-   * @param abSequentialUpdate  Se (false) indica di eseguire gli insert massivi a
-   *									   blocchi di X statement (esecuzione batch)
-   *									   Se (true) esegue gli insert in maniera sequenziale
-   *									   (uno per ogni iterazione).  
-   *
-   */
-	public void InsertIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_max_rows_inserted, boolean abSequentialUpdate) throws SQLException {
-
-		PreparedStatement preparedStatement = null;
-		long l_startTime=0;
-		long l_elapsedTime=0;
-		long l_min_elapsed_time=Long.MAX_VALUE;
-		long l_max_elapsed_time=0;
-		double ld_average_time=0;
-		long l_tot_elapsed_time=0;
-		int l_count=0;
-
-		String InsertIntoTableSQL = " insert into "+asTableName+" (id, name, surname, created_date)"
-               + " values (?, ?, ?, ?)";
-
-		try {
-			conn.setAutoCommit(false);
-			preparedStatement = conn.prepareStatement(InsertIntoTableSQL);
-			
-			for(int i=1; i <= ai_max_rows_inserted; i++) {
-				 l_count++;
-				 l_startTime = System.nanoTime(); // start
-				 preparedStatement.setInt(1, i);
-				 preparedStatement.setString(2, "test_name" + i);
-				 preparedStatement.setString(3, "test_surname" + i);
-				 preparedStatement.setDate(4, getCurrentDate());
-				 if (abSequentialUpdate) {
-					 // esecuzione UPDATE in sequenza (uno per ogni iterazione del ciclo)
-					 preparedStatement.executeUpdate(); 						
-				 }
-				 else {
-					 // preparazione batch di update per blocchi di statement
-					 preparedStatement.addBatch();
-			     }				 					
-
-				if (i % ai_max_rows_per_commit == 0 || i == ai_max_rows_inserted) {
-					if (!abSequentialUpdate) {
-						preparedStatement.executeBatch(); // INSERT batch ogni X insert.
-					}	
-            
-					conn.commit(); // commit ogni ai_max_rows_per_commit statement di UPDATE
-				}
-				
-				l_elapsedTime = System.nanoTime() - l_startTime;
-				
-				l_tot_elapsed_time+=l_elapsedTime;
-				
-				if (l_elapsedTime > 0) {
-					if (l_elapsedTime > l_max_elapsed_time) {
-						l_max_elapsed_time = l_elapsedTime;
-					}
-					if (l_elapsedTime < l_min_elapsed_time) {
-						l_min_elapsed_time = l_elapsedTime;
-					}
-				}	
-			}
-
-			conn.commit();
-			
-			System.out.println("****************** INSERT BENCHMARKS ***********************");
-			System.out.println("Numero di INSERT eseguiti:" + ai_max_rows_inserted);
-			System.out.println("COMMIT ogni " + ai_max_rows_per_commit + " righe inserite.");
-			if (abSequentialUpdate) {
-				System.out.println("INSERT SEQUENZIALI (uno per ogni iterazione) ");	
-			} else {
-				System.out.println("INSERT A BLOCCHI (batch - "+ai_max_rows_per_commit+" INSERT statement per volta).");
-			}	
-			
-			System.out.println("Max insert time ns:" + l_max_elapsed_time);
-			System.out.println("Max insert time ms:" + l_max_elapsed_time/1000000);
-			
-			System.out.println("Min insert time ns:" + l_min_elapsed_time);
-			System.out.println("Min insert time ms:" + l_min_elapsed_time/1000000);			
-			
-			System.out.println("Total insert time ns:" + l_tot_elapsed_time);
-			System.out.println("Total insert time ms:" + l_tot_elapsed_time/1000000);
-			
-			if (l_count > 0) {
-				ld_average_time=l_tot_elapsed_time / l_count;
-			}	
-			System.out.println("Average time ns:" + ld_average_time);
-			System.out.println("Average time ms:" + ld_average_time/1000000);
-
-		} catch (SQLException e) {
-
-			System.out.println(e.getMessage());
-			throw e;
-
-		} finally {
-
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-			
-			conn.setAutoCommit(true);
-		}
-	}
-	
-  /**
-   * Questo metodo è usato per eseguire select per PK sulla tabella creata per i benchmark.
-   * 
-   * @param conn --> connessione al DB
-   * @param asTableName --> Nome della tabella
-   * @param ai_PK_value --> valore della PK
-   *
-   */
-	private void SelectFromTablebyPK (Connection conn, String asTableName, int ai_PK_value) throws SQLException {
-		
-		ResultSet rs = null;
-		PreparedStatement preparedStatement = null;
-		
-		try {
-			String selectSQL = "SELECT id, name, surname, created_date  FROM " + asTableName + " WHERE id = ?";	
-
-			preparedStatement = conn.prepareStatement(selectSQL);
-
-			preparedStatement.setInt(1, ai_PK_value);
-
-			rs = preparedStatement.executeQuery();
-			
-			 while (rs.next()) {
-				int id = rs.getInt(1);
-				String name = rs.getString(2);
-				String surname = rs.getString(3);
-				Date ldDate = rs.getDate(4);
-			 }
-
-		}
-		catch (SQLException e) {
-
-			System.out.println(e.getMessage());
-			throw e;
-		}
-		finally {
-			if (rs != null) rs.close(); 
-			if (preparedStatement != null) {
-				preparedStatement.close();
-			}
-		}			
-	}
-	
-  /**
-   * Questo metodo è usato per eseguire i benchmark relativi
-   * alle select per PK. Vengono calcolati il tempo massimo,
-   * minimo e medio in nsec e msec.   
-   * 
-   * @param conn --> connessione al DB
-   * @param asTableName --> Nome della tabella
-   * @param ai_max_rows_inserted --> numero massimo di select da eseguire									
-   *
-   */
-	public void SelectFromTableTime (Connection conn, String asTableName, int ai_max_rows_inserted) throws SQLException {
-		
-		long l_startTime=0;
-		long l_elapsedTime=0;
-		long l_min_elapsed_time=Long.MAX_VALUE;
-		long l_max_elapsed_time=0;
-		double ld_average_time=0;
-		long l_tot_elapsed_time=0;
-		int l_count=0;
-		
-		
-		try {
-			
-			for(int i=1; i <= ai_max_rows_inserted; i++) {
-				l_count++;
-				l_startTime = System.nanoTime();
-				SelectFromTablebyPK (conn, asTableName, i);
-				l_elapsedTime = System.nanoTime() - l_startTime;
-								
-				l_tot_elapsed_time+=l_elapsedTime;
-				
-				if (l_elapsedTime > 0) {
-					if (l_elapsedTime > l_max_elapsed_time) {
-						l_max_elapsed_time = l_elapsedTime;
-					}
-					if (l_elapsedTime < l_min_elapsed_time) {
-						l_min_elapsed_time = l_elapsedTime;
-					}
-				}
-			}
-			
-			System.out.println("****************** SELECT BENCHMARKS ***********************");
-			System.out.println("Numero di select eseguite:" + ai_max_rows_inserted);
-			System.out.println("Max select time ns:" + l_max_elapsed_time);
-			System.out.println("Max select time ms:" + l_max_elapsed_time/1000000);
-			
-			System.out.println("Min select time ns:" + l_min_elapsed_time);
-			System.out.println("Min select time ms:" + l_min_elapsed_time/1000000);			
-			
-			System.out.println("Total select time ns:" + l_tot_elapsed_time);
-			System.out.println("Total select time ms:" + l_tot_elapsed_time/1000000);
-			
-			if (l_count > 0) {
-				ld_average_time=l_tot_elapsed_time / l_count;
-			}	
-			System.out.println("Average time ns:" + ld_average_time);
-			System.out.println("Average time ms:" + ld_average_time/1000000);
-		}	
-		catch (SQLException e) {
-
-			System.out.println(e.getMessage());
-			throw e;
-		}			
-	}
-	
- /**
-   * Questo metodo è usato chiudere la connessione al DB
-   * 
-   * @param conn --> connessione al DB
-   *
-   */	
-	public void CloseConn (Connection conn) throws Exception {
-		
-		try { if (conn != null) conn.close(); } catch (Exception e) {System.out.println(e.getMessage()); throw e;};
-	}	
-} 
-
-
 /**
  * La classe App contiene il main dell'applicazione ed esegue
  * i benchmark di INSERT e SELECT su un DB PostGreSQL via JDBC
@@ -443,7 +60,8 @@ class DBOperation
  *
  *	  <li><b>SELECT Benchmarks</b><ul><li>3.3) Se la creazione della tabella <b>TEST_TABLE</b> e' avvenuta con successo al punto 3.1) viene invocato il metodo
  *		   <b>SelectFromTableTime</b> dell'oggetto della classe <b>DBOperation</b> precedentemente istanziato. Il metodo  prevede in input
- *			   <ul><li>a) la connessione creata (oggetto di tipo <b>Connection</b>)</li>
+ *			   <ul><li>a) una connessione dedicata, aperta senza la cache degli statement del driver
+ *				  (preparedStatementCacheQueries=0, prepareThreshold=0) in modo che ogni select paghi parse e plan</li>
  *			   <li>b) il nome della tabella sulla quale effettuare i benchmark (<b>TEST_TABLE</b> nel nostro caso)</li>
  *			   <li>c) il numero di select consecutive per PK da eseguire (nel nostro caso pari al numero delle righe inserite in
  *				  tabella al punto 3.2)</li></ul>
@@ -486,6 +104,135 @@ public class App
 		DBOperation DBOps= null;
 		int li_maxRowsPerCommit=0;
 		int li_maxRowsInserted=0;
+		// numero di INSERT per ogni executeBatch (default: pari al numero di righe per commit)
+		int li_rowsPerBatch=0;
+		// numero di thread per i benchmark concorrenti (es. 1,2,4,8). Vuoto = benchmark concorrenti disabilitati
+		int[] li_concurrentThreads=new int[0];
+		// formati del benchmark di caricamento con COPY FROM STDIN (text, binary). Vuoto = COPY disabilitato
+		CopyRowEncoder.Format[] lCopyFormats=new CopyRowEncoder.Format[0];
+		// valori di prepareThreshold per le select con statement riutilizzato (-1 = default del driver)
+		int[] li_prepareThresholds={-1};
+		// strategie di INSERT multi-riga: numero di righe per statement e attivazione delle singole strategie
+		int[] li_rowsPerStatement={100};
+		boolean lbMultiValuesInserts=false;
+		boolean lbUnnestInserts=false;
+		boolean lbReWriteBatchedInserts=false;
+		// benchmark con pool di connessioni: numero di thread, numero di operazioni e parametri del pool
+		int[] li_poolThreads=new int[0];
+		int li_poolOps=10000;
+		int li_poolMinSize=1;
+		int li_poolMaxSize=0;
+		boolean lbPoolValidate=false;
+		// select per PK con N chiavi per round trip: profondita' e modalita' (array, pipeline). Vuoto = disabilitato
+		int[] li_pipelineDepths=new int[0];
+		String[] lsPipelineModes={"array", "pipeline"};
+		// simulazione di client concorrenti su virtual thread: numero di client, durata, think time e pool. Vuoto = disabilitata
+		int[] li_loadClients=new int[0];
+		int li_loadDuration=10;
+		LoadGenerator.ThinkTime lLoadThinkTime=LoadGenerator.ThinkTime.EXPONENTIAL;
+		int li_loadThinkTimeMs=100;
+		int li_loadPoolSize=10;
+		int li_loadInsertPercent=10;
+		// varianti dello schema della tabella di test per INSERT a blocchi e SELECT per PK. Vuoto = disabilitato
+		TableSchema[] lSchemaVariants=new TableSchema[0];
+		// letture di molte righe: fetchSize (0 = fetch-all), righe per query (0 = scansione completa),
+		// trasferimento (text, binary) e righe in tabella. Vuoto = disabilitato
+		int[] li_scanFetchSizes=new int[0];
+		int[] li_scanRangeRows={0};
+		String[] lsScanTransfers={"text", "binary"};
+		int li_scanRows=0;
+		// benchmark a rate costante (open loop): rate obiettivo, durata, worker e operazioni. Vuoto = disabilitato
+		int[] li_openLoopRates=new int[0];
+		int li_openLoopDuration=10;
+		int li_openLoopWorkers=1;
+		String[] lsOpenLoopOperations={"select"};
+		// generatore dei valori delle righe dei benchmark di INSERT (buffered, concat)
+		RowGenerator.Type lRowGenerator=RowGenerator.Type.BUFFERED;
+		// carico misto OLTP: operazioni, thread, percentuali SELECT/UPDATE/INSERT/DELETE e distribuzioni delle chiavi
+		int li_mixedOps=0;
+		int li_mixedThreads=1;
+		int[] li_mixedRatios={70, 20, 5, 5};
+		KeyDistribution.Type[] lMixedDistributions=KeyDistribution.Type.values();
+		double ld_zipfianTheta=ZipfianGenerator.DEFAULT_THETA;
+		// cache read-through delle SELECT per PK: capacita' (vuoto = disabilitato), politiche di eviction,
+		// segmenti, operazioni, thread, percentuali di UPDATE e INSERT e distribuzioni delle chiavi
+		int[] li_cacheSizes=new int[0];
+		PKCache.Policy[] lCachePolicies=PKCache.Policy.values();
+		int li_cacheSegments=16;
+		int li_cacheOps=100000;
+		int li_cacheThreads=4;
+		int li_cacheUpdatePercent=5;
+		int li_cacheInsertPercent=5;
+		KeyDistribution.Type[] lCacheDistributions=KeyDistribution.Type.values();
+		// contesa sulle stesse righe: transazioni (0 = disabilitato), thread, righe contese, righe per transazione,
+		// livelli di isolamento, modalita' di accesso, ripetizioni e attesa iniziale prima di ripetere
+		int li_contentionTx=0;
+		int li_contentionThreads=8;
+		int li_contentionHotRows=100;
+		int li_contentionRowsPerTx=2;
+		int[] li_contentionIsolation={Connection.TRANSACTION_READ_COMMITTED, Connection.TRANSACTION_REPEATABLE_READ, Connection.TRANSACTION_SERIALIZABLE};
+		ContentionBenchmark.Pattern[] lContentionPatterns=ContentionBenchmark.Pattern.values();
+		int li_contentionMaxRetries=10;
+		int li_contentionBackoffMs=1;
+		// UPDATE e UPSERT: righe caricate e modificate (0 = disabilitato), operazioni, modalita', varianti
+		// dello schema, thread della modalita' concorrente, ID per RANGE_UPDATE e percentuale di righe nuove
+		int li_updateRows=0;
+		UpdateBenchmark.Operation[] lUpdateOperations=UpdateBenchmark.Operation.values();
+		UpdateBenchmark.Mode[] lUpdateModes=UpdateBenchmark.Mode.values();
+		TableSchema[] lUpdateSchemas={TableSchema.DEFAULT};
+		int li_updateThreads=4;
+		int li_updateRangeRows=1000;
+		int li_upsertNewPercent=50;
+		// statistiche lato server (pg_stat_*) prima e dopo ogni fase e attesa prima della rilevazione finale
+		boolean lbServerStats=false;
+		int li_serverStatsDelay=1000;
+		ServerStats serverStats = null;
+		// esecuzioni di riscaldamento (escluse dai risultati) e misurate di ogni fase
+		int li_warmupRuns=0;
+		int li_trials=1;
+		BenchPhase phase = null;
+		// sweep dei parametri di INSERT a blocchi: righe, righe per commit, righe per batch, thread,
+		// esecuzioni di riscaldamento e misurate per combinazione (liste vuote = sweep disabilitato)
+		int[] li_sweepRows={};
+		int[] li_sweepCommits={};
+		int[] li_sweepBatches={};
+		int[] li_sweepThreads={};
+		int li_sweepWarmups=1;
+		int li_sweepTrials=3;
+		boolean lbSweep=false;
+		boolean lbSweepOnly=false;
+		// file dei risultati in formato JSON e CSV (vuoto = non scritto)
+		String lsResultsJson="";
+		String lsResultsCsv="";
+		// bulk load parallelo con COPY: righe (0 = disabilitato, non soggette ai limiti MAX_NUM_*), chiavi per
+		// partizione, connessioni, produttori, righe per COPY e per commit, blocchi in memoria, formato,
+		// schema (chiave BIGINT) e intervallo di stampa dell'avanzamento
+		long ll_bulkRows=0;
+		long ll_bulkPartitionRows=1000000;
+		int li_bulkConnections=4;
+		int li_bulkProducers=1;
+		int li_bulkRowsPerChunk=10000;
+		long ll_bulkCommitRows=100000;
+		int li_bulkQueueChunks=0;
+		CopyRowEncoder.Format lBulkFormat=CopyRowEncoder.Format.BINARY;
+		TableSchema lBulkSchema=null;
+		int li_bulkProgress=10;
+		boolean lbBulkOnly=false;
+		// latenza al crescere della tabella: righe ad ogni stadio (vuoto = disabilitato, caricate con i
+		// parametri del bulk load), schema (chiave BIGINT), SELECT e INSERT per stadio
+		long[] ll_scaleStages={};
+		TableSchema lScaleSchema=null;
+		int li_scaleSelects=100000;
+		int li_scaleInserts=10000;
+		boolean lbScaleOnly=false;
+		// metriche in tempo reale: intervallo di stampa in secondi (0 = nessuna stampa), MBean JMX e
+		// porta HTTP locale dell'endpoint in formato Prometheus (0 = disabilitato)
+		int li_metricsInterval=0;
+		boolean lbMetricsJmx=false;
+		int li_metricsPort=0;
+		// benchmark standard (INSERT, SELECT, concorrenti...), esclusi con sweepOnly o bulkLoadOnly
+		boolean lbStandard=true;
+		BenchConfig benchConfig = null;
 		
 		System.out.println( "Tentativo di connessione al DB..." );						
 		
@@ -529,6 +276,218 @@ public class App
 				li_maxRowsPerCommit = Integer.parseInt(props.getProperty("maxRowsPerCommit"));
 				// Numero massimo di righe da inserire
 				li_maxRowsInserted = Integer.parseInt(props.getProperty("maxRowsInserted"));
+				// Numero di INSERT per ogni executeBatch
+				li_rowsPerBatch = Integer.parseInt(props.getProperty("rowsPerBatch", String.valueOf(li_maxRowsPerCommit)).trim());
+				// Numero di worker thread per i benchmark concorrenti
+				li_concurrentThreads = BenchConfig.parseIntList(props.getProperty("concurrentThreads"));
+				// Formati del caricamento tramite COPY (default: text e binary)
+				String[] lsCopyFormats = props.getProperty("copyFormats", "text,binary").split(",");
+				java.util.List<CopyRowEncoder.Format> lFormats = new java.util.ArrayList<CopyRowEncoder.Format>();
+				for (String lsFormat : lsCopyFormats) {
+					if (!lsFormat.trim().isEmpty()) {
+						lFormats.add(CopyRowEncoder.Format.valueOf(lsFormat.trim().toUpperCase()));
+					}
+				}
+				lCopyFormats = lFormats.toArray(lCopyFormats);
+				// prepareThreshold del driver per le select con statement riutilizzato
+				if (props.getProperty("prepareThreshold") != null) {
+					li_prepareThresholds = BenchConfig.parseIntList(props.getProperty("prepareThreshold"));
+				}
+				// Strategie di INSERT multi-riga
+				if (props.getProperty("rowsPerStatement") != null) {
+					li_rowsPerStatement = BenchConfig.parseIntList(props.getProperty("rowsPerStatement"));
+				}
+				lbMultiValuesInserts = Boolean.parseBoolean(props.getProperty("multiRowValuesInserts", "false").trim());
+				lbUnnestInserts = Boolean.parseBoolean(props.getProperty("unnestInserts", "false").trim());
+				lbReWriteBatchedInserts = Boolean.parseBoolean(props.getProperty("reWriteBatchedInserts", "false").trim());
+				// Select per PK con piu' chiavi per round trip
+				li_pipelineDepths = BenchConfig.parseIntList(props.getProperty("pipelineDepths"));
+				lsPipelineModes = props.getProperty("pipelineModes", "array,pipeline").split(",");
+				for (int m=0; m<lsPipelineModes.length; m++) {
+					lsPipelineModes[m] = lsPipelineModes[m].trim().toLowerCase();
+					if (!lsPipelineModes[m].equals("array") && !lsPipelineModes[m].equals("pipeline")) {
+						throw new IllegalArgumentException("pipelineModes non valido: " + lsPipelineModes[m]);
+					}
+				}
+				// Generatore delle righe inserite
+				lRowGenerator = RowGenerator.Type.valueOf(props.getProperty("rowGenerator", "buffered").trim().toUpperCase());
+				// Sweep dei parametri di INSERT a blocchi
+				li_sweepRows = BenchConfig.parseIntList(props.getProperty("sweepRows"));
+				li_sweepCommits = BenchConfig.parseIntList(props.getProperty("sweepCommitSizes"));
+				li_sweepBatches = BenchConfig.parseIntList(props.getProperty("sweepBatchSizes"));
+				li_sweepThreads = BenchConfig.parseIntList(props.getProperty("sweepThreads"));
+				lbSweep = li_sweepRows.length + li_sweepCommits.length + li_sweepBatches.length + li_sweepThreads.length > 0;
+				if (li_sweepRows.length == 0) li_sweepRows = new int[] {li_maxRowsInserted};
+				if (li_sweepCommits.length == 0) li_sweepCommits = new int[] {li_maxRowsPerCommit};
+				if (li_sweepBatches.length == 0) li_sweepBatches = new int[] {li_rowsPerBatch};
+				if (li_sweepThreads.length == 0) li_sweepThreads = new int[] {1};
+				li_sweepWarmups = Integer.parseInt(props.getProperty("sweepWarmups", "1").trim());
+				li_sweepTrials = Integer.parseInt(props.getProperty("sweepTrials", "3").trim());
+				lbSweepOnly = lbSweep && Boolean.parseBoolean(props.getProperty("sweepOnly", "false").trim());
+				// Bulk load parallelo con COPY
+				ll_bulkRows = Long.parseLong(props.getProperty("bulkLoadRows", "0").trim());
+				ll_bulkPartitionRows = Long.parseLong(props.getProperty("bulkPartitionRows", "1000000").trim());
+				li_bulkConnections = Integer.parseInt(props.getProperty("bulkConnections", "4").trim());
+				li_bulkProducers = Integer.parseInt(props.getProperty("bulkProducers", "1").trim());
+				li_bulkRowsPerChunk = Integer.parseInt(props.getProperty("bulkRowsPerChunk", "10000").trim());
+				ll_bulkCommitRows = Long.parseLong(props.getProperty("bulkCommitRows", "100000").trim());
+				li_bulkQueueChunks = Integer.parseInt(props.getProperty("bulkQueueChunks", String.valueOf(2 * li_bulkConnections)).trim());
+				lBulkFormat = CopyRowEncoder.Format.valueOf(props.getProperty("bulkFormat", "binary").trim().toUpperCase());
+				lBulkSchema = TableSchema.parse(props.getProperty("bulkSchema", "bigint"));
+				li_bulkProgress = Integer.parseInt(props.getProperty("bulkProgressSeconds", "10").trim());
+				lbBulkOnly = ll_bulkRows > 0 && Boolean.parseBoolean(props.getProperty("bulkLoadOnly", "false").trim());
+				// Latenza al crescere della tabella
+				String[] lsScaleStages = props.getProperty("scaleStages", "").trim().split(",");
+				ll_scaleStages = new long[lsScaleStages[0].length() > 0 ? lsScaleStages.length : 0];
+				for (int s=0; s<ll_scaleStages.length; s++) {
+					ll_scaleStages[s] = Long.parseLong(lsScaleStages[s].trim());
+				}
+				lScaleSchema = TableSchema.parse(props.getProperty("scaleSchema", "bigint"));
+				li_scaleSelects = Integer.parseInt(props.getProperty("scaleSelects", "100000").trim());
+				li_scaleInserts = Integer.parseInt(props.getProperty("scaleInserts", "10000").trim());
+				lbScaleOnly = ll_scaleStages.length > 0 && Boolean.parseBoolean(props.getProperty("scaleOnly", "false").trim());
+				lbStandard = !lbSweepOnly && !lbBulkOnly && !lbScaleOnly;
+				// Metriche in tempo reale
+				li_metricsInterval = Integer.parseInt(props.getProperty("metricsIntervalSeconds", "0").trim());
+				lbMetricsJmx = Boolean.parseBoolean(props.getProperty("metricsJmx", "false").trim());
+				li_metricsPort = Integer.parseInt(props.getProperty("metricsPort", "0").trim());
+				// File dei risultati
+				lsResultsJson = props.getProperty("resultsJson", "").trim();
+				lsResultsCsv = props.getProperty("resultsCsv", "").trim();
+				// Esecuzioni di riscaldamento e misurate di ogni fase
+				li_warmupRuns = Integer.parseInt(props.getProperty("warmupRuns", "0").trim());
+				li_trials = Integer.parseInt(props.getProperty("trials", "1").trim());
+				// Statistiche lato server
+				lbServerStats = Boolean.parseBoolean(props.getProperty("serverStats", "false").trim());
+				li_serverStatsDelay = Integer.parseInt(props.getProperty("serverStatsDelayMs", "1000").trim());
+				// Carico misto OLTP
+				li_mixedOps = Integer.parseInt(props.getProperty("mixedWorkloadOps", "0").trim());
+				li_mixedThreads = Integer.parseInt(props.getProperty("mixedWorkloadThreads", "1").trim());
+				if (props.getProperty("mixedWorkloadRatios") != null) {
+					li_mixedRatios = BenchConfig.parseIntList(props.getProperty("mixedWorkloadRatios"));
+				}
+				if (props.getProperty("mixedKeyDistributions") != null) {
+					String[] lsDistributions = props.getProperty("mixedKeyDistributions").split(",");
+					lMixedDistributions = new KeyDistribution.Type[lsDistributions.length];
+					for (int d=0; d<lsDistributions.length; d++) {
+						lMixedDistributions[d] = KeyDistribution.Type.valueOf(lsDistributions[d].trim().toUpperCase());
+					}
+				}
+				ld_zipfianTheta = Double.parseDouble(props.getProperty("zipfianTheta", String.valueOf(ZipfianGenerator.DEFAULT_THETA)).trim());
+				// Cache read-through delle SELECT per PK
+				li_cacheSizes = BenchConfig.parseIntList(props.getProperty("cacheSizes"));
+				if (props.getProperty("cachePolicies") != null) {
+					String[] lsPolicies = props.getProperty("cachePolicies").split(",");
+					lCachePolicies = new PKCache.Policy[lsPolicies.length];
+					for (int c=0; c<lsPolicies.length; c++) {
+						lCachePolicies[c] = PKCache.Policy.valueOf(lsPolicies[c].trim().toUpperCase());
+					}
+				}
+				li_cacheSegments = Integer.parseInt(props.getProperty("cacheSegments", "16").trim());
+				li_cacheOps = Integer.parseInt(props.getProperty("cacheOps", "100000").trim());
+				li_cacheThreads = Integer.parseInt(props.getProperty("cacheThreads", "4").trim());
+				li_cacheUpdatePercent = Integer.parseInt(props.getProperty("cacheUpdatePercent", "5").trim());
+				li_cacheInsertPercent = Integer.parseInt(props.getProperty("cacheInsertPercent", "5").trim());
+				if (props.getProperty("cacheKeyDistributions") != null) {
+					String[] lsDistributions = props.getProperty("cacheKeyDistributions").split(",");
+					lCacheDistributions = new KeyDistribution.Type[lsDistributions.length];
+					for (int d=0; d<lsDistributions.length; d++) {
+						lCacheDistributions[d] = KeyDistribution.Type.valueOf(lsDistributions[d].trim().toUpperCase());
+					}
+				}
+				// Contesa sulle stesse righe con livelli di isolamento diversi
+				li_contentionTx = Integer.parseInt(props.getProperty("contentionTransactions", "0").trim());
+				li_contentionThreads = Integer.parseInt(props.getProperty("contentionThreads", "8").trim());
+				li_contentionHotRows = Integer.parseInt(props.getProperty("contentionHotRows", "100").trim());
+				li_contentionRowsPerTx = Integer.parseInt(props.getProperty("contentionRowsPerTx", "2").trim());
+				if (props.getProperty("contentionIsolationLevels") != null) {
+					String[] lsLevels = props.getProperty("contentionIsolationLevels").split(",");
+					li_contentionIsolation = new int[lsLevels.length];
+					for (int c=0; c<lsLevels.length; c++) {
+						li_contentionIsolation[c] = ContentionBenchmark.parseIsolation(lsLevels[c]);
+					}
+				}
+				if (props.getProperty("contentionPatterns") != null) {
+					String[] lsPatterns = props.getProperty("contentionPatterns").split(",");
+					lContentionPatterns = new ContentionBenchmark.Pattern[lsPatterns.length];
+					for (int c=0; c<lsPatterns.length; c++) {
+						lContentionPatterns[c] = ContentionBenchmark.Pattern.valueOf(lsPatterns[c].trim().toUpperCase());
+					}
+				}
+				li_contentionMaxRetries = Integer.parseInt(props.getProperty("contentionMaxRetries", "10").trim());
+				li_contentionBackoffMs = Integer.parseInt(props.getProperty("contentionBackoffMs", "1").trim());
+				// UPDATE e UPSERT
+				li_updateRows = Integer.parseInt(props.getProperty("updateRows", "0").trim());
+				if (props.getProperty("updateOperations") != null) {
+					String[] lsOperations = props.getProperty("updateOperations").split(",");
+					lUpdateOperations = new UpdateBenchmark.Operation[lsOperations.length];
+					for (int o=0; o<lsOperations.length; o++) {
+						lUpdateOperations[o] = UpdateBenchmark.Operation.valueOf(lsOperations[o].trim().toUpperCase());
+					}
+				}
+				if (props.getProperty("updateModes") != null) {
+					String[] lsModes = props.getProperty("updateModes").split(",");
+					lUpdateModes = new UpdateBenchmark.Mode[lsModes.length];
+					for (int m=0; m<lsModes.length; m++) {
+						lUpdateModes[m] = UpdateBenchmark.Mode.valueOf(lsModes[m].trim().toUpperCase());
+					}
+				}
+				if (props.getProperty("updateSchemas") != null) {
+					String[] lsSchemas = props.getProperty("updateSchemas").split(",");
+					lUpdateSchemas = new TableSchema[lsSchemas.length];
+					for (int v=0; v<lsSchemas.length; v++) {
+						lUpdateSchemas[v] = TableSchema.parse(lsSchemas[v]);
+					}
+				}
+				li_updateThreads = Integer.parseInt(props.getProperty("updateThreads", "4").trim());
+				li_updateRangeRows = Integer.parseInt(props.getProperty("updateRangeRows", "1000").trim());
+				li_upsertNewPercent = Integer.parseInt(props.getProperty("upsertNewPercent", "50").trim());
+				// Benchmark a rate costante
+				li_openLoopRates = BenchConfig.parseIntList(props.getProperty("openLoopRates"));
+				li_openLoopDuration = Integer.parseInt(props.getProperty("openLoopDurationSeconds", "10").trim());
+				li_openLoopWorkers = Integer.parseInt(props.getProperty("openLoopWorkers", "1").trim());
+				lsOpenLoopOperations = props.getProperty("openLoopOperations", "select").split(",");
+				for (int m=0; m<lsOpenLoopOperations.length; m++) {
+					lsOpenLoopOperations[m] = lsOpenLoopOperations[m].trim().toLowerCase();
+					if (!lsOpenLoopOperations[m].equals("select") && !lsOpenLoopOperations[m].equals("insert")) {
+						throw new IllegalArgumentException("openLoopOperations non valido: " + lsOpenLoopOperations[m]);
+					}
+				}
+				// Varianti dello schema
+				String lsSchemaVariants = props.getProperty("schemaVariants", "").trim();
+				if (lsSchemaVariants.length() > 0) {
+					String[] lsVariants = lsSchemaVariants.split(",");
+					lSchemaVariants = new TableSchema[lsVariants.length];
+					for (int v=0; v<lsVariants.length; v++) {
+						lSchemaVariants[v] = TableSchema.parse(lsVariants[v]);
+					}
+				}
+				// Letture di molte righe con fetch-all, cursore e trasferimento binario
+				li_scanFetchSizes = BenchConfig.parseIntList(props.getProperty("scanFetchSizes"));
+				if (props.getProperty("scanRangeRows") != null) {
+					li_scanRangeRows = BenchConfig.parseIntList(props.getProperty("scanRangeRows"));
+				}
+				lsScanTransfers = props.getProperty("scanTransfers", "text,binary").split(",");
+				for (int m=0; m<lsScanTransfers.length; m++) {
+					lsScanTransfers[m] = lsScanTransfers[m].trim().toLowerCase();
+					if (!lsScanTransfers[m].equals("text") && !lsScanTransfers[m].equals("binary")) {
+						throw new IllegalArgumentException("scanTransfers non valido: " + lsScanTransfers[m]);
+					}
+				}
+				li_scanRows = Integer.parseInt(props.getProperty("scanRows", String.valueOf(li_maxRowsInserted)).trim());
+				// Simulazione di client concorrenti
+				li_loadClients = BenchConfig.parseIntList(props.getProperty("loadClients"));
+				li_loadDuration = Integer.parseInt(props.getProperty("loadDurationSeconds", "10").trim());
+				lLoadThinkTime = LoadGenerator.ThinkTime.valueOf(props.getProperty("loadThinkTime", "exponential").trim().toUpperCase());
+				li_loadThinkTimeMs = Integer.parseInt(props.getProperty("loadThinkTimeMs", "100").trim());
+				li_loadPoolSize = Integer.parseInt(props.getProperty("loadPoolSize", "10").trim());
+				li_loadInsertPercent = Integer.parseInt(props.getProperty("loadInsertPercent", "10").trim());
+				// Benchmark pool di connessioni vs una connessione per operazione
+				li_poolThreads = BenchConfig.parseIntList(props.getProperty("poolBenchmarkThreads"));
+				li_poolOps = Integer.parseInt(props.getProperty("poolBenchmarkOps", "10000").trim());
+				li_poolMinSize = Integer.parseInt(props.getProperty("poolMinSize", "1").trim());
+				li_poolMaxSize = Integer.parseInt(props.getProperty("poolMaxSize", "0").trim());
+				lbPoolValidate = Boolean.parseBoolean(props.getProperty("poolValidateOnBorrow", "false").trim());
 				} 
 			catch (Exception err) {
 				// verifica che il valore numerico specificato nel file di configurazione non ecceda la capacità degli int
@@ -536,11 +495,245 @@ public class App
 				lbOk=false;
 			} 
 
+			if (li_rowsPerBatch <= 0 || li_rowsPerBatch > li_maxRowsPerCommit) {
+				System.out.println("Il numero di insert per batch deve essere compreso tra 1 e il numero di righe per commit: " + li_rowsPerBatch);
+				lbOk=false;
+			}
+			
 			if (li_maxRowsPerCommit > MAX_NUM_ROWS_PER_COMMIT || li_maxRowsInserted > MAX_NUM_INSERT_SQL ) {
 				System.out.println("Il numero di insert previste oppure il numero di statement consentite prima di un commit supera il massimo consentito");
 				lbOk=false;
 			}		
 			
+			for (int liThreads : li_concurrentThreads) {
+				if (liThreads <= 0 || liThreads > li_maxRowsInserted) {
+					System.out.println("Il numero di thread concorrenti deve essere compreso tra 1 e il numero di righe inserite: " + liThreads);
+					lbOk=false;
+				}
+			}
+			
+			if (li_mixedOps > 0) {
+				int li_ratioSum = 0;
+				for (int liRatio : li_mixedRatios) {
+					li_ratioSum += liRatio < 0 ? 1000 : liRatio;
+				}
+				if (li_mixedRatios.length != 4 || li_ratioSum != 100) {
+					System.out.println("mixedWorkloadRatios deve contenere 4 percentuali (SELECT, UPDATE, INSERT, DELETE) con somma 100");
+					lbOk=false;
+				}
+				if (li_mixedThreads <= 0 || li_mixedThreads > li_mixedOps) {
+					System.out.println("Il numero di thread del carico misto deve essere compreso tra 1 e il numero di operazioni: " + li_mixedThreads);
+					lbOk=false;
+				}
+				if (ld_zipfianTheta <= 0 || ld_zipfianTheta >= 1) {
+					System.out.println("zipfianTheta deve essere compreso tra 0 e 1 (esclusi): " + ld_zipfianTheta);
+					lbOk=false;
+				}
+			}
+			
+			if (li_cacheSizes.length > 0) {
+				for (int liSize : li_cacheSizes) {
+					if (liSize <= 0) {
+						System.out.println("La capacita' della cache deve essere maggiore di 0: " + liSize);
+						lbOk=false;
+					}
+				}
+				if (li_cacheSegments <= 0) {
+					System.out.println("Il numero di segmenti della cache deve essere maggiore di 0: " + li_cacheSegments);
+					lbOk=false;
+				}
+				if (li_cacheThreads <= 0 || li_cacheThreads > li_cacheOps) {
+					System.out.println("Il numero di thread del benchmark della cache deve essere compreso tra 1 e il numero di operazioni: " + li_cacheThreads);
+					lbOk=false;
+				}
+				if (li_cacheUpdatePercent < 0 || li_cacheInsertPercent < 0 || li_cacheUpdatePercent + li_cacheInsertPercent > 100) {
+					System.out.println("Le percentuali di UPDATE e INSERT del benchmark della cache devono essere non negative con somma al massimo 100");
+					lbOk=false;
+				}
+				if (ld_zipfianTheta <= 0 || ld_zipfianTheta >= 1) {
+					System.out.println("zipfianTheta deve essere compreso tra 0 e 1 (esclusi): " + ld_zipfianTheta);
+					lbOk=false;
+				}
+			}
+			
+			if (li_contentionTx > 0) {
+				if (li_contentionThreads <= 0 || li_contentionThreads > li_contentionTx) {
+					System.out.println("Il numero di thread del benchmark di contesa deve essere compreso tra 1 e il numero di transazioni: " + li_contentionThreads);
+					lbOk=false;
+				}
+				if (li_contentionHotRows <= 0 || li_contentionHotRows > li_maxRowsInserted || li_contentionRowsPerTx <= 0) {
+					System.out.println("Le righe contese devono essere comprese tra 1 e il numero di righe inserite e le righe per transazione maggiori di 0");
+					lbOk=false;
+				}
+				if (li_contentionMaxRetries < 0 || li_contentionBackoffMs < 0) {
+					System.out.println("Ripetizioni e attesa prima di ripetere del benchmark di contesa non possono essere negative");
+					lbOk=false;
+				}
+			}
+			
+			if (li_updateRows > 0) {
+				if (li_updateRows > MAX_NUM_INSERT_SQL || li_updateThreads <= 0 || li_updateThreads > li_updateRows) {
+					System.out.println("Le righe del benchmark di UPDATE devono essere al massimo " + MAX_NUM_INSERT_SQL + " e i thread compresi tra 1 e il numero di righe");
+					lbOk=false;
+				}
+				if (li_updateRangeRows <= 0 || li_upsertNewPercent < 0 || li_upsertNewPercent > 100) {
+					System.out.println("Gli ID per RANGE_UPDATE devono essere maggiori di 0 e la percentuale di righe nuove compresa tra 0 e 100");
+					lbOk=false;
+				}
+				for (TableSchema lSchema : lUpdateSchemas) {
+					if (lSchema.getKeyType().equals("UUID")) {
+						System.out.println("Il benchmark di UPDATE richiede uno schema con chiave primaria ID (INTEGER o BIGINT): " + lSchema);
+						lbOk=false;
+					}
+				}
+			}
+			
+			if (li_openLoopRates.length > 0) {
+				for (int liRate : li_openLoopRates) {
+					if (liRate <= 0) {
+						System.out.println("Il rate obiettivo deve essere maggiore di 0: " + liRate);
+						lbOk=false;
+					}
+				}
+				if (li_openLoopDuration <= 0 || li_openLoopWorkers <= 0) {
+					System.out.println("Durata e numero di worker del benchmark a rate costante devono essere maggiori di 0");
+					lbOk=false;
+				}
+			}
+			
+			if (li_loadClients.length > 0) {
+				for (int liClients : li_loadClients) {
+					if (liClients <= 0) {
+						System.out.println("Il numero di client simulati deve essere maggiore di 0: " + liClients);
+						lbOk=false;
+					}
+				}
+				if (li_loadDuration <= 0 || li_loadThinkTimeMs < 0 || li_loadPoolSize <= 0 || li_loadInsertPercent < 0 || li_loadInsertPercent > 100) {
+					System.out.println("Parametri della simulazione client non validi (durata e pool > 0, think time >= 0, percentuale INSERT 0-100)");
+					lbOk=false;
+				}
+			}
+			
+			if (ll_bulkRows > 0 || ll_scaleStages.length > 0) {
+				if (ll_bulkPartitionRows <= 0 || li_bulkRowsPerChunk <= 0 || li_bulkRowsPerChunk > 1000000 || ll_bulkCommitRows <= 0) {
+					System.out.println("Le chiavi per partizione e le righe per commit del bulk load devono essere maggiori di 0 e le righe per COPY comprese tra 1 e 1000000");
+					lbOk=false;
+				}
+				if (li_bulkConnections <= 0 || li_bulkProducers <= 0 || li_bulkQueueChunks <= 0) {
+					System.out.println("Connessioni, produttori e blocchi in memoria del bulk load devono essere maggiori di 0");
+					lbOk=false;
+				}
+				if (lBulkSchema != null && !lBulkSchema.getKeyType().equals("BIGINT")) {
+					System.out.println("Il bulk load richiede uno schema con chiave BIGINT (es. bigint+unlogged): " + lBulkSchema);
+					lbOk=false;
+				}
+			}
+			
+			if (ll_scaleStages.length > 0) {
+				for (int s=0; s<ll_scaleStages.length; s++) {
+					if (ll_scaleStages[s] <= 0 || (s > 0 && ll_scaleStages[s] <= ll_scaleStages[s - 1])) {
+						System.out.println("Le righe degli stadi devono essere maggiori di 0 e crescenti: " + props.getProperty("scaleStages"));
+						lbOk=false;
+						break;
+					}
+				}
+				if (!lScaleSchema.getKeyType().equals("BIGINT")) {
+					System.out.println("Il benchmark di scalabilita' richiede uno schema con chiave BIGINT (es. bigint+payload=200): " + lScaleSchema);
+					lbOk=false;
+				}
+				if (li_scaleSelects <= 0 || li_scaleInserts < 0) {
+					System.out.println("Le SELECT per stadio devono essere maggiori di 0 e le INSERT non possono essere negative");
+					lbOk=false;
+				}
+			}
+			
+			if (li_scanFetchSizes.length > 0) {
+				for (int liFetchSize : li_scanFetchSizes) {
+					if (liFetchSize < 0) {
+						System.out.println("Il fetchSize delle letture non puo' essere negativo: " + liFetchSize);
+						lbOk=false;
+					}
+				}
+				for (int liRangeRows : li_scanRangeRows) {
+					if (liRangeRows < 0) {
+						System.out.println("Le righe per query delle letture non possono essere negative: " + liRangeRows);
+						lbOk=false;
+					}
+				}
+				if (li_scanRows <= 0 || li_scanRows > MAX_NUM_INSERT_SQL) {
+					System.out.println("Il numero di righe delle letture deve essere compreso tra 1 e " + MAX_NUM_INSERT_SQL + ": " + li_scanRows);
+					lbOk=false;
+				}
+			}
+			
+			for (int liDepth : li_pipelineDepths) {
+				if (liDepth <= 0 || liDepth > Short.MAX_VALUE) {
+					System.out.println("La profondita' della pipeline deve essere compresa tra 1 e " + Short.MAX_VALUE + ": " + liDepth);
+					lbOk=false;
+				}
+			}
+			
+			for (int liThreads : li_poolThreads) {
+				if (liThreads <= 0 || liThreads > li_poolOps) {
+					System.out.println("Il numero di thread del benchmark con pool deve essere compreso tra 1 e il numero di operazioni: " + liThreads);
+					lbOk=false;
+				}
+			}
+			
+			if (li_poolThreads.length > 0 && (li_poolMinSize < 0 || li_poolMaxSize < 0)) {
+				System.out.println("Le dimensioni del pool di connessioni non possono essere negative");
+				lbOk=false;
+			}
+			
+			if (lbSweep) {
+				for (int liRows : li_sweepRows) {
+					if (liRows <= 0 || liRows > MAX_NUM_INSERT_SQL) {
+						System.out.println("Il numero di righe dello sweep deve essere compreso tra 1 e " + MAX_NUM_INSERT_SQL + ": " + liRows);
+						lbOk=false;
+					}
+				}
+				for (int liCommit : li_sweepCommits) {
+					if (liCommit <= 0 || liCommit > MAX_NUM_ROWS_PER_COMMIT) {
+						System.out.println("Il numero di righe per commit dello sweep deve essere compreso tra 1 e " + MAX_NUM_ROWS_PER_COMMIT + ": " + liCommit);
+						lbOk=false;
+					}
+				}
+				for (int liBatch : li_sweepBatches) {
+					if (liBatch <= 0) {
+						System.out.println("Il numero di righe per batch dello sweep deve essere maggiore di 0: " + liBatch);
+						lbOk=false;
+					}
+				}
+				for (int liThreads : li_sweepThreads) {
+					if (liThreads <= 0) {
+						System.out.println("Il numero di thread dello sweep deve essere maggiore di 0: " + liThreads);
+						lbOk=false;
+					}
+				}
+				if (li_sweepWarmups < 0 || li_sweepTrials <= 0) {
+					System.out.println("Lo sweep richiede almeno un'esecuzione misurata e un numero di esecuzioni di riscaldamento non negativo");
+					lbOk=false;
+				}
+			}
+			
+			if (li_warmupRuns < 0 || li_trials <= 0) {
+				System.out.println("Ogni fase richiede almeno un'esecuzione misurata (trials) e un numero di esecuzioni di riscaldamento (warmupRuns) non negativo");
+				lbOk=false;
+			}
+			
+			for (int liRows : li_rowsPerStatement) {
+				// il protocollo di PostgreSQL ammette al massimo 32767 parametri per statement (4 per riga)
+				if (liRows <= 0 || liRows * 4 > Short.MAX_VALUE) {
+					System.out.println("Il numero di righe per statement deve essere compreso tra 1 e " + Short.MAX_VALUE / 4 + ": " + liRows);
+					lbOk=false;
+				}
+			}
+			
+			if (li_metricsInterval < 0 || li_metricsPort < 0 || li_metricsPort > 65535) {
+				System.out.println("L'intervallo delle metriche non puo' essere negativo e la porta deve essere compresa tra 0 e 65535");
+				lbOk=false;
+			}
+			
 			if (lbOk) {	
 				System.out.println("Database Name:" + lsDatabase);
 				System.out.println("Database User:" + lsDBbUser);
@@ -549,6 +742,27 @@ public class App
 				System.out.println("JDBC URL:" + lsJdbcURL);
 				System.out.println("Max rows per commit:" + li_maxRowsPerCommit);
 				System.out.println("Max rows inserted:" + li_maxRowsInserted);
+				System.out.println("Rows per batch:" + li_rowsPerBatch);
+				System.out.println("Row generator:" + lRowGenerator);
+				if (li_warmupRuns > 0 || li_trials > 1) {
+					System.out.println("Warmup runs:" + li_warmupRuns);
+					System.out.println("Trials:" + li_trials);
+				}
+				if (lbServerStats) {
+					System.out.println("Server stats delay ms:" + li_serverStatsDelay);
+				}
+				if (li_concurrentThreads.length > 0) {
+					System.out.println("Concurrent threads:" + props.getProperty("concurrentThreads"));
+				}
+				if (ll_bulkRows > 0) {
+					System.out.println("Bulk load rows:" + ll_bulkRows);
+				}
+				if (ll_scaleStages.length > 0) {
+					System.out.println("Scale stages:" + props.getProperty("scaleStages").trim() + " schema:" + lScaleSchema);
+				}
+				if (li_metricsInterval > 0 || lbMetricsJmx || li_metricsPort > 0) {
+					System.out.println("Metrics interval seconds:" + li_metricsInterval + " JMX:" + lbMetricsJmx + " port:" + li_metricsPort);
+				}
 			}
 
 		} catch (IOException ex) {
@@ -573,6 +787,7 @@ public class App
 				 System.out.println("url DB:" + url);	
 				 Class.forName(lsClassDriverJDBC);
 				 con = DriverManager.getConnection(url, lsDBbUser,lsDbPassword);
+				 benchConfig = new BenchConfig(url, lsDBbUser, lsDbPassword, props);
 				
 				 System.out.println( "Connessione DB OK!" );
 				
@@ -589,8 +804,15 @@ public class App
 			
 			try {
 				DBOps = new DBOperation();
+				DBOps.setThroughputInterval(benchConfig.getIntProperty("throughputIntervalMs", 1000));
+				DBOps.setRowGenerator(lRowGenerator);
+				serverStats = new ServerStats(benchConfig, lbServerStats, "TEST_TABLE", li_serverStatsDelay);
+				phase = new BenchPhase(serverStats, li_warmupRuns, li_trials);
+				if (li_metricsInterval > 0 || lbMetricsJmx || li_metricsPort > 0) {
+					LiveMetrics.start(li_metricsInterval, lbMetricsJmx, li_metricsPort);
+				}
 				lb_exists_table = DBOps.tableExist(con,"test_table");
-				} catch (SQLException e) {
+				} catch (SQLException | IOException | javax.management.JMException e) {
 					System.out.println(e.getMessage());
 					lbOk=false;
 				}
@@ -617,16 +839,76 @@ public class App
 			}	
 		}
 		
-		if (lbOk) {
+		if (lbOk && lbStandard) {
 			// insert con commit ogni X statements
 			try {
 				System.out.println("Inizio inserimento in tabella... ");
 				// benchmark INSERT STATEMENT a blocchi di li_maxRowsPerCommit INSERT (modalità addBatch)
-				DBOps.InsertIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_maxRowsInserted, false);
+				// ogni esecuzione (di riscaldamento o misurata) parte da una tabella vuota appena creata
+				for (phase.start("INSERT batch"); phase.next(); ) {
+					DBOps.DropTable(con, "TEST_TABLE");
+					DBOps.createTable(con,"TEST_TABLE");
+					phase.begin();
+					DBOps.InsertIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_rowsPerBatch, li_maxRowsInserted, false);
+					phase.end(con);
+				}
 				// benchmark INSERT STATEMENT con insert sequenziali (no modalità batch)
-				DBOps.DropTable(con, "TEST_TABLE");
-				DBOps.createTable(con,"TEST_TABLE");
-				DBOps.InsertIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_maxRowsInserted, true);
+				for (phase.start("INSERT sequenziali"); phase.next(); ) {
+					DBOps.DropTable(con, "TEST_TABLE");
+					DBOps.createTable(con,"TEST_TABLE");
+					phase.begin();
+					DBOps.InsertIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_maxRowsInserted, true);
+					phase.end(con);
+				}
+				// benchmark caricamento con COPY FROM STDIN (un COPY ogni li_maxRowsPerCommit righe)
+				for (CopyRowEncoder.Format lFormat : lCopyFormats) {
+					for (phase.start("COPY " + lFormat); phase.next(); ) {
+						DBOps.DropTable(con, "TEST_TABLE");
+						DBOps.createTable(con,"TEST_TABLE");
+						phase.begin();
+						DBOps.CopyIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_maxRowsInserted, lFormat);
+						phase.end(con);
+					}
+				}
+				// benchmark INSERT multi-riga (VALUES multipli e unnest di array) per ogni numero di righe per statement
+				for (int liRows : li_rowsPerStatement) {
+					if (lbMultiValuesInserts) {
+						for (phase.start("INSERT multi-riga VALUES " + liRows + " righe"); phase.next(); ) {
+							DBOps.DropTable(con, "TEST_TABLE");
+							DBOps.createTable(con,"TEST_TABLE");
+							phase.begin();
+							DBOps.InsertMultiValuesIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_maxRowsInserted, liRows);
+							phase.end(con);
+						}
+					}
+					if (lbUnnestInserts) {
+						for (phase.start("INSERT unnest " + liRows + " righe"); phase.next(); ) {
+							DBOps.DropTable(con, "TEST_TABLE");
+							DBOps.createTable(con,"TEST_TABLE");
+							phase.begin();
+							DBOps.InsertUnnestIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_maxRowsInserted, liRows);
+							phase.end(con);
+						}
+					}
+				}
+				// benchmark INSERT a blocchi (addBatch) con la riscrittura multi-riga dei batch da parte del driver
+				if (lbReWriteBatchedInserts) {
+					Properties lRewriteProps = new Properties();
+					lRewriteProps.setProperty("reWriteBatchedInserts", "true");
+					Connection lRewriteConn = benchConfig.openConnection(lRewriteProps);
+					try {
+						System.out.println("Connessione con reWriteBatchedInserts=true");
+						for (phase.start("INSERT batch reWriteBatchedInserts"); phase.next(); ) {
+							DBOps.DropTable(con, "TEST_TABLE");
+							DBOps.createTable(con,"TEST_TABLE");
+							phase.begin();
+							DBOps.InsertIntoTable(lRewriteConn, "TEST_TABLE", li_maxRowsPerCommit, li_rowsPerBatch, li_maxRowsInserted, false);
+							phase.end(lRewriteConn);
+						}
+					} finally {
+						lRewriteConn.close();
+					}
+				}
 				System.out.println("Fine inserimento in tabella... ");
 
 			} catch (SQLException e) {
@@ -636,11 +918,39 @@ public class App
 					
 		}
 		
-		if (lbOk) {
+		if (lbOk && lbStandard) {
 			// select statements (calcolo tempo medio, minimo e massimo)
 			try {
 				System.out.println("Inizio select in tabella per PK... ");
-				DBOps.SelectFromTableTime(con, "TEST_TABLE", li_maxRowsInserted);
+				// select "cold" su una connessione senza cache degli statement del driver
+				Connection lColdConn = benchConfig.openConnection(DBOperation.coldConnectionProperties());
+				try {
+					for (phase.start("SELECT per PK"); phase.next(); ) {
+						phase.begin();
+						DBOps.SelectFromTableTime(lColdConn, "TEST_TABLE", li_maxRowsInserted);
+						phase.end(lColdConn);
+					}
+				} finally {
+					lColdConn.close();
+				}
+				// stesse select con un unico PreparedStatement per ogni valore di prepareThreshold
+				for (int liThreshold : li_prepareThresholds) {
+					for (phase.start("SELECT prepareThreshold " + liThreshold); phase.next(); ) {
+						phase.begin();
+						DBOps.SelectFromTableTimeReused(con, "TEST_TABLE", li_maxRowsInserted, liThreshold);
+						phase.end(con);
+					}
+				}
+				// select con piu' chiavi per round trip, per ogni modalita' e profondita'
+				for (String lsMode : lsPipelineModes) {
+					for (int liDepth : li_pipelineDepths) {
+						for (phase.start("SELECT " + lsMode + " profondita' " + liDepth); phase.next(); ) {
+							phase.begin();
+							DBOps.SelectFromTableTimePipelined(con, "TEST_TABLE", li_maxRowsInserted, liDepth, lsMode.equals("array"));
+							phase.end(con);
+						}
+					}
+				}
 				System.out.println("Fine benchmark select");
 			} catch (SQLException e) {
 				System.out.println(e.getMessage());
@@ -648,8 +958,347 @@ public class App
 			}
 		}
 		
+		if (lbOk && lbStandard && li_concurrentThreads.length > 0) {
+			// benchmark concorrenti: N worker thread, ognuno con la propria connessione e
+			// con un intervallo di ID disgiunto. La tabella viene ricreata per ogni livello di concorrenza.
+			try {
+				ConcurrentBenchmark concBench = new ConcurrentBenchmark(benchConfig, DBOps);
+				for (int liThreads : li_concurrentThreads) {
+					System.out.println("Inizio benchmark concorrenti con " + liThreads + " thread... ");
+					for (phase.start("INSERT concorrenti " + liThreads + " thread"); phase.next(); ) {
+						DBOps.DropTable(con, "TEST_TABLE");
+						DBOps.createTable(con,"TEST_TABLE");
+						phase.begin();
+						concBench.InsertIntoTableConcurrent("TEST_TABLE", liThreads, li_maxRowsPerCommit, li_rowsPerBatch, li_maxRowsInserted, false);
+						phase.end();
+					}
+					for (phase.start("SELECT concorrenti " + liThreads + " thread"); phase.next(); ) {
+						phase.begin();
+						concBench.SelectFromTableTimeConcurrent("TEST_TABLE", liThreads, li_maxRowsInserted);
+						phase.end();
+					}
+				}
+				System.out.println("Fine benchmark concorrenti");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && li_poolThreads.length > 0) {
+			// benchmark pool di connessioni vs una connessione per operazione: ogni INSERT e ogni
+			// SELECT ottiene e rilascia una connessione. La tabella viene ricreata per ogni modalita'.
+			try {
+				PoolBenchmark poolBench = new PoolBenchmark(benchConfig, DBOps);
+				poolBench.setPoolSize(li_poolMinSize, li_poolMaxSize, lbPoolValidate);
+				for (int liThreads : li_poolThreads) {
+					for (PoolBenchmark.Mode lMode : PoolBenchmark.Mode.values()) {
+						System.out.println("Inizio benchmark " + lMode + " con " + liThreads + " thread... ");
+						for (phase.start("INSERT " + lMode + " " + liThreads + " thread"); phase.next(); ) {
+							DBOps.DropTable(con, "TEST_TABLE");
+							DBOps.createTable(con,"TEST_TABLE");
+							phase.begin();
+							poolBench.InsertIntoTablePooled("TEST_TABLE", liThreads, li_poolOps, lMode);
+							phase.end();
+						}
+						for (phase.start("SELECT " + lMode + " " + liThreads + " thread"); phase.next(); ) {
+							phase.begin();
+							poolBench.SelectFromTablePooled("TEST_TABLE", liThreads, li_poolOps, lMode);
+							phase.end();
+						}
+					}
+				}
+				System.out.println("Fine benchmark pool di connessioni");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && li_mixedOps > 0) {
+			// carico misto OLTP: per ogni distribuzione delle chiavi la tabella viene ricreata e
+			// popolata, in modo che ogni esecuzione parta dallo stesso stato
+			try {
+				System.out.println("Inizio carico misto OLTP... ");
+				for (KeyDistribution.Type lType : lMixedDistributions) {
+					for (phase.start("carico misto " + lType); phase.next(); ) {
+						DBOps.DropTable(con, "TEST_TABLE");
+						DBOps.createTable(con,"TEST_TABLE");
+						DBOps.InsertRangeIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_rowsPerBatch, 1, li_maxRowsInserted, false);
+						MixedWorkload mixed = new MixedWorkload(benchConfig, DBOps, li_maxRowsInserted);
+						phase.begin();
+						mixed.run("TEST_TABLE", li_mixedThreads, li_mixedOps, li_mixedRatios, new KeyDistribution(lType, li_maxRowsInserted, ld_zipfianTheta));
+						phase.end();
+					}
+				}
+				System.out.println("Fine carico misto OLTP");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && li_cacheSizes.length > 0) {
+			// cache read-through delle SELECT per PK: per ogni distribuzione delle chiavi un'esecuzione senza
+			// cache (riferimento) e una per ogni politica e capacita'. Ogni esecuzione parte da una tabella
+			// ricreata e popolata e da una cache vuota
+			try {
+				System.out.println("Inizio benchmark cache read-through per PK... ");
+				for (KeyDistribution.Type lType : lCacheDistributions) {
+					for (int c=-1; c<lCachePolicies.length * li_cacheSizes.length; c++) {
+						PKCache.Policy lPolicy = c < 0 ? null : lCachePolicies[c / li_cacheSizes.length];
+						int liSize = c < 0 ? 0 : li_cacheSizes[c % li_cacheSizes.length];
+						for (phase.start("CACHE " + (lPolicy == null ? "nessuna cache" : lPolicy + " " + liSize) + " " + lType); phase.next(); ) {
+							DBOps.DropTable(con, "TEST_TABLE");
+							DBOps.createTable(con,"TEST_TABLE");
+							DBOps.InsertRangeIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_rowsPerBatch, 1, li_maxRowsInserted, false);
+							CacheBenchmark cacheBench = new CacheBenchmark(benchConfig, DBOps, li_maxRowsInserted);
+							PKCache<PKStatements.Row> cache = lPolicy == null ? null : new PKCache<PKStatements.Row>(lPolicy, liSize, li_cacheSegments);
+							phase.begin();
+							cacheBench.run("TEST_TABLE", li_cacheThreads, li_cacheOps, li_cacheUpdatePercent, li_cacheInsertPercent,
+									new KeyDistribution(lType, li_maxRowsInserted, ld_zipfianTheta), cache);
+							phase.end(con);
+						}
+					}
+				}
+				System.out.println("Fine benchmark cache read-through per PK");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && li_contentionTx > 0) {
+			// transazioni concorrenti sulle stesse righe per ogni livello di isolamento e modalita' di
+			// accesso. La tabella viene ricreata e popolata una sola volta.
+			try {
+				System.out.println("Inizio benchmark di contesa sulle righe... ");
+				DBOps.DropTable(con, "TEST_TABLE");
+				DBOps.createTable(con,"TEST_TABLE");
+				DBOps.InsertRangeIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_rowsPerBatch, 1, li_maxRowsInserted, false);
+				ContentionBenchmark contention = new ContentionBenchmark(benchConfig, DBOps, li_contentionMaxRetries, li_contentionBackoffMs);
+				for (int liIsolation : li_contentionIsolation) {
+					for (ContentionBenchmark.Pattern lPattern : lContentionPatterns) {
+						for (phase.start("CONTESA " + ContentionBenchmark.isolationName(liIsolation) + " " + lPattern); phase.next(); ) {
+							phase.begin();
+							contention.run(con, "TEST_TABLE", li_contentionThreads, li_contentionTx, liIsolation, lPattern, li_contentionHotRows, li_contentionRowsPerTx);
+							phase.end(con);
+						}
+					}
+				}
+				System.out.println("Fine benchmark di contesa sulle righe");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && li_updateRows > 0) {
+			// UPDATE per PK, UPDATE a intervalli e UPSERT, singoli, a batch e concorrenti, per ogni variante
+			// dello schema, con aggiornamenti HOT e tuple morte da pg_stat_user_tables
+			try {
+				System.out.println("Inizio benchmark UPDATE e UPSERT... ");
+				UpdateBenchmark updateBench = new UpdateBenchmark(benchConfig, DBOps, phase, li_serverStatsDelay);
+				updateBench.run(con, "TEST_TABLE", lUpdateSchemas, lUpdateOperations, lUpdateModes, li_updateRows, li_maxRowsPerCommit, li_rowsPerBatch,
+						li_updateThreads, li_updateRangeRows, li_upsertNewPercent);
+				// le fasi successive usano lo schema di default
+				DBOps.DropTable(con, "TEST_TABLE");
+				DBOps.createTable(con,"TEST_TABLE");
+				System.out.println("Fine benchmark UPDATE e UPSERT");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && li_openLoopRates.length > 0) {
+			// benchmark a rate costante: le operazioni partono secondo la schedulazione e non al termine
+			// della precedente. La tabella viene ricreata e popolata una sola volta.
+			try {
+				System.out.println("Inizio benchmark a rate costante... ");
+				DBOps.DropTable(con, "TEST_TABLE");
+				DBOps.createTable(con,"TEST_TABLE");
+				DBOps.InsertRangeIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_rowsPerBatch, 1, li_maxRowsInserted, false);
+				OpenLoopBenchmark openLoop = new OpenLoopBenchmark(benchConfig, DBOps, li_maxRowsInserted);
+				for (String lsOperation : lsOpenLoopOperations) {
+					for (int liRate : li_openLoopRates) {
+						for (phase.start(lsOperation + " open loop " + liRate + " ops/s"); phase.next(); ) {
+							phase.begin();
+							openLoop.run("TEST_TABLE", liRate, li_openLoopDuration, li_openLoopWorkers, lsOperation.equals("insert"));
+							phase.end();
+						}
+					}
+				}
+				System.out.println("Fine benchmark a rate costante");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && li_loadClients.length > 0) {
+			// simulazione di client concorrenti per lo piu' inattivi (un virtual thread per client)
+			// con un pool di connessioni limitato. La tabella viene ricreata e popolata una sola volta.
+			try {
+				System.out.println("Inizio simulazione client concorrenti... ");
+				DBOps.DropTable(con, "TEST_TABLE");
+				DBOps.createTable(con,"TEST_TABLE");
+				DBOps.InsertRangeIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_rowsPerBatch, 1, li_maxRowsInserted, false);
+				LoadGenerator loadGen = new LoadGenerator(benchConfig, DBOps, li_maxRowsInserted);
+				for (int liClients : li_loadClients) {
+					for (phase.start("simulazione " + liClients + " client"); phase.next(); ) {
+						phase.begin();
+						loadGen.run("TEST_TABLE", liClients, li_loadDuration, lLoadThinkTime, li_loadThinkTimeMs, li_loadPoolSize, li_loadInsertPercent);
+						phase.end();
+					}
+				}
+				System.out.println("Fine simulazione client concorrenti");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && li_scanFetchSizes.length > 0) {
+			// letture di molte righe (scansione completa e per intervalli) con fetch-all, cursore e
+			// trasferimento binario. La tabella viene ricreata e popolata una sola volta.
+			try {
+				System.out.println("Inizio letture di molte righe... ");
+				DBOps.DropTable(con, "TEST_TABLE");
+				DBOps.createTable(con,"TEST_TABLE");
+				DBOps.InsertRangeIntoTable(con, "TEST_TABLE", li_maxRowsPerCommit, li_rowsPerBatch, 1, li_scanRows, false);
+				ScanBenchmark scan = new ScanBenchmark(benchConfig, li_scanRows);
+				for (int liRangeRows : li_scanRangeRows) {
+					for (String lsTransfer : lsScanTransfers) {
+						for (int liFetchSize : li_scanFetchSizes) {
+							String lsPhase = "SCAN " + (liRangeRows > 0 ? "intervalli " + liRangeRows + " righe" : "completa")
+									+ (liFetchSize > 0 ? " fetchSize " + liFetchSize : " fetch-all") + " " + lsTransfer;
+							for (phase.start(lsPhase); phase.next(); ) {
+								phase.begin();
+								scan.run("TEST_TABLE", liRangeRows, liFetchSize, lsTransfer.equals("binary"));
+								phase.end();
+							}
+						}
+					}
+				}
+				System.out.println("Fine letture di molte righe");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbStandard && lSchemaVariants.length > 0) {
+			// INSERT a blocchi e SELECT per PK per ogni variante dello schema, con confronto finale
+			try {
+				System.out.println("Inizio benchmark varianti dello schema... ");
+				SchemaBenchmark schemaBench = new SchemaBenchmark(DBOps, phase);
+				schemaBench.run(con, "TEST_TABLE", lSchemaVariants, li_maxRowsPerCommit, li_rowsPerBatch, li_maxRowsInserted);
+				// le fasi successive usano lo schema di default
+				DBOps.DropTable(con, "TEST_TABLE");
+				DBOps.createTable(con,"TEST_TABLE");
+				System.out.println("Fine benchmark varianti dello schema");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && ll_bulkRows > 0) {
+			// bulk load parallelo con COPY su piu' connessioni; ogni esecuzione parte da una tabella
+			// vuota appena creata con lo schema del bulk load
+			try {
+				System.out.println("Inizio bulk load parallelo... ");
+				BulkLoader loader = new BulkLoader(benchConfig, lBulkFormat, li_bulkRowsPerChunk, ll_bulkCommitRows, li_bulkQueueChunks, li_bulkProducers, li_bulkProgress);
+				loader.setPayload(lBulkSchema.getPayload());
+				for (phase.start("BULK LOAD " + li_bulkConnections + " connessioni " + lBulkFormat + " schema " + lBulkSchema); phase.next(); ) {
+					DBOps.DropTable(con, "TEST_TABLE");
+					DBOps.createTable(con, "TEST_TABLE", lBulkSchema);
+					phase.begin();
+					loader.run("TEST_TABLE", ll_bulkRows, ll_bulkPartitionRows, li_bulkConnections);
+					phase.end(con);
+				}
+				// le fasi successive usano lo schema di default
+				DBOps.DropTable(con, "TEST_TABLE");
+				DBOps.createTable(con,"TEST_TABLE");
+				System.out.println("Fine bulk load parallelo");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && ll_scaleStages.length > 0) {
+			// SELECT e INSERT per PK con chiavi casuali ad ogni stadio di crescita della tabella
+			// (caricata con il bulk load), con la curva finale latenza vs dimensione
+			try {
+				System.out.println("Inizio benchmark di scalabilita' con la dimensione della tabella... ");
+				BulkLoader loader = new BulkLoader(benchConfig, lBulkFormat, li_bulkRowsPerChunk, ll_bulkCommitRows, li_bulkQueueChunks, li_bulkProducers, li_bulkProgress);
+				SizeScalingBenchmark scaling = new SizeScalingBenchmark(benchConfig, DBOps, phase, loader, li_serverStatsDelay);
+				scaling.run(con, "TEST_TABLE", lScaleSchema, ll_scaleStages, ll_bulkPartitionRows, li_bulkConnections,
+						li_scaleSelects, li_scaleInserts, li_maxRowsPerCommit);
+				// le fasi successive usano lo schema di default
+				DBOps.DropTable(con, "TEST_TABLE");
+				DBOps.createTable(con,"TEST_TABLE");
+				System.out.println("Fine benchmark di scalabilita' con la dimensione della tabella");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && lbSweep) {
+			// sweep dei parametri di INSERT a blocchi su tutte le combinazioni, con esecuzioni di
+			// riscaldamento e ripetute; la tabella viene svuotata con TRUNCATE prima di ogni esecuzione
+			try {
+				System.out.println("Inizio sweep dei parametri di INSERT... ");
+				ParameterSweep sweep = new ParameterSweep(benchConfig, DBOps);
+				sweep.run(con, "TEST_TABLE", li_sweepRows, li_sweepCommits, li_sweepBatches, li_sweepThreads, li_sweepWarmups, li_sweepTrials);
+				System.out.println("Fine sweep dei parametri di INSERT");
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
+		if (lbOk && (lsResultsJson.length() > 0 || lsResultsCsv.length() > 0)) {
+			// scrittura dei risultati strutturati, con l'ambiente di esecuzione e la configurazione
+			try {
+				BenchReport report = BenchReport.get();
+				report.setEnvironment("timestamp", java.time.OffsetDateTime.now().toString());
+				report.setEnvironment("java.version", System.getProperty("java.version"));
+				report.setEnvironment("java.vm.name", System.getProperty("java.vm.name"));
+				report.setEnvironment("os", System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch"));
+				report.setEnvironment("cpu", Integer.toString(Runtime.getRuntime().availableProcessors()));
+				report.setEnvironment("maxHeapMB", Long.toString(Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+				report.setEnvironment("driver", con.getMetaData().getDriverName() + " " + con.getMetaData().getDriverVersion());
+				report.setEnvironment("server", con.getMetaData().getDatabaseProductName() + " " + con.getMetaData().getDatabaseProductVersion());
+				report.setEnvironment("url", benchConfig.getUrl());
+				for (String lsKey : new java.util.TreeSet<String>(props.stringPropertyNames())) {
+					if (!lsKey.equals("dbpassword")) {
+						report.setEnvironment("config." + lsKey, props.getProperty(lsKey).trim());
+					}
+				}
+				if (lsResultsJson.length() > 0) {
+					report.writeJson(lsResultsJson);
+					System.out.println("Risultati scritti in " + lsResultsJson);
+				}
+				if (lsResultsCsv.length() > 0) {
+					report.writeCsv(lsResultsCsv);
+					System.out.println("Risultati scritti in " + lsResultsCsv);
+				}
+			} catch (SQLException | IOException e) {
+				System.out.println(e.getMessage());
+				lbOk=false;
+			}
+		}
+		
 		// chiusura connessione DB
+		LiveMetrics.stop();
 		try {
+			if (serverStats != null) {
+				serverStats.close();
+			}
 			DBOps.CloseConn(con);	
 		} catch (Exception e) {
 			System.out.println(e.getMessage());
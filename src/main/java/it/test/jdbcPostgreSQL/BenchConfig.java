@@ -0,0 +1,130 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * La classe BenchConfig contiene gli estremi di connessione al DB
+ * (URL, user e pwd) e le properties caricate da config.properties.
+ *
+ * <p>
+ * E' utilizzata dai benchmark che necessitano di aprire piu' connessioni
+ * verso il DB (es. un worker thread per connessione), in modo che ogni
+ * connessione venga creata con gli stessi parametri della connessione
+ * principale aperta in App.main.
+ *
+ */
+class BenchConfig
+{
+	private final String msUrl;
+	private final String msUser;
+	private final String msPassword;
+	private final Properties mProps;
+
+	BenchConfig(String asUrl, String asUser, String asPassword, Properties aProps) {
+		msUrl = asUrl;
+		msUser = asUser;
+		msPassword = asPassword;
+		mProps = aProps;
+	}
+
+  /**
+   * Apre una nuova connessione al DB.
+   *
+   * @return Connection nuova connessione
+   */
+	public Connection openConnection() throws SQLException {
+		return DriverManager.getConnection(msUrl, msUser, msPassword);
+	}
+
+  /**
+   * Apre una nuova connessione al DB aggiungendo le properties del driver
+   * indicate (es. reWriteBatchedInserts=true).
+   *
+   * @param aDriverProps properties aggiuntive della connessione
+   * @return Connection nuova connessione
+   */
+	public Connection openConnection(Properties aDriverProps) throws SQLException {
+		Properties lProps = new Properties();
+		lProps.putAll(aDriverProps);
+		lProps.setProperty("user", msUser);
+		lProps.setProperty("password", msPassword);
+		return DriverManager.getConnection(msUrl, lProps);
+	}
+
+	public String getUrl() {
+		return msUrl;
+	}
+
+	public Properties getProperties() {
+		return mProps;
+	}
+
+  /**
+   * Restituisce il valore intero di una property, oppure il valore di
+   * default se la property non e' presente.
+   *
+   * @param asKey nome della property
+   * @param ai_default valore di default
+   * @return int valore della property
+   */
+	public int getIntProperty(String asKey, int ai_default) {
+		String lsValue = mProps.getProperty(asKey);
+		if (lsValue == null || lsValue.trim().isEmpty()) {
+			return ai_default;
+		}
+		return Integer.parseInt(lsValue.trim());
+	}
+
+  /**
+   * Converte una lista di interi separati da virgola (es. "1,2,4,8")
+   * in un array. Ogni elemento puo' essere anche un intervallo
+   * "inizio..fine" con passo additivo "+N" (default +1) oppure
+   * moltiplicativo "xN": "1..4" = 1,2,3,4, "1000..20000+5000" =
+   * 1000,6000,11000,16000, "100..10000x10" = 100,1000,10000. Una stringa
+   * nulla o vuota restituisce un array vuoto.
+   *
+   * @param asValue lista di interi o intervalli separati da virgola
+   * @return int[] valori della lista
+   */
+	public static int[] parseIntList(String asValue) {
+		if (asValue == null || asValue.trim().isEmpty()) {
+			return new int[0];
+		}
+		List<Integer> lValues = new ArrayList<Integer>();
+		for (String lsItem : asValue.split(",")) {
+			lsItem = lsItem.trim();
+			int li_range = lsItem.indexOf("..");
+			if (li_range < 0) {
+				lValues.add(Integer.parseInt(lsItem));
+				continue;
+			}
+			int li_from = Integer.parseInt(lsItem.substring(0, li_range).trim());
+			String lsTo = lsItem.substring(li_range + 2).trim();
+			int li_step = 1;
+			boolean lb_multiply = false;
+			int li_op = Math.max(lsTo.indexOf('+'), lsTo.indexOf('x'));
+			if (li_op >= 0) {
+				lb_multiply = lsTo.charAt(li_op) == 'x';
+				li_step = Integer.parseInt(lsTo.substring(li_op + 1).trim());
+				lsTo = lsTo.substring(0, li_op).trim();
+			}
+			int li_to = Integer.parseInt(lsTo);
+			if (lb_multiply ? (li_step < 2 || li_from < 1) : li_step < 1) {
+				throw new NumberFormatException("Passo non valido nell'intervallo: " + lsItem);
+			}
+			for (long l_value=li_from; l_value<=li_to; l_value = lb_multiply ? l_value * li_step : l_value + li_step) {
+				lValues.add((int) l_value);
+			}
+		}
+		int[] li_values = new int[lValues.size()];
+		for (int i=0; i<li_values.length; i++) {
+			li_values[i] = lValues.get(i);
+		}
+		return li_values;
+	}
+}
@@ -0,0 +1,191 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe BenchPhase ripete una fase di benchmark con ai_warmups
+ * esecuzioni di riscaldamento (JIT, cache del DB e del sistema operativo,
+ * estensione dei file delle tabelle), escluse dai risultati, seguite da
+ * ai_trials esecuzioni misurate.
+ *
+ * <p>
+ * Ogni esecuzione e' delimitata da begin ed end: la preparazione (es.
+ * drop e create della tabella) eseguita prima di begin non viene misurata.
+ * Per le esecuzioni misurate begin ed end rilevano le statistiche lato
+ * server (ServerStats) e registrano i risultati in BenchReport con il
+ * numero dell'esecuzione; quelli delle esecuzioni di riscaldamento non
+ * vengono registrati. Con piu' esecuzioni misurate, al termine della fase
+ * viene stampato per ogni operazione il riepilogo di throughput, tempo
+ * medio e percentili: media, deviazione standard e intervallo di
+ * confidenza al 95% della media (distribuzione t di Student).
+ *
+ * <p>
+ * Utilizzo:
+ *
+ * <pre>
+ * for (phase.start("INSERT batch"); phase.next(); ) {
+ *     // preparazione
+ *     phase.begin();
+ *     // operazioni misurate
+ *     phase.end(conn);
+ * }
+ * </pre>
+ *
+ */
+class BenchPhase
+{
+	private static final double CONFIDENCE_LEVEL = 0.95;
+
+	private final ServerStats mServerStats;
+	private final int mi_warmups;
+	private final int mi_trials;
+	private String msPhase;
+	private int mi_run;
+
+  /**
+   * @param aServerStats rilevazione delle statistiche lato server
+   * @param ai_warmups esecuzioni di riscaldamento per fase (escluse dai risultati)
+   * @param ai_trials esecuzioni misurate per fase
+   */
+	BenchPhase(ServerStats aServerStats, int ai_warmups, int ai_trials) {
+		mServerStats = aServerStats;
+		mi_warmups = ai_warmups;
+		mi_trials = ai_trials;
+	}
+
+  /**
+   * Inizia la fase asPhase: le esecuzioni vengono scandite da next.
+   */
+	public BenchPhase start(String asPhase) {
+		msPhase = asPhase;
+		mi_run = 0;
+		return this;
+	}
+
+  /**
+   * Passa all'esecuzione successiva della fase. Dopo l'ultima esecuzione
+   * misurata stampa il riepilogo (con piu' esecuzioni misurate).
+   *
+   * @return boolean false se tutte le esecuzioni sono state completate
+   */
+	public boolean next() {
+		if (mi_run++ < mi_warmups + mi_trials) {
+			return true;
+		}
+		if (mi_trials > 1) {
+			printSummary();
+		}
+		return false;
+	}
+
+  /**
+   * Inizia la misura dell'esecuzione corrente.
+   */
+	public void begin() throws SQLException {
+		int li_trial = trial();
+		if (li_trial == 0) {
+			System.out.println("-- " + msPhase + ": esecuzione di riscaldamento " + mi_run + " di " + mi_warmups + " (esclusa dai risultati)");
+		} else if (mi_trials > 1) {
+			System.out.println("-- " + msPhase + ": esecuzione misurata " + li_trial + " di " + mi_trials);
+		}
+		BenchReport.get().beginPhase(msPhase, li_trial);
+		LiveMetrics.beginPhase(li_trial == 0 ? msPhase + " (riscaldamento)" : mi_trials > 1 ? msPhase + " #" + li_trial : msPhase);
+		if (li_trial > 0) {
+			mServerStats.begin();
+		}
+	}
+
+  /**
+   * Termina la misura dell'esecuzione corrente, eseguita su connessioni
+   * proprie (es. worker thread).
+   */
+	public void end() throws SQLException {
+		end(null);
+	}
+
+  /**
+   * Termina la misura dell'esecuzione corrente.
+   *
+   * @param aConn connessione usata dalla fase (null = nessuna)
+   */
+	public void end(Connection aConn) throws SQLException {
+		try {
+			if (trial() > 0) {
+				Map<String, Double> lDelta = mServerStats.end(msPhase, aConn);
+				if (lDelta != null) {
+					BenchReport.get().addServerStats(lDelta);
+				}
+			}
+		} finally {
+			LiveMetrics.endPhase();
+			BenchReport.get().endPhase();
+		}
+	}
+
+  /**
+   * Indica se l'esecuzione corrente e' misurata: i risultati delle
+   * esecuzioni di riscaldamento vanno esclusi dai riepiloghi.
+   */
+	public boolean isMeasured() {
+		return trial() > 0;
+	}
+
+	// 0 durante il riscaldamento, altrimenti numero dell'esecuzione misurata
+	private int trial() {
+		return mi_run <= mi_warmups ? 0 : mi_run - mi_warmups;
+	}
+
+	private void printSummary() {
+		// valori delle esecuzioni misurate per operazione, nell'ordine di registrazione
+		Map<String, List<BenchReport.Entry>> lOperations = new LinkedHashMap<String, List<BenchReport.Entry>>();
+		for (BenchReport.Entry lEntry : BenchReport.get().getEntries(msPhase)) {
+			List<BenchReport.Entry> lEntries = lOperations.get(lEntry.msOperation);
+			if (lEntries == null) {
+				lEntries = new ArrayList<BenchReport.Entry>();
+				lOperations.put(lEntry.msOperation, lEntries);
+			}
+			lEntries.add(lEntry);
+		}
+
+		System.out.println("************* RIEPILOGO " + msPhase + " (" + mi_trials + " esecuzioni misurate, " + mi_warmups + " di riscaldamento) ****************");
+		for (Map.Entry<String, List<BenchReport.Entry>> lOperation : lOperations.entrySet()) {
+			TrialStats lThroughput = new TrialStats();
+			TrialStats lRowThroughput = new TrialStats();
+			TrialStats lMean = new TrialStats();
+			TrialStats lP50 = new TrialStats();
+			TrialStats lP99 = new TrialStats();
+			for (BenchReport.Entry lEntry : lOperation.getValue()) {
+				lThroughput.add(lEntry.md_throughput);
+				lRowThroughput.add(lEntry.md_row_throughput);
+				lMean.add(lEntry.md_mean);
+				lP50.add(lEntry.ml_p50);
+				lP99.add(lEntry.ml_p99);
+			}
+			System.out.println("-- " + lOperation.getKey() + " (" + lThroughput.getCount() + " esecuzioni):");
+			print("Throughput ops/s", lThroughput);
+			if (lRowThroughput.getMean() > 0) {
+				print("Throughput righe/s", lRowThroughput);
+			}
+			print("Average time ns", lMean);
+			print("p50 ns", lP50);
+			print("p99 ns", lP99);
+		}
+	}
+
+	private static void print(String asLabel, TrialStats aStats) {
+		double ld_mean = aStats.getMean();
+		double ld_half = aStats.getConfidenceHalfWidth(CONFIDENCE_LEVEL);
+		System.out.println(asLabel + " media:" + format(ld_mean) + " dev.std:" + format(aStats.getStdDev())
+				+ " IC95%:[" + format(ld_mean - ld_half) + " - " + format(ld_mean + ld_half) + "]"
+				+ (ld_mean != 0 ? String.format(" (+/-%.1f%%)", 100.0 * ld_half / Math.abs(ld_mean)) : ""));
+	}
+
+	private static String format(double ad_value) {
+		return String.format(Math.abs(ad_value) < 100 ? "%.2f" : "%.0f", ad_value);
+	}
+}
@@ -0,0 +1,409 @@
+package it.test.jdbcPostgreSQL;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe BenchReport raccoglie i risultati di tutte le fasi di
+ * benchmark in forma strutturata, per scriverli in un file JSON (per
+ * dashboard e strumenti esterni) e/o CSV (letto anche da ResultsCompare
+ * per il confronto tra esecuzioni).
+ *
+ * <p>
+ * Ogni benchmark registra esplicitamente con add i propri risultati
+ * nella fase corrente (delimitata da beginPhase/endPhase, chiamati da
+ * BenchPhase) con il nome dell'operazione e il numero dell'esecuzione
+ * misurata (trial) della fase: numero di operazioni, righe,
+ * tempo wall clock, throughput, tempi minimo/medio/massimo, deviazione
+ * standard, percentili e attivita' del GC. I risultati delle esecuzioni
+ * di riscaldamento (trial 0) non vengono registrati. Ad ogni esecuzione
+ * vengono associate anche le differenze delle statistiche lato server,
+ * se rilevate, mentre
+ * l'ambiente di esecuzione (versioni di JVM, driver e server, CPU,
+ * configurazione) viene registrato una sola volta con setEnvironment.
+ *
+ * <p>
+ * I risultati vengono raccolti in un'unica istanza per processo,
+ * restituita da get.
+ *
+ */
+class BenchReport
+{
+	// colonne del file CSV, una riga per operazione di ogni fase
+	static final String[] CSV_COLUMNS = {"phase", "operation", "trial", "count", "rows", "wall_time_ns", "ops_per_s", "rows_per_s",
+			"min_ns", "mean_ns", "stddev_ns", "p50_ns", "p90_ns", "p99_ns", "p99_9_ns", "max_ns", "gc_count", "gc_time_ms"};
+
+	private static final BenchReport INSTANCE = new BenchReport();
+
+	private final Map<String, String> mEnvironment = new LinkedHashMap<String, String>();
+	private final Map<String, Phase> mPhases = new LinkedHashMap<String, Phase>();
+	private String msPhase = "";
+	private int mi_trial = 1;
+
+  /**
+   * Risultato di una operazione di una fase.
+   */
+	static class Entry
+	{
+		String msPhase;
+		String msOperation;
+		int mi_trial;
+		long ml_count;
+		long ml_rows;
+		long ml_wall_time;
+		double md_throughput;
+		double md_row_throughput;
+		long ml_min;
+		double md_mean;
+		double md_stddev;
+		long ml_p50;
+		long ml_p90;
+		long ml_p99;
+		long ml_p999;
+		long ml_max;
+		long ml_gc_count;
+		long ml_gc_time;
+
+		String key() {
+			return msPhase + " / " + msOperation;
+		}
+	}
+
+	private static class Phase
+	{
+		final List<Entry> mEntries = new ArrayList<Entry>();
+		// differenze delle statistiche lato server per trial
+		final Map<Integer, Map<String, Double>> mServerStats = new LinkedHashMap<Integer, Map<String, Double>>();
+	}
+
+	static BenchReport get() {
+		return INSTANCE;
+	}
+
+  /**
+   * Registra un valore dell'ambiente di esecuzione (es. versione del driver).
+   */
+	public synchronized void setEnvironment(String asKey, String asValue) {
+		mEnvironment.put(asKey, asValue);
+	}
+
+  /**
+   * Inizia una fase con una sola esecuzione misurata.
+   */
+	public synchronized void beginPhase(String asPhase) {
+		beginPhase(asPhase, 1);
+	}
+
+  /**
+   * Inizia un'esecuzione di una fase: i risultati registrati fino a
+   * endPhase vengono associati a asPhase e al trial ai_trial.
+   *
+   * @param asPhase nome della fase
+   * @param ai_trial numero dell'esecuzione misurata (da 1); 0 = riscaldamento, risultati non registrati
+   */
+	public synchronized void beginPhase(String asPhase, int ai_trial) {
+		msPhase = asPhase;
+		mi_trial = ai_trial;
+	}
+
+	public synchronized void endPhase() {
+		msPhase = "";
+		mi_trial = 1;
+	}
+
+  /**
+   * Registra il risultato aResult dell'operazione asOperation nella fase
+   * corrente. Se l'esecuzione corrente della fase contiene gia'
+   * un'operazione con lo stesso nome viene aggiunto un numero progressivo.
+   */
+	public synchronized void add(String asOperation, BenchResult aResult) {
+		if (mi_trial <= 0) {
+			return;
+		}
+		Phase lPhase = phase(msPhase);
+		String lsOperation = asOperation;
+		for (int n=2; contains(lPhase, lsOperation, mi_trial); n++) {
+			lsOperation = asOperation + " (" + n + ")";
+		}
+
+		Entry lEntry = new Entry();
+		lEntry.msPhase = msPhase;
+		lEntry.msOperation = lsOperation;
+		lEntry.mi_trial = mi_trial;
+		lEntry.ml_count = aResult.getCount();
+		lEntry.ml_rows = aResult.getRows();
+		lEntry.ml_wall_time = aResult.getWallTime();
+		lEntry.md_throughput = aResult.getThroughput();
+		lEntry.md_row_throughput = aResult.getRowThroughput();
+		LatencyHistogram lHistogram = aResult.getHistogram();
+		lEntry.ml_min = lHistogram.getMin();
+		lEntry.md_mean = lHistogram.getMean();
+		lEntry.md_stddev = lHistogram.getStdDev();
+		lEntry.ml_p50 = lHistogram.getValueAtPercentile(50.0);
+		lEntry.ml_p90 = lHistogram.getValueAtPercentile(90.0);
+		lEntry.ml_p99 = lHistogram.getValueAtPercentile(99.0);
+		lEntry.ml_p999 = lHistogram.getValueAtPercentile(99.9);
+		lEntry.ml_max = lHistogram.getMax();
+		lEntry.ml_gc_count = aResult.getGcCount();
+		lEntry.ml_gc_time = aResult.getGcTime();
+		lPhase.mEntries.add(lEntry);
+	}
+
+  /**
+   * Associa all'esecuzione corrente della fase le differenze delle
+   * statistiche lato server.
+   */
+	public synchronized void addServerStats(Map<String, Double> aDelta) {
+		if (mi_trial > 0) {
+			phase(msPhase).mServerStats.put(mi_trial, aDelta);
+		}
+	}
+
+	public synchronized List<Entry> getEntries() {
+		List<Entry> lEntries = new ArrayList<Entry>();
+		for (Phase lPhase : mPhases.values()) {
+			lEntries.addAll(lPhase.mEntries);
+		}
+		return lEntries;
+	}
+
+  /**
+   * @return List risultati di tutte le esecuzioni misurate della fase asPhase
+   */
+	public synchronized List<Entry> getEntries(String asPhase) {
+		Phase lPhase = mPhases.get(asPhase);
+		return lPhase == null ? new ArrayList<Entry>() : new ArrayList<Entry>(lPhase.mEntries);
+	}
+
+	private Phase phase(String asPhase) {
+		Phase lPhase = mPhases.get(asPhase);
+		if (lPhase == null) {
+			lPhase = new Phase();
+			mPhases.put(asPhase, lPhase);
+		}
+		return lPhase;
+	}
+
+	private static boolean contains(Phase aPhase, String asOperation, int ai_trial) {
+		for (Entry lEntry : aPhase.mEntries) {
+			if (lEntry.mi_trial == ai_trial && lEntry.msOperation.equals(asOperation)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+  /**
+   * Scrive ambiente, fasi, risultati e statistiche lato server in formato JSON.
+   *
+   * @param asFileName nome del file
+   */
+	public synchronized void writeJson(String asFileName) throws IOException {
+		PrintWriter lOut = new PrintWriter(new OutputStreamWriter(new FileOutputStream(asFileName), StandardCharsets.UTF_8));
+		try {
+			lOut.println("{");
+			lOut.println("  \"environment\": {");
+			int i = 0;
+			for (Map.Entry<String, String> lValue : mEnvironment.entrySet()) {
+				lOut.println("    " + quote(lValue.getKey()) + ": " + quote(lValue.getValue()) + (++i < mEnvironment.size() ? "," : ""));
+			}
+			lOut.println("  },");
+			lOut.println("  \"phases\": [");
+			int p = 0;
+			for (Map.Entry<String, Phase> lPhase : mPhases.entrySet()) {
+				lOut.println("    {");
+				lOut.println("      \"phase\": " + quote(lPhase.getKey()) + ",");
+				lOut.println("      \"results\": [");
+				List<Entry> lEntries = lPhase.getValue().mEntries;
+				for (int e=0; e<lEntries.size(); e++) {
+					String[] lsValues = values(lEntries.get(e));
+					StringBuilder lLine = new StringBuilder("        {");
+					// phase e' gia' riportata nell'oggetto della fase
+					for (int c=1; c<CSV_COLUMNS.length; c++) {
+						lLine.append(c > 1 ? ", " : "").append(quote(CSV_COLUMNS[c])).append(": ")
+							.append(c == 1 ? quote(lsValues[c]) : lsValues[c]);
+					}
+					lOut.println(lLine.append("}").append(e < lEntries.size() - 1 ? "," : ""));
+				}
+				Map<Integer, Map<String, Double>> lServerStats = lPhase.getValue().mServerStats;
+				if (lServerStats.isEmpty()) {
+					lOut.println("      ]");
+				} else {
+					lOut.println("      ],");
+					lOut.println("      \"serverStats\": [");
+					int t = 0;
+					for (Map.Entry<Integer, Map<String, Double>> lTrial : lServerStats.entrySet()) {
+						StringBuilder lLine = new StringBuilder("        {\"trial\": " + lTrial.getKey());
+						for (Map.Entry<String, Double> lValue : lTrial.getValue().entrySet()) {
+							lLine.append(", ").append(quote(lValue.getKey())).append(": ").append(number(lValue.getValue()));
+						}
+						lOut.println(lLine.append("}").append(++t < lServerStats.size() ? "," : ""));
+					}
+					lOut.println("      ]");
+				}
+				lOut.println("    }" + (++p < mPhases.size() ? "," : ""));
+			}
+			lOut.println("  ]");
+			lOut.println("}");
+		} finally {
+			lOut.close();
+		}
+	}
+
+  /**
+   * Scrive i risultati in formato CSV (intestazione CSV_COLUMNS, una riga
+   * per operazione di ogni fase).
+   *
+   * @param asFileName nome del file
+   */
+	public synchronized void writeCsv(String asFileName) throws IOException {
+		PrintWriter lOut = new PrintWriter(new OutputStreamWriter(new FileOutputStream(asFileName), StandardCharsets.UTF_8));
+		try {
+			lOut.println(String.join(",", CSV_COLUMNS));
+			for (Entry lEntry : getEntries()) {
+				String[] lsValues = values(lEntry);
+				lsValues[0] = csvField(lsValues[0]);
+				lsValues[1] = csvField(lsValues[1]);
+				lOut.println(String.join(",", lsValues));
+			}
+		} finally {
+			lOut.close();
+		}
+	}
+
+  /**
+   * Legge un file scritto da writeCsv.
+   *
+   * @param asFileName nome del file
+   * @return List risultati nell'ordine del file
+   */
+	static List<Entry> readCsv(String asFileName) throws IOException {
+		List<Entry> lEntries = new ArrayList<Entry>();
+		BufferedReader lIn = new BufferedReader(new InputStreamReader(new FileInputStream(asFileName), StandardCharsets.UTF_8));
+		try {
+			String lsLine = lIn.readLine();
+			if (lsLine == null || !lsLine.equals(String.join(",", CSV_COLUMNS))) {
+				throw new IOException("Intestazione non valida nel file dei risultati " + asFileName);
+			}
+			while ((lsLine = lIn.readLine()) != null) {
+				if (lsLine.trim().length() == 0) {
+					continue;
+				}
+				List<String> lsValues = parseCsvLine(lsLine);
+				if (lsValues.size() != CSV_COLUMNS.length) {
+					throw new IOException("Riga non valida nel file dei risultati " + asFileName + ": " + lsLine);
+				}
+				Entry lEntry = new Entry();
+				lEntry.msPhase = lsValues.get(0);
+				lEntry.msOperation = lsValues.get(1);
+				lEntry.mi_trial = Integer.parseInt(lsValues.get(2));
+				lEntry.ml_count = Long.parseLong(lsValues.get(3));
+				lEntry.ml_rows = Long.parseLong(lsValues.get(4));
+				lEntry.ml_wall_time = Long.parseLong(lsValues.get(5));
+				lEntry.md_throughput = Double.parseDouble(lsValues.get(6));
+				lEntry.md_row_throughput = Double.parseDouble(lsValues.get(7));
+				lEntry.ml_min = Long.parseLong(lsValues.get(8));
+				lEntry.md_mean = Double.parseDouble(lsValues.get(9));
+				lEntry.md_stddev = Double.parseDouble(lsValues.get(10));
+				lEntry.ml_p50 = Long.parseLong(lsValues.get(11));
+				lEntry.ml_p90 = Long.parseLong(lsValues.get(12));
+				lEntry.ml_p99 = Long.parseLong(lsValues.get(13));
+				lEntry.ml_p999 = Long.parseLong(lsValues.get(14));
+				lEntry.ml_max = Long.parseLong(lsValues.get(15));
+				lEntry.ml_gc_count = Long.parseLong(lsValues.get(16));
+				lEntry.ml_gc_time = Long.parseLong(lsValues.get(17));
+				lEntries.add(lEntry);
+			}
+		} catch (NumberFormatException e) {
+			throw new IOException("Valore non valido nel file dei risultati " + asFileName + ": " + e.getMessage());
+		} finally {
+			lIn.close();
+		}
+		return lEntries;
+	}
+
+	// valori di un risultato nell'ordine di CSV_COLUMNS
+	private static String[] values(Entry aEntry) {
+		return new String[] {aEntry.msPhase, aEntry.msOperation, Integer.toString(aEntry.mi_trial), Long.toString(aEntry.ml_count), Long.toString(aEntry.ml_rows),
+				Long.toString(aEntry.ml_wall_time), number(aEntry.md_throughput), number(aEntry.md_row_throughput),
+				Long.toString(aEntry.ml_min), number(aEntry.md_mean), number(aEntry.md_stddev), Long.toString(aEntry.ml_p50),
+				Long.toString(aEntry.ml_p90), Long.toString(aEntry.ml_p99), Long.toString(aEntry.ml_p999), Long.toString(aEntry.ml_max),
+				Long.toString(aEntry.ml_gc_count), Long.toString(aEntry.ml_gc_time)};
+	}
+
+	private static String number(double ad_value) {
+		if (Double.isNaN(ad_value) || Double.isInfinite(ad_value)) {
+			return "0";
+		}
+		if (ad_value == Math.rint(ad_value) && Math.abs(ad_value) < 1e15) {
+			return Long.toString((long) ad_value);
+		}
+		return Double.toString(ad_value);
+	}
+
+	private static String quote(String asValue) {
+		StringBuilder lOut = new StringBuilder("\"");
+		for (int i=0; i<asValue.length(); i++) {
+			char c = asValue.charAt(i);
+			switch (c) {
+				case '"': lOut.append("\\\""); break;
+				case '\\': lOut.append("\\\\"); break;
+				case '\n': lOut.append("\\n"); break;
+				case '\r': lOut.append("\\r"); break;
+				case '\t': lOut.append("\\t"); break;
+				default:
+					if (c < 0x20) {
+						lOut.append(String.format("\\u%04x", (int) c));
+					} else {
+						lOut.append(c);
+					}
+			}
+		}
+		return lOut.append('"').toString();
+	}
+
+	private static String csvField(String asValue) {
+		if (asValue.indexOf(',') < 0 && asValue.indexOf('"') < 0) {
+			return asValue;
+		}
+		return "\"" + asValue.replace("\"", "\"\"") + "\"";
+	}
+
+	static List<String> parseCsvLine(String asLine) {
+		List<String> lsValues = new ArrayList<String>();
+		StringBuilder lValue = new StringBuilder();
+		boolean lb_quoted = false;
+		for (int i=0; i<asLine.length(); i++) {
+			char c = asLine.charAt(i);
+			if (lb_quoted) {
+				if (c == '"' && i + 1 < asLine.length() && asLine.charAt(i + 1) == '"') {
+					lValue.append('"');
+					i++;
+				} else if (c == '"') {
+					lb_quoted = false;
+				} else {
+					lValue.append(c);
+				}
+			} else if (c == '"') {
+				lb_quoted = true;
+			} else if (c == ',') {
+				lsValues.add(lValue.toString());
+				lValue.setLength(0);
+			} else {
+				lValue.append(c);
+			}
+		}
+		lsValues.add(lValue.toString());
+		return lsValues;
+	}
+}
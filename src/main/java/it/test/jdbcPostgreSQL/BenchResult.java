@@ -0,0 +1,367 @@
+package it.test.jdbcPostgreSQL;
+
+/**
+ * La classe BenchResult raccoglie i tempi misurati durante un
+ * benchmark (una INSERT o una SELECT per ogni operazione registrata).
+ *
+ * <p>
+ * I tempi delle singole operazioni vengono registrati in un
+ * LatencyHistogram (memoria fissa), dal quale si ricavano minimo,
+ * massimo, media e percentili. Viene inoltre conservato il tempo
+ * "wall clock" dell'intero ciclo, necessario per calcolare il
+ * throughput (operazioni al secondo). I risultati di piu' thread
+ * possono essere aggregati con il metodo merge.
+ *
+ * <p>
+ * Per i benchmark di INSERT l'operazione registrata con record e'
+ * l'esecuzione di uno statement (executeUpdate, executeBatch, blocco di
+ * COPY, ...). Il tempo lato client di preparazione di ogni riga (bind dei
+ * parametri / addBatch) e il tempo di ogni commit vengono registrati in
+ * distribuzioni separate, insieme al numero di righe committate e alla
+ * serie temporale del throughput.
+ *
+ */
+class BenchResult
+{
+	private final LatencyHistogram mHistogram = new LatencyHistogram();
+	private long ml_wall_time=0;
+	// distribuzioni di bind e commit (allocate solo dai benchmark di INSERT)
+	private LatencyHistogram mBindHistogram=null;
+	private LatencyHistogram mCommitHistogram=null;
+	// distribuzione dei tempi di attesa di una connessione (benchmark con pool di connessioni)
+	private LatencyHistogram mWaitHistogram=null;
+	private ThroughputSeries mSeries=null;
+	private long ml_rows=0;
+	// collezioni e tempo di GC della JVM durante il benchmark (-1 = non misurati)
+	private long ml_gc_count=-1;
+	private long ml_gc_time=-1;
+	// (true) tempi e righe inviati anche a LiveMetrics
+	private boolean mb_live=false;
+
+  /**
+   * Registra il tempo di una singola operazione.
+   *
+   * @param al_elapsedTime tempo dell'operazione in nanosecondi
+   */
+	public void record(long al_elapsedTime) {
+		mHistogram.record(al_elapsedTime);
+		if (mb_live) {
+			LiveMetrics.record(al_elapsedTime);
+		}
+	}
+
+  /**
+   * Invia i tempi registrati con record e le righe completate anche alle
+   * metriche in tempo reale (LiveMetrics). Va attivato solo sul
+   * risultato principale di ogni benchmark, in modo che ogni operazione
+   * venga conteggiata una sola volta.
+   *
+   * @param abLive (true) risultato principale del benchmark
+   */
+	public void setLive(boolean abLive) {
+		mb_live = abLive;
+	}
+
+  /**
+   * Aggiunge a questo risultato i tempi registrati in un altro
+   * risultato. Il tempo wall clock non viene sommato: per le esecuzioni
+   * concorrenti va impostato dal chiamante con setWallTime.
+   *
+   * @param aOther risultato da aggregare
+   */
+	public void merge(BenchResult aOther) {
+		mHistogram.merge(aOther.mHistogram);
+		if (aOther.mBindHistogram != null) {
+			bindHistogram().merge(aOther.mBindHistogram);
+		}
+		if (aOther.mCommitHistogram != null) {
+			commitHistogram().merge(aOther.mCommitHistogram);
+		}
+		if (aOther.mWaitHistogram != null) {
+			waitHistogram().merge(aOther.mWaitHistogram);
+		}
+		if (aOther.mSeries != null) {
+			if (mSeries == null) {
+				mSeries = new ThroughputSeries(aOther.mSeries.getInterval(), aOther.mSeries.getStart());
+			}
+			mSeries.merge(aOther.mSeries);
+		}
+		ml_rows+=aOther.ml_rows;
+		// il GC e' dell'intera JVM: per i thread concorrenti si considera il valore massimo
+		ml_gc_count = Math.max(ml_gc_count, aOther.ml_gc_count);
+		ml_gc_time = Math.max(ml_gc_time, aOther.ml_gc_time);
+	}
+
+  /**
+   * Registra il tempo lato client di preparazione di una riga
+   * (bind dei parametri, addBatch, codifica nel buffer del COPY).
+   *
+   * @param al_elapsedTime tempo in nanosecondi
+   */
+	public void recordBind(long al_elapsedTime) {
+		bindHistogram().record(al_elapsedTime);
+	}
+
+  /**
+   * Registra il tempo di un commit e le righe committate.
+   *
+   * @param al_elapsedTime tempo del commit in nanosecondi
+   * @param al_rows righe committate
+   * @param al_now istante di fine del commit (System.nanoTime)
+   */
+	public void recordCommit(long al_elapsedTime, long al_rows, long al_now) {
+		commitHistogram().record(al_elapsedTime);
+		ml_rows+=al_rows;
+		if (mb_live) {
+			LiveMetrics.recordRows(al_rows);
+		}
+		if (mSeries != null) {
+			mSeries.record(al_now, al_rows);
+		}
+	}
+
+  /**
+   * Registra righe completate senza commit (es. chiavi lette dai
+   * benchmark di SELECT con piu' chiavi per operazione).
+   *
+   * @param al_rows righe completate
+   */
+	public void recordRows(long al_rows) {
+		ml_rows+=al_rows;
+		if (mb_live) {
+			LiveMetrics.recordRows(al_rows);
+		}
+	}
+
+  /**
+   * Registra il tempo di attesa per ottenere una connessione (dal pool
+   * oppure aprendone una nuova), separato dal tempo dell'operazione.
+   *
+   * @param al_elapsedTime tempo in nanosecondi
+   */
+	public void recordWait(long al_elapsedTime) {
+		waitHistogram().record(al_elapsedTime);
+	}
+
+  /**
+   * Attiva la registrazione della serie temporale del throughput.
+   *
+   * @param al_start istante di inizio del benchmark (System.nanoTime)
+   * @param al_interval durata di ogni intervallo in nanosecondi
+   */
+	public void startSeries(long al_start, long al_interval) {
+		if (mSeries != null && mSeries.getInterval() == al_interval) {
+			mSeries.reset(al_start);
+		} else {
+			mSeries = new ThroughputSeries(al_interval, al_start);
+		}
+	}
+
+  /**
+   * Azzera tempi, righe e serie registrati, senza riallocare istogrammi e
+   * serie: permette di riutilizzare lo stesso risultato per esecuzioni
+   * successive (vedi i microbenchmark JMH).
+   */
+	public void reset() {
+		mHistogram.reset();
+		if (mBindHistogram != null) {
+			mBindHistogram.reset();
+		}
+		if (mCommitHistogram != null) {
+			mCommitHistogram.reset();
+		}
+		if (mWaitHistogram != null) {
+			mWaitHistogram.reset();
+		}
+		if (mSeries != null) {
+			mSeries.reset(mSeries.getStart());
+		}
+		ml_wall_time = 0;
+		ml_rows = 0;
+		ml_gc_count = -1;
+		ml_gc_time = -1;
+	}
+
+	private LatencyHistogram bindHistogram() {
+		if (mBindHistogram == null) {
+			mBindHistogram = new LatencyHistogram();
+		}
+		return mBindHistogram;
+	}
+
+	private LatencyHistogram waitHistogram() {
+		if (mWaitHistogram == null) {
+			mWaitHistogram = new LatencyHistogram();
+		}
+		return mWaitHistogram;
+	}
+
+	private LatencyHistogram commitHistogram() {
+		if (mCommitHistogram == null) {
+			mCommitHistogram = new LatencyHistogram();
+		}
+		return mCommitHistogram;
+	}
+
+  /**
+   * Registra l'attivita' del GC della JVM misurata da aMonitor dalla sua
+   * creazione (inizio del benchmark) a questo istante.
+   *
+   * @param aMonitor monitor creato all'inizio del benchmark
+   */
+	public void setGcActivity(GcMonitor aMonitor) {
+		ml_gc_count = aMonitor.getCollections();
+		ml_gc_time = aMonitor.getTime();
+	}
+
+	public long getGcCount() {
+		return ml_gc_count;
+	}
+
+	public long getGcTime() {
+		return ml_gc_time;
+	}
+
+	public void setWallTime(long al_wall_time) {
+		ml_wall_time = al_wall_time;
+	}
+
+	public long getWallTime() {
+		return ml_wall_time;
+	}
+
+	public LatencyHistogram getHistogram() {
+		return mHistogram;
+	}
+
+	public long getRows() {
+		return ml_rows;
+	}
+
+	public ThroughputSeries getSeries() {
+		return mSeries;
+	}
+
+	public LatencyHistogram getBindHistogram() {
+		return mBindHistogram;
+	}
+
+	public LatencyHistogram getWaitHistogram() {
+		return mWaitHistogram;
+	}
+
+	public LatencyHistogram getCommitHistogram() {
+		return mCommitHistogram;
+	}
+
+	public long getCount() {
+		return mHistogram.getCount();
+	}
+
+	public long getTotalTime() {
+		return mHistogram.getTotal();
+	}
+
+	public long getMinTime() {
+		return mHistogram.getMin();
+	}
+
+	public long getMaxTime() {
+		return mHistogram.getMax();
+	}
+
+	public double getAverageTime() {
+		return mHistogram.getMean();
+	}
+
+	public long getPercentile(double ad_percentile) {
+		return mHistogram.getValueAtPercentile(ad_percentile);
+	}
+
+  /**
+   * Restituisce il throughput misurato sul tempo wall clock.
+   *
+   * @return double operazioni al secondo (0 se il tempo wall clock non e' noto)
+   */
+	public double getThroughput() {
+		if (ml_wall_time <= 0) {
+			return 0;
+		}
+		return mHistogram.getCount() * 1000000000.0 / ml_wall_time;
+	}
+
+  /**
+   * Restituisce le righe (committate o lette) al secondo misurate sul tempo wall clock.
+   *
+   * @return double righe al secondo (0 se il tempo wall clock non e' noto)
+   */
+	public double getRowThroughput() {
+		if (ml_wall_time <= 0) {
+			return 0;
+		}
+		return ml_rows * 1000000000.0 / ml_wall_time;
+	}
+
+  /**
+   * Stampa a video i tempi massimo, minimo, totale, medio e i percentili in
+   * ns e ms. Il risultato non viene registrato in BenchReport: lo fa il
+   * benchmark con BenchReport.add.
+   *
+   * @param asOperation tipo di operazione (es. "insert", "select")
+   */
+	public void printTimes(String asOperation) {
+		System.out.println("Max " + asOperation + " time ns:" + getMaxTime());
+		System.out.println("Max " + asOperation + " time ms:" + getMaxTime()/1000000);
+
+		System.out.println("Min " + asOperation + " time ns:" + getMinTime());
+		System.out.println("Min " + asOperation + " time ms:" + getMinTime()/1000000);
+
+		System.out.println("Total " + asOperation + " time ns:" + getTotalTime());
+		System.out.println("Total " + asOperation + " time ms:" + getTotalTime()/1000000);
+
+		System.out.println("Average time ns:" + getAverageTime());
+		System.out.println("Average time ms:" + getAverageTime()/1000000);
+
+		mHistogram.print(asOperation);
+
+		if (mWaitHistogram != null) {
+			System.out.println("-- Attesa connessione:");
+			mWaitHistogram.printSummary("wait");
+		}
+
+		if (ml_wall_time > 0) {
+			System.out.println("Throughput " + asOperation + " ops/s:" + getThroughput());
+		}
+
+		if (ml_gc_count >= 0) {
+			System.out.println("GC JVM durante il benchmark: collezioni:" + ml_gc_count + " tempo ms:" + ml_gc_time);
+		}
+	}
+
+  /**
+   * Stampa a video i tempi di un benchmark di INSERT: distribuzione dei
+   * tempi di esecuzione degli statement (asOperation), dei tempi di bind
+   * lato client e dei commit, righe/s e serie temporale del throughput.
+   *
+   * @param asOperation statement eseguito (es. "executeBatch", "executeUpdate", "COPY")
+   */
+	public void printInsertTimes(String asOperation) {
+		System.out.println("Righe inserite:" + ml_rows);
+		System.out.println("-- Esecuzione statement (" + asOperation + ", " + getCount() + " esecuzioni):");
+		printTimes(asOperation);
+		if (mBindHistogram != null) {
+			System.out.println("-- Bind lato client per riga:");
+			mBindHistogram.printSummary("bind");
+		}
+		if (mCommitHistogram != null) {
+			System.out.println("-- Commit (" + mCommitHistogram.getCount() + " commit):");
+			mCommitHistogram.printSummary("commit");
+		}
+		if (ml_wall_time > 0) {
+			System.out.println("Throughput righe/s:" + getRowThroughput());
+		}
+		if (mSeries != null) {
+			mSeries.print();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package it.test.jdbcPostgreSQL;
+
+/**
+ * Generatore delle righe di TEST_TABLE a bassa allocazione.
+ *
+ * <p>
+ * I prefissi "test_name"/"test_surname" vengono copiati una sola volta in
+ * buffer di caratteri preallocati; per ogni riga vengono scritte nel
+ * buffer solo le cifre dell'ID e la String passata al driver viene creata
+ * direttamente dal buffer, senza StringBuilder intermedi. La data viene
+ * calcolata una sola volta per run (startRun) e riutilizzata per tutte le
+ * righe, invece di allocare un java.util.Date e un java.sql.Date per riga.
+ *
+ * <p>
+ * La String per NAME e SURNAME resta necessaria perche' richiesta da
+ * PreparedStatement.setString; per il caricamento senza alcuna String
+ * per riga vedere CopyRowEncoder.
+ *
+ */
+class BufferedRowGenerator implements RowGenerator
+{
+	private static final String NAME_PREFIX = "test_name";
+	private static final String SURNAME_PREFIX = "test_surname";
+	// cifre massime di un int (segno compreso)
+	private static final int MAX_DIGITS = 11;
+
+	private final char[] mName = new char[NAME_PREFIX.length() + MAX_DIGITS];
+	private final char[] mSurname = new char[SURNAME_PREFIX.length() + MAX_DIGITS];
+	private java.sql.Date mDate;
+
+	BufferedRowGenerator() {
+		NAME_PREFIX.getChars(0, NAME_PREFIX.length(), mName, 0);
+		SURNAME_PREFIX.getChars(0, SURNAME_PREFIX.length(), mSurname, 0);
+	}
+
+	public void startRun() {
+		mDate = DBOperation.getCurrentDate();
+	}
+
+	public String name(int ai_id) {
+		return new String(mName, 0, writeDigits(mName, NAME_PREFIX.length(), ai_id));
+	}
+
+	public String surname(int ai_id) {
+		return new String(mSurname, 0, writeDigits(mSurname, SURNAME_PREFIX.length(), ai_id));
+	}
+
+	public java.sql.Date date() {
+		if (mDate == null) {
+			startRun();
+		}
+		return mDate;
+	}
+
+  /**
+   * Scrive le cifre decimali di ai_value nel buffer a partire da ai_pos.
+   *
+   * @return int lunghezza complessiva del contenuto del buffer
+   */
+	static int writeDigits(char[] aBuffer, int ai_pos, int ai_value) {
+		int li_digits = CopyRowEncoder.digits(ai_value);
+		int li_end = ai_pos + li_digits;
+		long l_value = Math.abs((long) ai_value);
+		int li_index = li_end - 1;
+		do {
+			aBuffer[li_index--] = (char) ('0' + (l_value % 10));
+			l_value /= 10;
+		} while (l_value > 0);
+		if (ai_value < 0) {
+			aBuffer[ai_pos] = '-';
+		}
+		return li_end;
+	}
+}
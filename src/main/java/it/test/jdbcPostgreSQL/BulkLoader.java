@@ -0,0 +1,383 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * La classe BulkLoader carica in parallelo un numero elevato di righe
+ * (centinaia di milioni, chiavi long) in una tabella con chiave primaria
+ * BIGINT tramite COPY FROM STDIN su piu' connessioni, come nelle
+ * migrazioni di dati.
+ *
+ * <p>
+ * Lo spazio delle chiavi 1..al_rows viene suddiviso in partizioni di
+ * al_partition_rows chiavi. I thread produttori (che simulano la lettura
+ * dalla sorgente) prendono la partizione successiva non ancora assegnata
+ * e ne codificano le righe in blocchi di ai_rows_per_chunk righe, ognuno
+ * dei quali e' un COPY completo (header, righe e trailer nel formato
+ * binario). I blocchi vengono passati tramite una coda ai thread di
+ * scrittura, uno per connessione, che eseguono un COPY per blocco e un
+ * commit ogni al_commit_rows righe.
+ *
+ * <p>
+ * Back-pressure: i blocchi sono un insieme fisso di ai_queue_chunks
+ * buffer riutilizzati; il produttore attende un buffer libero prima di
+ * codificare il blocco successivo, quindi se il DB e' piu' lento della
+ * sorgente la memoria occupata resta limitata e i produttori rallentano.
+ * Vengono riportati il tempo di attesa dei produttori (DB collo di
+ * bottiglia) e quello delle connessioni in attesa di dati (sorgente
+ * collo di bottiglia), oltre al throughput complessivo e di ogni
+ * connessione. Durante il caricamento viene stampato l'avanzamento ogni
+ * ai_progress_s secondi.
+ *
+ * <p>
+ * Una tabella puo' essere caricata in piu' passi (righe da al_first a
+ * al_last, vedi SizeScalingBenchmark); con setKeyStep la riga N ha chiave
+ * N * passo, lasciando libere le chiavi intermedie per INSERT in posizioni
+ * casuali dell'indice, e con setPayload viene scritta anche la colonna
+ * PAYLOAD.
+ *
+ */
+class BulkLoader
+{
+	// blocco che segnala la fine dei dati alle connessioni
+	private static final Chunk END = new Chunk(null);
+
+	private final BenchConfig mConfig;
+	private final CopyRowEncoder.Format mFormat;
+	private final int mi_rows_per_chunk;
+	private final long ml_commit_rows;
+	private final int mi_queue_chunks;
+	private final int mi_producers;
+	private final int mi_progress_s;
+	private long ml_key_step=1;
+	private int mi_payload=0;
+
+  /**
+   * Blocco di righe codificate per un COPY.
+   */
+	private static class Chunk
+	{
+		final CopyRowEncoder mEncoder;
+		long ml_rows;
+
+		Chunk(CopyRowEncoder aEncoder) {
+			mEncoder = aEncoder;
+		}
+	}
+
+  /**
+   * Risultato di una connessione: COPY, commit e righe, piu' le attese di dati dalla coda.
+   */
+	private static class WriterResult
+	{
+		final BenchResult mResult = new BenchResult();
+		final LatencyHistogram mIdle = new LatencyHistogram();
+
+		WriterResult() {
+			mResult.setLive(true);
+		}
+	}
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param aFormat formato del COPY (TEXT o BINARY)
+   * @param ai_rows_per_chunk righe per blocco (un COPY per blocco)
+   * @param al_commit_rows righe per commit di ogni connessione
+   * @param ai_queue_chunks numero di blocchi in memoria (in coda o in uso)
+   * @param ai_producers numero di thread produttori
+   * @param ai_progress_s intervallo di stampa dell'avanzamento in secondi (0 = nessuna stampa)
+   */
+	BulkLoader(BenchConfig aConfig, CopyRowEncoder.Format aFormat, int ai_rows_per_chunk, long al_commit_rows, int ai_queue_chunks, int ai_producers, int ai_progress_s) {
+		mConfig = aConfig;
+		mFormat = aFormat;
+		mi_rows_per_chunk = ai_rows_per_chunk;
+		ml_commit_rows = al_commit_rows;
+		mi_queue_chunks = ai_queue_chunks;
+		mi_producers = ai_producers;
+		mi_progress_s = ai_progress_s;
+	}
+
+  /**
+   * Imposta il passo delle chiavi: la riga N viene caricata con ID N * al_step.
+   *
+   * @param al_step passo delle chiavi (default 1)
+   */
+	public void setKeyStep(long al_step) {
+		ml_key_step = al_step;
+	}
+
+  /**
+   * @param ai_bytes larghezza della colonna PAYLOAD da caricare (0 = colonna non caricata)
+   */
+	public void setPayload(int ai_bytes) {
+		mi_payload = ai_bytes;
+	}
+
+  /**
+   * Carica le righe con ID da 1 a al_rows e stampa throughput complessivo,
+   * di ogni connessione e attese dovute alla back-pressure.
+   *
+   * @param asTableName  Nome della tabella (chiave primaria BIGINT)
+   * @param al_rows  Numero di righe da caricare
+   * @param al_partition_rows  Chiavi per partizione
+   * @param ai_connections  Numero di connessioni (un thread di scrittura per connessione)
+   */
+	public void run(String asTableName, long al_rows, long al_partition_rows, int ai_connections) throws SQLException {
+		run(asTableName, 1, al_rows, al_partition_rows, ai_connections);
+	}
+
+  /**
+   * Carica le righe da al_first a al_last (ID moltiplicati per il passo
+   * delle chiavi) e stampa i risultati come run(asTableName, al_rows, ...).
+   *
+   * @param asTableName  Nome della tabella (chiave primaria BIGINT)
+   * @param al_first  Prima riga da caricare
+   * @param al_last  Ultima riga da caricare
+   * @param al_partition_rows  Chiavi per partizione
+   * @param ai_connections  Numero di connessioni (un thread di scrittura per connessione)
+   */
+	public void run(final String asTableName, final long al_first, final long al_last, final long al_partition_rows, int ai_connections) throws SQLException {
+
+		final long al_rows = al_last - al_first + 1;
+		final long l_partitions = (al_rows + al_partition_rows - 1) / al_partition_rows;
+		final AtomicLong lNextPartition = new AtomicLong();
+		final AtomicLong lLoaded = new AtomicLong();
+		final AtomicLong lBytes = new AtomicLong();
+		final AtomicLong lProducerWait = new AtomicLong();
+		final BlockingQueue<Chunk> lFree = new ArrayBlockingQueue<Chunk>(mi_queue_chunks);
+		final BlockingQueue<Chunk> lFull = new LinkedBlockingQueue<Chunk>();
+		for (int c=0; c<mi_queue_chunks; c++) {
+			CopyRowEncoder lEncoder = new CopyRowEncoder(mFormat, (64 + mi_payload) * mi_rows_per_chunk);
+			lEncoder.setPayload(mi_payload);
+			lFree.add(new Chunk(lEncoder));
+		}
+		final java.sql.Date lDate = DBOperation.getCurrentDate();
+		final CountDownLatch lReady = new CountDownLatch(ai_connections);
+		final CountDownLatch lStart = new CountDownLatch(1);
+		final CountDownLatch lProducersDone = new CountDownLatch(mi_producers);
+		final int li_connections = ai_connections;
+
+		ExecutorService lExecutor = Executors.newFixedThreadPool(ai_connections + mi_producers);
+		CompletionService<Object> lCompletion = new ExecutorCompletionService<Object>(lExecutor);
+		WriterResult[] lResults = new WriterResult[ai_connections];
+		BenchResult lTotal = new BenchResult();
+		LatencyHistogram lIdle = new LatencyHistogram();
+		long l_startTime = 0;
+
+		try {
+			for (int w=0; w<ai_connections; w++) {
+				final WriterResult lResult = lResults[w] = new WriterResult();
+				lCompletion.submit(new Callable<Object>() {
+					public Object call() throws Exception {
+						Connection lConn = null;
+						try {
+							lConn = mConfig.openConnection();
+						} finally {
+							lReady.countDown();
+						}
+						try {
+							lStart.await();
+							write(lConn, asTableName, lFull, lFree, lLoaded, lBytes, lResult);
+							return lResult;
+						} finally {
+							lConn.close();
+						}
+					}
+				});
+			}
+			for (int p=0; p<mi_producers; p++) {
+				lCompletion.submit(new Callable<Object>() {
+					public Object call() throws Exception {
+						try {
+							lStart.await();
+							long l_partition;
+							while ((l_partition = lNextPartition.getAndIncrement()) < l_partitions) {
+								long l_first = al_first + l_partition * al_partition_rows;
+								long l_last = Math.min(al_last, l_first + al_partition_rows - 1);
+								produce(l_first, l_last, lDate, lFree, lFull, lProducerWait);
+							}
+						} finally {
+							// l'ultimo produttore segnala la fine dei dati a tutte le connessioni
+							lProducersDone.countDown();
+							if (lProducersDone.getCount() == 0) {
+								for (int w=0; w<li_connections; w++) {
+									lFull.add(END);
+								}
+							}
+						}
+						return null;
+					}
+				});
+			}
+
+			lReady.await();
+			l_startTime = System.nanoTime();
+			lStart.countDown();
+
+			long l_last_time = l_startTime;
+			long l_last_rows = 0;
+			for (int f=0; f<ai_connections + mi_producers; ) {
+				Future<Object> lDone = mi_progress_s > 0 ? lCompletion.poll(mi_progress_s, TimeUnit.SECONDS) : lCompletion.take();
+				if (lDone != null) {
+					// propaga subito l'errore di un thread
+					lDone.get();
+					f++;
+					continue;
+				}
+				long l_now = System.nanoTime();
+				long l_rows = lLoaded.get();
+				System.out.println("Avanzamento bulk load: righe " + l_rows + " di " + al_rows
+						+ String.format(" (%.1f%%)", 100.0 * l_rows / al_rows)
+						+ " righe/s:" + Math.round((l_rows - l_last_rows) * 1000000000.0 / (l_now - l_last_time)));
+				l_last_time = l_now;
+				l_last_rows = l_rows;
+			}
+			lTotal.setWallTime(System.nanoTime() - l_startTime);
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Bulk load interrotto", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw new SQLException("Errore nel thread del bulk load: " + e.getCause(), e.getCause());
+		} finally {
+			lExecutor.shutdownNow();
+		}
+
+		System.out.println("************* BULK LOAD PARALLELO (COPY) ****************");
+		System.out.println("Righe:" + al_rows + (al_first > 1 ? " (dalla riga " + al_first + ")" : "") + " partizioni:" + l_partitions + " da " + al_partition_rows + " chiavi"
+				+ (ml_key_step > 1 ? " passo delle chiavi:" + ml_key_step : "") + (mi_payload > 0 ? " payload byte:" + mi_payload : ""));
+		System.out.println("Connessioni:" + ai_connections + " produttori:" + mi_producers + " formato:" + mFormat
+				+ " righe per COPY:" + mi_rows_per_chunk + " righe per commit:" + ml_commit_rows + " blocchi in memoria:" + mi_queue_chunks);
+		for (int w=0; w<ai_connections; w++) {
+			BenchResult lResult = lResults[w].mResult;
+			System.out.println("Connessione " + w
+					+ " righe:" + lResult.getRows()
+					+ " righe/s:" + Math.round(lResult.getRowThroughput())
+					+ " COPY:" + lResult.getCount()
+					+ " avg COPY ms:" + String.format("%.3f", lResult.getAverageTime() / 1000000.0)
+					+ " p99 COPY ms:" + String.format("%.3f", lResult.getPercentile(99.0) / 1000000.0)
+					+ " attesa dati ms:" + lResults[w].mIdle.getTotal() / 1000000);
+			lTotal.merge(lResult);
+			lIdle.merge(lResults[w].mIdle);
+		}
+		System.out.println("Totale " + ai_connections + " connessioni:");
+		lTotal.printInsertTimes("COPY");
+		BenchReport.get().add("COPY", lTotal);
+		System.out.println("-- Attesa dati dalla coda per connessione (sorgente collo di bottiglia):");
+		lIdle.printSummary("attesa dati");
+		System.out.println("Attesa dei produttori per buffer liberi ms (DB collo di bottiglia):" + lProducerWait.get() / 1000000);
+		System.out.println("Riepilogo bulk load " + ai_connections + " connessioni righe/s:" + Math.round(lTotal.getRowThroughput())
+				+ " MB/s:" + String.format("%.1f", lBytes.get() * 1000000000.0 / lTotal.getWallTime() / (1024.0 * 1024.0)));
+	}
+
+	// codifica le righe [al_first, al_last] in blocchi, attendendo un buffer libero per ogni blocco
+	private void produce(long al_first, long al_last, java.sql.Date adDate, BlockingQueue<Chunk> aFree, BlockingQueue<Chunk> aFull, AtomicLong aWait) throws InterruptedException {
+		for (long l_id=al_first; l_id <= al_last; ) {
+			long l_wait_start = System.nanoTime();
+			Chunk lChunk = aFree.take();
+			aWait.addAndGet(System.nanoTime() - l_wait_start);
+
+			CopyRowEncoder lEncoder = lChunk.mEncoder;
+			lEncoder.reset();
+			lEncoder.setDate(adDate);
+			lEncoder.writeHeader();
+			long l_end = Math.min(al_last, l_id + mi_rows_per_chunk - 1);
+			lChunk.ml_rows = l_end - l_id + 1;
+			for (; l_id <= l_end; l_id++) {
+				lEncoder.appendBigintRow(l_id * ml_key_step);
+			}
+			lEncoder.writeTrailer();
+			aFull.put(lChunk);
+		}
+	}
+
+	// esegue un COPY per ogni blocco della coda fino al blocco END, con commit ogni ml_commit_rows righe
+	private void write(Connection conn, String asTableName, BlockingQueue<Chunk> aFull, BlockingQueue<Chunk> aFree, AtomicLong aLoaded, AtomicLong aBytes, WriterResult aResult) throws SQLException, InterruptedException {
+		BenchResult lResult = aResult.mResult;
+		CopyIn lCopyIn = null;
+		long l_uncommitted = 0;
+		CopyRowEncoder lCopyEncoder = new CopyRowEncoder(mFormat, 0);
+		lCopyEncoder.setPayload(mi_payload);
+		String lsCopySQL = lCopyEncoder.copySQL(asTableName);
+
+		try {
+			conn.setAutoCommit(false);
+			CopyManager lCopyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+			GcMonitor lGc = new GcMonitor();
+			long l_wallStartTime = System.nanoTime();
+			while (true) {
+				long l_startTime = System.nanoTime();
+				Chunk lChunk = aFull.take();
+				aResult.mIdle.record(System.nanoTime() - l_startTime);
+				if (lChunk == END) {
+					break;
+				}
+
+				l_startTime = System.nanoTime();
+				lCopyIn = lCopyManager.copyIn(lsCopySQL);
+				lCopyIn.writeToCopy(lChunk.mEncoder.getBuffer(), 0, lChunk.mEncoder.size());
+				lCopyIn.endCopy();
+				lCopyIn = null;
+				lResult.record(System.nanoTime() - l_startTime);
+				l_uncommitted += lChunk.ml_rows;
+				aLoaded.addAndGet(lChunk.ml_rows);
+				aBytes.addAndGet(lChunk.mEncoder.size());
+				aFree.put(lChunk);
+
+				if (l_uncommitted >= ml_commit_rows) {
+					l_uncommitted = commit(conn, lResult, l_uncommitted);
+				}
+			}
+			if (l_uncommitted > 0) {
+				commit(conn, lResult, l_uncommitted);
+			}
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+
+		} catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+
+		} finally {
+
+			// un errore del cancelCopy (es. connessione interrotta) non sostituisce l'eccezione originale
+			try {
+				if (lCopyIn != null && lCopyIn.isActive()) {
+					lCopyIn.cancelCopy();
+				}
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+			}
+		}
+	}
+
+	private static long commit(Connection conn, BenchResult aResult, long al_rows) throws SQLException {
+		long l_startTime = System.nanoTime();
+		conn.commit();
+		long l_endTime = System.nanoTime();
+		aResult.recordCommit(l_endTime - l_startTime, al_rows, l_endTime);
+		return 0;
+	}
+}
@@ -0,0 +1,184 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * La classe CacheBenchmark misura l'effetto di una cache read-through
+ * lato client (PKCache) davanti alla SELECT per PK, con un carico di
+ * letture e scritture (UPDATE e INSERT) concorrenti e ID scelti secondo
+ * una KeyDistribution.
+ *
+ * <p>
+ * Ogni lettura cerca la riga in cache; se assente (miss) la legge dal DB
+ * e la inserisce in cache. Ogni scrittura, eseguita in autocommit,
+ * invalida la riga in cache dopo il commit. Senza cache (aCache null)
+ * tutte le letture vanno al DB: e' il riferimento per il calcolo del
+ * carico risparmiato al DB.
+ *
+ * <p>
+ * Vengono riportati i tempi delle letture (complessivi, hit con il solo
+ * lookup in cache e miss con la lettura dal DB), delle scritture, l'hit
+ * ratio, la percentuale di letture non inviate al DB e le query al DB
+ * al secondo, oltre a eviction, righe non ammesse e invalidazioni.
+ *
+ */
+class CacheBenchmark
+{
+	private final ConcurrentBenchmark mConcBench;
+	// ultimo ID inserito, condiviso tra i worker
+	private final AtomicInteger mLastId;
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param aDBOps operazioni sul DB
+   * @param ai_keys numero di righe presenti in tabella (ID da 1 a ai_keys)
+   */
+	CacheBenchmark(BenchConfig aConfig, DBOperation aDBOps, int ai_keys) {
+		mConcBench = new ConcurrentBenchmark(aConfig, aDBOps);
+		mLastId = new AtomicInteger(ai_keys);
+	}
+
+  /**
+   * Esegue ai_operations operazioni con ai_threads worker e stampa i
+   * risultati delle letture, delle scritture e della cache.
+   *
+   * @param asTableName  Nome della tabella
+   * @param ai_threads  Numero di worker (una connessione per worker)
+   * @param ai_operations  Numero totale di operazioni
+   * @param ai_update_percent  Percentuale di UPDATE per PK
+   * @param ai_insert_percent  Percentuale di INSERT (il resto sono letture per PK)
+   * @param aKeys  Distribuzione degli ID
+   * @param aCache  cache delle righe (null = nessuna cache)
+   */
+	public void run(final String asTableName, int ai_threads, int ai_operations, final int ai_update_percent, final int ai_insert_percent,
+			final KeyDistribution aKeys, final PKCache<PKStatements.Row> aCache) throws SQLException {
+
+		final BenchResult[][] lResults = new BenchResult[ai_threads][];
+		final AtomicInteger lSlot = new AtomicInteger();
+
+		BenchResult lTotal = new BenchResult();
+		mConcBench.runWorkers(ai_threads, ai_operations, new ConcurrentBenchmark.RangeTask() {
+			public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+				// letture, hit, miss e scritture
+				BenchResult[] lByType = { new BenchResult(), new BenchResult(), new BenchResult(), new BenchResult() };
+				BenchResult lAll = new BenchResult();
+				lAll.setLive(true);
+				RowGenerator lRows = RowGenerator.Type.BUFFERED.create();
+				lRows.startRun();
+				ThreadLocalRandom lRandom = ThreadLocalRandom.current();
+				PKStatements lStatements = new PKStatements(conn, asTableName);
+
+				try {
+					long l_wallStartTime = System.nanoTime();
+					for (int i=ai_first_id; i<=ai_last_id; i++) {
+						int li_draw = lRandom.nextInt(100);
+						long l_start = System.nanoTime();
+						if (li_draw < ai_update_percent) {
+							int li_key = aKeys.nextKey(lRandom, mLastId.get());
+							lStatements.update(li_key, lRows);
+							if (aCache != null) {
+								aCache.invalidate(li_key);
+							}
+							lByType[3].record(System.nanoTime() - l_start);
+						} else if (li_draw < ai_update_percent + ai_insert_percent) {
+							int li_key = mLastId.incrementAndGet();
+							lStatements.insert(li_key, lRows);
+							if (aCache != null) {
+								aCache.invalidate(li_key);
+							}
+							lByType[3].record(System.nanoTime() - l_start);
+						} else {
+							int li_key = aKeys.nextKey(lRandom, mLastId.get());
+							// lo stamp va letto prima della lettura dal DB (vedi PKCache.put)
+							long l_stamp = aCache != null ? aCache.stamp(li_key) : 0;
+							PKStatements.Row lRow = aCache != null ? aCache.get(li_key) : null;
+							if (lRow != null) {
+								lByType[1].record(System.nanoTime() - l_start);
+							} else {
+								lRow = lStatements.select(li_key);
+								if (lRow != null && aCache != null) {
+									aCache.put(li_key, lRow, l_stamp);
+								}
+								lByType[2].record(System.nanoTime() - l_start);
+							}
+							lByType[0].record(System.nanoTime() - l_start);
+							lByType[0].recordRows(lRow != null ? 1 : 0);
+						}
+						lAll.record(System.nanoTime() - l_start);
+					}
+					lAll.setWallTime(System.nanoTime() - l_wallStartTime);
+				}
+				catch (SQLException e) {
+					System.out.println(e.getMessage());
+					throw e;
+				}
+				finally {
+					lStatements.close();
+				}
+
+				lResults[lSlot.getAndIncrement()] = lByType;
+				return lAll;
+			}
+		}, lTotal, true);
+
+		BenchResult[] lMerged = new BenchResult[4];
+		for (int t=0; t<lMerged.length; t++) {
+			lMerged[t] = new BenchResult();
+			for (BenchResult[] lByType : lResults) {
+				lMerged[t].merge(lByType[t]);
+			}
+			lMerged[t].setWallTime(lTotal.getWallTime());
+		}
+		BenchResult lReads = lMerged[0];
+		BenchResult lHits = lMerged[1];
+		BenchResult lMisses = lMerged[2];
+		BenchResult lWrites = lMerged[3];
+		String lsCache = aCache != null ? aCache.getPolicy() + " capacita' " + aCache.getCapacity() : "nessuna cache";
+
+		System.out.println("************* CACHE READ-THROUGH PER PK ****************");
+		System.out.println("Cache:" + lsCache + (aCache != null ? " segmenti:" + aCache.getSegments() : ""));
+		System.out.println("Numero di thread:" + ai_threads);
+		System.out.println("Numero di operazioni eseguite:" + ai_operations);
+		System.out.println("Distribuzione delle chiavi:" + aKeys.getType());
+		System.out.println("UPDATE:" + ai_update_percent + "% INSERT:" + ai_insert_percent + "% letture:" + (100 - ai_update_percent - ai_insert_percent) + "%");
+		System.out.println("Throughput totale ops/s:" + lTotal.getCount() * 1000000000.0 / lTotal.getWallTime());
+		System.out.println("-- Letture per PK (" + lReads.getCount() + " letture, righe trovate:" + lReads.getRows() + "):");
+		lReads.printTimes("lettura");
+		BenchReport.get().add("lettura", lReads);
+		if (lHits.getCount() > 0) {
+			System.out.println("-- Lookup in cache (hit, " + lHits.getCount() + " letture):");
+			lHits.printTimes("cache hit");
+			BenchReport.get().add("cache hit", lHits);
+		}
+		if (lMisses.getCount() > 0) {
+			System.out.println("-- Letture dal DB (miss, " + lMisses.getCount() + " letture):");
+			lMisses.printTimes("cache miss");
+			BenchReport.get().add("cache miss", lMisses);
+		}
+		if (lWrites.getCount() > 0) {
+			System.out.println("-- Scritture con invalidazione (" + lWrites.getCount() + " operazioni):");
+			lWrites.printTimes("scrittura");
+			BenchReport.get().add("scrittura", lWrites);
+		}
+
+		double ld_hit_ratio = lReads.getCount() > 0 ? (double) lHits.getCount() / lReads.getCount() : 0;
+		double ld_db_queries = (lMisses.getCount() + lWrites.getCount()) * 1000000000.0 / lTotal.getWallTime();
+		if (aCache != null) {
+			long[] l_stats = aCache.getStats();
+			System.out.println("Righe in cache:" + l_stats[0] + " eviction:" + l_stats[3] + " non ammesse:" + l_stats[4] + " invalidazioni:" + l_stats[5]);
+		}
+		System.out.println("Hit ratio:" + String.format("%.2f%%", 100 * ld_hit_ratio)
+				+ " letture non inviate al DB:" + lHits.getCount() + " su " + lReads.getCount()
+				+ " query al DB/s:" + Math.round(ld_db_queries));
+		System.out.println("Riepilogo cache " + lsCache + " " + aKeys.getType()
+				+ " hit ratio:" + String.format("%.2f%%", 100 * ld_hit_ratio)
+				+ " letture/s:" + Math.round(lReads.getThroughput())
+				+ " p50 lettura us:" + String.format("%.1f", lReads.getPercentile(50.0) / 1000.0)
+				+ " p99 lettura us:" + String.format("%.1f", lReads.getPercentile(99.0) / 1000.0)
+				+ (lHits.getCount() > 0 ? " p50 hit us:" + String.format("%.2f", lHits.getPercentile(50.0) / 1000.0) : "")
+				+ " query al DB/s:" + Math.round(ld_db_queries));
+	}
+}
@@ -0,0 +1,25 @@
+package it.test.jdbcPostgreSQL;
+
+/**
+ * Generatore delle righe di TEST_TABLE che riproduce il comportamento
+ * originale dei benchmark: NAME e SURNAME concatenati con l'ID e una
+ * nuova data (getCurrentDate) per ogni riga.
+ *
+ */
+class ConcatRowGenerator implements RowGenerator
+{
+	public void startRun() {
+	}
+
+	public String name(int ai_id) {
+		return "test_name" + ai_id;
+	}
+
+	public String surname(int ai_id) {
+		return "test_surname" + ai_id;
+	}
+
+	public java.sql.Date date() {
+		return DBOperation.getCurrentDate();
+	}
+}
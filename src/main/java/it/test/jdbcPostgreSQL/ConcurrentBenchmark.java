@@ -0,0 +1,223 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * La classe ConcurrentBenchmark esegue i benchmark di INSERT e SELECT
+ * per PK con N worker thread concorrenti.
+ *
+ * <p>
+ * Ogni worker apre la propria connessione al DB e lavora su un intervallo
+ * di ID disgiunto dello spazio delle chiavi 1..maxRowsInserted, in modo
+ * che i thread non vadano mai in conflitto sulle stesse righe. Tutti i
+ * worker partono insieme (dopo che ognuno ha aperto la connessione) e
+ * vengono riportati sia il throughput aggregato (ops/s) sia i tempi di
+ * ogni singolo thread.
+ *
+ * <p>
+ * I metodi esposti sono
+ *
+ * - InsertIntoTableConcurrent --> benchmark di INSERT concorrenti
+ *
+ * - SelectFromTableTimeConcurrent --> benchmark di SELECT per PK concorrenti
+ *
+ */
+class ConcurrentBenchmark
+{
+  /**
+   * Operazione eseguita da ogni worker sul proprio intervallo di ID.
+   * La connessione e' null se il worker non ha una connessione dedicata.
+   */
+	interface RangeTask {
+		BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException;
+	}
+
+	private final BenchConfig mConfig;
+	private final DBOperation mDBOps;
+
+	ConcurrentBenchmark(BenchConfig aConfig, DBOperation aDBOps) {
+		mConfig = aConfig;
+		mDBOps = aDBOps;
+	}
+
+  /**
+   * Questo metodo è usato per eseguire i benchmark di INSERT con
+   * ai_threads worker concorrenti.
+   *
+   * @param asTableName  Nome della tabella
+   * @param ai_threads  Numero di worker thread (una connessione per thread)
+   * @param ai_max_rows_per_commit  Numero massimo di INSERT per ogni commit
+   * @param ai_rows_per_batch  Numero di INSERT per ogni executeBatch
+   * @param ai_max_rows_inserted  Numero totale di righe da inserire
+   * @param abSequentialUpdate  (true) insert sequenziali, (false) insert a blocchi
+   */
+	public void InsertIntoTableConcurrent(final String asTableName, int ai_threads, final int ai_max_rows_per_commit, final int ai_rows_per_batch, int ai_max_rows_inserted, final boolean abSequentialUpdate) throws SQLException {
+
+		BenchResult lTotal = new BenchResult();
+		BenchResult[] lResults = runWorkers(ai_threads, ai_max_rows_inserted, new RangeTask() {
+			public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+				return mDBOps.InsertRangeIntoTable(conn, asTableName, ai_max_rows_per_commit, ai_rows_per_batch, ai_first_id, ai_last_id, abSequentialUpdate);
+			}
+		}, lTotal, true);
+
+		System.out.println("************* INSERT BENCHMARKS CONCORRENTI ****************");
+		System.out.println("Numero di thread:" + ai_threads);
+		System.out.println("Numero di INSERT eseguiti:" + ai_max_rows_inserted);
+		System.out.println("COMMIT ogni " + ai_max_rows_per_commit + " righe inserite (per thread).");
+		if (abSequentialUpdate) {
+			System.out.println("INSERT SEQUENZIALI (uno per ogni iterazione) ");
+			printResults(lResults, lTotal, ai_max_rows_inserted, "executeUpdate", true);
+		} else {
+			System.out.println("INSERT A BLOCCHI (batch - "+ai_rows_per_batch+" INSERT statement per volta).");
+			printResults(lResults, lTotal, ai_max_rows_inserted, "executeBatch", true);
+		}
+	}
+
+  /**
+   * Questo metodo è usato per eseguire i benchmark di SELECT per PK
+   * con ai_threads worker concorrenti.
+   *
+   * @param asTableName  Nome della tabella
+   * @param ai_threads  Numero di worker thread (una connessione per thread)
+   * @param ai_max_rows_inserted  Numero totale di select da eseguire
+   */
+	public void SelectFromTableTimeConcurrent(final String asTableName, int ai_threads, int ai_max_rows_inserted) throws SQLException {
+
+		BenchResult lTotal = new BenchResult();
+		BenchResult[] lResults = runWorkers(ai_threads, ai_max_rows_inserted, new RangeTask() {
+			public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+				return mDBOps.SelectRangeFromTableTime(conn, asTableName, ai_first_id, ai_last_id);
+			}
+		}, lTotal, true);
+
+		System.out.println("************* SELECT BENCHMARKS CONCORRENTI ****************");
+		System.out.println("Numero di thread:" + ai_threads);
+		System.out.println("Numero di select eseguite:" + ai_max_rows_inserted);
+		printResults(lResults, lTotal, ai_max_rows_inserted, "select", false);
+	}
+
+  /**
+   * Restituisce il primo ID dell'intervallo assegnato al thread ai_thread.
+   * Le righe vengono suddivise in parti uguali; le eventuali righe in
+   * eccesso vengono assegnate ai primi thread.
+   */
+	static int firstId(int ai_thread, int ai_threads, int ai_max_rows) {
+		int li_base = ai_max_rows / ai_threads;
+		int li_rem = ai_max_rows % ai_threads;
+		return 1 + ai_thread * li_base + Math.min(ai_thread, li_rem);
+	}
+
+  /**
+   * Restituisce l'ultimo ID (incluso) dell'intervallo assegnato al thread ai_thread.
+   */
+	static int lastId(int ai_thread, int ai_threads, int ai_max_rows) {
+		return firstId(ai_thread + 1, ai_threads, ai_max_rows) - 1;
+	}
+
+  /**
+   * Avvia ai_threads worker, ognuno con la propria connessione, e attende
+   * che tutti abbiano terminato. I worker partono insieme solo dopo che
+   * tutte le connessioni sono state aperte, in modo che il tempo di
+   * connessione non venga conteggiato nel throughput.
+   *
+   * @param ai_threads numero di worker
+   * @param ai_max_rows numero di ID da suddividere tra i worker
+   * @param aTask operazione eseguita da ogni worker
+   * @param aTotal risultato aggregato (tempi di tutti i worker e tempo wall clock complessivo)
+   * @param abDedicatedConnection (true) ogni worker apre la propria connessione,
+   *								(false) il worker riceve una connessione null e la gestisce da se'
+   * @return BenchResult[] risultati dei singoli worker
+   */
+	BenchResult[] runWorkers(int ai_threads, int ai_max_rows, final RangeTask aTask, BenchResult aTotal, final boolean abDedicatedConnection) throws SQLException {
+
+		ExecutorService lExecutor = Executors.newFixedThreadPool(ai_threads);
+		final CountDownLatch lReady = new CountDownLatch(ai_threads);
+		final CountDownLatch lStart = new CountDownLatch(1);
+		List<Future<BenchResult>> lFutures = new ArrayList<Future<BenchResult>>();
+		BenchResult[] lResults = new BenchResult[ai_threads];
+
+		try {
+			for (int t=0; t<ai_threads; t++) {
+				final int li_first_id = firstId(t, ai_threads, ai_max_rows);
+				final int li_last_id = lastId(t, ai_threads, ai_max_rows);
+
+				lFutures.add(lExecutor.submit(new Callable<BenchResult>() {
+					public BenchResult call() throws Exception {
+						Connection lConn = null;
+						try {
+							if (abDedicatedConnection) {
+								lConn = mConfig.openConnection();
+							}
+						} finally {
+							lReady.countDown();
+						}
+						try {
+							lStart.await();
+							return aTask.run(lConn, li_first_id, li_last_id);
+						} finally {
+							if (lConn != null) {
+								lConn.close();
+							}
+						}
+					}
+				}));
+			}
+
+			lReady.await();
+			long l_startTime = System.nanoTime();
+			lStart.countDown();
+
+			for (int t=0; t<ai_threads; t++) {
+				lResults[t] = lFutures.get(t).get();
+				aTotal.merge(lResults[t]);
+			}
+			aTotal.setWallTime(System.nanoTime() - l_startTime);
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Benchmark concorrente interrotto", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw new SQLException("Errore nel worker del benchmark concorrente: " + e.getCause(), e.getCause());
+		} finally {
+			lExecutor.shutdownNow();
+		}
+
+		return lResults;
+	}
+
+	void printResults(BenchResult[] aResults, BenchResult aTotal, int ai_max_rows, String asOperation, boolean abInsert) {
+		int li_threads = aResults.length;
+
+		for (int t=0; t<li_threads; t++) {
+			BenchResult lResult = aResults[t];
+			System.out.println("Thread " + t
+					+ " ID [" + firstId(t, li_threads, ai_max_rows) + "-" + lastId(t, li_threads, ai_max_rows) + "]"
+					+ (abInsert ? " righe/s:" + lResult.getRowThroughput() : "")
+					+ " ops/s:" + lResult.getThroughput()
+					+ " avg ns:" + lResult.getAverageTime()
+					+ " min ns:" + lResult.getMinTime()
+					+ " p99 ns:" + lResult.getPercentile(99.0)
+					+ " max ns:" + lResult.getMaxTime());
+		}
+
+		System.out.println("Totale " + li_threads + " thread:");
+		if (abInsert) {
+			aTotal.printInsertTimes(asOperation);
+		} else {
+			aTotal.printTimes(asOperation);
+		}
+		BenchReport.get().add(asOperation, aTotal);
+	}
+}
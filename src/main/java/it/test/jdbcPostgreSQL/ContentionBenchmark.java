@@ -0,0 +1,364 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * La classe ContentionBenchmark esegue transazioni concorrenti che
+ * aggiornano le stesse righe di TEST_TABLE (un insieme di righe "calde"
+ * con ID da 1 a ai_hot_rows) con un livello di isolamento configurabile
+ * (READ COMMITTED, REPEATABLE READ, SERIALIZABLE).
+ *
+ * <p>
+ * Modalita' di accesso (Pattern):
+ *
+ * - UPDATE: lettura e aggiornamento di ai_rows_per_tx righe casuali
+ *   (SELECT e poi UPDATE, senza lock esplicito);
+ *
+ * - FOR_UPDATE: come UPDATE ma la lettura acquisisce il lock di riga con
+ *   SELECT ... FOR UPDATE (lock pessimistico);
+ *
+ * - QUEUE_FOR_UPDATE: coda di lavoro: ogni transazione preleva la prima
+ *   riga in ordine di created_date con SELECT ... FOR UPDATE e la sposta
+ *   in fondo alla coda; i worker si mettono in fila sul lock della stessa
+ *   riga;
+ *
+ * - QUEUE_SKIP_LOCKED: come QUEUE_FOR_UPDATE con SKIP LOCKED: ogni
+ *   worker preleva la prima riga non bloccata da altre transazioni.
+ *
+ * <p>
+ * Le righe di ogni transazione vengono aggiornate in ordine di ID, per
+ * evitare i deadlock. Le transazioni annullate per errore di
+ * serializzazione (SQLState 40001) o deadlock (40P01) vengono ripetute
+ * fino a ai_max_retries volte, con attesa esponenziale con jitter a
+ * partire da ai_backoff_ms; oltre il limite la transazione viene
+ * abbandonata. Vengono riportati le transazioni completate al secondo,
+ * i tempi delle transazioni (tentativi ripetuti compresi) e delle
+ * istruzioni che acquisiscono i lock (comprensivi dell'attesa dei lock),
+ * il tasso di errori di serializzazione e di transazioni ripetute.
+ *
+ */
+class ContentionBenchmark
+{
+	enum Pattern { UPDATE, FOR_UPDATE, QUEUE_FOR_UPDATE, QUEUE_SKIP_LOCKED }
+
+	// SQLState degli errori per cui la transazione puo' essere ripetuta
+	static final String SERIALIZATION_FAILURE = "40001";
+	static final String DEADLOCK_DETECTED = "40P01";
+
+	// contatori per worker
+	private static final int ATTEMPTS = 0;
+	private static final int SERIALIZATION_FAILURES = 1;
+	private static final int DEADLOCKS = 2;
+	private static final int RETRIED = 3;
+	private static final int ABANDONED = 4;
+	private static final int EMPTY_POLLS = 5;
+	private static final int UPDATED = 6;
+
+	private final ConcurrentBenchmark mConcBench;
+	private final int mi_max_retries;
+	private final int mi_backoff_ms;
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param aDBOps operazioni sul DB
+   * @param ai_max_retries numero massimo di ripetizioni di una transazione annullata
+   * @param ai_backoff_ms attesa prima della prima ripetizione in ms (0 = ripetizione immediata)
+   */
+	ContentionBenchmark(BenchConfig aConfig, DBOperation aDBOps, int ai_max_retries, int ai_backoff_ms) {
+		mConcBench = new ConcurrentBenchmark(aConfig, aDBOps);
+		mi_max_retries = ai_max_retries;
+		mi_backoff_ms = ai_backoff_ms;
+	}
+
+  /**
+   * @param asIsolation read_committed, repeatable_read oppure serializable
+   * @return int livello di isolamento JDBC
+   */
+	static int parseIsolation(String asIsolation) {
+		String lsIsolation = asIsolation.trim().toLowerCase();
+		if (lsIsolation.equals("read_committed")) {
+			return Connection.TRANSACTION_READ_COMMITTED;
+		} else if (lsIsolation.equals("repeatable_read")) {
+			return Connection.TRANSACTION_REPEATABLE_READ;
+		} else if (lsIsolation.equals("serializable")) {
+			return Connection.TRANSACTION_SERIALIZABLE;
+		}
+		throw new IllegalArgumentException("Livello di isolamento non valido: " + asIsolation);
+	}
+
+	static String isolationName(int ai_isolation) {
+		switch (ai_isolation) {
+			case Connection.TRANSACTION_REPEATABLE_READ:
+				return "REPEATABLE READ";
+			case Connection.TRANSACTION_SERIALIZABLE:
+				return "SERIALIZABLE";
+			default:
+				return "READ COMMITTED";
+		}
+	}
+
+  /**
+   * @param e errore di una transazione
+   * @return boolean true se la transazione puo' essere ripetuta (serializzazione o deadlock)
+   */
+	static boolean isRetryable(SQLException e) {
+		return SERIALIZATION_FAILURE.equals(e.getSQLState()) || DEADLOCK_DETECTED.equals(e.getSQLState());
+	}
+
+  /**
+   * Esegue ai_transactions transazioni con ai_threads worker e stampa i
+   * risultati. Al termine verifica con la connessione aConn quanti
+   * aggiornamenti committati sono stati persi: ogni aggiornamento
+   * incrementa un contatore in coda a NAME calcolato dal valore letto,
+   * quindi la somma dei contatori cresce meno degli aggiornamenti se una
+   * transazione ha sovrascritto una modifica concorrente (lost update).
+   *
+   * @param aConn  connessione al DB per la verifica degli aggiornamenti persi
+   * @param asTableName  Nome della tabella
+   * @param ai_threads  Numero di worker (una connessione per worker)
+   * @param ai_transactions  Numero totale di transazioni
+   * @param ai_isolation  Livello di isolamento JDBC
+   * @param aPattern  Modalita' di accesso alle righe
+   * @param ai_hot_rows  Righe contese (ID da 1 a ai_hot_rows)
+   * @param ai_rows_per_tx  Righe aggiornate da ogni transazione (UPDATE e FOR_UPDATE)
+   */
+	public void run(Connection aConn, final String asTableName, int ai_threads, int ai_transactions, final int ai_isolation, final Pattern aPattern,
+			final int ai_hot_rows, final int ai_rows_per_tx) throws SQLException {
+
+		final BenchResult[] lLocks = new BenchResult[ai_threads];
+		final long[][] lCounters = new long[ai_threads][];
+		final AtomicInteger lSlot = new AtomicInteger();
+		long l_counter_start = updateCounters(aConn, asTableName, ai_hot_rows);
+
+		BenchResult lTotal = new BenchResult();
+		mConcBench.runWorkers(ai_threads, ai_transactions, new ConcurrentBenchmark.RangeTask() {
+			public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+				BenchResult lTx = new BenchResult();
+				lTx.setLive(true);
+				BenchResult lLock = new BenchResult();
+				long[] l_counters = new long[7];
+				ThreadLocalRandom lRandom = ThreadLocalRandom.current();
+				PreparedStatement lSelect = null;
+				PreparedStatement lUpdate = null;
+				int[] li_keys = new int[Math.min(ai_rows_per_tx, ai_hot_rows)];
+
+				try {
+					conn.setAutoCommit(false);
+					conn.setTransactionIsolation(ai_isolation);
+					lSelect = conn.prepareStatement(selectSQL(asTableName, aPattern, ai_hot_rows));
+					lUpdate = conn.prepareStatement("UPDATE " + asTableName + " SET name = ?, created_date = created_date + 1 WHERE id = ?");
+
+					long l_wallStartTime = System.nanoTime();
+					for (int i=ai_first_id; i<=ai_last_id; i++) {
+						long l_start = System.nanoTime();
+						if (aPattern == Pattern.UPDATE || aPattern == Pattern.FOR_UPDATE) {
+							chooseKeys(lRandom, ai_hot_rows, li_keys);
+						}
+						for (int li_try=0; ; li_try++) {
+							l_counters[ATTEMPTS]++;
+							try {
+								int li_updated = li_keys.length;
+								if (aPattern == Pattern.UPDATE || aPattern == Pattern.FOR_UPDATE) {
+									updateRows(lSelect, lUpdate, li_keys, aPattern == Pattern.FOR_UPDATE, lLock);
+								} else if (!dequeue(lSelect, lUpdate, lLock)) {
+									l_counters[EMPTY_POLLS]++;
+									li_updated = 0;
+								} else {
+									li_updated = 1;
+								}
+								conn.commit();
+								l_counters[UPDATED] += li_updated;
+								break;
+							} catch (SQLException e) {
+								conn.rollback();
+								if (!isRetryable(e)) {
+									throw e;
+								}
+								l_counters[DEADLOCK_DETECTED.equals(e.getSQLState()) ? DEADLOCKS : SERIALIZATION_FAILURES]++;
+								if (li_try == 0) {
+									l_counters[RETRIED]++;
+								}
+								if (li_try >= mi_max_retries) {
+									l_counters[ABANDONED]++;
+									break;
+								}
+								backoff(lRandom, li_try);
+							}
+						}
+						long l_end = System.nanoTime();
+						lTx.record(l_end - l_start);
+					}
+					lTx.setWallTime(System.nanoTime() - l_wallStartTime);
+				}
+				catch (SQLException e) {
+					System.out.println(e.getMessage());
+					throw e;
+				}
+				finally {
+					if (lSelect != null) lSelect.close();
+					if (lUpdate != null) lUpdate.close();
+				}
+
+				int li_slot = lSlot.getAndIncrement();
+				lLocks[li_slot] = lLock;
+				lCounters[li_slot] = l_counters;
+				return lTx;
+			}
+		}, lTotal, true);
+
+		BenchResult lLock = new BenchResult();
+		long[] l_counters = new long[7];
+		for (int t=0; t<ai_threads; t++) {
+			lLock.merge(lLocks[t]);
+			for (int c=0; c<l_counters.length; c++) {
+				l_counters[c] += lCounters[t][c];
+			}
+		}
+		lLock.setWallTime(lTotal.getWallTime());
+		long l_lost = l_counters[UPDATED] - (updateCounters(aConn, asTableName, ai_hot_rows) - l_counter_start);
+		long l_committed = ai_transactions - l_counters[ABANDONED];
+		long l_failures = l_counters[SERIALIZATION_FAILURES] + l_counters[DEADLOCKS];
+		String lsIsolation = isolationName(ai_isolation);
+
+		System.out.println("************* CONTESA SU RIGHE E ISOLAMENTO ****************");
+		System.out.println("Isolamento:" + lsIsolation + " modalita':" + aPattern);
+		System.out.println("Numero di thread:" + ai_threads + " righe contese:" + ai_hot_rows
+				+ (aPattern == Pattern.UPDATE || aPattern == Pattern.FOR_UPDATE ? " righe per transazione:" + Math.min(ai_rows_per_tx, ai_hot_rows) : ""));
+		System.out.println("Transazioni:" + ai_transactions + " completate:" + l_committed + " abbandonate:" + l_counters[ABANDONED]
+				+ " (massimo ripetizioni:" + mi_max_retries + ", attesa iniziale ms:" + mi_backoff_ms + ")");
+		System.out.println("-- Transazioni (tentativi ripetuti compresi):");
+		lTotal.printTimes("transazione");
+		BenchReport.get().add("transazione", lTotal);
+		System.out.println("-- Istruzioni che acquisiscono i lock (attesa del lock compresa):");
+		lLock.printTimes("lock");
+		BenchReport.get().add("lock", lLock);
+		System.out.println("Tentativi:" + l_counters[ATTEMPTS] + " errori di serializzazione:" + l_counters[SERIALIZATION_FAILURES]
+				+ " deadlock:" + l_counters[DEADLOCKS] + " transazioni ripetute:" + l_counters[RETRIED]
+				+ (l_counters[EMPTY_POLLS] > 0 ? " prelievi senza righe libere:" + l_counters[EMPTY_POLLS] : ""));
+		System.out.println("Aggiornamenti committati:" + l_counters[UPDATED] + " aggiornamenti persi:" + l_lost);
+		System.out.println("Riepilogo contesa " + lsIsolation + " " + aPattern
+				+ " transazioni/s:" + Math.round(l_committed * 1000000000.0 / lTotal.getWallTime())
+				+ " errori per tentativo:" + String.format("%.2f%%", 100.0 * l_failures / l_counters[ATTEMPTS])
+				+ " transazioni ripetute:" + String.format("%.2f%%", 100.0 * l_counters[RETRIED] / ai_transactions)
+				+ " p99 transazione ms:" + String.format("%.3f", lTotal.getPercentile(99.0) / 1000000.0)
+				+ " p99 lock ms:" + String.format("%.3f", lLock.getPercentile(99.0) / 1000000.0)
+				+ " aggiornamenti persi:" + l_lost);
+	}
+
+	// somma dei contatori di aggiornamenti in coda a NAME delle righe contese
+	private static long updateCounters(Connection conn, String asTableName, int ai_hot_rows) throws SQLException {
+		PreparedStatement lStatement = conn.prepareStatement("SELECT coalesce(sum(substring(name from '#([0-9]+)$')::bigint), 0) FROM "
+				+ asTableName + " WHERE id <= ?");
+		try {
+			lStatement.setInt(1, ai_hot_rows);
+			ResultSet rs = lStatement.executeQuery();
+			rs.next();
+			long l_sum = rs.getLong(1);
+			rs.close();
+			if (!conn.getAutoCommit()) {
+				conn.commit();
+			}
+			return l_sum;
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw e;
+		} finally {
+			lStatement.close();
+		}
+	}
+
+	private static String selectSQL(String asTableName, Pattern aPattern, int ai_hot_rows) {
+		switch (aPattern) {
+			case UPDATE:
+				return "SELECT name FROM " + asTableName + " WHERE id = ?";
+			case FOR_UPDATE:
+				return "SELECT name FROM " + asTableName + " WHERE id = ? FOR UPDATE";
+			default:
+				return "SELECT id, name FROM " + asTableName + " WHERE id <= " + ai_hot_rows
+						+ " ORDER BY created_date, id LIMIT 1 FOR UPDATE" + (aPattern == Pattern.QUEUE_SKIP_LOCKED ? " SKIP LOCKED" : "");
+		}
+	}
+
+	// sceglie ID distinti tra 1 e ai_hot_rows, in ordine crescente
+	static void chooseKeys(ThreadLocalRandom aRandom, int ai_hot_rows, int[] ai_keys) {
+		for (int k=0; k<ai_keys.length; k++) {
+			int li_key;
+			boolean lbDuplicate;
+			do {
+				li_key = 1 + aRandom.nextInt(ai_hot_rows);
+				lbDuplicate = false;
+				for (int j=0; j<k; j++) {
+					lbDuplicate |= ai_keys[j] == li_key;
+				}
+			} while (lbDuplicate);
+			ai_keys[k] = li_key;
+		}
+		Arrays.sort(ai_keys);
+	}
+
+	// lettura e aggiornamento delle righe; con READ COMMITTED e senza FOR UPDATE l'aggiornamento
+	// sovrascrive le modifiche concorrenti avvenute dopo la lettura (lost update)
+	private static void updateRows(PreparedStatement aSelect, PreparedStatement aUpdate, int[] ai_keys, boolean abForUpdate, BenchResult aLock) throws SQLException {
+		for (int li_key : ai_keys) {
+			long l_start = System.nanoTime();
+			aSelect.setInt(1, li_key);
+			ResultSet rs = aSelect.executeQuery();
+			String lsName = rs.next() ? rs.getString(1) : "";
+			rs.close();
+			if (abForUpdate) {
+				aLock.record(System.nanoTime() - l_start);
+			}
+			l_start = System.nanoTime();
+			aUpdate.setString(1, nextName(lsName));
+			aUpdate.setInt(2, li_key);
+			aUpdate.executeUpdate();
+			if (!abForUpdate) {
+				aLock.record(System.nanoTime() - l_start);
+			}
+		}
+	}
+
+	// preleva la prima riga della coda e la sposta in fondo; false se tutte le righe sono bloccate
+	private static boolean dequeue(PreparedStatement aSelect, PreparedStatement aUpdate, BenchResult aLock) throws SQLException {
+		long l_start = System.nanoTime();
+		ResultSet rs = aSelect.executeQuery();
+		boolean lbFound = rs.next();
+		int li_key = lbFound ? rs.getInt(1) : 0;
+		String lsName = lbFound ? rs.getString(2) : "";
+		rs.close();
+		aLock.record(System.nanoTime() - l_start);
+		if (lbFound) {
+			aUpdate.setString(1, nextName(lsName));
+			aUpdate.setInt(2, li_key);
+			aUpdate.executeUpdate();
+		}
+		return lbFound;
+	}
+
+	// nuovo valore di NAME calcolato dal valore letto (contatore di aggiornamenti in coda al nome)
+	private static String nextName(String asName) {
+		int li_sep = asName.lastIndexOf('#');
+		long l_count = li_sep >= 0 ? Long.parseLong(asName.substring(li_sep + 1)) : 0;
+		return (li_sep >= 0 ? asName.substring(0, li_sep) : asName) + "#" + (l_count + 1);
+	}
+
+	private void backoff(ThreadLocalRandom aRandom, int ai_try) throws SQLException {
+		if (mi_backoff_ms <= 0) {
+			return;
+		}
+		// attesa esponenziale (limitata a 64 volte l'attesa iniziale) con jitter uniforme
+		long l_max = (long) mi_backoff_ms << Math.min(ai_try, 6);
+		try {
+			Thread.sleep(1 + aRandom.nextLong(l_max));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Benchmark di contesa interrotto", e);
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package it.test.jdbcPostgreSQL;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * La classe CopyRowEncoder codifica le righe di TEST_TABLE
+ * (ID, NAME, SURNAME, CREATED_DATE) nel formato atteso dal comando
+ * COPY ... FROM STDIN di PostgreSQL, in formato testo oppure binario.
+ *
+ * <p>
+ * Le righe vengono scritte direttamente in un buffer di byte riutilizzabile:
+ * le cifre dell'ID e i prefissi "test_name"/"test_surname" vengono copiati
+ * nel buffer senza creare una String per ogni riga. Il chiamante invia il
+ * contenuto del buffer al server (getBuffer/size) e lo svuota con reset.
+ *
+ * <p>
+ * Formato binario: header "PGCOPY\n\377\r\n\0" + flags + lunghezza
+ * estensione, poi per ogni riga il numero di campi (int16) seguito da
+ * lunghezza (int32) e valore di ogni campo; il trailer e' un int16 -1.
+ *
+ * <p>
+ * Con setPayload viene scritta anche la colonna PAYLOAD (vedi
+ * TableSchema): lettere casuali copiate da un blocco generato una sola
+ * volta, da una posizione che dipende dall'ID, in modo che il contenuto
+ * vari tra le righe e non venga compresso dal server.
+ *
+ */
+class CopyRowEncoder
+{
+	enum Format { TEXT, BINARY }
+
+	private static final byte[] NAME_PREFIX = "test_name".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] SURNAME_PREFIX = "test_surname".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+	// giorni tra 1970-01-01 e 2000-01-01 (epoca delle date nel formato binario di PostgreSQL)
+	private static final long PG_EPOCH_DAY = 10957;
+
+	// lettere casuali da cui viene copiato il PAYLOAD: 8192 posizioni di partenza
+	private static final int PAYLOAD_OFFSET_BITS = 13;
+	private static final byte[] PAYLOAD_SOURCE = new byte[(1 << PAYLOAD_OFFSET_BITS) + TableSchema.MAX_PAYLOAD];
+	static {
+		java.util.Random lRandom = new java.util.Random(42);
+		for (int i=0; i<PAYLOAD_SOURCE.length; i++) {
+			int li_letter = lRandom.nextInt(52);
+			PAYLOAD_SOURCE[i] = (byte) (li_letter < 26 ? 'a' + li_letter : 'A' + li_letter - 26);
+		}
+	}
+
+	private final Format mFormat;
+	private byte[] mBuffer;
+	private int mi_size=0;
+
+	// data codificata una sola volta (testo "yyyy-mm-dd" oppure giorni dal 2000-01-01)
+	private byte[] mDateText;
+	private int mi_dateDays;
+	// larghezza della colonna PAYLOAD (0 = colonna non scritta)
+	private int mi_payload=0;
+
+	CopyRowEncoder(Format aFormat, int ai_initial_capacity) {
+		mFormat = aFormat;
+		mBuffer = new byte[Math.max(ai_initial_capacity, 64)];
+	}
+
+  /**
+   * Restituisce il comando COPY da eseguire per la tabella indicata.
+   *
+   * @param asTableName nome della tabella
+   * @return String comando COPY ... FROM STDIN
+   */
+	public String copySQL(String asTableName) {
+		String lsSQL = "COPY " + asTableName + " (id, name, surname, created_date" + (mi_payload > 0 ? ", payload" : "") + ") FROM STDIN";
+		if (mFormat == Format.BINARY) {
+			lsSQL += " WITH (FORMAT binary)";
+		}
+		return lsSQL;
+	}
+
+  /**
+   * Imposta la data scritta in CREATED_DATE per tutte le righe successive.
+   *
+   * @param adDate data da inserire
+   */
+	public void setDate(java.sql.Date adDate) {
+		java.time.LocalDate lDate = adDate.toLocalDate();
+		mDateText = lDate.toString().getBytes(StandardCharsets.US_ASCII);
+		mi_dateDays = (int) (lDate.toEpochDay() - PG_EPOCH_DAY);
+	}
+
+  /**
+   * Imposta la larghezza della colonna PAYLOAD scritta per tutte le righe
+   * successive (0 = colonna non scritta).
+   *
+   * @param ai_bytes byte del PAYLOAD, al massimo TableSchema.MAX_PAYLOAD
+   */
+	public void setPayload(int ai_bytes) {
+		mi_payload = ai_bytes;
+	}
+
+  /**
+   * Restituisce il PAYLOAD della riga con l'ID indicato, uguale a quello
+   * scritto nel buffer (per le INSERT eseguite con PreparedStatement).
+   *
+   * @param al_id valore della PK
+   * @param ai_bytes byte del PAYLOAD
+   * @return String PAYLOAD della riga
+   */
+	static String payload(long al_id, int ai_bytes) {
+		return new String(PAYLOAD_SOURCE, payloadOffset(al_id), ai_bytes, StandardCharsets.US_ASCII);
+	}
+
+  /**
+   * Scrive l'header del formato binario (da chiamare all'inizio di ogni COPY).
+   * Nel formato testo non fa nulla.
+   */
+	public void writeHeader() {
+		if (mFormat == Format.BINARY) {
+			writeBytes(BINARY_SIGNATURE);
+			writeInt(0); // flags
+			writeInt(0); // lunghezza area di estensione dell'header
+		}
+	}
+
+  /**
+   * Scrive il trailer del formato binario (da chiamare alla fine di ogni COPY).
+   * Nel formato testo non fa nulla.
+   */
+	public void writeTrailer() {
+		if (mFormat == Format.BINARY) {
+			writeShort(-1);
+		}
+	}
+
+  /**
+   * Codifica nel buffer la riga di TEST_TABLE con l'ID indicato.
+   *
+   * @param ai_id valore della PK
+   */
+	public void appendRow(int ai_id) {
+		writeRow(ai_id, 4);
+	}
+
+  /**
+   * Codifica nel buffer la riga con l'ID indicato per una tabella con
+   * chiave primaria BIGINT (nel formato binario l'ID occupa 8 byte).
+   *
+   * @param al_id valore della PK
+   */
+	public void appendBigintRow(long al_id) {
+		writeRow(al_id, 8);
+	}
+
+	// codifica una riga; ai_id_bytes e' la dimensione dell'ID nel formato binario (4 INTEGER, 8 BIGINT)
+	private void writeRow(long al_id, int ai_id_bytes) {
+		if (mFormat == Format.BINARY) {
+			writeShort(mi_payload > 0 ? 5 : 4);
+			writeInt(ai_id_bytes);
+			if (ai_id_bytes == 8) {
+				writeInt((int) (al_id >>> 32));
+			}
+			writeInt((int) al_id);
+			writeInt(NAME_PREFIX.length + digits(al_id));
+			writeBytes(NAME_PREFIX);
+			writeDigits(al_id);
+			writeInt(SURNAME_PREFIX.length + digits(al_id));
+			writeBytes(SURNAME_PREFIX);
+			writeDigits(al_id);
+			writeInt(4);
+			writeInt(mi_dateDays);
+			if (mi_payload > 0) {
+				writeInt(mi_payload);
+				writeBytes(PAYLOAD_SOURCE, payloadOffset(al_id), mi_payload);
+			}
+		} else {
+			writeDigits(al_id);
+			writeByte('\t');
+			writeBytes(NAME_PREFIX);
+			writeDigits(al_id);
+			writeByte('\t');
+			writeBytes(SURNAME_PREFIX);
+			writeDigits(al_id);
+			writeByte('\t');
+			writeBytes(mDateText);
+			if (mi_payload > 0) {
+				writeByte('\t');
+				writeBytes(PAYLOAD_SOURCE, payloadOffset(al_id), mi_payload);
+			}
+			writeByte('\n');
+		}
+	}
+
+	public byte[] getBuffer() {
+		return mBuffer;
+	}
+
+	public int size() {
+		return mi_size;
+	}
+
+	public void reset() {
+		mi_size = 0;
+	}
+
+	private void ensureCapacity(int ai_extra) {
+		if (mi_size + ai_extra > mBuffer.length) {
+			mBuffer = java.util.Arrays.copyOf(mBuffer, Math.max(mBuffer.length * 2, mi_size + ai_extra));
+		}
+	}
+
+	private void writeByte(int ai_value) {
+		ensureCapacity(1);
+		mBuffer[mi_size++] = (byte) ai_value;
+	}
+
+	private void writeBytes(byte[] aBytes) {
+		ensureCapacity(aBytes.length);
+		System.arraycopy(aBytes, 0, mBuffer, mi_size, aBytes.length);
+		mi_size += aBytes.length;
+	}
+
+	private void writeBytes(byte[] aBytes, int ai_offset, int ai_length) {
+		ensureCapacity(ai_length);
+		System.arraycopy(aBytes, ai_offset, mBuffer, mi_size, ai_length);
+		mi_size += ai_length;
+	}
+
+	private void writeShort(int ai_value) {
+		ensureCapacity(2);
+		mBuffer[mi_size++] = (byte) (ai_value >>> 8);
+		mBuffer[mi_size++] = (byte) ai_value;
+	}
+
+	private void writeInt(int ai_value) {
+		ensureCapacity(4);
+		mBuffer[mi_size++] = (byte) (ai_value >>> 24);
+		mBuffer[mi_size++] = (byte) (ai_value >>> 16);
+		mBuffer[mi_size++] = (byte) (ai_value >>> 8);
+		mBuffer[mi_size++] = (byte) ai_value;
+	}
+
+	// posizione di partenza del PAYLOAD della riga al_id nel blocco di lettere casuali
+	private static int payloadOffset(long al_id) {
+		return (int) ((al_id * 0x9E3779B97F4A7C15L) >>> (64 - PAYLOAD_OFFSET_BITS));
+	}
+
+	static int digits(long al_value) {
+		int li_digits = al_value < 0 ? 2 : 1;
+		long l_value = Math.abs(al_value);
+		while (l_value >= 10) {
+			l_value /= 10;
+			li_digits++;
+		}
+		return li_digits;
+	}
+
+	private void writeDigits(long al_value) {
+		int li_digits = digits(al_value);
+		ensureCapacity(li_digits);
+		int li_pos = mi_size + li_digits - 1;
+		long l_value = Math.abs(al_value);
+		do {
+			mBuffer[li_pos--] = (byte) ('0' + (l_value % 10));
+			l_value /= 10;
+		} while (l_value > 0);
+		if (al_value < 0) {
+			mBuffer[li_pos] = '-';
+		}
+		mi_size += li_digits;
+	}
+}
@@ -0,0 +1,1174 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.*;
+import java.util.Properties;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGStatement;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * La classe DBOperation contiene i metodi utilizzati
+ * per i benchmark di INSERT e SELECT su un DB JDBC compliant
+ *  
+ * <p>
+ * I metodi esposti sono 
+ *
+ * - createTable --> per
+ *   la creazione di una tabella di DB sulla quali eseguire 
+ *	 i benchmarks, con lo schema di default oppure con una
+ *	 variante (TableSchema).
+ *	 
+ * - DropTable --> per droppare la tabella e ricrearla
+ *	 ad ogni lancio dell'applicazione. 
+ *
+ * - InsertIntoTable --> per eseguire i benchmarks degli statement
+ *   di INSERT con commit ogni X statement. Update sequenziali e
+ *   a blocchi. 
+ *
+ * - CopyIntoTable --> per eseguire i benchmark di caricamento
+ *   tramite COPY FROM STDIN (formato testo o binario) con commit
+ *   ogni X righe.
+ *
+ * - InsertMultiValuesIntoTable / InsertUnnestIntoTable --> per eseguire
+ *   i benchmark di INSERT multi-riga (VALUES multipli oppure unnest di
+ *   array) con N righe per statement e commit ogni X righe.
+ *
+ * - SelectFromTableTime --> per eseguire i benchmarks degli statement
+ *   di SELECT per PK della tabella creata in precedenza, con prepare
+ *   ad ogni select su una connessione senza cache degli statement
+ *   (vedi coldConnectionProperties).
+ *
+ * - SelectFromTableTimeReused --> come SelectFromTableTime ma con un
+ *   unico PreparedStatement riutilizzato per tutte le select.
+ *
+ * - SelectFromTableTimePipelined --> select per PK con N chiavi per
+ *   round trip (WHERE id = ANY(?) oppure N select inviate insieme).
+ *
+ * - CloseConn --> per chiudere la connessione al DB 	 
+ *
+ */ 
+class DBOperation
+{
+	// dimensione del buffer oltre la quale i dati del COPY vengono inviati al server
+	private static final int COPY_FLUSH_BYTES = 64 * 1024;
+	
+	// durata degli intervalli della serie temporale del throughput dei benchmark di INSERT (ns)
+	private long ml_throughput_interval = 1000000000L;
+	
+	// generatore dei valori delle righe inserite dai benchmark di INSERT
+	private RowGenerator.Type mRowGeneratorType = RowGenerator.Type.BUFFERED;
+	
+	// properties del driver della connessione delle select "cold" (vedi coldConnectionProperties)
+	static final String COLD_CACHE_QUERIES = "0";
+	static final String COLD_PREPARE_THRESHOLD = "0";
+	
+  /**
+   * Imposta la durata degli intervalli della serie temporale del
+   * throughput registrata dai benchmark di INSERT.
+   *
+   * @param ai_interval_ms durata di ogni intervallo in millisecondi
+   */
+	public void setThroughputInterval(int ai_interval_ms) {
+		ml_throughput_interval = ai_interval_ms * 1000000L;
+	}
+	
+  /**
+   * Imposta il generatore dei valori delle righe dei benchmark di INSERT
+   * (default BUFFERED, CONCAT = concatenazione di String e nuova data per riga).
+   *
+   * @param aType tipo di generatore
+   */
+	public void setRowGenerator(RowGenerator.Type aType) {
+		mRowGeneratorType = aType;
+	}
+	
+  /**
+   * Questo metodo è usato per restituire la data e l'ora attuali
+   *
+   * @return java.sql.Date Restituisce la data/ora attuale.
+   */	
+   
+   static java.sql.Date getCurrentDate() {
+		java.util.Date today = new java.util.Date();
+		return new java.sql.Date(today.getTime());
+   }    	
+   
+  /**
+   * Questo metodo è usato per verificare l'esistenza di una
+   * tabella sul DB.
+   * 
+   * 
+   * @param conn connessione al DB
+   * @param tableName  Nome della tabella
+   * @return boolean Restituisce true se la tabella esiste.
+   */	
+   public static boolean tableExist(Connection conn, String tableName) throws SQLException {
+			boolean tExists = false;
+			String tName="";
+			ResultSet rs=null;
+			
+			try {
+				
+				rs = conn.getMetaData().getTables(null, null, tableName, null); 
+				while (rs.next()) { 
+					 tName = rs.getString("TABLE_NAME");					 
+					 
+					 if (tName != null && tName.toUpperCase().equals(tableName.toUpperCase())) {
+						tExists = true;
+						break;
+					}
+				}
+			}			
+			catch (SQLException e) {
+
+				System.out.println(e.getMessage());
+				throw e;
+			}
+			finally {
+				if (rs != null) rs.close(); 
+			}	
+			
+			return tExists;
+	}
+	
+  /**
+   * Questo metodo è usato per creare su DB la tabella
+   * sulla quale eseguire i benchmark di INSERT/SELECT 
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   */	
+	public void createTable(Connection conn, String asTableName) throws SQLException {
+		createTable(conn, asTableName, TableSchema.DEFAULT);
+	}
+	
+  /**
+   * Questo metodo è usato per creare su DB la tabella con la variante
+   * di schema aSchema (tipo di chiave primaria, indici secondari,
+   * UNLOGGED, fillfactor, partizionamento).
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param aSchema  variante dello schema
+   */	
+	public void createTable(Connection conn, String asTableName, TableSchema aSchema) throws SQLException {
+
+		PreparedStatement preparedStatement = null;
+		
+		String CreateTableSQL = aSchema.createSQL(asTableName);
+
+		try {
+			preparedStatement = conn.prepareStatement(CreateTableSQL);
+
+			preparedStatement.executeUpdate();
+
+		} catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+
+		} finally {
+
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}
+		}
+	}	
+	
+  /**
+   * Questo metodo è usato per eseguire il drop della tabella
+   * sui cui vengono eseguiti i benchmark. La tabella ad ogni
+   * avvio dell'applicazione viene droppata e ricreata.
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   */
+	public void DropTable(Connection conn, String asTableName) throws SQLException {
+
+		PreparedStatement preparedStatement = null;
+		String DropTableSQL = "DROP TABLE IF EXISTS "+asTableName+";";
+
+		try {
+			preparedStatement = conn.prepareStatement(DropTableSQL);
+
+			// System.out.println(DropTableSQL);
+
+			// execute create SQL stetement
+			preparedStatement.executeUpdate();
+
+		} catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+
+		} finally {
+
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}	
+		}
+	}
+	
+  /**
+   * Questo metodo è usato per svuotare la tabella sui cui vengono
+   * eseguiti i benchmark (TRUNCATE), senza ricrearla, tra le esecuzioni
+   * ripetute di uno stesso benchmark.
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   */
+	public void TruncateTable(Connection conn, String asTableName) throws SQLException {
+
+		PreparedStatement preparedStatement = null;
+		String TruncateTableSQL = "TRUNCATE TABLE "+asTableName+";";
+
+		try {
+			preparedStatement = conn.prepareStatement(TruncateTableSQL);
+			preparedStatement.executeUpdate();
+			if (!conn.getAutoCommit()) {
+				conn.commit();
+			}
+
+		} catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+
+		} finally {
+
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}	
+		}
+	}
+	
+  /**
+   * Questo metodo è usato per eseguire i benchmark di inserimento
+   * in tabella. I benchmark vengono calcolati per inserimenti 
+   * batch a blocchi di X statement, oppure per inserimenti 
+   * sequenziali. I commit vengono eseguiti ogni X statement.
+   * 
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param ai_max_rows_per_commit  Numero massimo di INSERT per ogni commit
+   * @param ai_max_rows_inserted  Numero massimo di righe da inserire
+   * @param abSequentialUpdate  Se (false) indica di eseguire gli insert massivi a
+   *									   blocchi di X statement (esecuzione batch)
+   *									   Se (true) esegue gli insert in maniera sequenziale
+   *									   (uno per ogni iterazione).  
+   *
+   */
+	public void InsertIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_max_rows_inserted, boolean abSequentialUpdate) throws SQLException {
+
+		InsertIntoTable(conn, asTableName, ai_max_rows_per_commit, ai_max_rows_per_commit, ai_max_rows_inserted, abSequentialUpdate);
+	}
+	
+  /**
+   * Come InsertIntoTable, con la dimensione dei batch (executeBatch ogni
+   * ai_rows_per_batch righe) indipendente dal numero di righe per commit.
+   * 
+   * Vengono stampate separatamente le distribuzioni dei tempi di bind lato
+   * client per ogni riga, di esecuzione di ogni statement (executeUpdate
+   * per gli insert sequenziali, executeBatch per gli insert a blocchi) e
+   * di ogni commit, insieme a righe/s e serie temporale del throughput.
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param ai_max_rows_per_commit  Numero massimo di INSERT per ogni commit
+   * @param ai_rows_per_batch  Numero di INSERT per ogni executeBatch (ignorato per gli insert sequenziali)
+   * @param ai_max_rows_inserted  Numero massimo di righe da inserire
+   * @param abSequentialUpdate  (true) insert sequenziali, (false) insert a blocchi
+   * @return BenchResult tempi misurati
+   *
+   */
+	public BenchResult InsertIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_rows_per_batch, int ai_max_rows_inserted, boolean abSequentialUpdate) throws SQLException {
+
+		BenchResult lResult = InsertRangeIntoTable(conn, asTableName, ai_max_rows_per_commit, ai_rows_per_batch, 1, ai_max_rows_inserted, abSequentialUpdate);
+
+		System.out.println("****************** INSERT BENCHMARKS ***********************");
+		System.out.println("Numero di INSERT eseguiti:" + ai_max_rows_inserted);
+		System.out.println("COMMIT ogni " + ai_max_rows_per_commit + " righe inserite.");
+		if (abSequentialUpdate) {
+			System.out.println("INSERT SEQUENZIALI (uno per ogni iterazione) ");	
+			lResult.printInsertTimes("executeUpdate");
+			BenchReport.get().add("executeUpdate", lResult);
+		} else {
+			System.out.println("INSERT A BLOCCHI (batch - "+ai_rows_per_batch+" INSERT statement per volta).");
+			lResult.printInsertTimes("executeBatch");
+			BenchReport.get().add("executeBatch", lResult);
+		}	
+		return lResult;
+	}
+	
+  /**
+   * Questo metodo esegue il ciclo di INSERT per l'intervallo di ID
+   * [ai_first_id, ai_last_id] e restituisce i tempi misurati senza
+   * stamparli. E' utilizzato sia dal benchmark a singolo thread
+   * (InsertIntoTable) sia dai worker del benchmark concorrente,
+   * ognuno dei quali inserisce un intervallo di ID disgiunto.
+   * 
+   * Per ogni riga viene registrato il tempo di bind (set dei parametri e
+   * addBatch); per ogni statement eseguito sul DB (executeUpdate oppure
+   * executeBatch) il tempo di esecuzione e per ogni commit il tempo del
+   * commit e le righe committate.
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param ai_max_rows_per_commit  Numero massimo di INSERT per ogni commit
+   * @param ai_rows_per_batch  Numero di INSERT per ogni executeBatch
+   * @param ai_first_id  primo ID da inserire (incluso)
+   * @param ai_last_id  ultimo ID da inserire (incluso)
+   * @param abSequentialUpdate  (true) insert sequenziali, (false) insert a blocchi
+   * @return BenchResult tempi di bind, esecuzione e commit
+   */
+	BenchResult InsertRangeIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_rows_per_batch, int ai_first_id, int ai_last_id, boolean abSequentialUpdate) throws SQLException {
+		return InsertRangeIntoTable(conn, asTableName, ai_max_rows_per_commit, ai_rows_per_batch, ai_first_id, ai_last_id, abSequentialUpdate, new BenchResult());
+	}
+
+  /**
+   * Come InsertRangeIntoTable, ma registra i tempi in aResult, azzerato
+   * all'inizio: lo stesso risultato puo' essere riutilizzato per
+   * esecuzioni successive senza allocare istogrammi e serie.
+   *
+   * @param aResult  risultato nel quale registrare i tempi
+   * @return BenchResult aResult
+   */
+	BenchResult InsertRangeIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_rows_per_batch, int ai_first_id, int ai_last_id, boolean abSequentialUpdate,
+			BenchResult aResult) throws SQLException {
+
+		PreparedStatement preparedStatement = null;
+		BenchResult lResult = aResult;
+		lResult.reset();
+		lResult.setLive(true);
+		RowGenerator lRows = mRowGeneratorType.create();
+		long l_startTime=0;
+		long l_bindEndTime=0;
+		long l_endTime=0;
+		long l_wallStartTime=0;
+		int l_count=0;
+		int l_batched=0;
+		int l_committed=0;
+
+		String InsertIntoTableSQL = " insert into "+asTableName+" (id, name, surname, created_date)"
+               + " values (?, ?, ?, ?)";
+
+		try {
+			conn.setAutoCommit(false);
+			preparedStatement = conn.prepareStatement(InsertIntoTableSQL);
+			
+			GcMonitor lGc = new GcMonitor();
+			lRows.startRun();
+			l_wallStartTime = System.nanoTime();
+			lResult.startSeries(l_wallStartTime, ml_throughput_interval);
+			for(int i=ai_first_id; i <= ai_last_id; i++) {
+				 l_count++;
+				 l_startTime = System.nanoTime(); // start
+				 lRows.bind(preparedStatement, 0, i);
+				 if (!abSequentialUpdate) {
+					 // preparazione batch di update per blocchi di statement
+					 preparedStatement.addBatch();
+					 l_batched++;
+				 }
+				 l_bindEndTime = System.nanoTime();
+				 lResult.recordBind(l_bindEndTime - l_startTime);
+				 l_endTime = l_bindEndTime;
+
+				 boolean lbCommit = (l_count % ai_max_rows_per_commit == 0 || i == ai_last_id);
+				 if (abSequentialUpdate) {
+					 // esecuzione UPDATE in sequenza (uno per ogni iterazione del ciclo)
+					 preparedStatement.executeUpdate(); 						
+					 l_endTime = System.nanoTime();
+					 lResult.record(l_endTime - l_bindEndTime);
+				 }
+				 else if (l_batched == ai_rows_per_batch || lbCommit) {
+					 preparedStatement.executeBatch(); // INSERT batch ogni X insert.
+					 l_batched = 0;
+					 l_endTime = System.nanoTime();
+					 lResult.record(l_endTime - l_bindEndTime);
+			     }				 					
+
+				if (lbCommit) {
+					conn.commit(); // commit ogni ai_max_rows_per_commit statement di UPDATE
+					long l_commitEndTime = System.nanoTime();
+					lResult.recordCommit(l_commitEndTime - l_endTime, l_count - l_committed, l_commitEndTime);
+					l_committed = l_count;
+				}
+			}
+
+			conn.commit();
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+
+		} catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+
+		} finally {
+
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}
+			
+			conn.setAutoCommit(true);
+		}
+		
+		return lResult;
+	}
+	
+  /**
+   * Questo metodo è usato per eseguire i benchmark di caricamento
+   * in tabella tramite il comando COPY ... FROM STDIN di PostgreSQL
+   * (CopyManager del driver JDBC). Le righe vengono codificate in
+   * un buffer riutilizzabile (formato testo o binario) e inviate al
+   * server in blocchi; ogni blocco di ai_max_rows_per_commit righe
+   * corrisponde ad un comando COPY seguito da commit.
+   * 
+   * Come per InsertIntoTable vengono misurati separatamente il tempo di
+   * codifica di ogni riga (bind), il tempo di ogni COPY (invio dei dati
+   * e endCopy) e il tempo di ogni commit, in modo da poter confrontare
+   * direttamente le tre modalita' di caricamento (sequenziale, batch e COPY).
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param ai_max_rows_per_commit  Numero massimo di righe per ogni COPY/commit
+   * @param ai_max_rows_inserted  Numero massimo di righe da inserire
+   * @param aFormat  formato del COPY (TEXT o BINARY)
+   *
+   */
+	public void CopyIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_max_rows_inserted, CopyRowEncoder.Format aFormat) throws SQLException {
+
+		BenchResult lResult = CopyRangeIntoTable(conn, asTableName, ai_max_rows_per_commit, 1, ai_max_rows_inserted, aFormat);
+
+		System.out.println("****************** INSERT BENCHMARKS ***********************");
+		System.out.println("Numero di righe caricate:" + ai_max_rows_inserted);
+		System.out.println("COMMIT ogni " + ai_max_rows_per_commit + " righe inserite.");
+		System.out.println("COPY FROM STDIN (formato " + aFormat + " - " + ai_max_rows_per_commit + " righe per ogni COPY).");
+		
+		lResult.printInsertTimes("COPY");
+		BenchReport.get().add("COPY", lResult);
+	}
+	
+  /**
+   * Questo metodo esegue il caricamento tramite COPY per l'intervallo
+   * di ID [ai_first_id, ai_last_id] e restituisce i tempi misurati
+   * senza stamparli (vedi InsertRangeIntoTable).
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param ai_max_rows_per_commit  Numero massimo di righe per ogni COPY/commit
+   * @param ai_first_id  primo ID da inserire (incluso)
+   * @param ai_last_id  ultimo ID da inserire (incluso)
+   * @param aFormat  formato del COPY (TEXT o BINARY)
+   * @return BenchResult tempi di codifica, COPY e commit
+   */
+	BenchResult CopyRangeIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_first_id, int ai_last_id, CopyRowEncoder.Format aFormat) throws SQLException {
+
+		BenchResult lResult = new BenchResult();
+		lResult.setLive(true);
+		CopyRowEncoder lEncoder = new CopyRowEncoder(aFormat, COPY_FLUSH_BYTES + 1024);
+		CopyIn lCopyIn = null;
+		long l_startTime=0;
+		long l_endTime=0;
+		long l_wallStartTime=0;
+		// tempo di invio dei dati al server accumulato per il COPY corrente
+		long l_copyTime=0;
+		int l_count=0;
+		int l_committed=0;
+
+		try {
+			conn.setAutoCommit(false);
+			CopyManager lCopyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+			String lsCopySQL = lEncoder.copySQL(asTableName);
+			lEncoder.setDate(getCurrentDate());
+			
+			GcMonitor lGc = new GcMonitor();
+			l_wallStartTime = System.nanoTime();
+			lResult.startSeries(l_wallStartTime, ml_throughput_interval);
+			for(int i=ai_first_id; i <= ai_last_id; i++) {
+				l_count++;
+				
+				if (lCopyIn == null) {
+					// inizio di un nuovo blocco: un COPY per ogni commit
+					l_startTime = System.nanoTime();
+					lCopyIn = lCopyManager.copyIn(lsCopySQL);
+					l_copyTime = System.nanoTime() - l_startTime;
+					lEncoder.writeHeader();
+				}
+				
+				l_startTime = System.nanoTime(); // start
+				lEncoder.appendRow(i);
+				lResult.recordBind(System.nanoTime() - l_startTime);
+				
+				if (lEncoder.size() >= COPY_FLUSH_BYTES) {
+					l_startTime = System.nanoTime();
+					lCopyIn.writeToCopy(lEncoder.getBuffer(), 0, lEncoder.size());
+					lEncoder.reset();
+					l_copyTime += System.nanoTime() - l_startTime;
+				}
+
+				if (l_count % ai_max_rows_per_commit == 0 || i == ai_last_id) {
+					l_startTime = System.nanoTime();
+					lEncoder.writeTrailer();
+					lCopyIn.writeToCopy(lEncoder.getBuffer(), 0, lEncoder.size());
+					lEncoder.reset();
+					lCopyIn.endCopy();
+					lCopyIn = null;
+					l_endTime = System.nanoTime();
+					lResult.record(l_copyTime + l_endTime - l_startTime);
+            
+					conn.commit(); // commit ogni ai_max_rows_per_commit righe caricate
+					long l_commitEndTime = System.nanoTime();
+					lResult.recordCommit(l_commitEndTime - l_endTime, l_count - l_committed, l_commitEndTime);
+					l_committed = l_count;
+				}
+			}
+
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+
+		} catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+
+		} finally {
+
+			// errori della pulizia (es. connessione interrotta durante il COPY) stampati
+			// senza sostituire l'eccezione originale
+			try {
+				if (lCopyIn != null && lCopyIn.isActive()) {
+					lCopyIn.cancelCopy();
+				}
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+			}
+			
+			try {
+				conn.setAutoCommit(true);
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+			}
+		}
+		
+		return lResult;
+	}
+	
+  /**
+   * Questo metodo è usato per eseguire i benchmark di inserimento
+   * con INSERT multi-riga: ogni statement inserisce ai_rows_per_statement
+   * righe con un'unica clausola VALUES (?, ?, ?, ?),(?, ?, ?, ?),...
+   * I commit vengono eseguiti ogni ai_max_rows_per_commit righe.
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param ai_max_rows_per_commit  Numero massimo di righe per ogni commit
+   * @param ai_max_rows_inserted  Numero massimo di righe da inserire
+   * @param ai_rows_per_statement  Numero di righe per ogni statement di INSERT
+   *
+   */
+	public void InsertMultiValuesIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_max_rows_inserted, int ai_rows_per_statement) throws SQLException {
+
+		BenchResult lResult = InsertMultiRowRangeIntoTable(conn, asTableName, ai_max_rows_per_commit, 1, ai_max_rows_inserted, ai_rows_per_statement, false);
+
+		System.out.println("****************** INSERT BENCHMARKS ***********************");
+		System.out.println("Numero di INSERT eseguiti:" + ai_max_rows_inserted);
+		System.out.println("COMMIT ogni " + ai_max_rows_per_commit + " righe inserite.");
+		System.out.println("INSERT MULTI-RIGA (VALUES con " + ai_rows_per_statement + " righe per statement).");
+		
+		lResult.printInsertTimes("executeUpdate multi-riga");
+		BenchReport.get().add("executeUpdate multi-riga", lResult);
+	}
+	
+  /**
+   * Questo metodo è usato per eseguire i benchmark di inserimento
+   * tramite array: ogni statement inserisce ai_rows_per_statement
+   * righe con INSERT ... SELECT * FROM unnest(?::int[], ?::varchar[], ...),
+   * passando un array per ogni colonna.
+   * I commit vengono eseguiti ogni ai_max_rows_per_commit righe.
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param ai_max_rows_per_commit  Numero massimo di righe per ogni commit
+   * @param ai_max_rows_inserted  Numero massimo di righe da inserire
+   * @param ai_rows_per_statement  Numero di righe (elementi degli array) per ogni statement
+   *
+   */
+	public void InsertUnnestIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_max_rows_inserted, int ai_rows_per_statement) throws SQLException {
+
+		BenchResult lResult = InsertMultiRowRangeIntoTable(conn, asTableName, ai_max_rows_per_commit, 1, ai_max_rows_inserted, ai_rows_per_statement, true);
+
+		System.out.println("****************** INSERT BENCHMARKS ***********************");
+		System.out.println("Numero di INSERT eseguiti:" + ai_max_rows_inserted);
+		System.out.println("COMMIT ogni " + ai_max_rows_per_commit + " righe inserite.");
+		System.out.println("INSERT CON ARRAY (unnest - " + ai_rows_per_statement + " righe per statement).");
+		
+		lResult.printInsertTimes("executeUpdate unnest");
+		BenchReport.get().add("executeUpdate unnest", lResult);
+	}
+	
+  /**
+   * Questo metodo esegue gli insert multi-riga (VALUES multipli oppure
+   * unnest di array) per l'intervallo di ID [ai_first_id, ai_last_id] e
+   * restituisce i tempi misurati senza stamparli.
+   * Le righe vengono accumulate e lo statement viene eseguito quando ne
+   * contiene ai_rows_per_statement oppure quando si raggiunge un commit;
+   * in quest'ultimo caso le righe rimanenti vengono inserite con uno
+   * statement della dimensione esatta.
+   * Il bind registrato per ogni riga e' l'accumulo della riga in memoria;
+   * il tempo di esecuzione di ogni statement comprende il set dei
+   * parametri (o la creazione degli array) e l'executeUpdate.
+   * 
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param ai_max_rows_per_commit  Numero massimo di righe per ogni commit
+   * @param ai_first_id  primo ID da inserire (incluso)
+   * @param ai_last_id  ultimo ID da inserire (incluso)
+   * @param ai_rows_per_statement  Numero di righe per ogni statement
+   * @param abUnnest  (true) INSERT ... SELECT FROM unnest(array), (false) VALUES multipli
+   * @return BenchResult tempi di bind, esecuzione e commit
+   */
+	BenchResult InsertMultiRowRangeIntoTable(Connection conn, String asTableName, int ai_max_rows_per_commit, int ai_first_id, int ai_last_id, int ai_rows_per_statement, boolean abUnnest) throws SQLException {
+
+		BenchResult lResult = new BenchResult();
+		lResult.setLive(true);
+		// statement preparati, indicizzati per numero di righe (quelli "parziali" servono prima dei commit)
+		PreparedStatement[] lStatements = new PreparedStatement[ai_rows_per_statement + 1];
+		// righe in attesa di essere inserite con il prossimo statement
+		Integer[] lIds = new Integer[ai_rows_per_statement];
+		String[] lNames = new String[ai_rows_per_statement];
+		String[] lSurnames = new String[ai_rows_per_statement];
+		java.sql.Date[] lDates = new java.sql.Date[ai_rows_per_statement];
+		RowGenerator lRows = mRowGeneratorType.create();
+		long l_startTime=0;
+		long l_bindEndTime=0;
+		long l_endTime=0;
+		long l_wallStartTime=0;
+		int l_count=0;
+		int l_pending=0;
+		int l_committed=0;
+
+		try {
+			conn.setAutoCommit(false);
+			lStatements[ai_rows_per_statement] = prepareMultiRowInsert(conn, asTableName, ai_rows_per_statement, abUnnest);
+			
+			GcMonitor lGc = new GcMonitor();
+			lRows.startRun();
+			l_wallStartTime = System.nanoTime();
+			lResult.startSeries(l_wallStartTime, ml_throughput_interval);
+			for(int i=ai_first_id; i <= ai_last_id; i++) {
+				l_count++;
+				l_startTime = System.nanoTime(); // start
+				
+				lIds[l_pending] = i;
+				lNames[l_pending] = lRows.name(i);
+				lSurnames[l_pending] = lRows.surname(i);
+				lDates[l_pending] = lRows.date();
+				l_pending++;
+				l_bindEndTime = System.nanoTime();
+				lResult.recordBind(l_bindEndTime - l_startTime);
+				l_endTime = l_bindEndTime;
+				
+				boolean lbCommit = (l_count % ai_max_rows_per_commit == 0 || i == ai_last_id);
+				if (l_pending == ai_rows_per_statement || lbCommit) {
+					PreparedStatement lStatement = lStatements[l_pending];
+					if (lStatement == null) {
+						lStatement = prepareMultiRowInsert(conn, asTableName, l_pending, abUnnest);
+						lStatements[l_pending] = lStatement;
+					}
+					if (abUnnest) {
+						lStatement.setArray(1, conn.createArrayOf("int4", java.util.Arrays.copyOf(lIds, l_pending)));
+						lStatement.setArray(2, conn.createArrayOf("varchar", java.util.Arrays.copyOf(lNames, l_pending)));
+						lStatement.setArray(3, conn.createArrayOf("varchar", java.util.Arrays.copyOf(lSurnames, l_pending)));
+						lStatement.setArray(4, conn.createArrayOf("date", java.util.Arrays.copyOf(lDates, l_pending)));
+					} else {
+						for (int r=0; r < l_pending; r++) {
+							int li_base = r * 4;
+							lStatement.setInt(li_base + 1, lIds[r]);
+							lStatement.setString(li_base + 2, lNames[r]);
+							lStatement.setString(li_base + 3, lSurnames[r]);
+							lStatement.setDate(li_base + 4, lDates[r]);
+						}
+					}
+					lStatement.executeUpdate();
+					l_pending = 0;
+					l_endTime = System.nanoTime();
+					lResult.record(l_endTime - l_bindEndTime);
+				}
+				
+				if (lbCommit) {
+					conn.commit(); // commit ogni ai_max_rows_per_commit righe inserite
+					long l_commitEndTime = System.nanoTime();
+					lResult.recordCommit(l_commitEndTime - l_endTime, l_count - l_committed, l_commitEndTime);
+					l_committed = l_count;
+				}
+			}
+
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+
+		} catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+
+		} finally {
+
+			for (PreparedStatement lStatement : lStatements) {
+				if (lStatement != null) {
+					lStatement.close();
+				}
+			}
+			
+			conn.setAutoCommit(true);
+		}
+		
+		return lResult;
+	}
+	
+  /**
+   * Prepara lo statement di INSERT multi-riga per ai_rows righe.
+   */
+	private PreparedStatement prepareMultiRowInsert(Connection conn, String asTableName, int ai_rows, boolean abUnnest) throws SQLException {
+		
+		StringBuilder lSQL = new StringBuilder(" insert into " + asTableName + " (id, name, surname, created_date)");
+		if (abUnnest) {
+			lSQL.append(" select * from unnest(?::int[], ?::varchar[], ?::varchar[], ?::date[])");
+		} else {
+			lSQL.append(" values ");
+			for (int r=0; r < ai_rows; r++) {
+				lSQL.append(r == 0 ? "(?, ?, ?, ?)" : ",(?, ?, ?, ?)");
+			}
+		}
+		return conn.prepareStatement(lSQL.toString());
+	}
+	
+	
+  /**
+   * Questo metodo è usato per inserire una singola riga in tabella
+   * (prepare, INSERT e close dello statement), con la modalita' di
+   * commit impostata sulla connessione.
+   * 
+   * @param conn --> connessione al DB
+   * @param asTableName --> Nome della tabella
+   * @param ai_PK_value --> valore della PK della riga da inserire
+   *
+   */
+	void InsertRowIntoTable (Connection conn, String asTableName, int ai_PK_value) throws SQLException {
+		
+		PreparedStatement preparedStatement = null;
+		
+		try {
+			String InsertIntoTableSQL = " insert into "+asTableName+" (id, name, surname, created_date)"
+	               + " values (?, ?, ?, ?)";
+			preparedStatement = conn.prepareStatement(InsertIntoTableSQL);
+			preparedStatement.setInt(1, ai_PK_value);
+			preparedStatement.setString(2, "test_name" + ai_PK_value);
+			preparedStatement.setString(3, "test_surname" + ai_PK_value);
+			preparedStatement.setDate(4, getCurrentDate());
+			preparedStatement.executeUpdate();
+		}
+		catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+		}
+		finally {
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}
+		}
+	}
+	
+  /**
+   * Questo metodo è usato per eseguire select per PK sulla tabella creata per i benchmark.
+   * 
+   * @param conn --> connessione al DB
+   * @param asTableName --> Nome della tabella
+   * @param ai_PK_value --> valore della PK
+   *
+   */
+	void SelectFromTablebyPK (Connection conn, String asTableName, int ai_PK_value) throws SQLException {
+		
+		ResultSet rs = null;
+		PreparedStatement preparedStatement = null;
+		
+		try {
+			String selectSQL = "SELECT id, name, surname, created_date  FROM " + asTableName + " WHERE id = ?";	
+
+			preparedStatement = conn.prepareStatement(selectSQL);
+
+			preparedStatement.setInt(1, ai_PK_value);
+
+			rs = preparedStatement.executeQuery();
+			
+			 while (rs.next()) {
+				int id = rs.getInt(1);
+				String name = rs.getString(2);
+				String surname = rs.getString(3);
+				Date ldDate = rs.getDate(4);
+			 }
+
+		}
+		catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+		}
+		finally {
+			if (rs != null) rs.close(); 
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}
+		}			
+	}
+	
+  /**
+   * Restituisce le properties del driver della connessione da usare per
+   * SelectFromTableTime. Il driver PostgreSQL mantiene per ogni
+   * connessione una cache delle query preparate
+   * (preparedStatementCacheQueries, default 256): senza queste properties
+   * prepareStatement restituisce la query gia' in cache e, dopo
+   * prepareThreshold esecuzioni, lo statement preparato sul server, per
+   * cui anche le select "cold" non pagano parse e plan. Con la cache
+   * disattivata e prepareThreshold a 0 ogni select viene inviata come
+   * statement non nominato e il server esegue parse e plan ogni volta.
+   *
+   * @return Properties properties da passare a BenchConfig.openConnection
+   */
+	static Properties coldConnectionProperties() {
+		Properties lProps = new Properties();
+		lProps.setProperty("preparedStatementCacheQueries", COLD_CACHE_QUERIES);
+		lProps.setProperty("prepareThreshold", COLD_PREPARE_THRESHOLD);
+		return lProps;
+	}
+	
+  /**
+   * Questo metodo è usato per eseguire i benchmark relativi
+   * alle select per PK. Vengono calcolati il tempo massimo,
+   * minimo e medio in nsec e msec e i percentili (p50-p99.99).   
+   * Per misurare il costo di parse/plan conn deve essere aperta con
+   * coldConnectionProperties.
+   * 
+   * @param conn --> connessione al DB
+   * @param asTableName --> Nome della tabella
+   * @param ai_max_rows_inserted --> numero massimo di select da eseguire									
+   *
+   */
+	public void SelectFromTableTime (Connection conn, String asTableName, int ai_max_rows_inserted) throws SQLException {
+		
+		BenchResult lResult = SelectRangeFromTableTime(conn, asTableName, 1, ai_max_rows_inserted);
+			
+		System.out.println("****************** SELECT BENCHMARKS ***********************");
+		System.out.println("Numero di select eseguite:" + ai_max_rows_inserted);
+		System.out.println("PREPARE ad ogni select (cold).");
+		System.out.println("preparedStatementCacheQueries:" + COLD_CACHE_QUERIES + " prepareThreshold:" + conn.unwrap(PGConnection.class).getPrepareThreshold());
+		lResult.printTimes("select");
+		BenchReport.get().add("select", lResult);
+	}
+	
+  /**
+   * Questo metodo esegue le select per PK per l'intervallo di ID
+   * [ai_first_id, ai_last_id] e restituisce i tempi misurati senza
+   * stamparli (vedi InsertRangeIntoTable).
+   * 
+   * @param conn --> connessione al DB
+   * @param asTableName --> Nome della tabella
+   * @param ai_first_id --> primo ID da leggere (incluso)
+   * @param ai_last_id --> ultimo ID da leggere (incluso)
+   * @return BenchResult tempi misurati per ogni select
+   */
+	BenchResult SelectRangeFromTableTime (Connection conn, String asTableName, int ai_first_id, int ai_last_id) throws SQLException {
+		
+		BenchResult lResult = new BenchResult();
+		lResult.setLive(true);
+		long l_startTime=0;
+		long l_elapsedTime=0;
+		GcMonitor lGc = new GcMonitor();
+		long l_wallStartTime=System.nanoTime();
+		
+		for(int i=ai_first_id; i <= ai_last_id; i++) {
+			l_startTime = System.nanoTime();
+			SelectFromTablebyPK (conn, asTableName, i);
+			l_elapsedTime = System.nanoTime() - l_startTime;
+							
+			lResult.record(l_elapsedTime);
+		}
+		
+		lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+		lResult.setGcActivity(lGc);
+		return lResult;
+	}
+	
+  /**
+   * Questo metodo è usato per eseguire i benchmark delle select per PK
+   * riutilizzando lo stesso PreparedStatement per tutte le select
+   * (prepare una sola volta per connessione, "warm"). Il confronto con
+   * SelectFromTableTime (prepare ad ogni select su una connessione senza
+   * cache degli statement, "cold") indica il costo di parse/plan dello
+   * statement e della sua preparazione nel driver rispetto alla sola
+   * lettura per PK. Con prepareThreshold 0 anche lo statement riutilizzato
+   * viene pianificato dal server ad ogni esecuzione e il confronto misura
+   * solo il costo lato driver.
+   * 
+   * @param conn --> connessione al DB
+   * @param asTableName --> Nome della tabella
+   * @param ai_max_rows_inserted --> numero massimo di select da eseguire
+   * @param ai_prepare_threshold --> prepareThreshold del driver PostgreSQL, ovvero il numero di
+   *									esecuzioni dopo le quali lo statement viene preparato sul server
+   *									(0 = mai). Se negativo viene mantenuto il default del driver.
+   * @return BenchResult tempi misurati
+   *
+   */
+	public BenchResult SelectFromTableTimeReused (Connection conn, String asTableName, int ai_max_rows_inserted, int ai_prepare_threshold) throws SQLException {
+		
+		BenchResult lResult = SelectRangeFromTableTimeReused(conn, asTableName, 1, ai_max_rows_inserted, ai_prepare_threshold);
+			
+		System.out.println("****************** SELECT BENCHMARKS ***********************");
+		System.out.println("Numero di select eseguite:" + ai_max_rows_inserted);
+		System.out.println("PREPARE una sola volta, statement riutilizzato (warm).");
+		System.out.println("prepareThreshold:" + (ai_prepare_threshold < 0 ? "default driver" : String.valueOf(ai_prepare_threshold)));
+		lResult.printTimes("select");
+		BenchReport.get().add("select", lResult);
+		return lResult;
+	}
+	
+  /**
+   * Questo metodo esegue le select per PK per l'intervallo di ID
+   * [ai_first_id, ai_last_id] con un unico PreparedStatement e
+   * restituisce i tempi misurati senza stamparli.
+   * 
+   * @param conn --> connessione al DB
+   * @param asTableName --> Nome della tabella
+   * @param ai_first_id --> primo ID da leggere (incluso)
+   * @param ai_last_id --> ultimo ID da leggere (incluso)
+   * @param ai_prepare_threshold --> prepareThreshold del driver (negativo = default)
+   * @return BenchResult tempi misurati per ogni select
+   */
+	BenchResult SelectRangeFromTableTimeReused (Connection conn, String asTableName, int ai_first_id, int ai_last_id, int ai_prepare_threshold) throws SQLException {
+		return SelectRangeFromTableTimeReused(conn, asTableName, ai_first_id, ai_last_id, ai_prepare_threshold, new BenchResult());
+	}
+
+  /**
+   * Come SelectRangeFromTableTimeReused, ma registra i tempi in aResult,
+   * azzerato all'inizio (riutilizzabile per esecuzioni successive).
+   *
+   * @param aResult --> risultato nel quale registrare i tempi
+   * @return BenchResult aResult
+   */
+	BenchResult SelectRangeFromTableTimeReused (Connection conn, String asTableName, int ai_first_id, int ai_last_id, int ai_prepare_threshold, BenchResult aResult) throws SQLException {
+		
+		BenchResult lResult = aResult;
+		lResult.reset();
+		lResult.setLive(true);
+		PreparedStatement preparedStatement = null;
+		ResultSet rs = null;
+		long l_startTime=0;
+		long l_wallStartTime=0;
+		int id=0;
+		String name=null;
+		String surname=null;
+		Date ldDate=null;
+		
+		try {
+			String selectSQL = "SELECT id, name, surname, created_date  FROM " + asTableName + " WHERE id = ?";	
+			preparedStatement = conn.prepareStatement(selectSQL);
+			if (ai_prepare_threshold >= 0) {
+				preparedStatement.unwrap(PGStatement.class).setPrepareThreshold(ai_prepare_threshold);
+			}
+			
+			GcMonitor lGc = new GcMonitor();
+			l_wallStartTime=System.nanoTime();
+			for(int i=ai_first_id; i <= ai_last_id; i++) {
+				l_startTime = System.nanoTime();
+				
+				preparedStatement.setInt(1, i);
+				rs = preparedStatement.executeQuery();
+				while (rs.next()) {
+					id = rs.getInt(1);
+					name = rs.getString(2);
+					surname = rs.getString(3);
+					ldDate = rs.getDate(4);
+				}
+				rs.close();
+				rs = null;
+				
+				lResult.record(System.nanoTime() - l_startTime);
+			}
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+		}
+		catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+		}
+		finally {
+			if (rs != null) rs.close(); 
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}
+		}
+		
+		return lResult;
+	}
+	
+  /**
+   * Questo metodo è usato per eseguire i benchmark delle select per PK
+   * mantenendo ai_depth chiavi "in volo" per ogni round trip verso il DB,
+   * in modo da nascondere la latenza di rete. Sono disponibili due modalita':
+   *
+   * - array: una sola select WHERE id = ANY(?) con ai_depth chiavi;
+   *
+   * - pipeline: ai_depth select per PK inviate al server in un unico
+   *   messaggio (PreparedStatement multi-statement) e lette in sequenza.
+   *
+   * Il tempo registrato e' quello di ogni round trip, che e' anche la
+   * latenza vista da ognuna delle chiavi del gruppo; il throughput e'
+   * riportato in chiavi al secondo.
+   * 
+   * @param conn --> connessione al DB
+   * @param asTableName --> Nome della tabella
+   * @param ai_max_rows_inserted --> numero di chiavi da leggere
+   * @param ai_depth --> numero di chiavi per round trip
+   * @param abArray --> (true) WHERE id = ANY(?), (false) select multiple in pipeline
+   *
+   */
+	public void SelectFromTableTimePipelined (Connection conn, String asTableName, int ai_max_rows_inserted, int ai_depth, boolean abArray) throws SQLException {
+		
+		BenchResult lResult = SelectRangeFromTableTimePipelined(conn, asTableName, 1, ai_max_rows_inserted, ai_depth, abArray);
+		
+		System.out.println("****************** SELECT BENCHMARKS ***********************");
+		System.out.println("Numero di select eseguite:" + ai_max_rows_inserted);
+		if (abArray) {
+			System.out.println("SELECT CON ARRAY (WHERE id = ANY(?) - " + ai_depth + " chiavi per round trip).");
+		} else {
+			System.out.println("SELECT IN PIPELINE (" + ai_depth + " select per round trip).");
+		}
+		lResult.printTimes("round trip");
+		BenchReport.get().add("round trip", lResult);
+		if (lResult.getWallTime() > 0) {
+			System.out.println("Throughput chiavi/s:" + lResult.getRowThroughput());
+		}
+		System.out.println("Riepilogo " + (abArray ? "array" : "pipeline") + " profondita':" + ai_depth
+				+ " chiavi/s:" + Math.round(lResult.getRowThroughput())
+				+ " p50 ns:" + lResult.getPercentile(50.0)
+				+ " p99 ns:" + lResult.getPercentile(99.0));
+	}
+	
+  /**
+   * Questo metodo esegue le select per PK per l'intervallo di ID
+   * [ai_first_id, ai_last_id] con ai_depth chiavi per round trip e
+   * restituisce i tempi misurati senza stamparli. L'ultimo gruppo puo'
+   * contenere meno di ai_depth chiavi.
+   * 
+   * @param conn --> connessione al DB
+   * @param asTableName --> Nome della tabella
+   * @param ai_first_id --> primo ID da leggere (incluso)
+   * @param ai_last_id --> ultimo ID da leggere (incluso)
+   * @param ai_depth --> numero di chiavi per round trip
+   * @param abArray --> (true) WHERE id = ANY(?), (false) select multiple in pipeline
+   * @return BenchResult tempi di ogni round trip e numero di chiavi lette
+   */
+	BenchResult SelectRangeFromTableTimePipelined (Connection conn, String asTableName, int ai_first_id, int ai_last_id, int ai_depth, boolean abArray) throws SQLException {
+		
+		BenchResult lResult = new BenchResult();
+		lResult.setLive(true);
+		String selectSQL = "SELECT id, name, surname, created_date  FROM " + asTableName + " WHERE id = ";
+		PreparedStatement preparedStatement = null;
+		PreparedStatement lLastStatement = null;
+		Integer[] lIds = new Integer[ai_depth];
+		long l_startTime=0;
+		long l_wallStartTime=0;
+		
+		try {
+			preparedStatement = conn.prepareStatement(abArray ? selectSQL + "ANY(?)" : pipelineSQL(selectSQL, ai_depth));
+			
+			GcMonitor lGc = new GcMonitor();
+			l_wallStartTime=System.nanoTime();
+			for(int i=ai_first_id; i <= ai_last_id; i+=ai_depth) {
+				int li_keys = Math.min(ai_depth, ai_last_id - i + 1);
+				PreparedStatement lStatement = preparedStatement;
+				if (!abArray && li_keys < ai_depth) {
+					// ultimo gruppo incompleto: statement con il numero esatto di select
+					lStatement = lLastStatement = conn.prepareStatement(pipelineSQL(selectSQL, li_keys));
+				}
+				l_startTime = System.nanoTime();
+				
+				if (abArray) {
+					for (int k=0; k<li_keys; k++) {
+						lIds[k] = i + k;
+					}
+					lStatement.setArray(1, conn.createArrayOf("int4", li_keys == ai_depth ? lIds : java.util.Arrays.copyOf(lIds, li_keys)));
+				} else {
+					for (int k=0; k<li_keys; k++) {
+						lStatement.setInt(k + 1, i + k);
+					}
+				}
+				readAllResults(lStatement);
+				
+				lResult.record(System.nanoTime() - l_startTime);
+				lResult.recordRows(li_keys);
+			}
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+		}
+		catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+		}
+		finally {
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}
+			if (lLastStatement != null) {
+				lLastStatement.close();
+			}
+		}
+		
+		return lResult;
+	}
+	
+	private static String pipelineSQL(String asSelectSQL, int ai_depth) {
+		StringBuilder lSQL = new StringBuilder();
+		for (int k=0; k<ai_depth; k++) {
+			lSQL.append(asSelectSQL).append("?;");
+		}
+		return lSQL.toString();
+	}
+	
+	private static void readAllResults(PreparedStatement aStatement) throws SQLException {
+		boolean lbResultSet = aStatement.execute();
+		while (lbResultSet || aStatement.getUpdateCount() != -1) {
+			if (lbResultSet) {
+				ResultSet rs = aStatement.getResultSet();
+				try {
+					while (rs.next()) {
+						int id = rs.getInt(1);
+						String name = rs.getString(2);
+						String surname = rs.getString(3);
+						Date ldDate = rs.getDate(4);
+					}
+				} finally {
+					rs.close();
+				}
+			}
+			lbResultSet = aStatement.getMoreResults();
+		}
+	}
+	
+ /**
+   * Questo metodo è usato chiudere la connessione al DB
+   * 
+   * @param conn --> connessione al DB
+   *
+   */	
+	public void CloseConn (Connection conn) throws Exception {
+		
+		try { if (conn != null) conn.close(); } catch (Exception e) {System.out.println(e.getMessage()); throw e;};
+	}	
+}
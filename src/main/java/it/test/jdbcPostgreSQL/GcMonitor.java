@@ -0,0 +1,58 @@
+package it.test.jdbcPostgreSQL;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * La classe GcMonitor misura l'attivita' del garbage collector della JVM
+ * durante una fase di benchmark, tramite i GarbageCollectorMXBean.
+ *
+ * <p>
+ * Alla creazione vengono letti numero e tempo cumulativo delle
+ * collezioni di ogni collector; getCollections e getTime restituiscono
+ * la differenza rispetto a quell'istante. In questo modo le pause della
+ * JVM vengono riportate separatamente dalla latenza delle operazioni sul
+ * DB (che le include) e i picchi di "max time" possono essere attribuiti
+ * alla causa corretta. Il tempo e' quello riportato dalla JVM per ogni
+ * collector: per i collector concorrenti (es. "G1 Concurrent GC")
+ * comprende anche lavoro eseguito senza fermare l'applicazione.
+ *
+ */
+class GcMonitor
+{
+	private final List<GarbageCollectorMXBean> mBeans = ManagementFactory.getGarbageCollectorMXBeans();
+	private final long[] ml_counts;
+	private final long[] ml_times;
+
+	GcMonitor() {
+		ml_counts = new long[mBeans.size()];
+		ml_times = new long[mBeans.size()];
+		for (int i=0; i<mBeans.size(); i++) {
+			ml_counts[i] = Math.max(mBeans.get(i).getCollectionCount(), 0);
+			ml_times[i] = Math.max(mBeans.get(i).getCollectionTime(), 0);
+		}
+	}
+
+  /**
+   * @return long numero di collezioni dalla creazione del monitor
+   */
+	public long getCollections() {
+		long l_count = 0;
+		for (int i=0; i<mBeans.size(); i++) {
+			l_count += Math.max(mBeans.get(i).getCollectionCount(), 0) - ml_counts[i];
+		}
+		return l_count;
+	}
+
+  /**
+   * @return long tempo di GC in millisecondi dalla creazione del monitor
+   */
+	public long getTime() {
+		long l_time = 0;
+		for (int i=0; i<mBeans.size(); i++) {
+			l_time += Math.max(mBeans.get(i).getCollectionTime(), 0) - ml_times[i];
+		}
+		return l_time;
+	}
+}
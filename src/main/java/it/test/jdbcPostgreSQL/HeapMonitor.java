@@ -0,0 +1,65 @@
+package it.test.jdbcPostgreSQL;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe HeapMonitor misura l'occupazione massima della old generation
+ * dell'heap della JVM durante una fase di benchmark, tramite i
+ * MemoryPoolMXBean.
+ *
+ * <p>
+ * Eden e survivor non vengono considerati: con qualunque carico che
+ * alloca il picco dell'eden e' circa pari alla sua capacita', quindi
+ * misurerebbe il dimensionamento della young generation e non la memoria
+ * trattenuta. Gli oggetti che restano vivi a lungo (ad esempio l'intero
+ * risultato di una query letto in modalita' fetch-all) sopravvivono alle
+ * young GC e vengono promossi nella old generation, mentre le righe lette
+ * in streaming con un cursore muoiono giovani: il picco della old
+ * generation mostra quindi la differenza tra le due modalita'.
+ *
+ * <p>
+ * Alla creazione viene azzerato il valore di picco dei pool della old
+ * generation (con i collector senza generazioni, es. ZGC, l'unico pool
+ * dell'heap) e viene letta l'occupazione corrente; getPeakUsed
+ * restituisce il picco da quell'istante.
+ *
+ */
+class HeapMonitor
+{
+	private final List<MemoryPoolMXBean> mPools = new ArrayList<MemoryPoolMXBean>();
+	private final long ml_start_used;
+
+	HeapMonitor() {
+		long l_used = 0;
+		for (MemoryPoolMXBean lPool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (lPool.getType() == MemoryType.HEAP && lPool.isValid() && !lPool.getName().contains("Eden") && !lPool.getName().contains("Survivor")) {
+				lPool.resetPeakUsage();
+				l_used += lPool.getUsage().getUsed();
+				mPools.add(lPool);
+			}
+		}
+		ml_start_used = l_used;
+	}
+
+  /**
+   * @return long old generation occupata in byte alla creazione del monitor
+   */
+	public long getStartUsed() {
+		return ml_start_used;
+	}
+
+  /**
+   * @return long picco di occupazione in byte della old generation dalla creazione del monitor
+   */
+	public long getPeakUsed() {
+		long l_peak = 0;
+		for (MemoryPoolMXBean lPool : mPools) {
+			l_peak += lPool.getPeakUsage().getUsed();
+		}
+		return l_peak;
+	}
+}
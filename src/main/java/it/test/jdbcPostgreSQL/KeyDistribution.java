@@ -0,0 +1,58 @@
+package it.test.jdbcPostgreSQL;
+
+import java.util.Random;
+
+/**
+ * La classe KeyDistribution sceglie gli ID di TEST_TABLE su cui eseguire
+ * le operazioni del carico misto (MixedWorkload):
+ *
+ * - UNIFORM: ID casuale uniforme tra 1 e l'ultimo ID inserito;
+ *
+ * - ZIPFIAN: pochi ID "caldi" (1, 2, 3, ...) ricevono la maggior parte
+ *   degli accessi, secondo una distribuzione di Zipf sulle righe
+ *   presenti all'inizio del benchmark;
+ *
+ * - LATEST: come ZIPFIAN ma rispetto all'ultimo ID inserito, quindi le
+ *   righe piu' recenti sono le piu' accedute.
+ *
+ * L'oggetto e' immutabile e condiviso tra i worker; ogni worker usa il
+ * proprio generatore di numeri casuali.
+ *
+ */
+class KeyDistribution
+{
+	enum Type { UNIFORM, ZIPFIAN, LATEST }
+
+	private final Type mType;
+	private final ZipfianGenerator mZipf;
+
+  /**
+   * @param aType tipo di distribuzione
+   * @param ai_keys righe presenti in tabella all'inizio del benchmark
+   * @param ad_theta parametro della distribuzione di Zipf (ZIPFIAN e LATEST)
+   */
+	KeyDistribution(Type aType, int ai_keys, double ad_theta) {
+		mType = aType;
+		mZipf = aType == Type.UNIFORM ? null : new ZipfianGenerator(ai_keys, ad_theta);
+	}
+
+  /**
+   * @param aRandom generatore di numeri casuali del thread chiamante
+   * @param ai_max_key ultimo ID inserito
+   * @return int ID scelto, tra 1 e ai_max_key
+   */
+	public int nextKey(Random aRandom, int ai_max_key) {
+		switch (mType) {
+			case ZIPFIAN:
+				return (int) Math.min(1 + mZipf.next(aRandom), ai_max_key);
+			case LATEST:
+				return (int) Math.max(ai_max_key - mZipf.next(aRandom), 1);
+			default:
+				return 1 + aRandom.nextInt(ai_max_key);
+		}
+	}
+
+	public Type getType() {
+		return mType;
+	}
+}
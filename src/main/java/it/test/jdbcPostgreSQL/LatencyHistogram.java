@@ -0,0 +1,209 @@
+package it.test.jdbcPostgreSQL;
+
+/**
+ * La classe LatencyHistogram registra i tempi di risposta (in ns) in un
+ * istogramma a bucket logaritmici a memoria fissa, in stile HdrHistogram.
+ *
+ * <p>
+ * I valori inferiori a 2^SUB_BUCKET_BITS vengono registrati in modo
+ * esatto; i valori superiori vengono raggruppati per potenza di 2 e,
+ * all'interno di ogni potenza di 2, in 2^SUB_BUCKET_BITS sotto-bucket
+ * lineari. L'errore relativo sui percentili e' quindi inferiore a
+ * 1/2^SUB_BUCKET_BITS (meno dell'1%) su tutto il range dei long positivi.
+ *
+ * <p>
+ * L'array dei contatori viene allocato una sola volta nel costruttore:
+ * il metodo record non alloca memoria e l'occupazione resta costante
+ * (circa 57KB) indipendentemente dal numero di operazioni registrate.
+ * Gli istogrammi di piu' thread o di piu' esecuzioni possono essere
+ * sommati con il metodo merge. La classe non e' thread-safe: ogni
+ * thread registra sul proprio istogramma e i risultati vengono
+ * aggregati al termine del benchmark.
+ *
+ */
+class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	// percentili riportati da print
+	static final double[] REPORTED_PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+
+	private final long[] ml_counts = new long[BUCKET_COUNT];
+	private long ml_count=0;
+	private long ml_total=0;
+	// somma dei quadrati dei valori, per la deviazione standard
+	private double md_sum_squares=0;
+	private long ml_min=Long.MAX_VALUE;
+	private long ml_max=0;
+
+  /**
+   * Registra un valore. I valori negativi vengono registrati come 0.
+   *
+   * @param al_value tempo in nanosecondi
+   */
+	public void record(long al_value) {
+		if (al_value < 0) {
+			al_value = 0;
+		}
+		ml_counts[bucketIndex(al_value)]++;
+		ml_count++;
+		ml_total+=al_value;
+		md_sum_squares+=(double) al_value * al_value;
+		if (al_value < ml_min) {
+			ml_min = al_value;
+		}
+		if (al_value > ml_max) {
+			ml_max = al_value;
+		}
+	}
+
+  /**
+   * Somma a questo istogramma i valori registrati in un altro istogramma.
+   *
+   * @param aOther istogramma da aggregare
+   */
+	public void merge(LatencyHistogram aOther) {
+		for (int i=0; i<BUCKET_COUNT; i++) {
+			ml_counts[i]+=aOther.ml_counts[i];
+		}
+		ml_count+=aOther.ml_count;
+		ml_total+=aOther.ml_total;
+		md_sum_squares+=aOther.md_sum_squares;
+		ml_min=Math.min(ml_min, aOther.ml_min);
+		ml_max=Math.max(ml_max, aOther.ml_max);
+	}
+
+  /**
+   * Azzera l'istogramma senza riallocare i contatori.
+   */
+	public void reset() {
+		java.util.Arrays.fill(ml_counts, 0);
+		ml_count=0;
+		ml_total=0;
+		md_sum_squares=0;
+		ml_min=Long.MAX_VALUE;
+		ml_max=0;
+	}
+
+	public long getCount() {
+		return ml_count;
+	}
+
+	public long getTotal() {
+		return ml_total;
+	}
+
+	public long getMin() {
+		return ml_count == 0 ? 0 : ml_min;
+	}
+
+	public long getMax() {
+		return ml_max;
+	}
+
+	public double getMean() {
+		return ml_count == 0 ? 0 : (double) ml_total / ml_count;
+	}
+
+  /**
+   * @return double deviazione standard campionaria dei valori registrati (0 con meno di due valori)
+   */
+	public double getStdDev() {
+		if (ml_count < 2) {
+			return 0;
+		}
+		double ld_mean = getMean();
+		double ld_variance = (md_sum_squares - ml_count * ld_mean * ld_mean) / (ml_count - 1);
+		return Math.sqrt(Math.max(ld_variance, 0));
+	}
+
+  /**
+   * Restituisce il valore al percentile richiesto, ovvero il piu' piccolo
+   * valore registrato tale che almeno ad_percentile% dei valori sia minore
+   * o uguale. Il valore restituito e' il limite superiore del bucket,
+   * limitato al massimo registrato.
+   *
+   * @param ad_percentile percentile (0-100)
+   * @return long valore al percentile in nanosecondi
+   */
+	public long getValueAtPercentile(double ad_percentile) {
+		if (ml_count == 0) {
+			return 0;
+		}
+		double ld_percentile = Math.min(Math.max(ad_percentile, 0.0), 100.0);
+		long l_target = (long) Math.ceil(ld_percentile / 100.0 * ml_count);
+		if (l_target < 1) {
+			l_target = 1;
+		}
+		long l_cumulative = 0;
+		for (int i=0; i<BUCKET_COUNT; i++) {
+			l_cumulative+=ml_counts[i];
+			if (l_cumulative >= l_target) {
+				return Math.max(Math.min(highestEquivalentValue(i), ml_max), getMin());
+			}
+		}
+		return ml_max;
+	}
+
+  /**
+   * Stampa a video numero di operazioni, minimo, medio, massimo e i
+   * percentili p50/p90/p99/p99.9/p99.99 in ns e ms.
+   *
+   * @param asOperation tipo di operazione (es. "insert", "select")
+   */
+	public void print(String asOperation) {
+		for (double ld_percentile : REPORTED_PERCENTILES) {
+			long l_value = getValueAtPercentile(ld_percentile);
+			System.out.println("p" + formatPercentile(ld_percentile) + " " + asOperation + " time ns:" + l_value
+					+ " (ms:" + l_value/1000000.0 + ")");
+		}
+	}
+
+  /**
+   * Stampa a video numero di valori, minimo, medio e massimo seguiti dai percentili.
+   *
+   * @param asOperation tipo di operazione (es. "bind", "commit")
+   */
+	public void printSummary(String asOperation) {
+		System.out.println(asOperation + " count:" + ml_count
+				+ " min ns:" + getMin()
+				+ " avg ns:" + getMean()
+				+ " max ns:" + ml_max);
+		print(asOperation);
+	}
+
+	static String formatPercentile(double ad_percentile) {
+		if (ad_percentile == Math.rint(ad_percentile)) {
+			return String.valueOf((long) ad_percentile);
+		}
+		return String.valueOf(ad_percentile);
+	}
+
+	static int bucketIndex(long al_value) {
+		if (al_value < SUB_BUCKET_COUNT) {
+			return (int) al_value;
+		}
+		int li_shift = (63 - Long.numberOfLeadingZeros(al_value)) - SUB_BUCKET_BITS;
+		int li_sub_bucket = (int) (al_value >>> li_shift) - SUB_BUCKET_COUNT;
+		return (li_shift + 1) * SUB_BUCKET_COUNT + li_sub_bucket;
+	}
+
+	static long lowestEquivalentValue(int ai_index) {
+		if (ai_index < SUB_BUCKET_COUNT) {
+			return ai_index;
+		}
+		int li_shift = ai_index / SUB_BUCKET_COUNT - 1;
+		long l_mantissa = SUB_BUCKET_COUNT + (ai_index % SUB_BUCKET_COUNT);
+		return l_mantissa << li_shift;
+	}
+
+	static long highestEquivalentValue(int ai_index) {
+		if (ai_index < SUB_BUCKET_COUNT) {
+			return ai_index;
+		}
+		int li_shift = ai_index / SUB_BUCKET_COUNT - 1;
+		return lowestEquivalentValue(ai_index) + (1L << li_shift) - 1;
+	}
+}
@@ -0,0 +1,399 @@
+package it.test.jdbcPostgreSQL;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * La classe LiveMetrics rende visibile l'andamento dei benchmark mentre
+ * sono in esecuzione, senza attendere la stampa dei risultati finali.
+ *
+ * <p>
+ * I BenchResult principali di ogni benchmark (setLive) inviano i tempi
+ * delle operazioni e le righe completate a LiveMetrics, che li raccoglie
+ * per la fase corrente di BenchReport. Ogni ai_interval_s secondi un
+ * thread di report stampa le operazioni/s, le righe/s e i percentili
+ * dell'intervallo appena concluso, cosi' nei benchmark lunghi si vede se
+ * il throughput cala con la crescita di tabella e indici o durante i
+ * checkpoint. Gli stessi valori, insieme ai contatori totali, sono
+ * esposti come MBean JMX (it.test.jdbcPostgreSQL:type=LiveMetrics) e/o
+ * in formato testo di Prometheus su http://127.0.0.1:porta/metrics.
+ *
+ * <p>
+ * Per limitare il costo sui thread del benchmark i valori vengono
+ * registrati in un numero fisso di istogrammi, ognuno con il proprio
+ * lock, scelti in base all'id del thread: i worker concorrenti
+ * raramente usano lo stesso istogramma e la memoria resta costante
+ * anche con migliaia di virtual thread. Il thread di report somma gli
+ * istogrammi e li azzera ad ogni intervallo. Se LiveMetrics non e' stato
+ * avviato, record e recordRows non fanno nulla.
+ *
+ */
+class LiveMetrics
+{
+  /**
+   * Attributi dell'MBean JMX.
+   */
+	public interface MetricsMBean {
+		String getPhase();
+		double getPhaseSeconds();
+		long getPhaseOperations();
+		long getPhaseRows();
+		long getOperationsTotal();
+		long getRowsTotal();
+		double getIntervalOperationsPerSecond();
+		double getIntervalRowsPerSecond();
+		double getIntervalP50Ms();
+		double getIntervalP99Ms();
+		double getIntervalMaxMs();
+	}
+
+	private static final String MBEAN_NAME = "it.test.jdbcPostgreSQL:type=LiveMetrics";
+	// intervallo di aggiornamento delle metriche se la stampa periodica e' disattivata
+	private static final int DEFAULT_SAMPLE_S = 5;
+
+	private static volatile LiveMetrics sInstance = null;
+
+	private final Stripe[] mStripes;
+	private final int mi_stripe_mask;
+	private final int mi_interval_s;
+	private final ScheduledExecutorService mScheduler;
+	private HttpServer mServer = null;
+	private ObjectName mMBeanName = null;
+
+	// stato della fase corrente e dell'ultimo intervallo (protetti dal lock dell'oggetto)
+	private final LatencyHistogram mInterval = new LatencyHistogram();
+	private String msPhase = null;
+	private long ml_phase_start;
+	private long ml_last_report;
+	private long ml_phase_ops, ml_phase_rows;
+	private long ml_total_ops, ml_total_rows;
+	private double md_interval_ops, md_interval_rows;
+	private long ml_interval_p50, ml_interval_p99, ml_interval_max;
+
+  /**
+   * Istogramma e contatore di righe condivisi dai thread con lo stesso indice.
+   */
+	private static final class Stripe
+	{
+		private final LatencyHistogram mHistogram = new LatencyHistogram();
+		private long ml_rows;
+
+		synchronized void record(long al_value) {
+			mHistogram.record(al_value);
+		}
+
+		synchronized void addRows(long al_rows) {
+			ml_rows += al_rows;
+		}
+
+		// somma i valori registrati in aInto, azzera l'istogramma e restituisce le righe
+		synchronized long drainTo(LatencyHistogram aInto) {
+			long l_rows = ml_rows;
+			if (aInto != null) {
+				aInto.merge(mHistogram);
+			}
+			mHistogram.reset();
+			ml_rows = 0;
+			return l_rows;
+		}
+	}
+
+	private LiveMetrics(int ai_interval_s) {
+		int li_stripes = Integer.highestOneBit(Math.min(64, Math.max(1, 2 * Runtime.getRuntime().availableProcessors()) * 2 - 1));
+		mStripes = new Stripe[li_stripes];
+		for (int s=0; s<li_stripes; s++) {
+			mStripes[s] = new Stripe();
+		}
+		mi_stripe_mask = li_stripes - 1;
+		mi_interval_s = ai_interval_s;
+		mScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable aRunnable) {
+				Thread lThread = new Thread(aRunnable, "live-metrics");
+				lThread.setDaemon(true);
+				return lThread;
+			}
+		});
+	}
+
+  /**
+   * Avvia la raccolta delle metriche.
+   *
+   * @param ai_interval_s intervallo di stampa in secondi (0 = nessuna stampa, metriche aggiornate ogni 5 secondi)
+   * @param abJmx (true) registra l'MBean JMX
+   * @param ai_port porta locale dell'endpoint Prometheus (0 = disattivato)
+   */
+	static synchronized void start(int ai_interval_s, boolean abJmx, int ai_port) throws IOException, JMException {
+		if (sInstance != null) {
+			return;
+		}
+		final LiveMetrics lMetrics = new LiveMetrics(ai_interval_s);
+		int li_period = ai_interval_s > 0 ? ai_interval_s : DEFAULT_SAMPLE_S;
+		lMetrics.mScheduler.scheduleAtFixedRate(new Runnable() {
+			public void run() {
+				lMetrics.report(false);
+			}
+		}, li_period, li_period, TimeUnit.SECONDS);
+		try {
+			if (abJmx) {
+				MBeanServer lServer = ManagementFactory.getPlatformMBeanServer();
+				lMetrics.mMBeanName = new ObjectName(MBEAN_NAME);
+				lServer.registerMBean(new StandardMBean(lMetrics.new MBean(), MetricsMBean.class), lMetrics.mMBeanName);
+				System.out.println("Metriche JMX registrate come " + MBEAN_NAME);
+			}
+			if (ai_port > 0) {
+				lMetrics.mServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), ai_port), 0);
+				lMetrics.mServer.createContext("/metrics", new HttpHandler() {
+					public void handle(HttpExchange aExchange) throws IOException {
+						byte[] lBody = lMetrics.prometheus().getBytes(StandardCharsets.UTF_8);
+						aExchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+						aExchange.sendResponseHeaders(200, lBody.length);
+						OutputStream lOut = aExchange.getResponseBody();
+						try {
+							lOut.write(lBody);
+						} finally {
+							lOut.close();
+						}
+					}
+				});
+				lMetrics.mServer.start();
+				System.out.println("Metriche Prometheus su http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + ai_port + "/metrics");
+			}
+		} catch (IOException | JMException e) {
+			lMetrics.close();
+			throw e;
+		}
+		sInstance = lMetrics;
+	}
+
+  /**
+   * Arresta la raccolta delle metriche, l'endpoint e l'MBean.
+   */
+	static synchronized void stop() {
+		if (sInstance != null) {
+			sInstance.close();
+			sInstance = null;
+		}
+	}
+
+	private void close() {
+		mScheduler.shutdownNow();
+		if (mServer != null) {
+			mServer.stop(0);
+		}
+		if (mMBeanName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(mMBeanName);
+			} catch (JMException e) {
+				System.out.println(e.getMessage());
+			}
+		}
+	}
+
+  /**
+   * Registra il tempo di un'operazione della fase corrente.
+   *
+   * @param al_value tempo in nanosecondi
+   */
+	static void record(long al_value) {
+		LiveMetrics lMetrics = sInstance;
+		if (lMetrics != null) {
+			lMetrics.stripe().record(al_value);
+		}
+	}
+
+  /**
+   * Registra righe completate nella fase corrente.
+   *
+   * @param al_rows righe completate
+   */
+	static void recordRows(long al_rows) {
+		LiveMetrics lMetrics = sInstance;
+		if (lMetrics != null) {
+			lMetrics.stripe().addRows(al_rows);
+		}
+	}
+
+	static void beginPhase(String asPhase) {
+		LiveMetrics lMetrics = sInstance;
+		if (lMetrics != null) {
+			lMetrics.setPhase(asPhase);
+		}
+	}
+
+	static void endPhase() {
+		beginPhase(null);
+	}
+
+	private Stripe stripe() {
+		long l_id = Thread.currentThread().getId();
+		return mStripes[(int) (l_id ^ (l_id >>> 16)) & mi_stripe_mask];
+	}
+
+	private synchronized void setPhase(String asPhase) {
+		// l'ultimo intervallo (parziale) della fase che termina viene conteggiato e stampato;
+		// i valori registrati fuori da una fase non vengono conteggiati
+		report(true);
+		msPhase = asPhase;
+		ml_phase_start = ml_last_report = System.nanoTime();
+		ml_phase_ops = ml_phase_rows = 0;
+		md_interval_ops = md_interval_rows = 0;
+		ml_interval_p50 = ml_interval_p99 = ml_interval_max = 0;
+	}
+
+	// somma gli istogrammi dell'intervallo concluso e stampa throughput e percentili
+	// (abEnd: intervallo parziale al termine della fase)
+	private synchronized void report(boolean abEnd) {
+		mInterval.reset();
+		long l_rows = 0;
+		for (Stripe lStripe : mStripes) {
+			l_rows += lStripe.drainTo(mInterval);
+		}
+		if (msPhase == null) {
+			return;
+		}
+		long l_now = System.nanoTime();
+		double ld_seconds = Math.max(l_now - ml_last_report, 1) / 1000000000.0;
+		ml_last_report = l_now;
+		long l_ops = mInterval.getCount();
+		ml_phase_ops += l_ops;
+		ml_phase_rows += l_rows;
+		ml_total_ops += l_ops;
+		ml_total_rows += l_rows;
+		md_interval_ops = l_ops / ld_seconds;
+		md_interval_rows = l_rows / ld_seconds;
+		ml_interval_p50 = mInterval.getValueAtPercentile(50.0);
+		ml_interval_p99 = mInterval.getValueAtPercentile(99.0);
+		ml_interval_max = mInterval.getMax();
+		if (mi_interval_s > 0) {
+			System.out.println((abEnd ? "Fine fase [" : "Intervallo [") + msPhase + "] t=" + Math.round((l_now - ml_phase_start) / 1000000000.0) + "s"
+					+ " ops/s:" + Math.round(md_interval_ops)
+					+ " righe/s:" + Math.round(md_interval_rows)
+					+ " p50 ms:" + String.format("%.3f", ml_interval_p50 / 1000000.0)
+					+ " p99 ms:" + String.format("%.3f", ml_interval_p99 / 1000000.0)
+					+ " max ms:" + String.format("%.3f", ml_interval_max / 1000000.0));
+		}
+	}
+
+	// metriche in formato testo di Prometheus (versione 0.0.4)
+	private synchronized String prometheus() {
+		StringBuilder lText = new StringBuilder();
+		metric(lText, "jdbcbench_operations_total", "counter", "Operazioni completate da tutte le fasi", "", ml_total_ops);
+		metric(lText, "jdbcbench_rows_total", "counter", "Righe completate da tutte le fasi", "", ml_total_rows);
+		if (msPhase != null) {
+			String lsLabel = "{phase=\"" + msPhase.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+			metric(lText, "jdbcbench_phase_info", "gauge", "Fase in esecuzione", lsLabel, 1);
+			metric(lText, "jdbcbench_phase_seconds", "gauge", "Durata della fase in esecuzione", "", (System.nanoTime() - ml_phase_start) / 1000000000.0);
+			metric(lText, "jdbcbench_phase_operations", "gauge", "Operazioni completate dalla fase in esecuzione", "", ml_phase_ops);
+			metric(lText, "jdbcbench_phase_rows", "gauge", "Righe completate dalla fase in esecuzione", "", ml_phase_rows);
+		}
+		metric(lText, "jdbcbench_interval_operations_per_second", "gauge", "Operazioni al secondo nell'ultimo intervallo", "", md_interval_ops);
+		metric(lText, "jdbcbench_interval_rows_per_second", "gauge", "Righe al secondo nell'ultimo intervallo", "", md_interval_rows);
+		lText.append("# HELP jdbcbench_interval_latency_seconds Tempo delle operazioni nell'ultimo intervallo\n");
+		lText.append("# TYPE jdbcbench_interval_latency_seconds gauge\n");
+		lText.append("jdbcbench_interval_latency_seconds{quantile=\"0.5\"} ").append(ml_interval_p50 / 1000000000.0).append('\n');
+		lText.append("jdbcbench_interval_latency_seconds{quantile=\"0.99\"} ").append(ml_interval_p99 / 1000000000.0).append('\n');
+		lText.append("jdbcbench_interval_latency_seconds{quantile=\"1\"} ").append(ml_interval_max / 1000000000.0).append('\n');
+		return lText.toString();
+	}
+
+	private static void metric(StringBuilder aText, String asName, String asType, String asHelp, String asLabels, double ad_value) {
+		aText.append("# HELP ").append(asName).append(' ').append(asHelp).append('\n');
+		aText.append("# TYPE ").append(asName).append(' ').append(asType).append('\n');
+		aText.append(asName).append(asLabels).append(' ');
+		if (ad_value == Math.rint(ad_value)) {
+			aText.append((long) ad_value);
+		} else {
+			aText.append(ad_value);
+		}
+		aText.append('\n');
+	}
+
+  /**
+   * Implementazione dell'MBean: legge lo stato aggiornato dal thread di report.
+   */
+	private class MBean implements MetricsMBean
+	{
+		public String getPhase() {
+			synchronized (LiveMetrics.this) {
+				return msPhase;
+			}
+		}
+
+		public double getPhaseSeconds() {
+			synchronized (LiveMetrics.this) {
+				return msPhase == null ? 0 : (System.nanoTime() - ml_phase_start) / 1000000000.0;
+			}
+		}
+
+		public long getPhaseOperations() {
+			synchronized (LiveMetrics.this) {
+				return ml_phase_ops;
+			}
+		}
+
+		public long getPhaseRows() {
+			synchronized (LiveMetrics.this) {
+				return ml_phase_rows;
+			}
+		}
+
+		public long getOperationsTotal() {
+			synchronized (LiveMetrics.this) {
+				return ml_total_ops;
+			}
+		}
+
+		public long getRowsTotal() {
+			synchronized (LiveMetrics.this) {
+				return ml_total_rows;
+			}
+		}
+
+		public double getIntervalOperationsPerSecond() {
+			synchronized (LiveMetrics.this) {
+				return md_interval_ops;
+			}
+		}
+
+		public double getIntervalRowsPerSecond() {
+			synchronized (LiveMetrics.this) {
+				return md_interval_rows;
+			}
+		}
+
+		public double getIntervalP50Ms() {
+			synchronized (LiveMetrics.this) {
+				return ml_interval_p50 / 1000000.0;
+			}
+		}
+
+		public double getIntervalP99Ms() {
+			synchronized (LiveMetrics.this) {
+				return ml_interval_p99 / 1000000.0;
+			}
+		}
+
+		public double getIntervalMaxMs() {
+			synchronized (LiveMetrics.this) {
+				return ml_interval_max / 1000000.0;
+			}
+		}
+	}
+}
@@ -0,0 +1,261 @@
+package it.test.jdbcPostgreSQL;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * La classe LoadGenerator simula migliaia di client applicativi, per la
+ * maggior parte del tempo inattivi, che eseguono di tanto in tanto una
+ * SELECT per PK o una INSERT su TEST_TABLE condividendo un pool di
+ * connessioni di dimensione limitata.
+ *
+ * <p>
+ * Ogni client e' un task eseguito su un virtual thread (Java 21+): tra
+ * un'operazione e la successiva il client resta in attesa per un "think
+ * time" estratto dalla distribuzione configurata, poi ottiene una
+ * connessione dal pool, esegue l'operazione e la rilascia. Se la JVM non
+ * supporta i virtual thread viene usato un thread di piattaforma per
+ * client: la scelta dipende dalla JVM che esegue il benchmark e non dal
+ * target di compilazione (release 17), perche' l'executor viene cercato
+ * via reflection. Con i thread di piattaforma migliaia di client
+ * consumano memoria e tempo di schedulazione del sistema operativo e i
+ * risultati non sono confrontabili con quelli dei virtual thread: il
+ * riepilogo lo segnala in modo esplicito. Il tempo di attesa in coda per
+ * una connessione (coda fair, vedi SimpleConnectionPool) viene
+ * registrato separatamente dal tempo di esecuzione della query ed e' misurato a
+ * partire dall'istante in cui termina il think time, in modo da includere
+ * anche il ritardo di schedulazione del thread del client.
+ *
+ * <p>
+ * Nota: il driver JDBC PostgreSQL 9.4 esegue l'I/O di rete all'interno di
+ * blocchi synchronized, che su Java 21 bloccano ("pinning") il carrier
+ * thread del virtual thread per tutta la durata della query. Il numero di
+ * query eseguibili in parallelo e' quindi limitato anche dal numero di
+ * carrier thread (di default pari ai core disponibili).
+ *
+ * <p>
+ * Per non allocare due istogrammi per ogni client, i tempi vengono
+ * registrati su un numero limitato di BenchResult condivisi (stripe),
+ * ognuno protetto da un lock, e aggregati al termine dell'esecuzione.
+ *
+ */
+class LoadGenerator
+{
+  /**
+   * Distribuzione del think time tra due operazioni dello stesso client.
+   */
+	enum ThinkTime {
+		// sempre pari al valore medio
+		FIXED,
+		// uniforme tra 0 e il doppio del valore medio
+		UNIFORM,
+		// esponenziale con il valore medio indicato (arrivi di Poisson)
+		EXPONENTIAL
+	}
+
+	// tempo massimo di attesa di una connessione libera dal pool
+	private static final long POOL_TIMEOUT_MS = 60000;
+
+	private final BenchConfig mConfig;
+	private final DBOperation mDBOps;
+	private final int mi_stripes = Runtime.getRuntime().availableProcessors() * 4;
+	// righe presenti in tabella all'inizio (chiavi delle SELECT) e ultimo ID inserito
+	private final int mi_keys;
+	private final AtomicInteger mNextId;
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param aDBOps operazioni sul DB
+   * @param ai_keys numero di righe presenti in tabella (ID da 1 a ai_keys); le
+   *				INSERT di tutte le simulazioni usano gli ID successivi
+   */
+	LoadGenerator(BenchConfig aConfig, DBOperation aDBOps, int ai_keys) {
+		mConfig = aConfig;
+		mDBOps = aDBOps;
+		mi_keys = ai_keys;
+		mNextId = new AtomicInteger(ai_keys);
+	}
+
+  /**
+   * Esegue la simulazione con ai_clients client per ai_duration_s secondi
+   * e stampa i tempi di attesa della connessione e di esecuzione delle
+   * SELECT e delle INSERT.
+   *
+   * @param asTableName  Nome della tabella (gia' popolata con gli ID da 1 a ai_keys del costruttore)
+   * @param ai_clients  Numero di client simulati
+   * @param ai_duration_s  Durata della simulazione in secondi
+   * @param aThinkTime  Distribuzione del think time
+   * @param ai_think_time_ms  Think time medio in millisecondi
+   * @param ai_pool_size  Numero massimo di connessioni del pool
+   * @param ai_insert_percent  Percentuale di INSERT (il resto sono SELECT per PK)
+   */
+	public void run(final String asTableName, int ai_clients, int ai_duration_s, final ThinkTime aThinkTime, int ai_think_time_ms,
+			int ai_pool_size, final int ai_insert_percent) throws SQLException {
+
+		final SimpleConnectionPool lPool = new SimpleConnectionPool(mConfig, ai_pool_size, ai_pool_size, false, POOL_TIMEOUT_MS);
+		final BenchResult[] lSelects = new BenchResult[mi_stripes];
+		final BenchResult[] lInserts = new BenchResult[mi_stripes];
+		final ReentrantLock[] lLocks = new ReentrantLock[mi_stripes];
+		for (int s=0; s<mi_stripes; s++) {
+			lSelects[s] = new BenchResult();
+			lInserts[s] = new BenchResult();
+			lSelects[s].setLive(true);
+			lInserts[s].setLive(true);
+			lLocks[s] = new ReentrantLock();
+		}
+		final long l_think_time = TimeUnit.MILLISECONDS.toNanos(ai_think_time_ms);
+		final long l_deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(ai_duration_s);
+
+		boolean lbVirtual = true;
+		ExecutorService lExecutor = newVirtualThreadExecutor();
+		if (lExecutor == null) {
+			System.out.println("Virtual thread non disponibili (richiesto Java 21+): viene usato un thread di piattaforma per client.");
+			lbVirtual = false;
+			lExecutor = Executors.newCachedThreadPool();
+		}
+
+		List<Future<?>> lFutures = new ArrayList<Future<?>>();
+		long l_startTime = System.nanoTime();
+		try {
+			for (int c=0; c<ai_clients; c++) {
+				final int li_stripe = c % mi_stripes;
+				lFutures.add(lExecutor.submit(new java.util.concurrent.Callable<Void>() {
+					public Void call() throws Exception {
+						ThreadLocalRandom lRandom = ThreadLocalRandom.current();
+						while (true) {
+							long l_sleep = thinkTime(aThinkTime, l_think_time, lRandom);
+							// istante in cui il client vorrebbe eseguire l'operazione
+							long l_start = System.nanoTime() + l_sleep;
+							if (l_start >= l_deadline) {
+								return null;
+							}
+							if (l_sleep > 0) {
+								TimeUnit.NANOSECONDS.sleep(l_sleep);
+							}
+
+							boolean lbInsert = lRandom.nextInt(100) < ai_insert_percent;
+							Connection lConn = lPool.borrow();
+							long l_borrowed = System.nanoTime();
+							try {
+								if (lbInsert) {
+									mDBOps.InsertRowIntoTable(lConn, asTableName, mNextId.incrementAndGet());
+								} else {
+									mDBOps.SelectFromTablebyPK(lConn, asTableName, 1 + lRandom.nextInt(mi_keys));
+								}
+							} finally {
+								lPool.release(lConn);
+							}
+							long l_end = System.nanoTime();
+
+							BenchResult lResult = lbInsert ? lInserts[li_stripe] : lSelects[li_stripe];
+							lLocks[li_stripe].lock();
+							try {
+								lResult.recordWait(l_borrowed - l_start);
+								lResult.record(l_end - l_borrowed);
+							} finally {
+								lLocks[li_stripe].unlock();
+							}
+						}
+					}
+				}));
+			}
+
+			for (Future<?> lFuture : lFutures) {
+				lFuture.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Simulazione client interrotta", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw new SQLException("Errore nel client simulato: " + e.getCause(), e.getCause());
+		} finally {
+			lExecutor.shutdownNow();
+			lPool.close();
+		}
+		long l_wallTime = System.nanoTime() - l_startTime;
+
+		BenchResult lSelect = new BenchResult();
+		BenchResult lInsert = new BenchResult();
+		for (int s=0; s<mi_stripes; s++) {
+			lSelect.merge(lSelects[s]);
+			lInsert.merge(lInserts[s]);
+		}
+		lSelect.setWallTime(l_wallTime);
+		lInsert.setWallTime(l_wallTime);
+
+		System.out.println("************* SIMULAZIONE CLIENT CONCORRENTI ****************");
+		System.out.println("Numero di client:" + ai_clients + (lbVirtual ? " (virtual thread)" : " (thread di piattaforma)"));
+		if (!lbVirtual) {
+			System.out.println("ATTENZIONE: virtual thread non disponibili sulla JVM " + System.getProperty("java.version")
+					+ " (richiesto Java 21+): " + ai_clients + " thread di piattaforma, tempi di attesa e throughput non confrontabili con la simulazione su virtual thread");
+		}
+		System.out.println("Durata s:" + ai_duration_s);
+		System.out.println("Think time:" + aThinkTime + " medio ms:" + ai_think_time_ms);
+		System.out.println("Connessioni del pool:" + ai_pool_size);
+		System.out.println("INSERT:" + ai_insert_percent + "% SELECT per PK:" + (100 - ai_insert_percent) + "%");
+		System.out.println("Operazioni totali:" + (lSelect.getCount() + lInsert.getCount())
+				+ " ops/s:" + (lSelect.getCount() + lInsert.getCount()) * 1000000000.0 / l_wallTime);
+		if (lSelect.getCount() > 0) {
+			System.out.println("-- SELECT per PK (tempo di esecuzione, attesa connessione esclusa):");
+			lSelect.printTimes("select");
+			BenchReport.get().add("select", lSelect);
+		}
+		if (lInsert.getCount() > 0) {
+			System.out.println("-- INSERT (tempo di esecuzione, attesa connessione esclusa):");
+			lInsert.printTimes("insert");
+			BenchReport.get().add("insert", lInsert);
+		}
+	}
+
+  /**
+   * Estrae un think time dalla distribuzione indicata.
+   *
+   * @param aThinkTime distribuzione
+   * @param al_mean valore medio in nanosecondi
+   * @param aRandom generatore di numeri casuali del thread
+   * @return long think time in nanosecondi
+   */
+	static long thinkTime(ThinkTime aThinkTime, long al_mean, ThreadLocalRandom aRandom) {
+		if (al_mean <= 0) {
+			return 0;
+		}
+		switch (aThinkTime) {
+			case UNIFORM:
+				return (long) (aRandom.nextDouble() * 2 * al_mean);
+			case EXPONENTIAL:
+				return (long) (-Math.log(1.0 - aRandom.nextDouble()) * al_mean);
+			default:
+				return al_mean;
+		}
+	}
+
+  /**
+   * Restituisce un executor con un virtual thread per task
+   * (Executors.newVirtualThreadPerTaskExecutor, Java 21+), cercato via
+   * reflection in modo che il progetto compili anche con JDK precedenti.
+   *
+   * @return ExecutorService executor, oppure null se non disponibile
+   */
+	static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method lMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) lMethod.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+}
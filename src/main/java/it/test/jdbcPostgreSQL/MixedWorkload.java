@@ -0,0 +1,154 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * La classe MixedWorkload esegue un carico OLTP misto su TEST_TABLE:
+ * SELECT per PK, UPDATE per PK, INSERT e DELETE per PK, scelte a caso
+ * secondo le percentuali configurate, con gli ID scelti secondo una
+ * KeyDistribution (uniforme, Zipf con chiavi "calde" oppure righe piu'
+ * recenti).
+ *
+ * <p>
+ * Ogni worker usa la propria connessione in autocommit e i propri
+ * PreparedStatement (PKStatements, preparati una sola volta); le INSERT usano ID
+ * successivi all'ultimo inserito, condiviso tra i worker. Per ogni tipo
+ * di operazione vengono riportati tempi, percentili e throughput, e il
+ * numero di operazioni che hanno trovato la riga (le SELECT, UPDATE e
+ * DELETE di righe gia' cancellate non trovano righe). Con la distribuzione
+ * di Zipf le UPDATE e DELETE concorrenti sulle stesse righe si attendono a
+ * vicenda sui lock di riga, e l'attesa compare nei tempi delle operazioni.
+ *
+ */
+class MixedWorkload
+{
+  /**
+   * Tipi di operazione, nell'ordine delle percentuali configurate.
+   */
+	enum Operation { SELECT, UPDATE, INSERT, DELETE }
+
+	private final ConcurrentBenchmark mConcBench;
+	// ultimo ID inserito, condiviso tra i worker
+	private final AtomicInteger mLastId;
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param aDBOps operazioni sul DB
+   * @param ai_keys numero di righe presenti in tabella (ID da 1 a ai_keys)
+   */
+	MixedWorkload(BenchConfig aConfig, DBOperation aDBOps, int ai_keys) {
+		mConcBench = new ConcurrentBenchmark(aConfig, aDBOps);
+		mLastId = new AtomicInteger(ai_keys);
+	}
+
+  /**
+   * Esegue ai_operations operazioni con ai_threads worker e stampa i
+   * risultati per tipo di operazione.
+   *
+   * @param asTableName  Nome della tabella
+   * @param ai_threads  Numero di worker (una connessione per worker)
+   * @param ai_operations  Numero totale di operazioni
+   * @param ai_ratios  Percentuali di SELECT, UPDATE, INSERT e DELETE (somma 100)
+   * @param aKeys  Distribuzione degli ID
+   */
+	public void run(final String asTableName, int ai_threads, int ai_operations, final int[] ai_ratios, final KeyDistribution aKeys) throws SQLException {
+
+		final int li_types = Operation.values().length;
+		// risultati per worker e per tipo di operazione
+		final BenchResult[][] lResults = new BenchResult[ai_threads][];
+		final AtomicInteger lSlot = new AtomicInteger();
+
+		BenchResult lTotal = new BenchResult();
+		mConcBench.runWorkers(ai_threads, ai_operations, new ConcurrentBenchmark.RangeTask() {
+			public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+				BenchResult[] lByType = new BenchResult[li_types];
+				for (int t=0; t<li_types; t++) {
+					lByType[t] = new BenchResult();
+				}
+				BenchResult lAll = new BenchResult();
+				lAll.setLive(true);
+				RowGenerator lRows = RowGenerator.Type.BUFFERED.create();
+				lRows.startRun();
+				ThreadLocalRandom lRandom = ThreadLocalRandom.current();
+				PKStatements lStatements = new PKStatements(conn, asTableName);
+
+				try {
+					long l_wallStartTime = System.nanoTime();
+					for (int i=ai_first_id; i<=ai_last_id; i++) {
+						Operation lOperation = choose(ai_ratios, lRandom.nextInt(100));
+						long l_start = System.nanoTime();
+						int li_rows = execute(lStatements, lOperation, lRows, aKeys.nextKey(lRandom, mLastId.get()));
+						long l_elapsed = System.nanoTime() - l_start;
+						lByType[lOperation.ordinal()].record(l_elapsed);
+						lByType[lOperation.ordinal()].recordRows(li_rows);
+						lAll.record(l_elapsed);
+					}
+					lAll.setWallTime(System.nanoTime() - l_wallStartTime);
+				}
+				catch (SQLException e) {
+					System.out.println(e.getMessage());
+					throw e;
+				}
+				finally {
+					lStatements.close();
+				}
+
+				lResults[lSlot.getAndIncrement()] = lByType;
+				return lAll;
+			}
+		}, lTotal, true);
+
+		System.out.println("************* CARICO MISTO OLTP ****************");
+		System.out.println("Numero di thread:" + ai_threads);
+		System.out.println("Numero di operazioni eseguite:" + ai_operations);
+		System.out.println("Distribuzione delle chiavi:" + aKeys.getType());
+		System.out.println("SELECT:" + ai_ratios[0] + "% UPDATE:" + ai_ratios[1] + "% INSERT:" + ai_ratios[2] + "% DELETE:" + ai_ratios[3] + "%");
+		System.out.println("Throughput totale ops/s:" + lTotal.getCount() * 1000000000.0 / lTotal.getWallTime());
+		for (Operation lOperation : Operation.values()) {
+			BenchResult lResult = new BenchResult();
+			for (BenchResult[] lByType : lResults) {
+				lResult.merge(lByType[lOperation.ordinal()]);
+			}
+			if (lResult.getCount() == 0) {
+				continue;
+			}
+			lResult.setWallTime(lTotal.getWallTime());
+			String lsOperation = lOperation.name().toLowerCase();
+			System.out.println("-- " + lOperation + " (" + lResult.getCount() + " operazioni, righe trovate:" + lResult.getRows() + "):");
+			lResult.printTimes(lsOperation);
+			BenchReport.get().add(lsOperation, lResult);
+		}
+	}
+
+  /**
+   * Restituisce l'operazione corrispondente al numero casuale ai_draw
+   * (0-99) secondo le percentuali ai_ratios.
+   */
+	static Operation choose(int[] ai_ratios, int ai_draw) {
+		int li_cumulative = 0;
+		Operation[] lOperations = Operation.values();
+		for (int t=0; t<lOperations.length; t++) {
+			li_cumulative += ai_ratios[t];
+			if (ai_draw < li_cumulative) {
+				return lOperations[t];
+			}
+		}
+		return Operation.SELECT;
+	}
+
+	private int execute(PKStatements aStatements, Operation aOperation, RowGenerator aRows, int ai_key) throws SQLException {
+		switch (aOperation) {
+			case SELECT:
+				return aStatements.select(ai_key) != null ? 1 : 0;
+			case UPDATE:
+				return aStatements.update(ai_key, aRows);
+			case INSERT:
+				return aStatements.insert(mLastId.incrementAndGet(), aRows);
+			default:
+				return aStatements.delete(ai_key);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * La classe OpenLoopBenchmark esegue INSERT o SELECT per PK a un rate
+ * costante (operazioni al secondo) indipendente dai tempi di risposta
+ * del DB ("open loop").
+ *
+ * <p>
+ * Nei benchmark di DBOperation ogni operazione parte solo quando la
+ * precedente e' terminata: se il DB si blocca per un secondo viene
+ * registrata una sola operazione lenta, mentre gli utenti reali che
+ * sarebbero arrivati in quel secondo avrebbero visto tutti un tempo di
+ * risposta elevato ("coordinated omission"). In questo benchmark ogni
+ * operazione ha un istante di avvio previsto dalla schedulazione (una
+ * ogni 1/rate secondi, distribuite a turno tra i worker) e la latenza
+ * viene misurata a partire da quell'istante. Se un'operazione e' in
+ * ritardo viene eseguita subito, senza saltare operazioni.
+ *
+ * <p>
+ * Vengono riportate sia la latenza corretta (dall'istante previsto) sia
+ * il tempo di servizio (dall'avvio effettivo), il rate effettivamente
+ * raggiunto e il ritardo massimo rispetto alla schedulazione; se il rate
+ * raggiunto e' inferiore al 95% del rate obiettivo viene segnalato che il
+ * rate non e' sostenibile.
+ *
+ */
+class OpenLoopBenchmark
+{
+	// frazione del rate obiettivo al di sotto della quale il rate non e' considerato sostenuto
+	private static final double SUSTAINED_RATIO = 0.95;
+
+	private final DBOperation mDBOps;
+	private final ConcurrentBenchmark mConcBench;
+	// righe presenti in tabella all'inizio (chiavi delle SELECT) e ultimo ID inserito
+	private final int mi_keys;
+	private final AtomicInteger mNextId;
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param aDBOps operazioni sul DB
+   * @param ai_keys numero di righe presenti in tabella (ID da 1 a ai_keys); le
+   *				INSERT di tutte le esecuzioni usano gli ID successivi
+   */
+	OpenLoopBenchmark(BenchConfig aConfig, DBOperation aDBOps, int ai_keys) {
+		mDBOps = aDBOps;
+		mConcBench = new ConcurrentBenchmark(aConfig, aDBOps);
+		mi_keys = ai_keys;
+		mNextId = new AtomicInteger(ai_keys);
+	}
+
+  /**
+   * Esegue INSERT (oppure SELECT per PK su chiavi casuali) al rate
+   * ai_rate per ai_duration_s secondi con ai_workers connessioni e stampa
+   * latenza corretta, tempo di servizio e rate raggiunto.
+   *
+   * @param asTableName  Nome della tabella
+   * @param ai_rate  Rate obiettivo in operazioni al secondo
+   * @param ai_duration_s  Durata della schedulazione in secondi
+   * @param ai_workers  Numero di worker thread (una connessione per worker)
+   * @param abInsert  (true) INSERT, (false) SELECT per PK
+   */
+	public void run(final String asTableName, int ai_rate, int ai_duration_s, final int ai_workers, final boolean abInsert) throws SQLException {
+
+		// intervallo tra due operazioni consecutive dello stesso worker
+		final double ld_interval = 1000000000.0 * ai_workers / ai_rate;
+		final double ld_offset = 1000000000.0 / ai_rate;
+		final long l_duration = TimeUnit.SECONDS.toNanos(ai_duration_s);
+		final AtomicLong lStart = new AtomicLong();
+		final AtomicLong lLastEnd = new AtomicLong();
+		final AtomicLong lMaxLag = new AtomicLong();
+		// tempi di servizio (dall'avvio effettivo) di ogni worker
+		final BenchResult[] lServices = new BenchResult[ai_workers];
+
+		BenchResult lTotal = new BenchResult();
+		// i worker ricevono come intervallo di ID il solo proprio indice (1..ai_workers)
+		mConcBench.runWorkers(ai_workers, ai_workers, new ConcurrentBenchmark.RangeTask() {
+			public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+				BenchResult lLatency = new BenchResult();
+				lLatency.setLive(true);
+				BenchResult lService = new BenchResult();
+				ThreadLocalRandom lRandom = ThreadLocalRandom.current();
+				lStart.compareAndSet(0, System.nanoTime());
+				long l_start = lStart.get();
+				int li_worker = ai_first_id - 1;
+				long l_max_lag = 0;
+				long l_end = l_start;
+
+				for (long k=0; ; k++) {
+					long l_intended = l_start + (long) (li_worker * ld_offset + k * ld_interval);
+					if (l_intended - l_start >= l_duration) {
+						break;
+					}
+					long l_now;
+					while ((l_now = System.nanoTime()) < l_intended) {
+						LockSupport.parkNanos(l_intended - l_now);
+					}
+					l_max_lag = Math.max(l_max_lag, l_now - l_intended);
+
+					if (abInsert) {
+						mDBOps.InsertRowIntoTable(conn, asTableName, mNextId.incrementAndGet());
+					} else {
+						mDBOps.SelectFromTablebyPK(conn, asTableName, 1 + lRandom.nextInt(mi_keys));
+					}
+					l_end = System.nanoTime();
+
+					lLatency.record(l_end - l_intended);
+					lService.record(l_end - l_now);
+				}
+
+				lServices[li_worker] = lService;
+
+				updateMax(lMaxLag, l_max_lag);
+				updateMax(lLastEnd, l_end);
+				return lLatency;
+			}
+		}, lTotal, true);
+
+		long l_elapsed = Math.max(lLastEnd.get() - lStart.get(), 1);
+		double ld_achieved = lTotal.getCount() * 1000000000.0 / l_elapsed;
+		lTotal.setWallTime(l_elapsed);
+		BenchResult lService = new BenchResult();
+		for (BenchResult lWorkerService : lServices) {
+			lService.merge(lWorkerService);
+		}
+
+		String lsOperation = abInsert ? "insert" : "select";
+		System.out.println("************* " + (abInsert ? "INSERT" : "SELECT") + " BENCHMARKS A RATE COSTANTE (OPEN LOOP) ****************");
+		System.out.println("Rate obiettivo ops/s:" + ai_rate);
+		System.out.println("Durata s:" + ai_duration_s);
+		System.out.println("Numero di worker:" + ai_workers);
+		System.out.println("Operazioni eseguite:" + lTotal.getCount());
+		System.out.println("-- Latenza dall'istante di avvio previsto (corretta per la coordinated omission):");
+		lTotal.getHistogram().printSummary(lsOperation);
+		System.out.println("-- Tempo di servizio dall'avvio effettivo (non corretto):");
+		lService.getHistogram().printSummary(lsOperation);
+		BenchReport.get().add(lsOperation, lTotal);
+		BenchReport.get().add(lsOperation + " servizio", lService);
+		System.out.println("Rate raggiunto ops/s:" + ld_achieved);
+		System.out.println("Ritardo massimo rispetto alla schedulazione ms:" + lMaxLag.get() / 1000000.0);
+		if (ld_achieved < ai_rate * SUSTAINED_RATIO) {
+			System.out.println("ATTENZIONE: rate obiettivo di " + ai_rate + " ops/s non sostenuto (raggiunto " + Math.round(ld_achieved) + " ops/s)");
+		}
+	}
+
+	private static void updateMax(AtomicLong aMax, long al_value) {
+		long l_current;
+		while ((l_current = aMax.get()) < al_value) {
+			if (aMax.compareAndSet(l_current, al_value)) {
+				return;
+			}
+		}
+	}
+}
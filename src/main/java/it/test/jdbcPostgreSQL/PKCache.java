@@ -0,0 +1,433 @@
+package it.test.jdbcPostgreSQL;
+
+/**
+ * La classe PKCache e' una cache lato client limitata e concorrente delle
+ * righe lette per PK, usata come cache read-through davanti alla SELECT
+ * per ID (vedi CacheBenchmark).
+ *
+ * <p>
+ * Le chiavi sono int primitivi: ogni segmento usa una tabella hash ad
+ * indirizzamento aperto (int[] di chiavi e di posizioni, con cancellazione
+ * per spostamento all'indietro) e le liste di recency sono concatenate
+ * tramite indici in array int[], quindi la ricerca non crea oggetti e non
+ * esegue boxing delle chiavi. La cache e' suddivisa in segmenti (scelti
+ * in base all'hash della chiave), ognuno protetto dal proprio lock, in
+ * modo che i thread che accedono a chiavi diverse raramente si attendano.
+ *
+ * <p>
+ * Politiche di eviction:
+ *
+ * - LRU: viene eliminata la riga usata meno di recente;
+ *
+ * - TINYLFU: schema W-TinyLFU semplificato. Le nuove righe entrano in una
+ *   finestra LRU (1% della capacita'); la riga che esce dalla finestra
+ *   entra nell'area principale (LRU) solo se la sua frequenza di accesso
+ *   stimata e' maggiore di quella della riga che dovrebbe sostituire. Le
+ *   frequenze sono stimate con un count-min sketch a contatori di 4 bit,
+ *   dimezzati periodicamente in modo che la stima segua i cambiamenti del
+ *   carico. Con accessi molto asimmetrici (Zipf) le righe "calde" non
+ *   vengono espulse da righe lette una sola volta.
+ *
+ * <p>
+ * Invalidazione: le scritture sul DB invalidano la riga con invalidate.
+ * Per evitare che una lettura dal DB iniziata prima di una scrittura
+ * inserisca in cache il valore precedente, il chiamante legge il
+ * contatore delle invalidazioni del segmento (stamp) prima della
+ * lettura e lo passa a put: la riga non viene inserita se nel frattempo
+ * il segmento ha ricevuto un'invalidazione.
+ *
+ * @param <V> tipo delle righe in cache
+ */
+class PKCache<V>
+{
+	enum Policy { LRU, TINYLFU }
+
+	private final Policy mPolicy;
+	private final Segment<V>[] mSegments;
+	private final int mi_segment_mask;
+
+  /**
+   * @param aPolicy politica di eviction
+   * @param ai_capacity numero massimo di righe in cache
+   * @param ai_segments numero di segmenti (arrotondato alla potenza di 2
+   *                    inferiore e ridotto in modo che ogni segmento
+   *                    contenga almeno 64 righe)
+   */
+	PKCache(Policy aPolicy, int ai_capacity, int ai_segments) {
+		if (ai_capacity <= 0 || ai_segments <= 0) {
+			throw new IllegalArgumentException("Capacita' e segmenti della cache devono essere maggiori di 0: " + ai_capacity + ", " + ai_segments);
+		}
+		int li_segments = Integer.highestOneBit(Math.max(1, Math.min(ai_segments, ai_capacity / 64)));
+		mPolicy = aPolicy;
+		@SuppressWarnings("unchecked")
+		Segment<V>[] lSegments = (Segment<V>[]) new Segment<?>[li_segments];
+		mSegments = lSegments;
+		mi_segment_mask = li_segments - 1;
+		for (int s=0; s<li_segments; s++) {
+			// la capacita' viene distribuita tra i segmenti, i primi ricevono le righe in eccesso
+			mSegments[s] = new Segment<V>(aPolicy, ai_capacity / li_segments + (s < ai_capacity % li_segments ? 1 : 0));
+		}
+	}
+
+	static int hash(int ai_key) {
+		int h = ai_key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private Segment<V> segment(int ai_hash) {
+		return mSegments[(ai_hash >>> 20) & mi_segment_mask];
+	}
+
+  /**
+   * @param ai_key ID della riga
+   * @return V riga in cache, null se assente
+   */
+	public V get(int ai_key) {
+		int h = hash(ai_key);
+		return segment(h).get(ai_key, h);
+	}
+
+  /**
+   * @param ai_key ID della riga
+   * @return long contatore delle invalidazioni del segmento della chiave, da passare a put
+   */
+	public long stamp(int ai_key) {
+		return segment(hash(ai_key)).stamp();
+	}
+
+  /**
+   * Inserisce (o aggiorna) una riga letta dal DB, se il segmento non ha
+   * ricevuto invalidazioni da al_stamp.
+   *
+   * @param ai_key ID della riga
+   * @param aValue riga letta dal DB
+   * @param al_stamp valore di stamp letto prima della lettura dal DB
+   * @return boolean true se la riga e' stata inserita
+   */
+	public boolean put(int ai_key, V aValue, long al_stamp) {
+		int h = hash(ai_key);
+		return segment(h).put(ai_key, h, aValue, al_stamp);
+	}
+
+  /**
+   * Elimina la riga dalla cache dopo una scrittura sul DB.
+   *
+   * @param ai_key ID della riga
+   */
+	public void invalidate(int ai_key) {
+		int h = hash(ai_key);
+		segment(h).invalidate(ai_key, h);
+	}
+
+	public Policy getPolicy() {
+		return mPolicy;
+	}
+
+	public int getSegments() {
+		return mSegments.length;
+	}
+
+	public int getCapacity() {
+		int li_capacity = 0;
+		for (Segment<V> lSegment : mSegments) {
+			li_capacity += lSegment.mi_capacity;
+		}
+		return li_capacity;
+	}
+
+  /**
+   * @return long[] righe in cache, hit, miss, eviction, righe non ammesse (TINYLFU) e invalidazioni
+   */
+	public long[] getStats() {
+		long[] l_stats = new long[6];
+		for (Segment<V> lSegment : mSegments) {
+			synchronized (lSegment) {
+				l_stats[0] += lSegment.mi_window_size + lSegment.mi_main_size;
+				l_stats[1] += lSegment.ml_hits;
+				l_stats[2] += lSegment.ml_misses;
+				l_stats[3] += lSegment.ml_evictions;
+				l_stats[4] += lSegment.ml_rejections;
+				l_stats[5] += lSegment.ml_invalidations;
+			}
+		}
+		return l_stats;
+	}
+
+  /**
+   * Segmento della cache: tabella hash, liste LRU (finestra e area
+   * principale) e sketch delle frequenze, protetti dal lock del segmento.
+   */
+	private static final class Segment<V>
+	{
+		private static final int NONE = -1;
+		private static final byte FREE = 0;
+		private static final byte WINDOW = 1;
+		private static final byte MAIN = 2;
+
+		final int mi_capacity;
+		private final int mi_window_capacity;
+		private final int mi_main_capacity;
+		private final FrequencySketch mSketch;
+
+		// righe: chiave, valore, lista di appartenenza e concatenazione (una posizione in piu'
+		// per la riga che esce dalla finestra prima della decisione di ammissione)
+		private final int[] mi_keys;
+		private final Object[] mValues;
+		private final byte[] mb_queue;
+		private final int[] mi_prev;
+		private final int[] mi_next;
+		private final int[] mi_free;
+		private int mi_free_top;
+		private int mi_window_head = NONE, mi_window_tail = NONE, mi_window_size;
+		private int mi_main_head = NONE, mi_main_tail = NONE, mi_main_size;
+
+		// tabella hash ad indirizzamento aperto: chiave -> posizione + 1 (0 = vuoto)
+		private final int[] mi_table_keys;
+		private final int[] mi_table_slots;
+		private final int mi_table_mask;
+
+		long ml_stamp;
+		long ml_hits, ml_misses, ml_evictions, ml_rejections, ml_invalidations;
+
+		Segment(Policy aPolicy, int ai_capacity) {
+			mi_capacity = ai_capacity;
+			if (aPolicy == Policy.TINYLFU) {
+				mi_window_capacity = Math.max(1, ai_capacity / 100);
+				mSketch = new FrequencySketch(ai_capacity);
+			} else {
+				mi_window_capacity = 0;
+				mSketch = null;
+			}
+			mi_main_capacity = ai_capacity - mi_window_capacity;
+			int li_slots = ai_capacity + 1;
+			mi_keys = new int[li_slots];
+			mValues = new Object[li_slots];
+			mb_queue = new byte[li_slots];
+			mi_prev = new int[li_slots];
+			mi_next = new int[li_slots];
+			mi_free = new int[li_slots];
+			for (int s=0; s<li_slots; s++) {
+				mi_free[s] = li_slots - 1 - s;
+			}
+			mi_free_top = li_slots;
+			int li_table = Integer.highestOneBit(Math.max(2, li_slots) * 2 - 1) * 2;
+			mi_table_keys = new int[li_table];
+			mi_table_slots = new int[li_table];
+			mi_table_mask = li_table - 1;
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized V get(int ai_key, int ai_hash) {
+			if (mSketch != null) {
+				mSketch.increment(ai_hash);
+			}
+			int li_slot = find(ai_key, ai_hash);
+			if (li_slot == NONE) {
+				ml_misses++;
+				return null;
+			}
+			ml_hits++;
+			touch(li_slot);
+			return (V) mValues[li_slot];
+		}
+
+		synchronized long stamp() {
+			return ml_stamp;
+		}
+
+		synchronized boolean put(int ai_key, int ai_hash, V aValue, long al_stamp) {
+			if (al_stamp != ml_stamp) {
+				return false;
+			}
+			int li_slot = find(ai_key, ai_hash);
+			if (li_slot != NONE) {
+				mValues[li_slot] = aValue;
+				touch(li_slot);
+				return true;
+			}
+			if (mSketch == null && mi_main_size == mi_main_capacity) {
+				remove(mi_main_tail);
+				ml_evictions++;
+			}
+			li_slot = mi_free[--mi_free_top];
+			mi_keys[li_slot] = ai_key;
+			mValues[li_slot] = aValue;
+			tableInsert(ai_key, ai_hash, li_slot);
+			if (mSketch == null) {
+				pushHead(MAIN, li_slot);
+			} else {
+				pushHead(WINDOW, li_slot);
+				if (mi_window_size > mi_window_capacity) {
+					admit(mi_window_tail);
+				}
+			}
+			return true;
+		}
+
+		// TinyLFU: la riga uscita dalla finestra entra nell'area principale solo se e' piu' frequente della vittima
+		private void admit(int ai_candidate) {
+			unlink(ai_candidate);
+			if (mi_main_size < mi_main_capacity) {
+				pushHead(MAIN, ai_candidate);
+				return;
+			}
+			if (mi_main_capacity > 0) {
+				int li_victim = mi_main_tail;
+				if (mSketch.frequency(hash(mi_keys[ai_candidate])) > mSketch.frequency(hash(mi_keys[li_victim]))) {
+					remove(li_victim);
+					ml_evictions++;
+					pushHead(MAIN, ai_candidate);
+					return;
+				}
+			}
+			release(ai_candidate);
+			ml_rejections++;
+		}
+
+		synchronized void invalidate(int ai_key, int ai_hash) {
+			ml_stamp++;
+			ml_invalidations++;
+			int li_slot = find(ai_key, ai_hash);
+			if (li_slot != NONE) {
+				remove(li_slot);
+			}
+		}
+
+		private void touch(int ai_slot) {
+			byte lb_queue = mb_queue[ai_slot];
+			unlink(ai_slot);
+			pushHead(lb_queue, ai_slot);
+		}
+
+		private void remove(int ai_slot) {
+			unlink(ai_slot);
+			release(ai_slot);
+		}
+
+		// libera la posizione di una riga gia' tolta dalle liste
+		private void release(int ai_slot) {
+			tableRemove(mi_keys[ai_slot]);
+			mValues[ai_slot] = null;
+			mb_queue[ai_slot] = FREE;
+			mi_free[mi_free_top++] = ai_slot;
+		}
+
+		private void pushHead(byte ab_queue, int ai_slot) {
+			mb_queue[ai_slot] = ab_queue;
+			mi_prev[ai_slot] = NONE;
+			if (ab_queue == WINDOW) {
+				mi_next[ai_slot] = mi_window_head;
+				if (mi_window_head != NONE) mi_prev[mi_window_head] = ai_slot; else mi_window_tail = ai_slot;
+				mi_window_head = ai_slot;
+				mi_window_size++;
+			} else {
+				mi_next[ai_slot] = mi_main_head;
+				if (mi_main_head != NONE) mi_prev[mi_main_head] = ai_slot; else mi_main_tail = ai_slot;
+				mi_main_head = ai_slot;
+				mi_main_size++;
+			}
+		}
+
+		private void unlink(int ai_slot) {
+			int li_prev = mi_prev[ai_slot];
+			int li_next = mi_next[ai_slot];
+			if (mb_queue[ai_slot] == WINDOW) {
+				if (li_prev != NONE) mi_next[li_prev] = li_next; else mi_window_head = li_next;
+				if (li_next != NONE) mi_prev[li_next] = li_prev; else mi_window_tail = li_prev;
+				mi_window_size--;
+			} else {
+				if (li_prev != NONE) mi_next[li_prev] = li_next; else mi_main_head = li_next;
+				if (li_next != NONE) mi_prev[li_next] = li_prev; else mi_main_tail = li_prev;
+				mi_main_size--;
+			}
+		}
+
+		private int find(int ai_key, int ai_hash) {
+			for (int i = ai_hash & mi_table_mask; mi_table_slots[i] != 0; i = (i + 1) & mi_table_mask) {
+				if (mi_table_keys[i] == ai_key) {
+					return mi_table_slots[i] - 1;
+				}
+			}
+			return NONE;
+		}
+
+		private void tableInsert(int ai_key, int ai_hash, int ai_slot) {
+			int i = ai_hash & mi_table_mask;
+			while (mi_table_slots[i] != 0) {
+				i = (i + 1) & mi_table_mask;
+			}
+			mi_table_keys[i] = ai_key;
+			mi_table_slots[i] = ai_slot + 1;
+		}
+
+		// cancellazione con spostamento all'indietro delle chiavi successive (nessuna tombstone)
+		private void tableRemove(int ai_key) {
+			int i = hash(ai_key) & mi_table_mask;
+			while (mi_table_keys[i] != ai_key || mi_table_slots[i] == 0) {
+				i = (i + 1) & mi_table_mask;
+			}
+			for (int j = (i + 1) & mi_table_mask; mi_table_slots[j] != 0; j = (j + 1) & mi_table_mask) {
+				int k = hash(mi_table_keys[j]) & mi_table_mask;
+				// la chiave in j resta dov'e' se la sua posizione ideale k e' ciclicamente in (i, j]
+				if (i <= j ? (i < k && k <= j) : (i < k || k <= j)) {
+					continue;
+				}
+				mi_table_keys[i] = mi_table_keys[j];
+				mi_table_slots[i] = mi_table_slots[j];
+				i = j;
+			}
+			mi_table_slots[i] = 0;
+		}
+	}
+
+  /**
+   * Count-min sketch a 4 righe con contatori di 4 bit (massimo 15): la
+   * frequenza stimata e' il minimo dei 4 contatori della chiave. Dopo un
+   * numero di incrementi pari a 10 volte la capacita' tutti i contatori
+   * vengono dimezzati.
+   */
+	static final class FrequencySketch
+	{
+		private static final int[] SEEDS = { 0x97CB3127, 0x0D6B3E5B, 0x5A0D5F1F, 0x3C6EF372 };
+
+		private final byte[] mb_counters;
+		private final int mi_width_mask;
+		private final int mi_sample_size;
+		private int mi_additions;
+
+		FrequencySketch(int ai_capacity) {
+			int li_width = Integer.highestOneBit(Math.max(16, ai_capacity) * 2 - 1);
+			mb_counters = new byte[li_width * SEEDS.length];
+			mi_width_mask = li_width - 1;
+			mi_sample_size = 10 * Math.max(16, ai_capacity);
+		}
+
+		private int index(int ai_hash, int ai_row) {
+			int h = (ai_hash ^ SEEDS[ai_row]) * SEEDS[ai_row];
+			return ai_row * (mi_width_mask + 1) + ((h ^ (h >>> 15)) & mi_width_mask);
+		}
+
+		void increment(int ai_hash) {
+			for (int r=0; r<SEEDS.length; r++) {
+				int li_index = index(ai_hash, r);
+				if (mb_counters[li_index] < 15) {
+					mb_counters[li_index]++;
+				}
+			}
+			if (++mi_additions >= mi_sample_size) {
+				for (int c=0; c<mb_counters.length; c++) {
+					mb_counters[c] >>= 1;
+				}
+				mi_additions /= 2;
+			}
+		}
+
+		int frequency(int ai_hash) {
+			int li_min = 15;
+			for (int r=0; r<SEEDS.length; r++) {
+				li_min = Math.min(li_min, mb_counters[index(ai_hash, r)]);
+			}
+			return li_min;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * La classe PKStatements contiene i PreparedStatement per PK su
+ * TEST_TABLE condivisi dai benchmark con operazioni miste (MixedWorkload,
+ * CacheBenchmark): SELECT, UPDATE, INSERT e DELETE per ID, preparati una
+ * sola volta per connessione.
+ *
+ * <p>
+ * La UPDATE imposta NAME a "updt_name" seguito dall'ID e CREATED_DATE
+ * alla data del generatore, in modo che le righe aggiornate siano
+ * distinguibili da quelle inserite (NAME "test_name" seguito dall'ID).
+ *
+ */
+class PKStatements
+{
+  /**
+   * Riga di TEST_TABLE letta per PK.
+   */
+	static final class Row
+	{
+		final int mi_id;
+		final String msName;
+		final String msSurname;
+		final java.sql.Date mdCreated;
+
+		Row(int ai_id, String asName, String asSurname, java.sql.Date adCreated) {
+			mi_id = ai_id;
+			msName = asName;
+			msSurname = asSurname;
+			mdCreated = adCreated;
+		}
+	}
+
+	// prefisso di NAME delle righe aggiornate
+	static final String UPDATED_NAME = "updt_name";
+
+	private PreparedStatement mSelect;
+	private PreparedStatement mUpdate;
+	private PreparedStatement mInsert;
+	private PreparedStatement mDelete;
+
+  /**
+   * Prepara gli statement sulla connessione conn.
+   *
+   * @param conn connessione al DB
+   * @param asTableName Nome della tabella
+   */
+	PKStatements(Connection conn, String asTableName) throws SQLException {
+		try {
+			mSelect = conn.prepareStatement("SELECT id, name, surname, created_date  FROM " + asTableName + " WHERE id = ?");
+			mUpdate = conn.prepareStatement("UPDATE " + asTableName + " SET name = ?, created_date = ? WHERE id = ?");
+			mInsert = conn.prepareStatement("insert into " + asTableName + " (id, name, surname, created_date) values (?, ?, ?, ?)");
+			mDelete = conn.prepareStatement("DELETE FROM " + asTableName + " WHERE id = ?");
+		} catch (SQLException e) {
+			close();
+			throw e;
+		}
+	}
+
+  /**
+   * Legge la riga con ID ai_key.
+   *
+   * @return Row riga letta, oppure null se non presente
+   */
+	public Row select(int ai_key) throws SQLException {
+		mSelect.setInt(1, ai_key);
+		ResultSet rs = mSelect.executeQuery();
+		try {
+			if (rs.next()) {
+				return new Row(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getDate(4));
+			}
+			return null;
+		} finally {
+			rs.close();
+		}
+	}
+
+  /**
+   * Aggiorna NAME e CREATED_DATE della riga con ID ai_key.
+   *
+   * @param aRows generatore della data
+   * @return int righe aggiornate
+   */
+	public int update(int ai_key, RowGenerator aRows) throws SQLException {
+		mUpdate.setString(1, UPDATED_NAME + ai_key);
+		mUpdate.setDate(2, aRows.date());
+		mUpdate.setInt(3, ai_key);
+		return mUpdate.executeUpdate();
+	}
+
+  /**
+   * Inserisce la riga con ID ai_key e i valori del generatore.
+   *
+   * @return int righe inserite
+   */
+	public int insert(int ai_key, RowGenerator aRows) throws SQLException {
+		aRows.bind(mInsert, 0, ai_key);
+		return mInsert.executeUpdate();
+	}
+
+  /**
+   * Cancella la riga con ID ai_key.
+   *
+   * @return int righe cancellate
+   */
+	public int delete(int ai_key) throws SQLException {
+		mDelete.setInt(1, ai_key);
+		return mDelete.executeUpdate();
+	}
+
+	public void close() throws SQLException {
+		PreparedStatement[] lStatements = { mSelect, mUpdate, mInsert, mDelete };
+		for (PreparedStatement lStatement : lStatements) {
+			if (lStatement != null) {
+				lStatement.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * La classe ParameterSweep esegue il benchmark di INSERT a blocchi
+ * (addBatch/executeBatch) per ogni combinazione di numero di righe,
+ * righe per commit, righe per executeBatch e numero di thread, in un
+ * unico processo, e riporta la tabella dei risultati e la combinazione
+ * con il throughput massimo.
+ *
+ * <p>
+ * Per ogni combinazione la tabella viene svuotata con TRUNCATE (senza
+ * drop e create) prima di ogni esecuzione; vengono eseguite ai_warmups
+ * esecuzioni di riscaldamento (JIT, cache del DB, estensione dei file
+ * della tabella), escluse dai risultati, e ai_trials esecuzioni misurate.
+ * Per ogni combinazione vengono riportati media, deviazione standard,
+ * minimo e massimo del throughput (righe/s) delle esecuzioni misurate e il
+ * p99 dei tempi di executeBatch; i risultati aggregati delle esecuzioni
+ * misurate vengono registrati anche in BenchReport (una fase per
+ * combinazione). Le combinazioni con righe per executeBatch maggiori
+ * delle righe per commit, o con piu' thread che righe, vengono saltate.
+ *
+ */
+class ParameterSweep
+{
+	private final DBOperation mDBOps;
+	private final ConcurrentBenchmark mConcBench;
+
+	ParameterSweep(BenchConfig aConfig, DBOperation aDBOps) {
+		mDBOps = aDBOps;
+		mConcBench = new ConcurrentBenchmark(aConfig, aDBOps);
+	}
+
+  /**
+   * Esegue il benchmark per tutte le combinazioni dei valori e stampa la
+   * tabella dei risultati e la combinazione ottimale.
+   *
+   * @param conn  connessione usata per svuotare la tabella
+   * @param asTableName  Nome della tabella
+   * @param ai_rows  Numeri di righe da inserire
+   * @param ai_commits  Righe per commit (per thread)
+   * @param ai_batches  Righe per executeBatch
+   * @param ai_threads  Numeri di worker thread (una connessione per thread)
+   * @param ai_warmups  Esecuzioni di riscaldamento per combinazione (escluse dai risultati)
+   * @param ai_trials  Esecuzioni misurate per combinazione
+   */
+	public void run(Connection conn, String asTableName, int[] ai_rows, int[] ai_commits, int[] ai_batches, int[] ai_threads, int ai_warmups, int ai_trials) throws SQLException {
+
+		System.out.println("************* SWEEP DEI PARAMETRI DI INSERT A BLOCCHI ****************");
+		System.out.println("Esecuzioni di riscaldamento per combinazione:" + ai_warmups);
+		System.out.println("Esecuzioni misurate per combinazione:" + ai_trials);
+		String lsFormat = "%10s %10s %10s %7s %14s %12s %14s %14s %16s%n";
+		System.out.printf(lsFormat, "righe", "commit", "batch", "thread", "righe/s media", "dev.std", "righe/s min", "righe/s max", "p99 batch ms");
+
+		double ld_best = -1;
+		String lsBest = null;
+		for (int liRows : ai_rows) {
+			for (int liCommit : ai_commits) {
+				for (int liBatch : ai_batches) {
+					for (int liThreads : ai_threads) {
+						if (liBatch > liCommit || liThreads > liRows) {
+							continue;
+						}
+						String lsPoint = "righe=" + liRows + " commit=" + liCommit + " batch=" + liBatch + " thread=" + liThreads;
+						LiveMetrics.beginPhase("sweep " + lsPoint);
+						for (int w=0; w<ai_warmups; w++) {
+							mDBOps.TruncateTable(conn, asTableName);
+							insert(asTableName, liRows, liCommit, liBatch, liThreads);
+						}
+
+						TrialStats lStats = new TrialStats();
+						BenchResult lAll = new BenchResult();
+						long l_wall_time = 0;
+						for (int t=0; t<ai_trials; t++) {
+							mDBOps.TruncateTable(conn, asTableName);
+							BenchResult lResult = insert(asTableName, liRows, liCommit, liBatch, liThreads);
+							lStats.add(lResult.getRowThroughput());
+							lAll.merge(lResult);
+							l_wall_time += lResult.getWallTime();
+						}
+						lAll.setWallTime(l_wall_time);
+						LiveMetrics.endPhase();
+
+						BenchReport.get().beginPhase("sweep " + lsPoint);
+						BenchReport.get().add("executeBatch", lAll);
+						BenchReport.get().endPhase();
+
+						System.out.printf(lsFormat, liRows, liCommit, liBatch, liThreads,
+								String.format("%.0f", lStats.getMean()), String.format("%.0f", lStats.getStdDev()),
+								String.format("%.0f", lStats.getMin()), String.format("%.0f", lStats.getMax()),
+								String.format("%.3f", lAll.getPercentile(99.0) / 1000000.0));
+						if (lStats.getMean() > ld_best) {
+							ld_best = lStats.getMean();
+							lsBest = lsPoint;
+						}
+					}
+				}
+			}
+		}
+
+		if (lsBest == null) {
+			System.out.println("Nessuna combinazione valida (righe per executeBatch maggiori delle righe per commit o piu' thread che righe)");
+		} else {
+			System.out.println("Combinazione con throughput massimo: " + lsBest + " righe/s:" + String.format("%.0f", ld_best));
+		}
+	}
+
+	private BenchResult insert(final String asTableName, int ai_rows, final int ai_commit, final int ai_batch, int ai_threads) throws SQLException {
+		BenchResult lTotal = new BenchResult();
+		mConcBench.runWorkers(ai_threads, ai_rows, new ConcurrentBenchmark.RangeTask() {
+			public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+				return mDBOps.InsertRangeIntoTable(conn, asTableName, ai_commit, ai_batch, ai_first_id, ai_last_id, false);
+			}
+		}, lTotal, true);
+		return lTotal;
+	}
+}
@@ -0,0 +1,157 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * La classe PoolBenchmark confronta il costo delle operazioni eseguite
+ * tramite un pool di connessioni con quello delle stesse operazioni
+ * eseguite aprendo e chiudendo una connessione per ogni operazione.
+ *
+ * <p>
+ * Per ogni operazione il worker ottiene una connessione (borrow dal pool
+ * oppure DriverManager.getConnection), esegue la INSERT o la SELECT per
+ * PK in autocommit e rilascia la connessione (release al pool oppure
+ * close). Il tempo di attesa della connessione viene registrato
+ * separatamente, mentre il tempo dell'operazione comprende attesa,
+ * esecuzione e rilascio: la differenza tra le due modalita' e' quindi il
+ * costo di creazione della connessione visto dall'applicazione.
+ *
+ * <p>
+ * I metodi esposti sono
+ *
+ * - InsertIntoTablePooled --> benchmark di INSERT (una riga per operazione)
+ *
+ * - SelectFromTablePooled --> benchmark di SELECT per PK
+ *
+ */
+class PoolBenchmark
+{
+  /**
+   * Modalita' di gestione delle connessioni.
+   */
+	enum Mode {
+		// connessioni ottenute da SimpleConnectionPool
+		POOLED,
+		// una nuova connessione per ogni operazione
+		CONNECT_PER_OP
+	}
+
+	// tempo massimo di attesa di una connessione libera dal pool
+	private static final long POOL_TIMEOUT_MS = 30000;
+
+	private final BenchConfig mConfig;
+	private final DBOperation mDBOps;
+	private final ConcurrentBenchmark mConcBench;
+	private int mi_min_size = 1;
+	private int mi_max_size = 0;
+	private boolean mb_validate = false;
+
+	PoolBenchmark(BenchConfig aConfig, DBOperation aDBOps) {
+		mConfig = aConfig;
+		mDBOps = aDBOps;
+		mConcBench = new ConcurrentBenchmark(aConfig, aDBOps);
+	}
+
+  /**
+   * Imposta i parametri del pool usato nella modalita' POOLED.
+   *
+   * @param ai_min_size numero di connessioni aperte alla creazione del pool
+   * @param ai_max_size numero massimo di connessioni (0 = pari al numero di thread)
+   * @param abValidate (true) valida ogni connessione prima di restituirla;
+   *                   con il driver 9.4 isValid e' un round trip verso il
+   *                   server, incluso nell'attesa e nel tempo dell'operazione
+   */
+	public void setPoolSize(int ai_min_size, int ai_max_size, boolean abValidate) {
+		mi_min_size = ai_min_size;
+		mi_max_size = ai_max_size;
+		mb_validate = abValidate;
+	}
+
+  /**
+   * Questo metodo è usato per eseguire il benchmark di INSERT con
+   * ai_threads worker concorrenti e una connessione per ogni operazione
+   * (dal pool oppure nuova, secondo aMode).
+   *
+   * @param asTableName  Nome della tabella
+   * @param ai_threads  Numero di worker thread
+   * @param ai_operations  Numero totale di INSERT (ID da 1 a ai_operations)
+   * @param aMode  modalita' di gestione delle connessioni
+   */
+	public void InsertIntoTablePooled(final String asTableName, int ai_threads, int ai_operations, Mode aMode) throws SQLException {
+		run(asTableName, ai_threads, ai_operations, aMode, true);
+	}
+
+  /**
+   * Questo metodo è usato per eseguire il benchmark di SELECT per PK con
+   * ai_threads worker concorrenti e una connessione per ogni operazione
+   * (dal pool oppure nuova, secondo aMode).
+   *
+   * @param asTableName  Nome della tabella
+   * @param ai_threads  Numero di worker thread
+   * @param ai_operations  Numero totale di SELECT (ID da 1 a ai_operations)
+   * @param aMode  modalita' di gestione delle connessioni
+   */
+	public void SelectFromTablePooled(final String asTableName, int ai_threads, int ai_operations, Mode aMode) throws SQLException {
+		run(asTableName, ai_threads, ai_operations, aMode, false);
+	}
+
+	private void run(final String asTableName, int ai_threads, int ai_operations, final Mode aMode, final boolean abInsert) throws SQLException {
+
+		final SimpleConnectionPool lPool;
+		if (aMode == Mode.POOLED) {
+			int li_max_size = mi_max_size > 0 ? mi_max_size : ai_threads;
+			lPool = new SimpleConnectionPool(mConfig, Math.min(mi_min_size, li_max_size), li_max_size, mb_validate, POOL_TIMEOUT_MS);
+		} else {
+			lPool = null;
+		}
+
+		BenchResult lTotal = new BenchResult();
+		BenchResult[] lResults;
+		try {
+			lResults = mConcBench.runWorkers(ai_threads, ai_operations, new ConcurrentBenchmark.RangeTask() {
+				public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+					BenchResult lResult = new BenchResult();
+					lResult.setLive(true);
+					long l_wallStart = System.nanoTime();
+					for (int i=ai_first_id; i<=ai_last_id; i++) {
+						long l_start = System.nanoTime();
+						Connection lConn = lPool != null ? lPool.borrow() : mConfig.openConnection();
+						lResult.recordWait(System.nanoTime() - l_start);
+						try {
+							if (abInsert) {
+								mDBOps.InsertRowIntoTable(lConn, asTableName, i);
+							} else {
+								mDBOps.SelectFromTablebyPK(lConn, asTableName, i);
+							}
+						} finally {
+							if (lPool != null) {
+								lPool.release(lConn);
+							} else {
+								lConn.close();
+							}
+						}
+						lResult.record(System.nanoTime() - l_start);
+					}
+					lResult.setWallTime(System.nanoTime() - l_wallStart);
+					return lResult;
+				}
+			}, lTotal, false);
+		} finally {
+			if (lPool != null) {
+				lPool.close();
+			}
+		}
+
+		System.out.println("************* " + (abInsert ? "INSERT" : "SELECT") + " BENCHMARKS CON "
+				+ (aMode == Mode.POOLED ? "POOL DI CONNESSIONI" : "UNA CONNESSIONE PER OPERAZIONE") + " ****************");
+		System.out.println("Numero di thread:" + ai_threads);
+		System.out.println("Numero di operazioni eseguite:" + ai_operations);
+		if (lPool != null) {
+			System.out.println("Connessioni create dal pool:" + lPool.getCreatedConnections()
+					+ " scartate dalla validazione:" + lPool.getDiscardedConnections()
+					+ " (validazione " + (mb_validate ? "attiva" : "disattiva") + ")");
+		}
+		mConcBench.printResults(lResults, lTotal, ai_operations, abInsert ? "insert" : "select", false);
+	}
+}
@@ -0,0 +1,305 @@
+package it.test.jdbcPostgreSQL;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe ResultsCompare confronta i file CSV dei risultati (scritti con
+ * la property resultsCsv) di un'esecuzione di riferimento con quelli di
+ * una o piu' esecuzioni successive, ad esempio dopo una modifica della
+ * configurazione di PostgreSQL o un aggiornamento del driver.
+ *
+ * <p>
+ * Utilizzo:
+ * <pre>
+ * java -cp ... it.test.jdbcPostgreSQL.ResultsCompare [-alpha 0.01] [-threshold 5] base.csv[,base2.csv...] nuovo.csv[,nuovo2.csv...] ...
+ * </pre>
+ * Ogni argomento e' un gruppo di file (separati da virgola) di esecuzioni
+ * ripetute con la stessa configurazione; il primo gruppo e' il
+ * riferimento. Per ogni operazione di ogni fase del riferimento vengono
+ * confrontati:
+ *
+ * - il tempo medio per operazione e il throughput (ops/s), entrambi con
+ *   il test t di Welch sui valori delle singole esecuzioni (file del
+ *   gruppo ed esecuzioni misurate ripetute, colonna trial); il test
+ *   richiede almeno due esecuzioni per gruppo, altrimenti viene riportata
+ *   solo la variazione.
+ *
+ * Il test sul tempo medio non usa i tempi delle singole operazioni: sono
+ * milioni di campioni autocorrelati (cache, checkpoint, autovacuum), con i
+ * quali qualunque differenza risulterebbe significativa. L'unita' del
+ * test e' quindi l'esecuzione, come per il throughput.
+ *
+ * Una variazione e' una regressione se e' peggiorativa di almeno
+ * -threshold per cento (default 5) e statisticamente significativa
+ * (p-value inferiore a -alpha, default 0.01). La soglia evita di segnalare
+ * differenze significative ma trascurabili. Vengono riportati anche p99 e
+ * i miglioramenti significativi. Un'operazione del riferimento assente
+ * (o senza operazioni misurate) in un gruppo successivo, ad esempio per
+ * una fase interrotta da un errore, rinominata o non eseguita, viene
+ * segnalata come mancante e conteggiata come regressione.
+ * Il programma termina con codice 0 (PASS) se non ci sono regressioni, 1
+ * (FAIL) altrimenti e 2 in caso di errore negli argomenti o nei file.
+ *
+ */
+class ResultsCompare
+{
+	private double md_alpha = 0.01;
+	private double md_threshold = 5.0;
+
+  /**
+   * Statistiche di un'operazione aggregate su tutte le esecuzioni di un gruppo.
+   */
+	static class Group
+	{
+		long ml_count = 0;
+		long ml_p99 = 0;
+		// tempo medio e throughput di ogni esecuzione
+		final List<Double> mMeans = new ArrayList<Double>();
+		final List<Double> mThroughputs = new ArrayList<Double>();
+
+		// aggiunge le statistiche di un'esecuzione
+		void add(BenchReport.Entry aEntry) {
+			if (aEntry.ml_count > 0) {
+				ml_count += aEntry.ml_count;
+				mMeans.add(aEntry.md_mean);
+			}
+			ml_p99 = Math.max(ml_p99, aEntry.ml_p99);
+			if (aEntry.md_throughput > 0) {
+				mThroughputs.add(aEntry.md_throughput);
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		ResultsCompare lCompare = new ResultsCompare();
+		List<String> lsGroups = new ArrayList<String>();
+		try {
+			for (int i=0; i<args.length; i++) {
+				if (args[i].equals("-alpha") && i + 1 < args.length) {
+					lCompare.md_alpha = Double.parseDouble(args[++i]);
+				} else if (args[i].equals("-threshold") && i + 1 < args.length) {
+					lCompare.md_threshold = Double.parseDouble(args[++i]);
+				} else {
+					lsGroups.add(args[i]);
+				}
+			}
+		} catch (NumberFormatException e) {
+			System.out.println("Valore non valido: " + e.getMessage());
+			System.exit(2);
+		}
+		if (lsGroups.size() < 2) {
+			System.out.println("Utilizzo: ResultsCompare [-alpha 0.01] [-threshold 5] base.csv[,base2.csv...] nuovo.csv[,nuovo2.csv...] ...");
+			System.exit(2);
+		}
+
+		int li_regressions = 0;
+		try {
+			Map<String, Group> lBaseline = load(lsGroups.get(0));
+			for (int g=1; g<lsGroups.size(); g++) {
+				System.out.println("************* CONFRONTO " + lsGroups.get(0) + " -> " + lsGroups.get(g) + " ****************");
+				li_regressions += lCompare.compare(lBaseline, load(lsGroups.get(g)));
+			}
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.exit(2);
+		}
+
+		System.out.println("Regressioni significative:" + li_regressions);
+		System.out.println("ESITO: " + (li_regressions == 0 ? "PASS" : "FAIL"));
+		System.exit(li_regressions == 0 ? 0 : 1);
+	}
+
+  /**
+   * Legge i file CSV di un gruppo (separati da virgola) e aggrega i
+   * risultati per fase e operazione.
+   */
+	static Map<String, Group> load(String asFileNames) throws IOException {
+		Map<String, Group> lGroups = new LinkedHashMap<String, Group>();
+		for (String lsFileName : asFileNames.split(",")) {
+			for (BenchReport.Entry lEntry : BenchReport.readCsv(lsFileName.trim())) {
+				Group lGroup = lGroups.get(lEntry.key());
+				if (lGroup == null) {
+					lGroup = new Group();
+					lGroups.put(lEntry.key(), lGroup);
+				}
+				lGroup.add(lEntry);
+			}
+		}
+		return lGroups;
+	}
+
+  /**
+   * Confronta le operazioni del riferimento con quelle del gruppo
+   * successivo e stampa una riga per operazione. Le operazioni assenti o
+   * senza operazioni misurate nel gruppo successivo sono regressioni.
+   *
+   * @return int numero di regressioni significative e di operazioni mancanti
+   */
+	int compare(Map<String, Group> aBaseline, Map<String, Group> aCandidate) {
+		int li_regressions = 0;
+		for (Map.Entry<String, Group> lEntry : aBaseline.entrySet()) {
+			Group lBase = lEntry.getValue();
+			Group lNew = aCandidate.get(lEntry.getKey());
+			if (lBase.ml_count == 0) {
+				continue;
+			}
+			if (lNew == null || lNew.ml_count == 0) {
+				System.out.println("-- " + lEntry.getKey() + ": mancante nel gruppo confrontato REGRESSIONE");
+				li_regressions++;
+				continue;
+			}
+			System.out.println("-- " + lEntry.getKey() + ":");
+
+			// tempo medio: un aumento e' un peggioramento
+			li_regressions += compareRuns("Average time ns:", lBase.mMeans, lNew.mMeans, true);
+			System.out.println("p99 ns:" + lBase.ml_p99 + " -> " + lNew.ml_p99 + " (" + formatChange(change(lBase.ml_p99, lNew.ml_p99)) + ")");
+
+			// throughput: una diminuzione e' un peggioramento
+			if (!lBase.mThroughputs.isEmpty() && !lNew.mThroughputs.isEmpty()) {
+				li_regressions += compareRuns("Throughput ops/s:", lBase.mThroughputs, lNew.mThroughputs, false);
+			}
+		}
+		return li_regressions;
+	}
+
+  /**
+   * Confronta i valori delle singole esecuzioni dei due gruppi con il test
+   * t di Welch e stampa una riga con la variazione e l'esito.
+   *
+   * @return int 1 se la variazione e' una regressione significativa, 0 altrimenti
+   */
+	int compareRuns(String asLabel, List<Double> aBase, List<Double> aNew, boolean abHigherIsWorse) {
+		double ld_base = mean(aBase);
+		double ld_new = mean(aNew);
+		String lsLine = asLabel + format(ld_base) + " -> " + format(ld_new) + " (" + formatChange(change(ld_base, ld_new));
+		if (aBase.size() < 2 || aNew.size() < 2) {
+			System.out.println(lsLine + ", test non eseguito: servono almeno 2 esecuzioni per gruppo)");
+			return 0;
+		}
+		double ld_p = welchPValue(ld_base, variance(aBase), aBase.size(), ld_new, variance(aNew), aNew.size());
+		String lsVerdict = verdict(change(ld_base, ld_new), ld_p, abHigherIsWorse);
+		System.out.println(lsLine + ", p" + formatP(ld_p) + ") " + lsVerdict);
+		return lsVerdict.equals("REGRESSIONE") ? 1 : 0;
+	}
+
+	// esito di una variazione percentuale: abHigherIsWorse indica se un aumento e' un peggioramento
+	private String verdict(double ad_change, double ad_p, boolean abHigherIsWorse) {
+		if (ad_p >= md_alpha || Math.abs(ad_change) < md_threshold) {
+			return "ok";
+		}
+		return (ad_change > 0) == abHigherIsWorse ? "REGRESSIONE" : "MIGLIORAMENTO";
+	}
+
+  /**
+   * p-value bilaterale del test t di Welch per la differenza tra le medie
+   * di due campioni con varianze diverse.
+   *
+   * @param ad_mean1 media del primo campione
+   * @param ad_var1 varianza del primo campione
+   * @param al_n1 numerosita' del primo campione
+   * @param ad_mean2 media del secondo campione
+   * @param ad_var2 varianza del secondo campione
+   * @param al_n2 numerosita' del secondo campione
+   * @return double p-value (1 se le medie coincidono, 0 se differiscono con varianze nulle)
+   */
+	static double welchPValue(double ad_mean1, double ad_var1, long al_n1, double ad_mean2, double ad_var2, long al_n2) {
+		double ld_se1 = ad_var1 / al_n1;
+		double ld_se2 = ad_var2 / al_n2;
+		double ld_se = ld_se1 + ld_se2;
+		if (ld_se <= 0) {
+			return ad_mean1 == ad_mean2 ? 1.0 : 0.0;
+		}
+		double ld_t = (ad_mean1 - ad_mean2) / Math.sqrt(ld_se);
+		// gradi di liberta' di Welch-Satterthwaite
+		double ld_df = ld_se * ld_se / (ld_se1 * ld_se1 / Math.max(al_n1 - 1, 1) + ld_se2 * ld_se2 / Math.max(al_n2 - 1, 1));
+		return TrialStats.studentTwoSidedPValue(ld_t, ld_df);
+	}
+
+	// funzione beta incompleta regolarizzata I_x(a, b) (frazione continua, metodo di Lentz)
+	static double incompleteBeta(double a, double b, double x) {
+		if (x <= 0) {
+			return 0;
+		}
+		if (x >= 1) {
+			return 1;
+		}
+		if (x > (a + 1) / (a + b + 2)) {
+			return 1 - incompleteBeta(b, a, 1 - x);
+		}
+		double ld_front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x)) / a;
+		double ld_tiny = 1e-300;
+		double f = 1, c = 1, d = 0;
+		for (int i=0; i<=400; i++) {
+			int m = i / 2;
+			double ld_numerator;
+			if (i == 0) {
+				ld_numerator = 1;
+			} else if (i % 2 == 0) {
+				ld_numerator = m * (b - m) * x / ((a + 2 * m - 1) * (a + 2 * m));
+			} else {
+				ld_numerator = -((a + m) * (a + b + m) * x) / ((a + 2 * m) * (a + 2 * m + 1));
+			}
+			d = 1 + ld_numerator * d;
+			d = Math.abs(d) < ld_tiny ? ld_tiny : d;
+			d = 1 / d;
+			c = 1 + ld_numerator / c;
+			c = Math.abs(c) < ld_tiny ? ld_tiny : c;
+			f *= c * d;
+			if (Math.abs(1 - c * d) < 1e-12) {
+				return ld_front * (f - 1);
+			}
+		}
+		return ld_front * (f - 1);
+	}
+
+	// logaritmo della funzione gamma (approssimazione di Lanczos)
+	static double logGamma(double x) {
+		double[] ld_coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+				-1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+		double y = x;
+		double ld_tmp = x + 5.5;
+		ld_tmp -= (x + 0.5) * Math.log(ld_tmp);
+		double ld_series = 1.000000000190015;
+		for (double ld_coefficient : ld_coefficients) {
+			ld_series += ld_coefficient / ++y;
+		}
+		return -ld_tmp + Math.log(2.5066282746310005 * ld_series / x);
+	}
+
+	private static double change(double ad_base, double ad_new) {
+		return ad_base == 0 ? 0 : (ad_new - ad_base) * 100.0 / ad_base;
+	}
+
+	private static double mean(List<Double> aValues) {
+		double ld_sum = 0;
+		for (double ld_value : aValues) {
+			ld_sum += ld_value;
+		}
+		return ld_sum / aValues.size();
+	}
+
+	private static double variance(List<Double> aValues) {
+		double ld_mean = mean(aValues);
+		double ld_sum = 0;
+		for (double ld_value : aValues) {
+			ld_sum += (ld_value - ld_mean) * (ld_value - ld_mean);
+		}
+		return aValues.size() < 2 ? 0 : ld_sum / (aValues.size() - 1);
+	}
+
+	private static String format(double ad_value) {
+		return String.format("%.1f", ad_value);
+	}
+
+	private static String formatChange(double ad_change) {
+		return String.format("%+.2f%%", ad_change);
+	}
+
+	private static String formatP(double ad_p) {
+		return ad_p < 0.0001 ? "<0.0001" : "=" + String.format("%.4f", ad_p);
+	}
+}
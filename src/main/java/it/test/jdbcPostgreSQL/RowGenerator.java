@@ -0,0 +1,58 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Generatore dei valori delle righe di TEST_TABLE (ID, NAME, SURNAME,
+ * CREATED_DATE) usato dai benchmark di INSERT.
+ *
+ * <p>
+ * Ogni ciclo di INSERT crea il proprio generatore (Type.create) e chiama
+ * startRun prima della prima riga: le implementazioni possono quindi
+ * riutilizzare buffer e valori senza sincronizzazione anche quando piu'
+ * thread eseguono INSERT con lo stesso DBOperation.
+ *
+ */
+interface RowGenerator
+{
+  /**
+   * Implementazioni disponibili.
+   */
+	enum Type {
+		// concatenazione di String e nuova data per ogni riga (comportamento originale)
+		CONCAT,
+		// buffer di caratteri preallocati e data calcolata una sola volta per run
+		BUFFERED;
+
+		RowGenerator create() {
+			return this == CONCAT ? new ConcatRowGenerator() : new BufferedRowGenerator();
+		}
+	}
+
+  /**
+   * Inizio di un ciclo di INSERT.
+   */
+	void startRun();
+
+	String name(int ai_id);
+
+	String surname(int ai_id);
+
+	java.sql.Date date();
+
+  /**
+   * Imposta i 4 parametri di una riga (id, name, surname, created_date)
+   * a partire dal parametro ai_offset + 1.
+   *
+   * @param aStatement statement di INSERT
+   * @param ai_offset numero di parametri che precedono la riga
+   * @param ai_id ID della riga
+   */
+	default void bind(PreparedStatement aStatement, int ai_offset, int ai_id) throws SQLException {
+		aStatement.setInt(ai_offset + 1, ai_id);
+		aStatement.setString(ai_offset + 2, name(ai_id));
+		aStatement.setString(ai_offset + 3, surname(ai_id));
+		aStatement.setDate(ai_offset + 4, date());
+	}
+}
@@ -0,0 +1,163 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.postgresql.PGStatement;
+
+/**
+ * La classe ScanBenchmark esegue letture di molte righe della tabella di
+ * test: scansione completa (un'unica SELECT senza condizioni) oppure per
+ * intervalli di ID (SELECT ... WHERE id BETWEEN ? AND ? fino a coprire
+ * tutta la tabella).
+ *
+ * <p>
+ * Le letture vengono eseguite in tre modalita':
+ *
+ * - fetch-all (fetchSize 0, default del driver): il driver PostgreSQL
+ *   legge l'intero risultato e lo mantiene in memoria prima di restituire
+ *   la prima riga;
+ *
+ * - cursore (fetchSize N): con autocommit disattivato e ResultSet
+ *   TYPE_FORWARD_ONLY il driver legge il risultato a blocchi di N righe
+ *   tramite un portal lato server, con memoria occupata proporzionale a N;
+ *
+ * - trasferimento binario: con binaryTransfer=true e prepareThreshold
+ *   negativo lo statement viene preparato sul server gia' alla prima
+ *   esecuzione e le colonne di tipo supportato (es. int4, date) vengono
+ *   ricevute in formato binario invece che testuale.
+ *
+ * <p>
+ * Per ogni lettura vengono riportati righe/s, tempo di ogni query, tempo
+ * alla prima riga (dall'esecuzione della query alla prima rs.next) e
+ * occupazione massima della old generation del client (HeapMonitor). Ogni
+ * esecuzione usa una connessione dedicata, aperta prima della misura e
+ * chiusa al termine; prima della misura viene richiesta una garbage
+ * collection, in modo che l'occupazione iniziale sia confrontabile tra le
+ * modalita'.
+ *
+ */
+class ScanBenchmark
+{
+	private final BenchConfig mConfig;
+	// righe presenti in tabella (ID da 1 a mi_keys)
+	private final int mi_keys;
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param ai_keys numero di righe presenti in tabella (ID da 1 a ai_keys)
+   */
+	ScanBenchmark(BenchConfig aConfig, int ai_keys) {
+		mConfig = aConfig;
+		mi_keys = ai_keys;
+	}
+
+  /**
+   * Esegue la scansione completa (ai_range_rows 0) oppure per intervalli
+   * di ai_range_rows righe e stampa righe/s, tempi delle query, tempo
+   * alla prima riga e picco della old generation.
+   *
+   * @param asTableName  Nome della tabella
+   * @param ai_range_rows  Righe per query (0 = scansione completa con un'unica query)
+   * @param ai_fetch_size  Righe lette per round trip con il cursore (0 = fetch-all)
+   * @param abBinary  (true) trasferimento binario, (false) testuale
+   */
+	public void run(String asTableName, int ai_range_rows, int ai_fetch_size, boolean abBinary) throws SQLException {
+
+		BenchResult lResult = new BenchResult();
+		lResult.setLive(true);
+		BenchResult lFirstRow = new BenchResult();
+		Properties lProps = new Properties();
+		lProps.setProperty("binaryTransfer", String.valueOf(abBinary));
+		Connection conn = mConfig.openConnection(lProps);
+		PreparedStatement preparedStatement = null;
+		ResultSet rs = null;
+		HeapMonitor lHeap = null;
+
+		try {
+			// il driver usa il cursore solo fuori dall'autocommit
+			conn.setAutoCommit(ai_fetch_size == 0);
+			String selectSQL = "SELECT id, name, surname, created_date FROM " + asTableName;
+			if (ai_range_rows > 0) {
+				selectSQL += " WHERE id BETWEEN ? AND ?";
+			}
+			preparedStatement = conn.prepareStatement(selectSQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			preparedStatement.setFetchSize(ai_fetch_size);
+			if (abBinary) {
+				preparedStatement.unwrap(PGStatement.class).setPrepareThreshold(-1);
+			}
+			int li_step = ai_range_rows > 0 ? ai_range_rows : Math.max(mi_keys, 1);
+
+			System.gc();
+			lHeap = new HeapMonitor();
+			GcMonitor lGc = new GcMonitor();
+			long l_wallStartTime = System.nanoTime();
+			for (int i=1; i <= Math.max(mi_keys, 1); i+=li_step) {
+				long l_startTime = System.nanoTime();
+				if (ai_range_rows > 0) {
+					preparedStatement.setInt(1, i);
+					preparedStatement.setInt(2, i + ai_range_rows - 1);
+				}
+				rs = preparedStatement.executeQuery();
+				long l_rows = 0;
+				while (rs.next()) {
+					if (l_rows++ == 0) {
+						lFirstRow.record(System.nanoTime() - l_startTime);
+					}
+					int id = rs.getInt(1);
+					String name = rs.getString(2);
+					String surname = rs.getString(3);
+					Date ldDate = rs.getDate(4);
+				}
+				rs.close();
+				rs = null;
+				if (!conn.getAutoCommit()) {
+					conn.commit();
+				}
+				lResult.record(System.nanoTime() - l_startTime);
+				lResult.recordRows(l_rows);
+			}
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+		}
+		catch (SQLException e) {
+
+			System.out.println(e.getMessage());
+			throw e;
+		}
+		finally {
+			if (rs != null) rs.close();
+			if (preparedStatement != null) {
+				preparedStatement.close();
+			}
+			conn.close();
+		}
+
+		String lsType = ai_range_rows > 0 ? "intervalli di " + ai_range_rows + " righe" : "completa";
+		String lsMode = ai_fetch_size > 0 ? "cursore fetchSize " + ai_fetch_size : "fetch-all";
+		String lsTransfer = abBinary ? "binary" : "text";
+		System.out.println("****************** SCAN BENCHMARKS ***********************");
+		System.out.println("Scansione " + lsType + ", " + lsMode + ", trasferimento " + lsTransfer + ".");
+		System.out.println("Righe lette:" + lResult.getRows());
+		System.out.println("-- Query (" + lResult.getCount() + " esecuzioni):");
+		lResult.printTimes("query");
+		BenchReport.get().add("query", lResult);
+		System.out.println("-- Tempo alla prima riga:");
+		lFirstRow.printTimes("prima riga");
+		BenchReport.get().add("prima riga", lFirstRow);
+		System.out.println("Throughput righe/s:" + lResult.getRowThroughput());
+		System.out.println("Old generation iniziale MB:" + toMB(lHeap.getStartUsed()) + " old generation di picco MB:" + toMB(lHeap.getPeakUsed()));
+		System.out.println("Riepilogo scan " + lsType + " " + lsMode + " " + lsTransfer
+				+ " righe/s:" + Math.round(lResult.getRowThroughput())
+				+ " prima riga p50 ms:" + String.format("%.3f", lFirstRow.getPercentile(50.0) / 1000000.0)
+				+ " old gen di picco MB:" + toMB(lHeap.getPeakUsed()));
+	}
+
+	private static String toMB(long al_bytes) {
+		return String.format("%.1f", al_bytes / (1024.0 * 1024.0));
+	}
+}
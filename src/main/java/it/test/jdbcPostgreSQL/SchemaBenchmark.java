@@ -0,0 +1,153 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * La classe SchemaBenchmark esegue i benchmark di INSERT a blocchi
+ * (addBatch/executeBatch) e di SELECT per ID (PreparedStatement
+ * riutilizzato) per ogni variante dello schema della tabella di test
+ * (TableSchema) e riporta i risultati affiancati.
+ *
+ * <p>
+ * Per ogni variante la tabella viene ricreata prima di ogni esecuzione
+ * dell'INSERT; le SELECT leggono le righe inserite dall'ultima
+ * esecuzione. Oltre a righe/s e p99 vengono riportati, per l'ultima
+ * esecuzione dell'INSERT, il WAL generato per riga inserita e la
+ * dimensione su disco della tabella e dei suoi indici (sommando le
+ * partizioni): il confronto tra le varianti indica l'amplificazione
+ * delle scritture dovuta agli indici secondari e alla chiave UUID e il
+ * risparmio delle tabelle UNLOGGED.
+ *
+ */
+class SchemaBenchmark
+{
+	private final DBOperation mDBOps;
+	private final BenchPhase mPhase;
+
+	SchemaBenchmark(DBOperation aDBOps, BenchPhase aPhase) {
+		mDBOps = aDBOps;
+		mPhase = aPhase;
+	}
+
+  /**
+   * Esegue i benchmark per tutte le varianti e stampa la tabella di
+   * confronto.
+   *
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param aSchemas  varianti dello schema
+   * @param ai_max_rows_per_commit  Numero massimo di INSERT per ogni commit
+   * @param ai_rows_per_batch  Numero di INSERT per ogni executeBatch
+   * @param ai_max_rows_inserted  Numero di righe da inserire e di SELECT da eseguire
+   */
+	public void run(Connection conn, String asTableName, TableSchema[] aSchemas, int ai_max_rows_per_commit, int ai_rows_per_batch, int ai_max_rows_inserted) throws SQLException {
+
+		int li_version = conn.getMetaData().getDatabaseMajorVersion();
+		String[] lsLines = new String[aSchemas.length];
+		String lsFormat = "%-28s %14s %12s %12s %12s %12s %14s %12s%n";
+
+		for (int v=0; v<aSchemas.length; v++) {
+			TableSchema lSchema = aSchemas[v];
+			System.out.println("-- Variante dello schema: " + lSchema);
+			String lsInsertPhase = "INSERT batch schema " + lSchema;
+			String lsSelectPhase = "SELECT per PK schema " + lSchema;
+			double ld_wal = 0;
+			long[] l_sizes = null;
+			// medie sulle esecuzioni misurate
+			TrialStats lInsert = new TrialStats();
+			TrialStats lInsertP99 = new TrialStats();
+			TrialStats lSelect = new TrialStats();
+			TrialStats lSelectP99 = new TrialStats();
+
+			for (mPhase.start(lsInsertPhase); mPhase.next(); ) {
+				mDBOps.DropTable(conn, asTableName);
+				mDBOps.createTable(conn, asTableName, lSchema);
+				mPhase.begin();
+				double ld_wal_start = walPosition(conn, li_version);
+				BenchResult lResult = mDBOps.InsertIntoTable(conn, asTableName, ai_max_rows_per_commit, ai_rows_per_batch, ai_max_rows_inserted, false);
+				ld_wal = walPosition(conn, li_version) - ld_wal_start;
+				l_sizes = sizes(conn, asTableName, li_version);
+				mPhase.end(conn);
+				if (mPhase.isMeasured()) {
+					lInsert.add(lResult.getRowThroughput());
+					lInsertP99.add(lResult.getPercentile(99.0));
+				}
+			}
+			for (mPhase.start(lsSelectPhase); mPhase.next(); ) {
+				mPhase.begin();
+				BenchResult lResult = mDBOps.SelectFromTableTimeReused(conn, asTableName, ai_max_rows_inserted, -1);
+				mPhase.end(conn);
+				if (mPhase.isMeasured()) {
+					lSelect.add(lResult.getThroughput());
+					lSelectP99.add(lResult.getPercentile(99.0));
+				}
+			}
+
+			lsLines[v] = String.format(lsFormat, lSchema,
+					String.format("%.0f", lInsert.getMean()), String.format("%.3f", lInsertP99.getMean() / 1000000.0),
+					String.format("%.0f", ld_wal / ai_max_rows_inserted),
+					toMB(l_sizes[0]), toMB(l_sizes[1]),
+					String.format("%.0f", lSelect.getMean()), String.format("%.3f", lSelectP99.getMean() / 1000000.0));
+		}
+
+		System.out.println("************* CONFRONTO VARIANTI DELLO SCHEMA ****************");
+		System.out.printf(lsFormat, "variante", "insert righe/s", "p99 batch ms", "WAL byte/riga", "tabella MB", "indici MB", "select/s", "p99 select ms");
+		for (String lsLine : lsLines) {
+			System.out.print(lsLine);
+		}
+	}
+
+	// posizione corrente del WAL in byte
+	private static double walPosition(Connection conn, int ai_version) throws SQLException {
+		return queryLongs(conn, ai_version >= 10
+				? "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')"
+				: "SELECT pg_xlog_location_diff(pg_current_xlog_location(), '0/0')", null)[0];
+	}
+
+	// dimensione in byte della tabella e dei suoi indici, comprese le partizioni (da PostgreSQL 12;
+	// pg_partition_tree non restituisce righe per una tabella non partizionata)
+	static long[] sizes(Connection conn, String asTableName, int ai_version) throws SQLException {
+		return queryLongs(conn, ai_version >= 12
+				? "SELECT coalesce(sum(pg_relation_size(relid)), pg_relation_size(?::regclass)), coalesce(sum(pg_indexes_size(relid)), pg_indexes_size(?::regclass)) FROM pg_partition_tree(?::regclass)"
+				: "SELECT pg_relation_size(?::regclass), pg_indexes_size(?::regclass)", asTableName.toLowerCase());
+	}
+
+	// condizione su relid delle viste pg_stat*_user_tables per la tabella e le sue partizioni (da PostgreSQL 12;
+	// pg_partition_tree non restituisce righe per una tabella non partizionata)
+	static String tableFilter(int ai_version) {
+		return "relid = ?::regclass" + (ai_version >= 12 ? " OR relid IN (SELECT relid FROM pg_partition_tree(?::regclass))" : "");
+	}
+
+	static long[] queryLongs(Connection conn, String asSQL, String asParam) throws SQLException {
+		PreparedStatement lStatement = conn.prepareStatement(asSQL);
+		try {
+			// tutti i parametri della query hanno il valore asParam
+			for (int p=1; asParam != null && p<=asSQL.length() - asSQL.replace("?", "").length(); p++) {
+				lStatement.setString(p, asParam);
+			}
+			ResultSet rs = lStatement.executeQuery();
+			rs.next();
+			long[] l_values = new long[rs.getMetaData().getColumnCount()];
+			for (int c=0; c<l_values.length; c++) {
+				l_values[c] = (long) rs.getDouble(c + 1);
+			}
+			rs.close();
+			if (!conn.getAutoCommit()) {
+				conn.commit();
+			}
+			return l_values;
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw e;
+		} finally {
+			lStatement.close();
+		}
+	}
+
+	static String toMB(long al_bytes) {
+		return String.format("%.1f", al_bytes / (1024.0 * 1024.0));
+	}
+}
@@ -0,0 +1,302 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * La classe ServerStats rileva le statistiche lato server di PostgreSQL
+ * prima e dopo ogni fase di benchmark e ne stampa le differenze, in modo
+ * da affiancare ai tempi misurati dal client il lavoro svolto dal DB:
+ *
+ * - WAL generato (byte), da pg_current_wal_lsn (pg_current_xlog_location
+ *   per le versioni precedenti alla 10);
+ *
+ * - pg_stat_database del DB corrente (commit, rollback, blocchi letti e
+ *   trovati in cache, tuple restituite/inserite/aggiornate/cancellate, ...);
+ *
+ * - pg_stat_bgwriter (checkpoint e buffer scritti dal bgwriter e dai backend);
+ *
+ * - pg_stat_user_tables e pg_statio_user_tables della tabella di test
+ *   (scansioni, tuple, aggiornamenti HOT, tuple vive e morte, blocchi
+ *   della tabella e degli indici);
+ *
+ * - pg_stat_statements (se l'estensione e' installata nel DB), sommando
+ *   chiamate, righe, tempi e blocchi di tutti gli statement che fanno
+ *   riferimento alla tabella di test.
+ *
+ * <p>
+ * Le colonne numeriche delle viste vengono lette tutte, quindi le colonne
+ * aggiunte o rinominate nelle varie versioni di PostgreSQL vengono
+ * riportate senza modifiche al codice; vengono stampate solo le
+ * differenze diverse da zero. Se la tabella e' stata ricreata durante la
+ * fase (relid diverso) le statistiche della tabella partono da zero.
+ *
+ * <p>
+ * Le letture avvengono su una connessione dedicata, in un'unica
+ * transazione per rilevazione (che compare quindi come un commit in
+ * pg_stat_database). I backend inviano le proprie statistiche al server
+ * con un certo ritardo (fino a circa un secondo, oppure alla chiusura
+ * della connessione): prima della rilevazione finale di ogni fase viene
+ * quindi atteso ai_delay_ms millisecondi. Fino a PostgreSQL 14 un backend
+ * inattivo non invia le statistiche in sospeso finche' non esegue un
+ * nuovo statement: per le fasi eseguite su una connessione che resta
+ * aperta, end esegue quindi una select su quella connessione dopo
+ * l'attesa.
+ *
+ * <p>
+ * begin ed end vengono chiamati da BenchPhase per ogni esecuzione
+ * misurata di una fase.
+ *
+ */
+class ServerStats
+{
+	private final BenchConfig mConfig;
+	private final boolean mb_enabled;
+	private final String msTableName;
+	private final int mi_delay_ms;
+	private Connection mConn;
+	private boolean mb_statements;
+	private String msWalSQL;
+	private Snapshot mBefore;
+
+  /**
+   * Rilevazione delle statistiche: valori numerici per "vista.colonna" e
+   * relid della tabella di test (-1 se la tabella non esiste).
+   */
+	static class Snapshot
+	{
+		final Map<String, Double> mValues = new LinkedHashMap<String, Double>();
+		long ml_relid = -1;
+	}
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param abEnabled (false) begin ed end non eseguono rilevazioni
+   * @param asTableName nome della tabella di test
+   * @param ai_delay_ms attesa prima della rilevazione finale di ogni fase
+   */
+	ServerStats(BenchConfig aConfig, boolean abEnabled, String asTableName, int ai_delay_ms) {
+		mConfig = aConfig;
+		mb_enabled = abEnabled;
+		msTableName = asTableName.toLowerCase();
+		mi_delay_ms = ai_delay_ms;
+	}
+
+  /**
+   * Rileva le statistiche all'inizio di una fase.
+   */
+	public void begin() throws SQLException {
+		if (mb_enabled) {
+			mBefore = take();
+		}
+	}
+
+  /**
+   * Rileva le statistiche alla fine della fase iniziata con begin e
+   * stampa le differenze. Se la fase e' stata eseguita sulla connessione
+   * aConn (che resta aperta), dopo l'attesa su aConn viene eseguita una
+   * select in modo che il backend invii le statistiche della fase.
+   *
+   * @param asPhase nome della fase
+   * @param aConn connessione usata dalla fase (null = nessuna)
+   * @return Map differenze per "vista.colonna" (null se la rilevazione non e' attiva)
+   */
+	public Map<String, Double> end(String asPhase, Connection aConn) throws SQLException {
+		if (mBefore == null) {
+			return null;
+		}
+		if (mi_delay_ms > 0) {
+			try {
+				Thread.sleep(mi_delay_ms);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (aConn != null) {
+			Statement lStatement = aConn.createStatement();
+			try {
+				lStatement.execute("SELECT 1");
+				if (!aConn.getAutoCommit()) {
+					aConn.commit();
+				}
+			} finally {
+				lStatement.close();
+			}
+		}
+		Snapshot lAfter = take();
+		Map<String, Double> lDelta = delta(mBefore, lAfter);
+		mBefore = null;
+		print(asPhase, lDelta);
+		return lDelta;
+	}
+
+  /**
+   * Chiude la connessione usata per le rilevazioni.
+   */
+	public void close() throws SQLException {
+		if (mConn != null) {
+			mConn.close();
+			mConn = null;
+		}
+	}
+
+  /**
+   * Differenze diverse da zero tra due rilevazioni. Se la tabella di test
+   * e' stata ricreata tra le due rilevazioni i valori iniziali della
+   * tabella ("table." e "statio.") sono considerati zero.
+   *
+   * @return Map differenze per "vista.colonna", nell'ordine di aAfter
+   */
+	static Map<String, Double> delta(Snapshot aBefore, Snapshot aAfter) {
+		boolean lb_new_table = aBefore.ml_relid != aAfter.ml_relid;
+		Map<String, Double> lDelta = new LinkedHashMap<String, Double>();
+		for (Map.Entry<String, Double> lEntry : aAfter.mValues.entrySet()) {
+			String lsKey = lEntry.getKey();
+			Double ldBefore = aBefore.mValues.get(lsKey);
+			if (ldBefore == null || (lb_new_table && (lsKey.startsWith("table.") || lsKey.startsWith("statio.")))) {
+				ldBefore = 0.0;
+			}
+			double ld_delta = lEntry.getValue() - ldBefore;
+			if (ld_delta != 0) {
+				lDelta.put(lsKey, ld_delta);
+			}
+		}
+		return lDelta;
+	}
+
+	private void open() throws SQLException {
+		mConn = mConfig.openConnection();
+		mConn.setAutoCommit(false);
+		if (mConn.getMetaData().getDatabaseMajorVersion() >= 10) {
+			msWalSQL = "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')";
+		} else {
+			msWalSQL = "SELECT pg_xlog_location_diff(pg_current_xlog_location(), '0/0')";
+		}
+
+		Statement lStatement = mConn.createStatement();
+		try {
+			ResultSet rs = lStatement.executeQuery("SELECT count(*) FROM pg_extension WHERE extname = 'pg_stat_statements'");
+			rs.next();
+			mb_statements = rs.getInt(1) > 0;
+			rs.close();
+			mConn.commit();
+		} finally {
+			lStatement.close();
+		}
+		if (!mb_statements) {
+			System.out.println("Estensione pg_stat_statements non installata nel DB: statistiche per statement non rilevate");
+		}
+	}
+
+	private Snapshot take() throws SQLException {
+		if (mConn == null) {
+			open();
+		}
+		Snapshot lSnapshot = new Snapshot();
+		try {
+			// le viste pg_stat_* restituiscono dati costanti all'interno di una transazione
+			read(lSnapshot, "", "SELECT pg_stat_clear_snapshot()", null);
+			read(lSnapshot, "wal.bytes", msWalSQL, null);
+			read(lSnapshot, "database.", "SELECT * FROM pg_stat_database WHERE datname = current_database()", null);
+			read(lSnapshot, "bgwriter.", "SELECT * FROM pg_stat_bgwriter", null);
+			read(lSnapshot, "table.", "SELECT * FROM pg_stat_user_tables WHERE relname = ?", msTableName);
+			read(lSnapshot, "statio.", "SELECT * FROM pg_statio_user_tables WHERE relname = ?", msTableName);
+			if (mb_statements) {
+				read(lSnapshot, "statements.", "SELECT * FROM pg_stat_statements WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database()) AND query ILIKE ?", "%" + msTableName + "%");
+			}
+			mConn.commit();
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			mConn.rollback();
+			throw e;
+		}
+		return lSnapshot;
+	}
+
+	// somma le colonne numeriche di tutte le righe della query in aSnapshot, con prefisso asPrefix
+	// (per le query con una sola colonna asPrefix e' il nome completo del valore)
+	private void read(Snapshot aSnapshot, String asPrefix, String asSQL, String asParam) throws SQLException {
+		PreparedStatement lStatement = mConn.prepareStatement(asSQL);
+		try {
+			if (asParam != null) {
+				lStatement.setString(1, asParam);
+			}
+			ResultSet rs = lStatement.executeQuery();
+			ResultSetMetaData lMeta = rs.getMetaData();
+			while (rs.next()) {
+				for (int c=1; c<=lMeta.getColumnCount(); c++) {
+					String lsColumn = lMeta.getColumnName(c);
+					if (lsColumn.equals("relid")) {
+						aSnapshot.ml_relid = rs.getLong(c);
+					}
+					if (asPrefix.length() == 0 || !isCounter(lMeta.getColumnType(c), lsColumn)) {
+						continue;
+					}
+					String lsKey = lMeta.getColumnCount() == 1 ? asPrefix : asPrefix + lsColumn;
+					double ld_value = rs.getDouble(c);
+					Double ldSum = aSnapshot.mValues.get(lsKey);
+					aSnapshot.mValues.put(lsKey, ldSum == null ? ld_value : ldSum + ld_value);
+				}
+			}
+			rs.close();
+		} finally {
+			lStatement.close();
+		}
+	}
+
+	// colonne numeriche sommabili: esclusi gli identificativi (oid) e i tempi minimi, massimi, medi e la deviazione standard
+	private static boolean isCounter(int ai_type, String asColumn) {
+		switch (ai_type) {
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+			case Types.REAL:
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				break;
+			default:
+				return false;
+		}
+		return !(asColumn.endsWith("id") || asColumn.startsWith("min_") || asColumn.startsWith("max_")
+				|| asColumn.startsWith("mean_") || asColumn.startsWith("stddev_"));
+	}
+
+	private static void print(String asPhase, Map<String, Double> aDelta) {
+		System.out.println("-- Statistiche server (differenze) " + asPhase + ":");
+		Double ldWal = aDelta.get("wal.bytes");
+		System.out.println("WAL generato bytes:" + format(ldWal == null ? 0 : ldWal));
+		String[][] lsGroups = {
+				{"database.", "pg_stat_database"},
+				{"bgwriter.", "pg_stat_bgwriter"},
+				{"table.", "pg_stat_user_tables"},
+				{"statio.", "pg_statio_user_tables"},
+				{"statements.", "pg_stat_statements"}};
+		for (String[] lsGroup : lsGroups) {
+			StringBuilder lLine = new StringBuilder();
+			for (Map.Entry<String, Double> lEntry : aDelta.entrySet()) {
+				if (lEntry.getKey().startsWith(lsGroup[0])) {
+					lLine.append(' ').append(lEntry.getKey().substring(lsGroup[0].length())).append(':').append(format(lEntry.getValue()));
+				}
+			}
+			if (lLine.length() > 0) {
+				System.out.println(lsGroup[1] + ":" + lLine);
+			}
+		}
+	}
+
+	private static String format(double ad_value) {
+		if (ad_value == Math.rint(ad_value) && Math.abs(ad_value) < 1e15) {
+			return Long.toString((long) ad_value);
+		}
+		return String.format("%.3f", ad_value);
+	}
+}
@@ -0,0 +1,200 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * La classe SimpleConnectionPool e' un pool di connessioni minimale
+ * utilizzato dai benchmark per confrontare il riuso delle connessioni
+ * con l'apertura di una connessione per ogni operazione.
+ *
+ * <p>
+ * Le connessioni libere sono mantenute in una deque non bloccante
+ * (ConcurrentLinkedDeque, LIFO in modo da riutilizzare per prima la
+ * connessione usata piu' di recente). L'accesso e' regolato da un
+ * Semaphore fair con un permesso per connessione: borrow acquisisce un
+ * permesso e prende una connessione libera (o ne crea una nuova se tutte
+ * quelle aperte sono in uso), release restituisce la connessione e il
+ * permesso. Se tutte le connessioni sono in uso il thread resta sospeso
+ * in coda, senza polling, fino al rilascio di una connessione o al
+ * timeout; le connessioni vengono assegnate ai thread in attesa in
+ * ordine di arrivo, quindi il tempo di attesa dipende dalla posizione in
+ * coda.
+ *
+ * <p>
+ * All'apertura vengono create ai_min_size connessioni; se richiesto ogni
+ * connessione viene validata (Connection.isValid) prima di essere
+ * restituita e le connessioni non valide vengono chiuse e sostituite.
+ *
+ */
+class SimpleConnectionPool
+{
+	// timeout in secondi della validazione di una connessione
+	private static final int VALIDATION_TIMEOUT = 5;
+
+	private final BenchConfig mConfig;
+	private final int mi_max_size;
+	private final boolean mb_validate;
+	private final long ml_timeout;
+	private final ConcurrentLinkedDeque<Connection> mIdle = new ConcurrentLinkedDeque<Connection>();
+	// un permesso per ogni connessione non in uso (libera oppure non ancora creata)
+	private final Semaphore mPermits;
+	private final AtomicInteger mi_total = new AtomicInteger();
+	private final AtomicLong ml_created = new AtomicLong();
+	private final AtomicLong ml_discarded = new AtomicLong();
+	private volatile boolean mb_closed = false;
+
+  /**
+   * Crea il pool e apre ai_min_size connessioni.
+   *
+   * @param aConfig parametri di connessione al DB
+   * @param ai_min_size numero di connessioni aperte alla creazione del pool
+   * @param ai_max_size numero massimo di connessioni aperte
+   * @param abValidate (true) valida ogni connessione prima di restituirla
+   * @param al_timeout_ms tempo massimo di attesa di una connessione libera
+   */
+	SimpleConnectionPool(BenchConfig aConfig, int ai_min_size, int ai_max_size, boolean abValidate, long al_timeout_ms) throws SQLException {
+		if (ai_max_size <= 0 || ai_min_size < 0 || ai_min_size > ai_max_size) {
+			throw new IllegalArgumentException("Dimensioni del pool non valide: min " + ai_min_size + ", max " + ai_max_size);
+		}
+		mConfig = aConfig;
+		mi_max_size = ai_max_size;
+		mb_validate = abValidate;
+		ml_timeout = TimeUnit.MILLISECONDS.toNanos(al_timeout_ms);
+		mPermits = new Semaphore(ai_max_size, true);
+
+		try {
+			for (int i=0; i<ai_min_size; i++) {
+				mi_total.incrementAndGet();
+				mIdle.offerFirst(create());
+			}
+		} catch (SQLException e) {
+			close();
+			throw e;
+		}
+	}
+
+  /**
+   * Restituisce una connessione libera, creandone una nuova se il pool non
+   * ha raggiunto la dimensione massima, altrimenti attende che una
+   * connessione venga rilasciata.
+   *
+   * @return Connection connessione da restituire con release
+   */
+	public Connection borrow() throws SQLException {
+		if (mb_closed) {
+			throw new SQLException("Pool di connessioni chiuso");
+		}
+		try {
+			if (!mPermits.tryAcquire(ml_timeout, TimeUnit.NANOSECONDS)) {
+				throw new SQLException("Timeout in attesa di una connessione libera (pool di " + mi_max_size + " connessioni)");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Attesa di una connessione libera interrotta", e);
+		}
+
+		try {
+			Connection lConn;
+			while ((lConn = mIdle.pollFirst()) != null) {
+				if (!mb_validate || lConn.isValid(VALIDATION_TIMEOUT)) {
+					return lConn;
+				}
+				discard(lConn);
+			}
+			// con il permesso acquisito le connessioni aperte sono meno di mi_max_size
+			mi_total.incrementAndGet();
+			return create();
+		} catch (SQLException e) {
+			mPermits.release();
+			throw e;
+		}
+	}
+
+  /**
+   * Rilascia una connessione ottenuta con borrow. Se la connessione ha una
+   * transazione aperta viene eseguito il rollback e ripristinato l'autocommit.
+   *
+   * @param aConn connessione da rilasciare
+   */
+	public void release(Connection aConn) {
+		if (aConn == null) {
+			return;
+		}
+		try {
+			if (!aConn.getAutoCommit()) {
+				aConn.rollback();
+				aConn.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			discard(aConn);
+			mPermits.release();
+			return;
+		}
+		mIdle.offerFirst(aConn);
+		mPermits.release();
+		if (mb_closed) {
+			closeIdle();
+		}
+	}
+
+  /**
+   * Chiude il pool e tutte le connessioni libere; le connessioni in uso
+   * vengono chiuse al momento del rilascio.
+   */
+	public void close() {
+		mb_closed = true;
+		closeIdle();
+	}
+
+	public int getTotalConnections() {
+		return mi_total.get();
+	}
+
+	public long getCreatedConnections() {
+		return ml_created.get();
+	}
+
+	public long getDiscardedConnections() {
+		return ml_discarded.get();
+	}
+
+	// apre una nuova connessione (mi_total gia' incrementato dal chiamante)
+	private Connection create() throws SQLException {
+		try {
+			Connection lConn = mConfig.openConnection();
+			ml_created.incrementAndGet();
+			return lConn;
+		} catch (SQLException e) {
+			mi_total.decrementAndGet();
+			throw e;
+		}
+	}
+
+	private void discard(Connection aConn) {
+		mi_total.decrementAndGet();
+		ml_discarded.incrementAndGet();
+		try {
+			aConn.close();
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+		}
+	}
+
+	private void closeIdle() {
+		Connection lConn;
+		while ((lConn = mIdle.pollFirst()) != null) {
+			mi_total.decrementAndGet();
+			try {
+				lConn.close();
+			} catch (SQLException e) {
+				System.out.println(e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,304 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * La classe SizeScalingBenchmark misura come cambiano i tempi delle
+ * SELECT e delle INSERT per PK al crescere della tabella di test, fino a
+ * dimensioni che non stanno piu' in memoria (shared_buffers e cache del
+ * sistema operativo).
+ *
+ * <p>
+ * La tabella (chiave primaria BIGINT, eventualmente con la colonna
+ * PAYLOAD per righe piu' larghe, vedi TableSchema) viene fatta crescere
+ * per stadi (es. 1, 10 e 100 milioni di righe) con il bulk load parallelo
+ * (BulkLoader), caricando ad ogni stadio solo le righe mancanti; dopo il
+ * caricamento viene eseguito VACUUM ANALYZE, in modo che le SELECT
+ * successive non debbano scrivere gli hint bit delle righe appena
+ * caricate. Ad ogni stadio vengono eseguite, su una connessione dedicata:
+ *
+ * - SELECT per PK di righe scelte a caso tra tutte quelle caricate;
+ *
+ * - INSERT di righe con chiavi casuali, in posizioni sparse dell'indice
+ *   della chiave primaria: le righe caricate hanno chiavi pari (passo 2) e
+ *   le INSERT usano chiavi dispari (le rare chiavi gia' inserite vengono
+ *   ignorate con ON CONFLICT DO NOTHING), con commit ogni
+ *   ai_commit_rows righe. Le righe inserite restano in tabella.
+ *
+ * <p>
+ * Per ogni stadio vengono riportati la dimensione della tabella e degli
+ * indici, il rapporto con shared_buffers, throughput e percentili delle
+ * due operazioni e i blocchi letti fuori da shared_buffers per
+ * operazione (pg_statio_user_tables, dalla cache del sistema operativo o
+ * dal disco). La curva finale mostra dove i tempi crescono perche' le
+ * pagine lette non sono piu' in memoria. Con le esecuzioni di
+ * riscaldamento (warmupRuns) le cache raggiungono lo stato stazionario
+ * prima delle esecuzioni misurate.
+ *
+ */
+class SizeScalingBenchmark
+{
+	// passo delle chiavi caricate: le chiavi dispari restano libere per le INSERT
+	private static final long KEY_STEP = 2;
+
+	private final BenchConfig mConfig;
+	private final DBOperation mDBOps;
+	private final BenchPhase mPhase;
+	private final BulkLoader mLoader;
+	private final int mi_stats_delay_ms;
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param aDBOps operazioni sul DB
+   * @param aPhase esecuzioni di riscaldamento e misurate di ogni fase
+   * @param aLoader bulk load usato per far crescere la tabella
+   * @param ai_stats_delay_ms attesa prima della lettura di pg_statio_user_tables (vedi ServerStats)
+   */
+	SizeScalingBenchmark(BenchConfig aConfig, DBOperation aDBOps, BenchPhase aPhase, BulkLoader aLoader, int ai_stats_delay_ms) {
+		mConfig = aConfig;
+		mDBOps = aDBOps;
+		mPhase = aPhase;
+		mLoader = aLoader;
+		mi_stats_delay_ms = ai_stats_delay_ms;
+	}
+
+  /**
+   * Ricrea la tabella, la fa crescere stadio per stadio eseguendo i
+   * benchmark ad ogni stadio e stampa la curva dei tempi al crescere
+   * della dimensione.
+   *
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param aSchema  schema della tabella (chiave primaria BIGINT)
+   * @param al_stages  righe della tabella ad ogni stadio, crescenti
+   * @param al_partition_rows  Chiavi per partizione del bulk load
+   * @param ai_connections  Connessioni del bulk load
+   * @param ai_selects  SELECT per PK per stadio
+   * @param ai_inserts  INSERT per stadio (0 = nessuna INSERT)
+   * @param ai_commit_rows  INSERT per commit
+   */
+	public void run(Connection conn, String asTableName, TableSchema aSchema, long[] al_stages, long al_partition_rows, int ai_connections,
+			int ai_selects, int ai_inserts, int ai_commit_rows) throws SQLException {
+
+		int li_version = conn.getMetaData().getDatabaseMajorVersion();
+		int li_payload = aSchema.getPayload();
+		long l_shared_buffers = SchemaBenchmark.queryLongs(conn,
+				"SELECT s.setting::bigint * b.setting::bigint FROM pg_settings s, pg_settings b WHERE s.name = 'shared_buffers' AND b.name = 'block_size'", null)[0];
+		String[] lsLines = new String[al_stages.length];
+		String lsFormat = "%14s %11s %11s %9s %11s %13s %13s %13s %11s %13s %13s %13s%n";
+
+		mDBOps.DropTable(conn, asTableName);
+		mDBOps.createTable(conn, asTableName, aSchema);
+		mLoader.setKeyStep(KEY_STEP);
+		mLoader.setPayload(li_payload);
+
+		long l_loaded = 0;
+		for (int s=0; s<al_stages.length; s++) {
+			long l_rows = al_stages[s];
+			System.out.println("-- Dimensione della tabella: " + l_rows + " righe, caricamento di " + (l_rows - l_loaded) + " righe");
+			mLoader.run(asTableName, l_loaded + 1, l_rows, al_partition_rows, ai_connections);
+			l_loaded = l_rows;
+			vacuum(conn, asTableName);
+			long[] l_sizes = SchemaBenchmark.sizes(conn, asTableName, li_version);
+			System.out.println("Tabella MB:" + SchemaBenchmark.toMB(l_sizes[0]) + " indici MB:" + SchemaBenchmark.toMB(l_sizes[1])
+					+ " shared_buffers MB:" + SchemaBenchmark.toMB(l_shared_buffers));
+
+			String lsSelectPhase = "SCALA SELECT per PK casuale " + l_rows + " righe";
+			String lsInsertPhase = "SCALA INSERT casuali " + l_rows + " righe";
+			double ld_select_reads = 0;
+			double ld_insert_reads = 0;
+			// throughput, p50 e p99 delle esecuzioni misurate
+			TrialStats[] lSelect = { new TrialStats(), new TrialStats(), new TrialStats() };
+			TrialStats[] lInsert = { new TrialStats(), new TrialStats(), new TrialStats() };
+			for (mPhase.start(lsSelectPhase); mPhase.next(); ) {
+				mPhase.begin();
+				long l_reads = blocksRead(conn, asTableName, li_version);
+				BenchResult lResult = select(asTableName, l_rows, ai_selects, li_payload);
+				ld_select_reads = (double) (blocksRead(conn, asTableName, li_version) - l_reads) / ai_selects;
+				mPhase.end();
+				if (mPhase.isMeasured()) {
+					addStats(lSelect, lResult);
+				}
+			}
+			if (ai_inserts > 0) {
+				for (mPhase.start(lsInsertPhase); mPhase.next(); ) {
+					mPhase.begin();
+					long l_reads = blocksRead(conn, asTableName, li_version);
+					BenchResult lResult = insert(asTableName, l_rows, ai_inserts, ai_commit_rows, li_payload);
+					ld_insert_reads = (double) (blocksRead(conn, asTableName, li_version) - l_reads) / ai_inserts;
+					mPhase.end();
+					if (mPhase.isMeasured()) {
+						addStats(lInsert, lResult);
+					}
+				}
+			}
+
+			lsLines[s] = String.format(lsFormat, l_rows, SchemaBenchmark.toMB(l_sizes[0]), SchemaBenchmark.toMB(l_sizes[1]),
+					String.format("%.2f", (double) (l_sizes[0] + l_sizes[1]) / l_shared_buffers),
+					String.format("%.0f", lSelect[0].getMean()), String.format("%.3f", lSelect[1].getMean() / 1000000.0),
+					String.format("%.3f", lSelect[2].getMean() / 1000000.0), String.format("%.2f", ld_select_reads),
+					ai_inserts > 0 ? String.format("%.0f", lInsert[0].getMean()) : "-",
+					ai_inserts > 0 ? String.format("%.3f", lInsert[1].getMean() / 1000000.0) : "-",
+					ai_inserts > 0 ? String.format("%.3f", lInsert[2].getMean() / 1000000.0) : "-",
+					ai_inserts > 0 ? String.format("%.2f", ld_insert_reads) : "-");
+		}
+
+		System.out.println("************* LATENZA VS DIMENSIONE DELLA TABELLA ****************");
+		System.out.println("Schema:" + aSchema + " shared_buffers MB:" + SchemaBenchmark.toMB(l_shared_buffers)
+				+ " (blocchi letti = blocchi della tabella e degli indici non trovati in shared_buffers)");
+		System.out.printf(lsFormat, "righe", "tabella MB", "indici MB", "dati/sb", "select/s", "p50 select ms", "p99 select ms", "blocchi/select",
+				"insert/s", "p50 insert ms", "p99 insert ms", "blocchi/insert");
+		for (String lsLine : lsLines) {
+			System.out.print(lsLine);
+		}
+	}
+
+	// SELECT per PK di righe casuali tra le al_rows caricate, su una connessione dedicata
+	private BenchResult select(String asTableName, long al_rows, int ai_selects, int ai_payload) throws SQLException {
+		Connection lConn = mConfig.openConnection();
+		PreparedStatement lStatement = null;
+		BenchResult lResult = new BenchResult();
+		lResult.setLive(true);
+		ThreadLocalRandom lRandom = ThreadLocalRandom.current();
+
+		try {
+			lStatement = lConn.prepareStatement("SELECT id, name, surname, created_date" + (ai_payload > 0 ? ", payload" : "")
+					+ " FROM " + asTableName + " WHERE id = ?");
+			GcMonitor lGc = new GcMonitor();
+			long l_wallStartTime = System.nanoTime();
+			for (int i=0; i<ai_selects; i++) {
+				long l_id = (lRandom.nextLong(al_rows) + 1) * KEY_STEP;
+				long l_startTime = System.nanoTime();
+				lStatement.setLong(1, l_id);
+				ResultSet rs = lStatement.executeQuery();
+				int li_rows = 0;
+				try {
+					while (rs.next()) {
+						long id = rs.getLong(1);
+						String name = rs.getString(2);
+						String surname = rs.getString(3);
+						java.sql.Date ldDate = rs.getDate(4);
+						String payload = ai_payload > 0 ? rs.getString(5) : null;
+						li_rows++;
+					}
+				} finally {
+					rs.close();
+				}
+				lResult.record(System.nanoTime() - l_startTime);
+				lResult.recordRows(li_rows);
+			}
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+		}
+		catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw e;
+		}
+		finally {
+			if (lStatement != null) lStatement.close();
+			// alla chiusura il backend invia al server le statistiche in sospeso
+			lConn.close();
+		}
+
+		System.out.println("Righe lette:" + lResult.getRows() + " su " + ai_selects + " SELECT");
+		lResult.printTimes("select");
+		BenchReport.get().add("select", lResult);
+		return lResult;
+	}
+
+	// INSERT di righe con chiavi dispari casuali, con commit ogni ai_commit_rows righe
+	private BenchResult insert(String asTableName, long al_rows, int ai_inserts, int ai_commit_rows, int ai_payload) throws SQLException {
+		Connection lConn = mConfig.openConnection();
+		PreparedStatement lStatement = null;
+		BenchResult lResult = new BenchResult();
+		lResult.setLive(true);
+		ThreadLocalRandom lRandom = ThreadLocalRandom.current();
+		java.sql.Date lDate = DBOperation.getCurrentDate();
+
+		try {
+			lConn.setAutoCommit(false);
+			lStatement = lConn.prepareStatement("insert into " + asTableName + " (id, name, surname, created_date" + (ai_payload > 0 ? ", payload" : "")
+					+ ") values (?, ?, ?, ?" + (ai_payload > 0 ? ", ?" : "") + ") ON CONFLICT (id) DO NOTHING");
+			GcMonitor lGc = new GcMonitor();
+			long l_wallStartTime = System.nanoTime();
+			long l_uncommitted = 0;
+			for (int i=0; i<ai_inserts; i++) {
+				long l_id = (lRandom.nextLong(al_rows) + 1) * KEY_STEP - 1;
+				lStatement.setLong(1, l_id);
+				lStatement.setString(2, "test_name" + l_id);
+				lStatement.setString(3, "test_surname" + l_id);
+				lStatement.setDate(4, lDate);
+				if (ai_payload > 0) {
+					lStatement.setString(5, CopyRowEncoder.payload(l_id, ai_payload));
+				}
+				long l_startTime = System.nanoTime();
+				l_uncommitted += lStatement.executeUpdate();
+				lResult.record(System.nanoTime() - l_startTime);
+				if ((i + 1) % ai_commit_rows == 0 || i == ai_inserts - 1) {
+					l_startTime = System.nanoTime();
+					lConn.commit();
+					long l_endTime = System.nanoTime();
+					lResult.recordCommit(l_endTime - l_startTime, l_uncommitted, l_endTime);
+					l_uncommitted = 0;
+				}
+			}
+			lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+			lResult.setGcActivity(lGc);
+		}
+		catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw e;
+		}
+		finally {
+			if (lStatement != null) lStatement.close();
+			lConn.close();
+		}
+
+		lResult.printInsertTimes("executeUpdate");
+		BenchReport.get().add("executeUpdate", lResult);
+		return lResult;
+	}
+
+	// VACUUM ANALYZE della tabella (fuori da una transazione)
+	static void vacuum(Connection conn, String asTableName) throws SQLException {
+		boolean lb_autoCommit = conn.getAutoCommit();
+		Statement lStatement = conn.createStatement();
+		try {
+			conn.setAutoCommit(true);
+			long l_startTime = System.nanoTime();
+			lStatement.execute("VACUUM ANALYZE " + asTableName);
+			System.out.println("VACUUM ANALYZE ms:" + (System.nanoTime() - l_startTime) / 1000000);
+		} catch (SQLException e) {
+			System.out.println(e.getMessage());
+			throw e;
+		} finally {
+			lStatement.close();
+			conn.setAutoCommit(lb_autoCommit);
+		}
+	}
+
+	// blocchi della tabella e dei suoi indici (comprese le partizioni) letti fuori da shared_buffers
+	private long blocksRead(Connection conn, String asTableName, int ai_version) throws SQLException {
+		if (mi_stats_delay_ms > 0) {
+			try {
+				Thread.sleep(mi_stats_delay_ms);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return SchemaBenchmark.queryLongs(conn, "SELECT coalesce(sum(heap_blks_read), 0) + coalesce(sum(idx_blks_read), 0) FROM pg_statio_user_tables WHERE "
+				+ SchemaBenchmark.tableFilter(ai_version), asTableName.toLowerCase())[0];
+	}
+
+	// aggiunge throughput, p50 e p99 di un'esecuzione misurata
+	private static void addStats(TrialStats[] aStats, BenchResult aResult) {
+		aStats[0].add(aResult.getThroughput());
+		aStats[1].add(aResult.getPercentile(50.0));
+		aStats[2].add(aResult.getPercentile(99.0));
+	}
+}
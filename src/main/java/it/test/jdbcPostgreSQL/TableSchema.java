@@ -0,0 +1,198 @@
+package it.test.jdbcPostgreSQL;
+
+/**
+ * La classe TableSchema descrive una variante dello schema della tabella
+ * di test e genera le istruzioni DDL per crearla (vedi
+ * DBOperation.createTable). Le colonne ID, NAME, SURNAME e CREATED_DATE
+ * sono presenti in tutte le varianti, quindi i benchmark di INSERT e di
+ * SELECT per ID funzionano senza modifiche su ogni variante.
+ *
+ * <p>
+ * Una variante e' descritta da una o piu' opzioni separate da '+':
+ *
+ * - base (default): ID INTEGER chiave primaria;
+ *
+ * - bigint: ID BIGINT chiave primaria;
+ *
+ * - uuid: chiave primaria PK UUID generata dal server (gen_random_uuid,
+ *   PostgreSQL 13+) e indice unico su ID, usato dalle SELECT per ID;
+ *   misura il costo degli inserimenti in posizioni casuali dell'indice
+ *   della chiave primaria;
+ *
+ * - indexes: indici secondari su NAME e SURNAME;
+ *
+ * - unlogged: tabella UNLOGGED (nessun WAL per i dati, tabella svuotata
+ *   dopo un crash), tipica delle tabelle di staging;
+ *
+ * - fillfactor=N: percentuale di riempimento delle pagine della tabella;
+ *
+ * - hash=N: tabella partizionata per hash della chiave primaria in N
+ *   partizioni. Con uuid l'indice su ID non puo' essere unico (non
+ *   contiene la chiave di partizionamento) e le SELECT per ID accedono a
+ *   tutte le partizioni; unlogged e fillfactor vengono applicati alle
+ *   partizioni;
+ *
+ * - payload=N: colonna PAYLOAD VARCHAR(N) aggiuntiva per righe piu' larghe
+ *   (N da 1 a MAX_PAYLOAD). La colonna ammette NULL, quindi i benchmark
+ *   che non la valorizzano funzionano senza modifiche; viene riempita dal
+ *   bulk load (CopyRowEncoder.setPayload) e dal benchmark di scalabilita'
+ *   con la dimensione della tabella.
+ *
+ * <p>
+ * Esempio: "uuid+indexes+hash=8".
+ *
+ */
+class TableSchema
+{
+	static final TableSchema DEFAULT = new TableSchema("base", "INTEGER", false, false, 0, 0, 0);
+
+	// larghezza massima della colonna PAYLOAD
+	static final int MAX_PAYLOAD = 4000;
+
+	private final String msName;
+	// tipo della chiave primaria: INTEGER, BIGINT o UUID
+	private final String msKeyType;
+	private final boolean mb_indexes;
+	private final boolean mb_unlogged;
+	// 0 = default del server
+	private final int mi_fillfactor;
+	// 0 = tabella non partizionata
+	private final int mi_partitions;
+	// 0 = nessuna colonna PAYLOAD
+	private final int mi_payload;
+
+	private TableSchema(String asName, String asKeyType, boolean abIndexes, boolean abUnlogged, int ai_fillfactor, int ai_partitions, int ai_payload) {
+		msName = asName;
+		msKeyType = asKeyType;
+		mb_indexes = abIndexes;
+		mb_unlogged = abUnlogged;
+		mi_fillfactor = ai_fillfactor;
+		mi_partitions = ai_partitions;
+		mi_payload = ai_payload;
+	}
+
+  /**
+   * Interpreta la descrizione di una variante (es. "bigint+indexes").
+   *
+   * @param asSpec opzioni separate da '+'
+   * @return TableSchema variante descritta
+   * @throws IllegalArgumentException se un'opzione non e' valida
+   */
+	static TableSchema parse(String asSpec) {
+		String lsKeyType = "INTEGER";
+		boolean lbIndexes = false;
+		boolean lbUnlogged = false;
+		int li_fillfactor = 0;
+		int li_partitions = 0;
+		int li_payload = 0;
+		for (String lsOption : asSpec.split("\\+")) {
+			lsOption = lsOption.trim().toLowerCase();
+			if (lsOption.equals("base")) {
+				continue;
+			} else if (lsOption.equals("bigint") || lsOption.equals("uuid")) {
+				lsKeyType = lsOption.toUpperCase();
+			} else if (lsOption.equals("indexes")) {
+				lbIndexes = true;
+			} else if (lsOption.equals("unlogged")) {
+				lbUnlogged = true;
+			} else if (lsOption.startsWith("fillfactor=")) {
+				li_fillfactor = Integer.parseInt(lsOption.substring("fillfactor=".length()));
+				if (li_fillfactor < 10 || li_fillfactor > 100) {
+					throw new IllegalArgumentException("fillfactor deve essere compreso tra 10 e 100: " + asSpec);
+				}
+			} else if (lsOption.startsWith("hash=")) {
+				li_partitions = Integer.parseInt(lsOption.substring("hash=".length()));
+				if (li_partitions <= 0) {
+					throw new IllegalArgumentException("Il numero di partizioni deve essere maggiore di 0: " + asSpec);
+				}
+			} else if (lsOption.startsWith("payload=")) {
+				li_payload = Integer.parseInt(lsOption.substring("payload=".length()));
+				if (li_payload < 1 || li_payload > MAX_PAYLOAD) {
+					throw new IllegalArgumentException("payload deve essere compreso tra 1 e " + MAX_PAYLOAD + ": " + asSpec);
+				}
+			} else {
+				throw new IllegalArgumentException("Variante dello schema non valida: " + asSpec);
+			}
+		}
+		return new TableSchema(asSpec.trim(), lsKeyType, lbIndexes, lbUnlogged, li_fillfactor, li_partitions, li_payload);
+	}
+
+	public String getName() {
+		return msName;
+	}
+
+  /**
+   * @return String tipo della chiave primaria: INTEGER, BIGINT o UUID
+   */
+	public String getKeyType() {
+		return msKeyType;
+	}
+
+  /**
+   * @return int larghezza della colonna PAYLOAD (0 = colonna assente)
+   */
+	public int getPayload() {
+		return mi_payload;
+	}
+
+  /**
+   * Genera le istruzioni DDL (separate da ';') per creare la tabella
+   * asTableName con questa variante dello schema.
+   *
+   * @param asTableName nome della tabella
+   * @return String istruzioni DDL
+   */
+	public String createSQL(String asTableName) {
+		boolean lb_uuid = msKeyType.equals("UUID");
+		String lsKeyColumn = lb_uuid ? "PK" : "ID";
+		StringBuilder lSQL = new StringBuilder();
+
+		lSQL.append("CREATE ").append(mb_unlogged && mi_partitions == 0 ? "UNLOGGED " : "").append("TABLE IF NOT EXISTS ").append(asTableName).append("(");
+		if (lb_uuid) {
+			lSQL.append("PK UUID DEFAULT gen_random_uuid() CONSTRAINT ").append(asTableName).append("_pk PRIMARY KEY, ")
+				.append("ID INTEGER NOT NULL, ");
+		} else {
+			lSQL.append("ID ").append(msKeyType).append(" CONSTRAINT ").append(asTableName).append("_pk PRIMARY KEY, ");
+		}
+		lSQL.append("NAME VARCHAR(255) NOT NULL, ")
+			.append("SURNAME VARCHAR(255) NOT NULL, ")
+			.append("CREATED_DATE DATE NOT NULL")
+			.append(mi_payload > 0 ? ", PAYLOAD VARCHAR(" + mi_payload + ")" : "")
+			.append(" )");
+		if (mi_partitions > 0) {
+			lSQL.append(" PARTITION BY HASH (").append(lsKeyColumn).append(")");
+		} else {
+			lSQL.append(storage());
+		}
+		lSQL.append("; ");
+
+		for (int p=0; p<mi_partitions; p++) {
+			lSQL.append("CREATE ").append(mb_unlogged ? "UNLOGGED " : "").append("TABLE ").append(asTableName).append("_p").append(p)
+				.append(" PARTITION OF ").append(asTableName)
+				.append(" FOR VALUES WITH (MODULUS ").append(mi_partitions).append(", REMAINDER ").append(p).append(")")
+				.append(storage()).append(";");
+		}
+		if (lb_uuid) {
+			// l'indice unico di una tabella partizionata deve contenere la chiave di partizionamento
+			lSQL.append("CREATE ").append(mi_partitions == 0 ? "UNIQUE " : "").append("INDEX ").append(asTableName).append("_id_idx ON ")
+				.append(asTableName).append("(ID);");
+		}
+		if (mb_indexes) {
+			lSQL.append("CREATE INDEX ").append(asTableName).append("_name_idx ON ").append(asTableName).append("(NAME);")
+				.append("CREATE INDEX ").append(asTableName).append("_surname_idx ON ").append(asTableName).append("(SURNAME);");
+		}
+
+		lSQL.append("COMMENT ON TABLE ").append(asTableName).append(" IS 'Tabella di test per benchmarks JBDC';")
+			.append("COMMENT ON COLUMN ").append(asTableName).append(".").append(lsKeyColumn).append(" IS 'Primary Key.';")
+			.append("COMMENT ON COLUMN ").append(asTableName).append(".CREATED_DATE IS 'Timestamp';");
+		return lSQL.toString();
+	}
+
+	private String storage() {
+		return mi_fillfactor > 0 ? " WITH (fillfactor=" + mi_fillfactor + ")" : "";
+	}
+
+	public String toString() {
+		return msName;
+	}
+}
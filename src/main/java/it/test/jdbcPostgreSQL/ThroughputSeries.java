@@ -0,0 +1,148 @@
+package it.test.jdbcPostgreSQL;
+
+/**
+ * La classe ThroughputSeries registra la serie temporale del throughput
+ * (righe completate per intervallo di tempo) durante un benchmark.
+ *
+ * <p>
+ * Il tempo viene suddiviso in intervalli di durata fissa a partire
+ * dall'istante di start; ogni chiamata a record somma le righe completate
+ * all'intervallo corrispondente. La serie permette di vedere se il
+ * throughput resta costante o degrada durante l'esecuzione (crescita di
+ * tabella e indici, checkpoint, ...). Le serie di piu' thread possono
+ * essere sommate con merge.
+ *
+ */
+class ThroughputSeries
+{
+	private final long ml_interval;
+	private long ml_start=0;
+	private long ml_last=0;
+	private long[] ml_rows = new long[64];
+	private int mi_intervals=0;
+
+  /**
+   * @param al_interval durata di ogni intervallo in nanosecondi
+   * @param al_start istante di inizio (System.nanoTime)
+   */
+	ThroughputSeries(long al_interval, long al_start) {
+		ml_interval = al_interval;
+		ml_start = al_start;
+		ml_last = al_start;
+	}
+
+  /**
+   * Registra al_rows righe completate all'istante al_now.
+   *
+   * @param al_now istante di completamento (System.nanoTime)
+   * @param al_rows numero di righe completate
+   */
+	public void record(long al_now, long al_rows) {
+		int li_index = (int) (Math.max(al_now - ml_start, 0) / ml_interval);
+		ensureIntervals(li_index + 1);
+		ml_rows[li_index] += al_rows;
+		if (al_now > ml_last) {
+			ml_last = al_now;
+		}
+	}
+
+  /**
+   * Somma a questa serie una serie registrata da un altro thread, allineando
+   * gli intervalli sull'istante di start meno recente.
+   *
+   * @param aOther serie da aggregare (con la stessa durata di intervallo)
+   */
+	public void merge(ThroughputSeries aOther) {
+		if (aOther.ml_start < ml_start) {
+			int li_shift = (int) ((ml_start - aOther.ml_start) / ml_interval);
+			long[] l_shifted = new long[Math.max(ml_rows.length + li_shift, 64)];
+			System.arraycopy(ml_rows, 0, l_shifted, li_shift, mi_intervals);
+			ml_rows = l_shifted;
+			mi_intervals = mi_intervals == 0 ? 0 : mi_intervals + li_shift;
+			ml_start -= (long) li_shift * ml_interval;
+		}
+		int li_offset = (int) ((aOther.ml_start - ml_start) / ml_interval);
+		ensureIntervals(aOther.mi_intervals + li_offset);
+		for (int i=0; i<aOther.mi_intervals; i++) {
+			ml_rows[i + li_offset] += aOther.ml_rows[i];
+		}
+		ml_last = Math.max(ml_last, aOther.ml_last);
+	}
+
+  /**
+   * Azzera la serie senza riallocare gli intervalli.
+   *
+   * @param al_start nuovo istante di inizio (System.nanoTime)
+   */
+	public void reset(long al_start) {
+		java.util.Arrays.fill(ml_rows, 0, mi_intervals, 0);
+		mi_intervals = 0;
+		ml_start = al_start;
+		ml_last = al_start;
+	}
+
+	public int getIntervals() {
+		return mi_intervals;
+	}
+
+	public long getStart() {
+		return ml_start;
+	}
+
+	public long getInterval() {
+		return ml_interval;
+	}
+
+  /**
+   * Restituisce il throughput (righe/s) dell'intervallo ai_index. Per
+   * l'ultimo intervallo, normalmente incompleto, viene usata la durata
+   * effettiva fino all'ultima registrazione.
+   *
+   * @param ai_index indice dell'intervallo
+   * @return double righe al secondo
+   */
+	public double getRate(int ai_index) {
+		long l_duration = ml_interval;
+		if (ai_index == mi_intervals - 1) {
+			l_duration = Math.min(ml_interval, Math.max(ml_last - (ml_start + ai_index * ml_interval), 1));
+		}
+		return ml_rows[ai_index] * 1000000000.0 / l_duration;
+	}
+
+  /**
+   * Stampa la serie dei throughput per intervallo e il minimo, medio e
+   * massimo throughput sostenuto (l'ultimo intervallo incompleto viene
+   * escluso dalle statistiche se ne esistono altri).
+   */
+	public void print() {
+		if (mi_intervals == 0) {
+			return;
+		}
+		StringBuilder lSeries = new StringBuilder();
+		int li_full = mi_intervals > 1 ? mi_intervals - 1 : 1;
+		double ld_min = Double.MAX_VALUE;
+		double ld_max = 0;
+		double ld_tot = 0;
+		for (int i=0; i<mi_intervals; i++) {
+			double ld_rate = getRate(i);
+			lSeries.append(i == 0 ? "" : ", ").append(Math.round(ld_rate));
+			if (i < li_full) {
+				ld_min = Math.min(ld_min, ld_rate);
+				ld_max = Math.max(ld_max, ld_rate);
+				ld_tot += ld_rate;
+			}
+		}
+		System.out.println("Serie throughput righe/s (intervalli di " + ml_interval/1000000 + " ms):" + lSeries);
+		System.out.println("Throughput sostenuto righe/s min:" + Math.round(ld_min)
+				+ " medio:" + Math.round(ld_tot / li_full) + " max:" + Math.round(ld_max));
+	}
+
+	private void ensureIntervals(int ai_intervals) {
+		if (ai_intervals > ml_rows.length) {
+			ml_rows = java.util.Arrays.copyOf(ml_rows, Math.max(ml_rows.length * 2, ai_intervals));
+		}
+		if (ai_intervals > mi_intervals) {
+			mi_intervals = ai_intervals;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package it.test.jdbcPostgreSQL;
+
+/**
+ * La classe TrialStats calcola media, deviazione standard, minimo e
+ * massimo di un valore (es. throughput) misurato in piu' esecuzioni
+ * ripetute dello stesso benchmark, e l'intervallo di confidenza della
+ * media con la distribuzione t di Student (adatta ai pochi campioni di
+ * esecuzioni ripetute).
+ *
+ */
+class TrialStats
+{
+	private int mi_count=0;
+	private double md_mean=0;
+	private double md_m2=0;
+	private double md_min=Double.MAX_VALUE;
+	private double md_max=-Double.MAX_VALUE;
+
+  /**
+   * Registra il valore di un'esecuzione (algoritmo di Welford).
+   *
+   * @param ad_value valore misurato
+   */
+	public void add(double ad_value) {
+		mi_count++;
+		double ld_delta = ad_value - md_mean;
+		md_mean += ld_delta / mi_count;
+		md_m2 += ld_delta * (ad_value - md_mean);
+		md_min = Math.min(md_min, ad_value);
+		md_max = Math.max(md_max, ad_value);
+	}
+
+	public int getCount() {
+		return mi_count;
+	}
+
+	public double getMean() {
+		return md_mean;
+	}
+
+  /**
+   * @return double deviazione standard campionaria (0 con meno di due esecuzioni)
+   */
+	public double getStdDev() {
+		return mi_count < 2 ? 0 : Math.sqrt(md_m2 / (mi_count - 1));
+	}
+
+	public double getMin() {
+		return mi_count == 0 ? 0 : md_min;
+	}
+
+	public double getMax() {
+		return mi_count == 0 ? 0 : md_max;
+	}
+
+  /**
+   * Semiampiezza dell'intervallo di confidenza della media:
+   * t(ad_level, n-1) * s / sqrt(n).
+   *
+   * @param ad_level livello di confidenza (es. 0.95)
+   * @return double semiampiezza (0 con meno di due esecuzioni)
+   */
+	public double getConfidenceHalfWidth(double ad_level) {
+		if (mi_count < 2) {
+			return 0;
+		}
+		return studentQuantile(1 - (1 - ad_level) / 2, mi_count - 1) * getStdDev() / Math.sqrt(mi_count);
+	}
+
+  /**
+   * p-value bilaterale della distribuzione t di Student: P(|T| >= |ad_t|).
+   *
+   * @param ad_t valore della statistica t
+   * @param ad_df gradi di liberta'
+   */
+	static double studentTwoSidedPValue(double ad_t, double ad_df) {
+		return ResultsCompare.incompleteBeta(ad_df / 2, 0.5, ad_df / (ad_df + ad_t * ad_t));
+	}
+
+  /**
+   * Quantile della distribuzione t di Student, per bisezione sulla
+   * funzione di ripartizione.
+   *
+   * @param ad_p probabilita' cumulata (tra 0.5 e 1)
+   * @param ad_df gradi di liberta'
+   */
+	static double studentQuantile(double ad_p, double ad_df) {
+		// P(T <= t) = 1 - p-value bilaterale / 2 per t >= 0
+		double ld_low = 0;
+		double ld_high = 1;
+		while (1 - studentTwoSidedPValue(ld_high, ad_df) / 2 < ad_p && ld_high < 1e6) {
+			ld_high *= 2;
+		}
+		for (int i=0; i<100; i++) {
+			double ld_mid = (ld_low + ld_high) / 2;
+			if (1 - studentTwoSidedPValue(ld_mid, ad_df) / 2 < ad_p) {
+				ld_low = ld_mid;
+			} else {
+				ld_high = ld_mid;
+			}
+		}
+		return (ld_low + ld_high) / 2;
+	}
+}
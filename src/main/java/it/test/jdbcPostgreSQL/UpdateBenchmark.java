@@ -0,0 +1,281 @@
+package it.test.jdbcPostgreSQL;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * La classe UpdateBenchmark misura le scritture che modificano righe
+ * esistenti di TEST_TABLE e il loro effetto sulla tabella:
+ *
+ * - UPDATE: UPDATE per PK di righe casuali (SET name, created_date);
+ *
+ * - RANGE_UPDATE: UPDATE di intervalli di ai_range_rows ID consecutivi
+ *   (WHERE id BETWEEN ? AND ?), come negli aggiornamenti massivi;
+ *
+ * - UPSERT: INSERT ... ON CONFLICT (id) DO UPDATE, con ai_new_percent
+ *   righe nuove (ID successivi a quelli caricati) e le altre gia'
+ *   presenti (aggiornate).
+ *
+ * <p>
+ * Ogni operazione viene eseguita in tre modalita' (Mode): SINGLE (una
+ * connessione, un executeUpdate per riga), BATCH (una connessione,
+ * addBatch/executeBatch di ai_rows_per_batch righe) e CONCURRENT
+ * (ai_threads connessioni, un executeUpdate per riga); RANGE_UPDATE non
+ * prevede la modalita' BATCH. Il commit viene eseguito ogni
+ * ai_commit_rows righe modificate. Nella modalita' concorrente ogni
+ * worker modifica solo gli ID del proprio intervallo, quindi i worker non
+ * si attendono sui lock di riga.
+ *
+ * <p>
+ * Per ogni esecuzione la tabella viene ricreata con la variante dello
+ * schema (TableSchema), popolata con ai_rows righe e sottoposta a VACUUM
+ * ANALYZE, quindi le esecuzioni partono tutte da tabelle senza tuple
+ * morte. Oltre a tempi e righe/s vengono riportati, da
+ * pg_stat_user_tables, le righe aggiornate, la percentuale di
+ * aggiornamenti HOT (Heap-Only Tuple: la nuova versione della riga resta
+ * nella stessa pagina e gli indici non vengono modificati), la crescita
+ * delle tuple morte, le esecuzioni di autovacuum durante la fase e la
+ * crescita della tabella e degli indici. Un aggiornamento e' HOT solo se
+ * non modifica colonne indicizzate (con la variante indexes NAME e'
+ * indicizzata) e se la pagina ha spazio libero (fillfactor minore di
+ * 100): il confronto tra le varianti mostra l'effetto sul gonfiamento
+ * (bloat) della tabella e degli indici.
+ *
+ */
+class UpdateBenchmark
+{
+  /**
+   * Tipo di scrittura.
+   */
+	enum Operation { UPDATE, RANGE_UPDATE, UPSERT }
+
+  /**
+   * Modalita' di esecuzione.
+   */
+	enum Mode { SINGLE, BATCH, CONCURRENT }
+
+	private final ConcurrentBenchmark mConcBench;
+	private final DBOperation mDBOps;
+	private final BenchPhase mPhase;
+	private final int mi_stats_delay_ms;
+
+  /**
+   * @param aConfig parametri di connessione al DB
+   * @param aDBOps operazioni sul DB
+   * @param aPhase esecuzioni di riscaldamento e misurate di ogni fase
+   * @param ai_stats_delay_ms attesa prima della lettura di pg_stat_user_tables (vedi ServerStats)
+   */
+	UpdateBenchmark(BenchConfig aConfig, DBOperation aDBOps, BenchPhase aPhase, int ai_stats_delay_ms) {
+		mConcBench = new ConcurrentBenchmark(aConfig, aDBOps);
+		mDBOps = aDBOps;
+		mPhase = aPhase;
+		mi_stats_delay_ms = ai_stats_delay_ms;
+	}
+
+  /**
+   * Esegue tutte le combinazioni di variante dello schema, operazione e
+   * modalita' e stampa la tabella di confronto.
+   *
+   * @param conn  connessione al DB
+   * @param asTableName  Nome della tabella
+   * @param aSchemas  varianti dello schema
+   * @param aOperations  operazioni
+   * @param aModes  modalita'
+   * @param ai_rows  Righe caricate e righe modificate per esecuzione
+   * @param ai_commit_rows  Righe modificate per commit
+   * @param ai_rows_per_batch  Righe per executeBatch (modalita' BATCH)
+   * @param ai_threads  Connessioni della modalita' CONCURRENT
+   * @param ai_range_rows  ID per statement di RANGE_UPDATE
+   * @param ai_new_percent  Percentuale di righe nuove dell'UPSERT
+   */
+	public void run(Connection conn, String asTableName, TableSchema[] aSchemas, Operation[] aOperations, Mode[] aModes,
+			int ai_rows, int ai_commit_rows, int ai_rows_per_batch, int ai_threads, int ai_range_rows, int ai_new_percent) throws SQLException {
+
+		int li_version = conn.getMetaData().getDatabaseMajorVersion();
+		StringBuilder lLines = new StringBuilder();
+		String lsFormat = "%-24s %-13s %-11s %12s %12s %8s %14s %9s %12s %12s%n";
+
+		for (TableSchema lSchema : aSchemas) {
+			for (Operation lOperation : aOperations) {
+				for (Mode lMode : aModes) {
+					if (lOperation == Operation.RANGE_UPDATE && lMode == Mode.BATCH) {
+						continue;
+					}
+					String lsPhase = lOperation + " " + lMode + " schema " + lSchema;
+					String lsStatement = lMode == Mode.BATCH ? "executeBatch" : "executeUpdate";
+					long[] l_stats = null;
+					// righe/s e p99 delle esecuzioni misurate
+					TrialStats lRows = new TrialStats();
+					TrialStats lP99 = new TrialStats();
+					for (mPhase.start(lsPhase); mPhase.next(); ) {
+						mDBOps.DropTable(conn, asTableName);
+						mDBOps.createTable(conn, asTableName, lSchema);
+						mDBOps.InsertRangeIntoTable(conn, asTableName, ai_commit_rows, ai_rows_per_batch, 1, ai_rows, false);
+						SizeScalingBenchmark.vacuum(conn, asTableName);
+						long[] l_before = tableStats(conn, asTableName, li_version);
+						mPhase.begin();
+						BenchResult lResult = execute(asTableName, lOperation, lMode, ai_rows, ai_commit_rows, ai_rows_per_batch, ai_threads, ai_range_rows, ai_new_percent, lsStatement);
+						mPhase.end();
+						if (mPhase.isMeasured()) {
+							lRows.add(lResult.getRowThroughput());
+							lP99.add(lResult.getPercentile(99.0));
+						}
+						long[] l_after = tableStats(conn, asTableName, li_version);
+						l_stats = new long[l_after.length];
+						for (int i=0; i<l_after.length; i++) {
+							l_stats[i] = l_after[i] - l_before[i];
+						}
+						System.out.println("Righe aggiornate:" + l_stats[0] + " HOT:" + l_stats[1] + " (" + percent(l_stats[1], l_stats[0]) + ")"
+								+ " tuple morte:" + l_before[2] + " -> " + l_after[2] + " (+" + l_stats[2] + ")"
+								+ " autovacuum:" + l_stats[4]
+								+ " tabella MB:" + SchemaBenchmark.toMB(l_before[5]) + " -> " + SchemaBenchmark.toMB(l_after[5])
+								+ " indici MB:" + SchemaBenchmark.toMB(l_before[6]) + " -> " + SchemaBenchmark.toMB(l_after[6]));
+					}
+
+					lLines.append(String.format(lsFormat, lSchema, lOperation, lMode,
+							String.format("%.0f", lRows.getMean()), String.format("%.3f", lP99.getMean() / 1000000.0),
+							percent(l_stats[1], l_stats[0]), l_stats[2], l_stats[4],
+							SchemaBenchmark.toMB(l_stats[5]), SchemaBenchmark.toMB(l_stats[6])));
+				}
+			}
+		}
+
+		System.out.println("************* CONFRONTO UPDATE E UPSERT ****************");
+		System.out.println("Righe:" + ai_rows + " commit ogni " + ai_commit_rows + " righe, batch di " + ai_rows_per_batch + " righe, " + ai_threads + " thread concorrenti,"
+				+ " " + ai_range_rows + " ID per RANGE_UPDATE, " + ai_new_percent + "% righe nuove per UPSERT (ultima esecuzione per HOT e crescita)");
+		System.out.printf(lsFormat, "variante", "operazione", "modalita'", "righe/s", "p99 ms", "HOT", "tuple morte +", "autovac.", "tabella +MB", "indici +MB");
+		System.out.print(lLines);
+	}
+
+	// esegue l'operazione nella modalita' indicata, stampa e registra i risultati e restituisce il totale
+	private BenchResult execute(final String asTableName, final Operation aOperation, final Mode aMode, final int ai_rows, final int ai_commit_rows,
+			final int ai_rows_per_batch, int ai_threads, final int ai_range_rows, final int ai_new_percent, String asStatement) throws SQLException {
+
+		int li_threads = aMode == Mode.CONCURRENT ? ai_threads : 1;
+		// RANGE_UPDATE: uno statement per intervallo di ID, le altre operazioni uno statement per riga
+		int li_ops = aOperation == Operation.RANGE_UPDATE ? (ai_rows + ai_range_rows - 1) / ai_range_rows : ai_rows;
+		final java.sql.Date lDate = DBOperation.getCurrentDate();
+
+		BenchResult lTotal = new BenchResult();
+		BenchResult[] lResults = mConcBench.runWorkers(li_threads, li_ops, new ConcurrentBenchmark.RangeTask() {
+			public BenchResult run(Connection conn, int ai_first_id, int ai_last_id) throws SQLException {
+				BenchResult lResult = new BenchResult();
+				lResult.setLive(true);
+				ThreadLocalRandom lRandom = ThreadLocalRandom.current();
+				PreparedStatement lStatement = null;
+				int li_batch = 0;
+				long l_uncommitted = 0;
+
+				try {
+					conn.setAutoCommit(false);
+					lStatement = conn.prepareStatement(sql(asTableName, aOperation));
+					GcMonitor lGc = new GcMonitor();
+					long l_wallStartTime = System.nanoTime();
+					for (int i=ai_first_id; i<=ai_last_id; i++) {
+						if (aOperation == Operation.RANGE_UPDATE) {
+							int li_first = (i - 1) * ai_range_rows + 1;
+							lStatement.setString(1, "updt_name" + li_first);
+							lStatement.setDate(2, lDate);
+							lStatement.setInt(3, li_first);
+							lStatement.setInt(4, Math.min(ai_rows, li_first + ai_range_rows - 1));
+						} else if (aOperation == Operation.UPDATE) {
+							int li_id = lRandom.nextInt(ai_first_id, ai_last_id + 1);
+							// NAME diverso ad ogni operazione: anche gli aggiornamenti ripetuti della stessa riga modificano la colonna
+							lStatement.setString(1, "updt_name" + li_id + "_" + i);
+							lStatement.setDate(2, lDate);
+							lStatement.setInt(3, li_id);
+						} else {
+							// le righe nuove hanno ID successivi a quelli caricati, diversi per ogni operazione
+							int li_id = lRandom.nextInt(100) < ai_new_percent ? ai_rows + i : lRandom.nextInt(ai_first_id, ai_last_id + 1);
+							lStatement.setInt(1, li_id);
+							lStatement.setString(2, "upst_name" + li_id + "_" + i);
+							lStatement.setString(3, "test_surname" + li_id);
+							lStatement.setDate(4, lDate);
+						}
+
+						if (aMode == Mode.BATCH) {
+							lStatement.addBatch();
+							if (++li_batch < ai_rows_per_batch && i < ai_last_id) {
+								continue;
+							}
+							long l_startTime = System.nanoTime();
+							int[] li_counts = lStatement.executeBatch();
+							lResult.record(System.nanoTime() - l_startTime);
+							for (int li_count : li_counts) {
+								// SUCCESS_NO_INFO (batch riscritti dal driver): una riga per statement
+								l_uncommitted += li_count >= 0 ? li_count : 1;
+							}
+							li_batch = 0;
+						} else {
+							long l_startTime = System.nanoTime();
+							l_uncommitted += lStatement.executeUpdate();
+							lResult.record(System.nanoTime() - l_startTime);
+						}
+
+						if (l_uncommitted >= ai_commit_rows || i == ai_last_id) {
+							long l_startTime = System.nanoTime();
+							conn.commit();
+							long l_endTime = System.nanoTime();
+							lResult.recordCommit(l_endTime - l_startTime, l_uncommitted, l_endTime);
+							l_uncommitted = 0;
+						}
+					}
+					lResult.setWallTime(System.nanoTime() - l_wallStartTime);
+					lResult.setGcActivity(lGc);
+				}
+				catch (SQLException e) {
+					System.out.println(e.getMessage());
+					throw e;
+				}
+				finally {
+					if (lStatement != null) {
+						lStatement.close();
+					}
+				}
+				return lResult;
+			}
+		}, lTotal, true);
+
+		System.out.println("************* " + aOperation + " " + aMode + " ****************");
+		System.out.println("Statement eseguiti:" + li_ops + (aMode == Mode.BATCH ? " (batch di " + ai_rows_per_batch + " righe)" : ""));
+		if (aOperation == Operation.UPSERT) {
+			System.out.println("Righe nuove:" + ai_new_percent + "% (ID successivi a " + ai_rows + ")");
+		}
+		mConcBench.printResults(lResults, lTotal, li_ops, asStatement, true);
+		return lTotal;
+	}
+
+	private static String sql(String asTableName, Operation aOperation) {
+		switch (aOperation) {
+			case UPDATE:
+				return "UPDATE " + asTableName + " SET name = ?, created_date = ? WHERE id = ?";
+			case RANGE_UPDATE:
+				return "UPDATE " + asTableName + " SET name = ?, created_date = ? WHERE id BETWEEN ? AND ?";
+			default:
+				return "insert into " + asTableName + " (id, name, surname, created_date) values (?, ?, ?, ?)"
+						+ " ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, created_date = EXCLUDED.created_date";
+		}
+	}
+
+	// righe aggiornate, aggiornamenti HOT, tuple morte, tuple vive, autovacuum, dimensione della tabella e degli indici
+	private long[] tableStats(Connection conn, String asTableName, int ai_version) throws SQLException {
+		if (mi_stats_delay_ms > 0) {
+			try {
+				Thread.sleep(mi_stats_delay_ms);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		long[] l_stats = SchemaBenchmark.queryLongs(conn,
+				"SELECT coalesce(sum(n_tup_upd), 0), coalesce(sum(n_tup_hot_upd), 0), coalesce(sum(n_dead_tup), 0), coalesce(sum(n_live_tup), 0),"
+				+ " coalesce(sum(autovacuum_count), 0) FROM pg_stat_user_tables WHERE " + SchemaBenchmark.tableFilter(ai_version), asTableName.toLowerCase());
+		long[] l_sizes = SchemaBenchmark.sizes(conn, asTableName, ai_version);
+		return new long[] {l_stats[0], l_stats[1], l_stats[2], l_stats[3], l_stats[4], l_sizes[0], l_sizes[1]};
+	}
+
+	private static String percent(long al_part, long al_total) {
+		return al_total > 0 ? String.format("%.1f%%", 100.0 * al_part / al_total) : "-";
+	}
+}
@@ -0,0 +1,80 @@
+package it.test.jdbcPostgreSQL;
+
+import java.util.Random;
+
+/**
+ * La classe ZipfianGenerator estrae valori interi 0..n-1 con distribuzione
+ * di Zipf: il valore 0 e' il piu' frequente, seguito da 1, 2, ... con
+ * frequenza proporzionale a 1/(rank+1)^theta.
+ *
+ * <p>
+ * Viene usato l'algoritmo di Gray et al. ("Quickly Generating
+ * Billion-Record Synthetic Databases"), lo stesso di YCSB: la costante
+ * zeta(n, theta) viene calcolata una sola volta nel costruttore (O(n)) e
+ * ogni estrazione richiede un solo numero casuale. L'oggetto e'
+ * immutabile e puo' essere condiviso tra thread, ognuno con il proprio
+ * generatore di numeri casuali.
+ *
+ */
+class ZipfianGenerator
+{
+	// costante di YCSB: il 20% circa delle chiavi riceve l'80% circa degli accessi
+	static final double DEFAULT_THETA = 0.99;
+
+	private final long ml_items;
+	private final double md_theta;
+	private final double md_zetan;
+	private final double md_alpha;
+	private final double md_eta;
+	private final double md_half_pow_theta;
+
+  /**
+   * @param al_items numero di valori (0..al_items-1)
+   * @param ad_theta parametro di asimmetria, compreso tra 0 e 1 (esclusi)
+   */
+	ZipfianGenerator(long al_items, double ad_theta) {
+		if (al_items <= 0 || ad_theta <= 0 || ad_theta >= 1) {
+			throw new IllegalArgumentException("Parametri Zipf non validi: items " + al_items + ", theta " + ad_theta);
+		}
+		ml_items = al_items;
+		md_theta = ad_theta;
+		md_zetan = zeta(al_items, ad_theta);
+		double ld_zeta2 = zeta(2, ad_theta);
+		md_alpha = 1.0 / (1.0 - ad_theta);
+		md_eta = (1 - Math.pow(2.0 / al_items, 1 - ad_theta)) / (1 - ld_zeta2 / md_zetan);
+		md_half_pow_theta = Math.pow(0.5, ad_theta);
+	}
+
+  /**
+   * @param aRandom generatore di numeri casuali del thread chiamante
+   * @return long valore estratto tra 0 e items-1
+   */
+	public long next(Random aRandom) {
+		double ld_u = aRandom.nextDouble();
+		double ld_uz = ld_u * md_zetan;
+		if (ld_uz < 1.0) {
+			return 0;
+		}
+		if (ld_uz < 1.0 + md_half_pow_theta) {
+			return Math.min(1, ml_items - 1);
+		}
+		long l_value = (long) (ml_items * Math.pow(md_eta * ld_u - md_eta + 1, md_alpha));
+		return Math.min(l_value, ml_items - 1);
+	}
+
+	public long getItems() {
+		return ml_items;
+	}
+
+	public double getTheta() {
+		return md_theta;
+	}
+
+	static double zeta(long al_items, double ad_theta) {
+		double ld_sum = 0;
+		for (long i=1; i<=al_items; i++) {
+			ld_sum += 1.0 / Math.pow(i, ad_theta);
+		}
+		return ld_sum;
+	}
+}
@@ -0,0 +1,44 @@
+package it.test.jdbcPostgreSQL;
+
+import java.util.Arrays;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for BenchConfig.
+ */
+public class BenchConfigTest
+    extends TestCase
+{
+    public BenchConfigTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( BenchConfigTest.class );
+    }
+
+    public void testParseIntList()
+    {
+        assertEquals(0, BenchConfig.parseIntList(null).length);
+        assertEquals(0, BenchConfig.parseIntList(" ").length);
+        assertTrue(Arrays.equals(new int[] {1, 2, 4, 8}, BenchConfig.parseIntList("1, 2,4,8")));
+    }
+
+    public void testParseIntRanges()
+    {
+        assertTrue(Arrays.equals(new int[] {1, 2, 3, 4}, BenchConfig.parseIntList("1..4")));
+        assertTrue(Arrays.equals(new int[] {1000, 6000, 11000, 16000}, BenchConfig.parseIntList("1000..20000+5000")));
+        assertTrue(Arrays.equals(new int[] {100, 1000, 10000, 5}, BenchConfig.parseIntList("100..10000x10, 5")));
+        try {
+            BenchConfig.parseIntList("1..10x1");
+            fail();
+        } catch (NumberFormatException e) {
+            // passo moltiplicativo non valido
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package it.test.jdbcPostgreSQL;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for BufferedRowGenerator.
+ */
+public class BufferedRowGeneratorTest
+    extends TestCase
+{
+    public BufferedRowGeneratorTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( BufferedRowGeneratorTest.class );
+    }
+
+    public void testSameValuesAsConcat()
+    {
+        RowGenerator buffered = RowGenerator.Type.BUFFERED.create();
+        RowGenerator concat = RowGenerator.Type.CONCAT.create();
+        buffered.startRun();
+        int[] ids = {0, 1, 9, 10, 12345, 1999999, Integer.MAX_VALUE, -7, Integer.MIN_VALUE};
+        for (int id : ids) {
+            assertEquals(concat.name(id), buffered.name(id));
+            assertEquals(concat.surname(id), buffered.surname(id));
+        }
+        // valori piu' corti dopo valori piu' lunghi: il buffer non deve lasciare cifre residue
+        assertEquals("test_name5", buffered.name(5));
+    }
+
+    public void testDateCachedPerRun()
+    {
+        RowGenerator buffered = RowGenerator.Type.BUFFERED.create();
+        buffered.startRun();
+        assertSame(buffered.date(), buffered.date());
+    }
+}
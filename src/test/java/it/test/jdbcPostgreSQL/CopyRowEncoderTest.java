@@ -0,0 +1,118 @@
+package it.test.jdbcPostgreSQL;
+
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for CopyRowEncoder.
+ */
+public class CopyRowEncoderTest
+    extends TestCase
+{
+    public CopyRowEncoderTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( CopyRowEncoderTest.class );
+    }
+
+    public void testTextRow()
+    {
+        CopyRowEncoder encoder = new CopyRowEncoder(CopyRowEncoder.Format.TEXT, 16);
+        encoder.setDate(java.sql.Date.valueOf("2016-09-18"));
+        encoder.writeHeader();
+        encoder.appendRow(7);
+        encoder.appendRow(1234567);
+        encoder.writeTrailer();
+        String text = new String(encoder.getBuffer(), 0, encoder.size(), StandardCharsets.US_ASCII);
+        assertEquals("7\ttest_name7\ttest_surname7\t2016-09-18\n"
+                + "1234567\ttest_name1234567\ttest_surname1234567\t2016-09-18\n", text);
+
+        encoder.reset();
+        assertEquals(0, encoder.size());
+    }
+
+    public void testBinaryRow()
+    {
+        CopyRowEncoder encoder = new CopyRowEncoder(CopyRowEncoder.Format.BINARY, 16);
+        encoder.setDate(java.sql.Date.valueOf("2000-01-02"));
+        encoder.writeHeader();
+        assertEquals(19, encoder.size());
+        encoder.appendRow(42);
+        encoder.writeTrailer();
+
+        byte[] buf = encoder.getBuffer();
+        // numero di campi
+        assertEquals(4, (buf[19] << 8) | buf[20]);
+        // ID: lunghezza 4, valore 42
+        assertEquals(4, buf[24]);
+        assertEquals(42, buf[28]);
+        // NAME: lunghezza "test_name42"
+        assertEquals(11, buf[32]);
+        // CREATED_DATE: 1 giorno dopo il 2000-01-01
+        assertEquals(1, buf[encoder.size() - 3]);
+        // trailer
+        assertEquals((byte) 0xFF, buf[encoder.size() - 1]);
+        assertEquals((byte) 0xFF, buf[encoder.size() - 2]);
+        assertTrue(encoder.copySQL("TEST_TABLE").endsWith("WITH (FORMAT binary)"));
+    }
+
+    public void testBigintRow()
+    {
+        CopyRowEncoder encoder = new CopyRowEncoder(CopyRowEncoder.Format.BINARY, 16);
+        encoder.setDate(java.sql.Date.valueOf("2000-01-02"));
+        encoder.appendBigintRow(5000000000L);
+        byte[] buf = encoder.getBuffer();
+        // ID: lunghezza 8, valore 0x00000001 2A05F200
+        assertEquals(8, buf[5]);
+        assertEquals(1, buf[9]);
+        assertEquals((byte) 0x2A, buf[10]);
+        assertEquals((byte) 0x00, buf[13]);
+        // NAME: lunghezza "test_name5000000000"
+        assertEquals(19, buf[17]);
+
+        encoder = new CopyRowEncoder(CopyRowEncoder.Format.TEXT, 16);
+        encoder.setDate(java.sql.Date.valueOf("2016-09-18"));
+        encoder.appendBigintRow(5000000000L);
+        assertEquals("5000000000\ttest_name5000000000\ttest_surname5000000000\t2016-09-18\n",
+                new String(encoder.getBuffer(), 0, encoder.size(), StandardCharsets.US_ASCII));
+    }
+
+    public void testPayload()
+    {
+        CopyRowEncoder encoder = new CopyRowEncoder(CopyRowEncoder.Format.TEXT, 16);
+        encoder.setDate(java.sql.Date.valueOf("2016-09-18"));
+        encoder.setPayload(10);
+        assertTrue(encoder.copySQL("T").startsWith("COPY T (id, name, surname, created_date, payload) FROM STDIN"));
+        encoder.appendBigintRow(7);
+        String payload = CopyRowEncoder.payload(7, 10);
+        assertEquals(10, payload.length());
+        assertTrue(payload.matches("[a-zA-Z]+"));
+        assertEquals("7\ttest_name7\ttest_surname7\t2016-09-18\t" + payload + "\n",
+                new String(encoder.getBuffer(), 0, encoder.size(), StandardCharsets.US_ASCII));
+        // righe diverse hanno PAYLOAD diversi
+        assertFalse(payload.equals(CopyRowEncoder.payload(8, 10)));
+
+        encoder = new CopyRowEncoder(CopyRowEncoder.Format.BINARY, 16);
+        encoder.setPayload(10);
+        encoder.appendBigintRow(7);
+        // 5 campi, PAYLOAD in coda preceduto dalla lunghezza
+        assertEquals(5, encoder.getBuffer()[1]);
+        assertEquals(payload, new String(encoder.getBuffer(), encoder.size() - 10, 10, StandardCharsets.US_ASCII));
+    }
+
+    public void testDigits()
+    {
+        assertEquals(1, CopyRowEncoder.digits(0));
+        assertEquals(1, CopyRowEncoder.digits(9));
+        assertEquals(2, CopyRowEncoder.digits(10));
+        assertEquals(7, CopyRowEncoder.digits(2000000));
+        assertEquals(2, CopyRowEncoder.digits(-1));
+    }
+}
@@ -0,0 +1,74 @@
+package it.test.jdbcPostgreSQL;
+
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for KeyDistribution and ZipfianGenerator.
+ */
+public class KeyDistributionTest
+    extends TestCase
+{
+    public KeyDistributionTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( KeyDistributionTest.class );
+    }
+
+    public void testZipfianSkew()
+    {
+        ZipfianGenerator zipf = new ZipfianGenerator(1000, ZipfianGenerator.DEFAULT_THETA);
+        Random random = new Random(42);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 100000; i++) {
+            long value = zipf.next(random);
+            assertTrue(value >= 0 && value < 1000);
+            counts[(int) value]++;
+        }
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[10]);
+        // le prime 10 chiavi ricevono una quota rilevante degli accessi
+        int top = 0;
+        for (int i = 0; i < 10; i++) {
+            top += counts[i];
+        }
+        assertTrue(top > 30000);
+    }
+
+    public void testKeysWithinRange()
+    {
+        Random random = new Random(7);
+        for (KeyDistribution.Type type : KeyDistribution.Type.values()) {
+            KeyDistribution keys = new KeyDistribution(type, 100, ZipfianGenerator.DEFAULT_THETA);
+            for (int i = 0; i < 10000; i++) {
+                int key = keys.nextKey(random, 150);
+                assertTrue(type + ":" + key, key >= 1 && key <= 150);
+            }
+        }
+        KeyDistribution latest = new KeyDistribution(KeyDistribution.Type.LATEST, 100, ZipfianGenerator.DEFAULT_THETA);
+        int recent = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (latest.nextKey(random, 150) > 140) {
+                recent++;
+            }
+        }
+        assertTrue(recent > 500);
+    }
+
+    public void testChooseOperation()
+    {
+        int[] ratios = {70, 20, 5, 5};
+        assertEquals(MixedWorkload.Operation.SELECT, MixedWorkload.choose(ratios, 0));
+        assertEquals(MixedWorkload.Operation.SELECT, MixedWorkload.choose(ratios, 69));
+        assertEquals(MixedWorkload.Operation.UPDATE, MixedWorkload.choose(ratios, 70));
+        assertEquals(MixedWorkload.Operation.INSERT, MixedWorkload.choose(ratios, 90));
+        assertEquals(MixedWorkload.Operation.DELETE, MixedWorkload.choose(ratios, 99));
+    }
+}
@@ -0,0 +1,88 @@
+package it.test.jdbcPostgreSQL;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for LatencyHistogram.
+ */
+public class LatencyHistogramTest
+    extends TestCase
+{
+    public LatencyHistogramTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( LatencyHistogramTest.class );
+    }
+
+    public void testSmallValuesAreExact()
+    {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            h.record(i);
+        }
+        assertEquals(100, h.getCount());
+        assertEquals(1, h.getMin());
+        assertEquals(100, h.getMax());
+        assertEquals(50.5, h.getMean(), 0.0);
+        assertEquals(29.0115, h.getStdDev(), 0.0001);
+        assertEquals(50, h.getValueAtPercentile(50.0));
+        assertEquals(99, h.getValueAtPercentile(99.0));
+        assertEquals(100, h.getValueAtPercentile(100.0));
+    }
+
+    public void testRelativeErrorBelowOnePercent()
+    {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 1000000; v++) {
+            h.record(v * 1000);
+        }
+        double[] percentiles = {50.0, 90.0, 99.0, 99.9, 99.99};
+        for (double p : percentiles) {
+            double expected = p / 100.0 * 1000000 * 1000;
+            long actual = h.getValueAtPercentile(p);
+            assertTrue("p" + p + "=" + actual, Math.abs(actual - expected) / expected < 0.01);
+        }
+    }
+
+    public void testBucketBoundaries()
+    {
+        long[] values = {0, 1, 127, 128, 129, 255, 256, 1000000007L, Long.MAX_VALUE};
+        for (long v : values) {
+            int index = LatencyHistogram.bucketIndex(v);
+            assertTrue(LatencyHistogram.lowestEquivalentValue(index) <= v);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= v);
+        }
+    }
+
+    public void testMerge()
+    {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            a.record(i);
+            b.record(i + 50);
+        }
+        a.merge(b);
+        assertEquals(100, a.getCount());
+        assertEquals(1, a.getMin());
+        assertEquals(100, a.getMax());
+        assertEquals(90, a.getValueAtPercentile(90.0));
+    }
+
+    public void testEmptyAndReset()
+    {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getValueAtPercentile(99.0));
+        assertEquals(0, h.getMin());
+        h.record(42);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0.0, h.getMean(), 0.0);
+    }
+}
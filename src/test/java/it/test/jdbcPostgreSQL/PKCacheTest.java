@@ -0,0 +1,117 @@
+package it.test.jdbcPostgreSQL;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for PKCache.
+ */
+public class PKCacheTest
+    extends TestCase
+{
+    public PKCacheTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( PKCacheTest.class );
+    }
+
+    public void testLruEviction()
+    {
+        PKCache<String> cache = new PKCache<String>(PKCache.Policy.LRU, 3, 1);
+        cache.put(1, "a", cache.stamp(1));
+        cache.put(2, "b", cache.stamp(2));
+        cache.put(3, "c", cache.stamp(3));
+        assertEquals("a", cache.get(1));
+        cache.put(4, "d", cache.stamp(4));
+        // la riga 2 e' quella usata meno di recente
+        assertNull(cache.get(2));
+        assertEquals("a", cache.get(1));
+        assertEquals("c", cache.get(3));
+        assertEquals("d", cache.get(4));
+        long[] stats = cache.getStats();
+        assertEquals(3, stats[0]);
+        assertEquals(4, stats[1]);
+        assertEquals(1, stats[2]);
+        assertEquals(1, stats[3]);
+    }
+
+    public void testInvalidation()
+    {
+        PKCache<String> cache = new PKCache<String>(PKCache.Policy.LRU, 10, 1);
+        cache.put(5, "old", cache.stamp(5));
+        long stamp = cache.stamp(5);
+        cache.invalidate(5);
+        assertNull(cache.get(5));
+        // una lettura dal DB iniziata prima dell'invalidazione non inserisce il valore precedente
+        assertFalse(cache.put(5, "old", stamp));
+        assertNull(cache.get(5));
+        assertTrue(cache.put(5, "new", cache.stamp(5)));
+        assertEquals("new", cache.get(5));
+    }
+
+    public void testTinyLfuKeepsHotKeys()
+    {
+        for (PKCache.Policy policy : PKCache.Policy.values()) {
+            PKCache<Integer> cache = new PKCache<Integer>(policy, 100, 1);
+            for (int round = 0; round < 20; round++) {
+                for (int key = 1; key <= 50; key++) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key, cache.stamp(key));
+                    }
+                }
+            }
+            // scansione di chiavi lette una sola volta, con un accesso a una chiave calda ogni 3
+            for (int key = 1000; key < 31000; key++) {
+                int[] keys = key % 3 == 0 ? new int[] {key, 1 + key / 3 % 50} : new int[] {key};
+                for (int k : keys) {
+                    if (cache.get(k) == null) {
+                        cache.put(k, k, cache.stamp(k));
+                    }
+                }
+            }
+            int hot = 0;
+            for (int key = 1; key <= 50; key++) {
+                if (cache.get(key) != null) {
+                    hot++;
+                }
+            }
+            if (policy == PKCache.Policy.LRU) {
+                // restano solo le chiavi calde lette nelle ultime 100 operazioni
+                assertTrue("righe calde rimaste in cache: " + hot, hot <= 30);
+            } else {
+                assertTrue("righe calde rimaste in cache: " + hot, hot >= 45);
+            }
+            assertTrue(cache.getStats()[0] <= 100);
+        }
+    }
+
+    public void testMatchesMap()
+    {
+        PKCache<Integer> cache = new PKCache<Integer>(PKCache.Policy.LRU, 4096, 4);
+        Map<Integer, Integer> reference = new HashMap<Integer, Integer>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            int op = random.nextInt(3);
+            if (op == 0) {
+                cache.put(key, i, cache.stamp(key));
+                reference.put(key, i);
+            } else if (op == 1) {
+                cache.invalidate(key);
+                reference.remove(key);
+            } else {
+                assertEquals(reference.get(key), cache.get(key));
+            }
+        }
+        assertEquals(reference.size(), cache.getStats()[0]);
+    }
+}
@@ -0,0 +1,120 @@
+package it.test.jdbcPostgreSQL;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for BenchReport and ResultsCompare.
+ */
+public class ResultsCompareTest
+    extends TestCase
+{
+    public ResultsCompareTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( ResultsCompareTest.class );
+    }
+
+    public void testWelchPValue()
+    {
+        // t = 2.236 con 18 gradi di liberta'
+        assertEquals(0.0382, ResultsCompare.welchPValue(10, 4, 10, 12, 4, 10), 0.0005);
+        // campioni molto numerosi: distribuzione normale
+        assertEquals(0.05, ResultsCompare.welchPValue(0, 1, 1000000, 1.959964 * Math.sqrt(2.0 / 1000000), 1, 1000000), 0.0005);
+        assertEquals(1.0, ResultsCompare.welchPValue(5, 1, 10, 5, 1, 10), 1e-9);
+        assertEquals(0.0, ResultsCompare.welchPValue(5, 0, 10, 6, 0, 10), 0.0);
+    }
+
+    public void testCompareRunsUsesExecutions()
+    {
+        ResultsCompare compare = new ResultsCompare();
+        List<Double> base = java.util.Arrays.asList(100.0, 101.0, 99.0);
+        List<Double> slower = java.util.Arrays.asList(120.0, 121.0, 119.0);
+        assertEquals(1, compare.compareRuns("t:", base, slower, true));
+        assertEquals(0, compare.compareRuns("t:", base, base, true));
+        // una sola esecuzione per gruppo: nessun test, nessuna regressione
+        assertEquals(0, compare.compareRuns("t:", java.util.Arrays.asList(100.0), java.util.Arrays.asList(200.0), true));
+        // variazione ampia ma non significativa tra esecuzioni molto variabili
+        assertEquals(0, compare.compareRuns("t:", java.util.Arrays.asList(50.0, 150.0), java.util.Arrays.asList(80.0, 180.0), true));
+    }
+
+    public void testCompareCountsMissingOperations()
+    {
+        ResultsCompare compare = new ResultsCompare();
+        Map<String, ResultsCompare.Group> base = new java.util.LinkedHashMap<String, ResultsCompare.Group>();
+        base.put("SELECT per PK / select", group(100.0, 1000.0));
+        base.put("INSERT batch / executeBatch", group(200.0, 500.0));
+        Map<String, ResultsCompare.Group> candidate = new java.util.LinkedHashMap<String, ResultsCompare.Group>();
+        candidate.put("SELECT per PK / select", group(100.0, 1000.0));
+        assertEquals(0, compare.compare(base, base));
+        // fase assente nel gruppo confrontato
+        assertEquals(1, compare.compare(base, candidate));
+        // fase presente ma senza operazioni misurate
+        candidate.put("INSERT batch / executeBatch", new ResultsCompare.Group());
+        assertEquals(1, compare.compare(base, candidate));
+    }
+
+    // gruppo con una sola esecuzione
+    private static ResultsCompare.Group group(double mean, double throughput)
+    {
+        ResultsCompare.Group group = new ResultsCompare.Group();
+        group.ml_count = 10;
+        group.mMeans.add(mean);
+        group.mThroughputs.add(throughput);
+        return group;
+    }
+
+    public void testCsvRoundTrip() throws Exception
+    {
+        BenchReport report = new BenchReport();
+        BenchResult result = new BenchResult();
+        for (int i = 1; i <= 100; i++) {
+            result.record(i * 1000);
+        }
+        result.setWallTime(1000000000L);
+        report.beginPhase("SELECT, per PK");
+        report.add("select", result);
+        report.add("select", result);
+        report.endPhase();
+        // i risultati del riscaldamento non vengono registrati
+        report.beginPhase("SELECT, per PK", 0);
+        report.add("select", result);
+        report.endPhase();
+        report.beginPhase("SELECT, per PK", 2);
+        report.add("select", result);
+        report.endPhase();
+
+        File file = File.createTempFile("results", ".csv");
+        try {
+            report.writeCsv(file.getPath());
+            List<BenchReport.Entry> entries = BenchReport.readCsv(file.getPath());
+            assertEquals(3, entries.size());
+            assertEquals("SELECT, per PK", entries.get(0).msPhase);
+            assertEquals("select (2)", entries.get(1).msOperation);
+            assertEquals(1, entries.get(1).mi_trial);
+            assertEquals("select", entries.get(2).msOperation);
+            assertEquals(2, entries.get(2).mi_trial);
+            assertEquals(100, entries.get(0).ml_count);
+            assertEquals(100.0, entries.get(0).md_throughput, 1e-9);
+            assertEquals(50500.0, entries.get(0).md_mean, 1e-9);
+
+            Map<String, ResultsCompare.Group> groups = ResultsCompare.load(file.getPath() + "," + file.getPath());
+            ResultsCompare.Group group = groups.get("SELECT, per PK / select");
+            assertEquals(400, group.ml_count);
+            assertEquals(4, group.mMeans.size());
+            assertEquals(50500.0, group.mMeans.get(3), 1e-6);
+            assertEquals(4, group.mThroughputs.size());
+        } finally {
+            file.delete();
+        }
+    }
+}
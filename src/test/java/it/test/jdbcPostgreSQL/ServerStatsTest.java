@@ -0,0 +1,68 @@
+package it.test.jdbcPostgreSQL;
+
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for ServerStats.
+ */
+public class ServerStatsTest
+    extends TestCase
+{
+    public ServerStatsTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( ServerStatsTest.class );
+    }
+
+    public void testDelta()
+    {
+        ServerStats.Snapshot before = new ServerStats.Snapshot();
+        before.ml_relid = 100;
+        before.mValues.put("wal.bytes", 1000.0);
+        before.mValues.put("database.xact_commit", 10.0);
+        before.mValues.put("database.blks_read", 5.0);
+        before.mValues.put("table.n_tup_ins", 50.0);
+
+        ServerStats.Snapshot after = new ServerStats.Snapshot();
+        after.ml_relid = 100;
+        after.mValues.put("wal.bytes", 4096.0);
+        after.mValues.put("database.xact_commit", 12.0);
+        after.mValues.put("database.blks_read", 5.0);
+        after.mValues.put("table.n_tup_ins", 80.0);
+        after.mValues.put("statements.calls", 3.0);
+
+        Map<String, Double> delta = ServerStats.delta(before, after);
+        assertEquals(3096.0, delta.get("wal.bytes"));
+        assertEquals(2.0, delta.get("database.xact_commit"));
+        // le differenze nulle non vengono riportate
+        assertFalse(delta.containsKey("database.blks_read"));
+        assertEquals(30.0, delta.get("table.n_tup_ins"));
+        // valori assenti nella prima rilevazione partono da zero
+        assertEquals(3.0, delta.get("statements.calls"));
+    }
+
+    public void testDeltaRecreatedTable()
+    {
+        ServerStats.Snapshot before = new ServerStats.Snapshot();
+        before.ml_relid = 100;
+        before.mValues.put("database.tup_inserted", 1000.0);
+        before.mValues.put("table.n_tup_ins", 1000.0);
+
+        ServerStats.Snapshot after = new ServerStats.Snapshot();
+        after.ml_relid = 200;
+        after.mValues.put("database.tup_inserted", 1300.0);
+        after.mValues.put("table.n_tup_ins", 300.0);
+
+        Map<String, Double> delta = ServerStats.delta(before, after);
+        assertEquals(300.0, delta.get("database.tup_inserted"));
+        assertEquals(300.0, delta.get("table.n_tup_ins"));
+    }
+}
@@ -0,0 +1,82 @@
+package it.test.jdbcPostgreSQL;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for TableSchema.
+ */
+public class TableSchemaTest
+    extends TestCase
+{
+    public TableSchemaTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( TableSchemaTest.class );
+    }
+
+    public void testDefaultSchema()
+    {
+        String sql = TableSchema.DEFAULT.createSQL("T");
+        assertTrue(sql.startsWith("CREATE TABLE IF NOT EXISTS T(ID INTEGER CONSTRAINT T_pk PRIMARY KEY, "));
+        assertFalse(sql.contains("INDEX"));
+        assertFalse(sql.contains("PARTITION"));
+        assertEquals(sql, TableSchema.parse("base").createSQL("T"));
+    }
+
+    public void testVariants()
+    {
+        String sql = TableSchema.parse("bigint+unlogged+fillfactor=70+indexes").createSQL("T");
+        assertTrue(sql.startsWith("CREATE UNLOGGED TABLE IF NOT EXISTS T(ID BIGINT "));
+        assertTrue(sql.contains(") WITH (fillfactor=70);"));
+        assertTrue(sql.contains("CREATE INDEX T_name_idx ON T(NAME);"));
+        assertTrue(sql.contains("CREATE INDEX T_surname_idx ON T(SURNAME);"));
+
+        sql = TableSchema.parse("uuid").createSQL("T");
+        assertTrue(sql.contains("PK UUID DEFAULT gen_random_uuid() CONSTRAINT T_pk PRIMARY KEY, ID INTEGER NOT NULL"));
+        assertTrue(sql.contains("CREATE UNIQUE INDEX T_id_idx ON T(ID);"));
+
+        // partizioni: unlogged e fillfactor sulle partizioni, indice su ID non unico
+        sql = TableSchema.parse("uuid+unlogged+hash=2").createSQL("T");
+        assertTrue(sql.startsWith("CREATE TABLE IF NOT EXISTS T("));
+        assertTrue(sql.contains(") PARTITION BY HASH (PK);"));
+        assertTrue(sql.contains("CREATE UNLOGGED TABLE T_p1 PARTITION OF T FOR VALUES WITH (MODULUS 2, REMAINDER 1);"));
+        assertTrue(sql.contains("CREATE INDEX T_id_idx ON T(ID);"));
+        assertEquals("uuid+unlogged+hash=2", TableSchema.parse("uuid+unlogged+hash=2").getName());
+    }
+
+    public void testPayload()
+    {
+        TableSchema schema = TableSchema.parse("bigint+payload=200");
+        assertEquals(200, schema.getPayload());
+        assertTrue(schema.createSQL("T").contains("CREATED_DATE DATE NOT NULL, PAYLOAD VARCHAR(200) )"));
+        assertEquals(0, TableSchema.DEFAULT.getPayload());
+    }
+
+    public void testInvalidVariant()
+    {
+        try {
+            TableSchema.parse("indexes+gin");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // atteso
+        }
+        try {
+            TableSchema.parse("fillfactor=5");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // atteso
+        }
+        try {
+            TableSchema.parse("bigint+payload=" + (TableSchema.MAX_PAYLOAD + 1));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // atteso
+        }
+    }
+}
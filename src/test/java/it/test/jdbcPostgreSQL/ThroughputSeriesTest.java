@@ -0,0 +1,65 @@
+package it.test.jdbcPostgreSQL;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for ThroughputSeries.
+ */
+public class ThroughputSeriesTest
+    extends TestCase
+{
+    private static final long SECOND = 1000000000L;
+
+    public ThroughputSeriesTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( ThroughputSeriesTest.class );
+    }
+
+    public void testRecordPerInterval()
+    {
+        ThroughputSeries series = new ThroughputSeries(SECOND, 1000);
+        series.record(1000 + SECOND / 2, 100);
+        series.record(1000 + SECOND - 1, 100);
+        series.record(1000 + 2 * SECOND + SECOND / 2, 50);
+        assertEquals(3, series.getIntervals());
+        assertEquals(200.0, series.getRate(0), 0.001);
+        assertEquals(0.0, series.getRate(1), 0.001);
+        // ultimo intervallo incompleto: durata effettiva di mezzo secondo
+        assertEquals(100.0, series.getRate(2), 0.001);
+    }
+
+    public void testResetClearsIntervals()
+    {
+        ThroughputSeries series = new ThroughputSeries(SECOND, 0);
+        series.record(SECOND / 2, 100);
+        series.record(SECOND + SECOND / 2, 100);
+        series.reset(10 * SECOND);
+        assertEquals(0, series.getIntervals());
+        assertEquals(10 * SECOND, series.getStart());
+        series.record(10 * SECOND + SECOND / 2, 50);
+        assertEquals(1, series.getIntervals());
+        assertEquals(100.0, series.getRate(0), 0.001);
+    }
+
+    public void testMergeAlignsOnEarliestStart()
+    {
+        ThroughputSeries late = new ThroughputSeries(SECOND, 5 * SECOND);
+        late.record(5 * SECOND + 10, 10);
+        ThroughputSeries early = new ThroughputSeries(SECOND, 3 * SECOND);
+        early.record(3 * SECOND + 10, 20);
+        early.record(5 * SECOND + 10, 30);
+
+        late.merge(early);
+        assertEquals(3 * SECOND, late.getStart());
+        assertEquals(3, late.getIntervals());
+        assertEquals(20.0, late.getRate(0), 0.001);
+        assertEquals(0.0, late.getRate(1), 0.001);
+    }
+}
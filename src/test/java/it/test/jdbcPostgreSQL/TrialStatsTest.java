@@ -0,0 +1,45 @@
+package it.test.jdbcPostgreSQL;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for TrialStats.
+ */
+public class TrialStatsTest
+    extends TestCase
+{
+    public TrialStatsTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( TrialStatsTest.class );
+    }
+
+    public void testStudentQuantile()
+    {
+        assertEquals(12.706, TrialStats.studentQuantile(0.975, 1), 0.001);
+        assertEquals(2.776, TrialStats.studentQuantile(0.975, 4), 0.001);
+        assertEquals(1.960, TrialStats.studentQuantile(0.975, 100000), 0.001);
+    }
+
+    public void testConfidenceInterval()
+    {
+        TrialStats stats = new TrialStats();
+        stats.add(100);
+        assertEquals(0.0, stats.getConfidenceHalfWidth(0.95), 0.0);
+        for (double value : new double[] {102, 98, 101, 99}) {
+            stats.add(value);
+        }
+        assertEquals(100.0, stats.getMean(), 1e-9);
+        assertEquals(Math.sqrt(2.5), stats.getStdDev(), 1e-9);
+        // t(0.975, 4) * s / sqrt(5)
+        assertEquals(2.7764 * Math.sqrt(2.5) / Math.sqrt(5), stats.getConfidenceHalfWidth(0.95), 0.001);
+        assertEquals(98.0, stats.getMin(), 0.0);
+        assertEquals(102.0, stats.getMax(), 0.0);
+    }
+}